@@ -8,6 +8,7 @@ import javax.enterprise.context.ApplicationScoped;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.Properties;
+import java.util.logging.Logger;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-02.
@@ -15,6 +16,8 @@ import java.util.Properties;
 @ApplicationScoped
 public class Configuration {
 
+    private static final Logger log = Logger.getLogger(Configuration.class.getName());
+
     public static final String CONFIG_SYSPROP = "pnc-config-file";
     
     private Properties properties;
@@ -33,6 +36,53 @@ public class Configuration {
     }
 
 
+    /**
+     * @return value of the numeric property or the default value if the property is not set or is not a number
+     */
+    public static long getLong(Properties properties, String key, long defaultValue) {
+        return getLong(properties, key, defaultValue, Long.MIN_VALUE);
+    }
+
+    /**
+     * @param minValue values lower than the minimum are replaced by the default value
+     * @return value of the numeric property or the default value if the property is not set or is not valid
+     */
+    public static long getLong(Properties properties, String key, long defaultValue, long minValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= minValue) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            //logged below
+        }
+        log.warning("Invalid value " + value + " for " + key + ", using default " + defaultValue + ".");
+        return defaultValue;
+    }
+
+    /**
+     * @see #getLong(Properties, String, long)
+     */
+    public static int getInt(Properties properties, String key, int defaultValue) {
+        return getInt(properties, key, defaultValue, Integer.MIN_VALUE);
+    }
+
+    /**
+     * @see #getLong(Properties, String, long, long)
+     */
+    public static int getInt(Properties properties, String key, int defaultValue, int minValue) {
+        long value = getLong(properties, key, defaultValue, minValue);
+        if (value > Integer.MAX_VALUE) {
+            log.warning("Invalid value " + value + " for " + key + ", using default " + defaultValue + ".");
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
     private void readConfigurationFile() throws IOException {
 
         String configString = IoUtils.readFileOrResource(CONFIG_SYSPROP, "pnc-config.ini", getClass().getClassLoader()); //TODO use json instead
@@ -0,0 +1,39 @@
+package org.jboss.pnc.common.test;
+
+import org.jboss.pnc.common.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+
+public class ConfigurationTest {
+
+    @Test
+    public void shouldReadNumericProperty() {
+        //given
+        Properties properties = new Properties();
+        properties.setProperty("threads", " 8 ");
+
+        //when
+        int threads = Configuration.getInt(properties, "threads", 4);
+
+        //then
+        Assert.assertEquals(8, threads);
+    }
+
+    @Test
+    public void shouldUseDefaultForMissingOrInvalidProperty() {
+        //given
+        Properties properties = new Properties();
+        properties.setProperty("empty", "");
+        properties.setProperty("invalid", "four");
+        properties.setProperty("negative", "-1");
+
+        //then
+        Assert.assertEquals(4L, Configuration.getLong(properties, "missing", 4L));
+        Assert.assertEquals(4L, Configuration.getLong(properties, "empty", 4L));
+        Assert.assertEquals(4L, Configuration.getLong(properties, "invalid", 4L));
+        Assert.assertEquals(4, Configuration.getInt(properties, "negative", 4, 1));
+        Assert.assertEquals(-1, Configuration.getInt(properties, "negative", 4));
+    }
+}
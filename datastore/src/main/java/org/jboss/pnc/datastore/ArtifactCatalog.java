@@ -0,0 +1,33 @@
+package org.jboss.pnc.datastore;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import java.util.List;
+
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
+import org.jboss.pnc.model.Artifact;
+
+/**
+ * Adds new artifacts to the artifact catalog shared by all the build records.
+ *
+ * The artifacts are inserted in their own transaction, so when another build inserts the same artifact concurrently only
+ * this insert fails and the build record being stored can look the artifacts up again.
+ */
+@Stateless
+public class ArtifactCatalog {
+
+    @Inject
+    ArtifactRepository artifactRepository;
+
+    /**
+     * @param artifacts new artifacts with a checksum and an identifier
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void add(List<Artifact> artifacts) {
+        artifactRepository.save(artifacts);
+        artifactRepository.flush();
+    }
+}
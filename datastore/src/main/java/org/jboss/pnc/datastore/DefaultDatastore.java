@@ -1,23 +1,248 @@
 package org.jboss.pnc.datastore;
 
+import javax.ejb.EJBException;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.inject.Inject;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.datastore.repositories.BuildRecordRepository;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.spi.datastore.Datastore;
+import org.springframework.data.domain.PageRequest;
 
 @Stateless
 public class DefaultDatastore implements Datastore {
 
+    private static final Logger log = Logger.getLogger(DefaultDatastore.class.getName());
+
+    /**
+     * Maximum number of checksums looked up in the artifact catalog at once
+     */
+    private static final int CATALOG_LOOKUP_SIZE = 500;
+
+    /**
+     * Number of attempts to add new artifacts to the catalog when other builds add the same artifacts concurrently
+     */
+    private static final int CATALOG_ATTEMPTS = 3;
+
+    /**
+     * SQLSTATE class of integrity constraint violations
+     */
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
     @Inject
     BuildRecordRepository buildRecordRepository;
 
+    @Inject
+    ArtifactRepository artifactRepository;
+
+    @Inject
+    ArtifactCatalog artifactCatalog;
+
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
     public void storeCompletedBuild(BuildRecord buildRecord) {
+        linkCatalogArtifacts(buildRecord);
         buildRecordRepository.save(buildRecord);
     }
+
+    /**
+     * Adds the artifacts which are not in the catalog yet, see {@link ArtifactCatalog}. Artifacts without a checksum or an
+     * identifier are always stored as new ones. New artifacts are inserted in JDBC batches of hibernate.jdbc.batch_size,
+     * see persistence.xml.
+     */
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<Artifact> storeArtifacts(List<Artifact> artifacts) {
+        Map<String, Artifact> catalog = addToCatalog(artifacts);
+        artifactRepository.save(findWithoutCatalogKey(artifacts));
+
+        List<Artifact> stored = new ArrayList<>(artifacts.size());
+        Set<Artifact> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Artifact artifact : artifacts) {
+            Artifact storedArtifact = resolve(artifact, catalog);
+            if (added.add(storedArtifact)) {
+                stored.add(storedArtifact);
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Links the build record to the stored artifacts, so each distinct artifact (checksum + identifier) is stored once
+     * and only linked to the build records.
+     */
+    private void linkCatalogArtifacts(BuildRecord buildRecord) {
+        List<Artifact> artifacts = new ArrayList<>();
+        artifacts.addAll(artifactsOf(buildRecord.getBuiltArtifacts()));
+        artifacts.addAll(artifactsOf(buildRecord.getDependencies()));
+        Map<String, Artifact> catalog = new HashMap<>();
+        for (Artifact stored : storeArtifacts(artifacts)) {
+            String key = catalogKey(stored);
+            if (key != null) {
+                catalog.put(key, stored);
+            }
+        }
+        buildRecord.setBuiltArtifacts(resolve(buildRecord.getBuiltArtifacts(), catalog));
+        buildRecord.setDependencies(resolve(buildRecord.getDependencies(), catalog));
+    }
+
+    private List<Artifact> artifactsOf(List<BuildRecordArtifact> links) {
+        if (links == null) {
+            return Collections.emptyList();
+        }
+        List<Artifact> artifacts = new ArrayList<>(links.size());
+        links.forEach(link -> artifacts.add(link.getArtifact()));
+        return artifacts;
+    }
+
+    private List<Artifact> findWithoutCatalogKey(List<Artifact> artifacts) {
+        List<Artifact> withoutKey = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            if (catalogKey(artifact) == null && artifact.getId() == null) {
+                withoutKey.add(artifact);
+            }
+        }
+        return withoutKey;
+    }
+
+    /**
+     * Adds the artifacts which are not in the catalog yet, see {@link ArtifactCatalog}. When another build added some of
+     * them in the meantime, the unique constraint fails the insert and the artifacts are looked up again.
+     *
+     * @return stored artifacts of the given ones by their catalog key
+     */
+    private Map<String, Artifact> addToCatalog(List<Artifact> artifacts) {
+        for (int attempt = 1;; attempt++) {
+            Map<String, Artifact> catalog = lookupCatalog(artifacts);
+            List<Artifact> missing = findMissing(artifacts, catalog);
+            if (missing.isEmpty()) {
+                return catalog;
+            }
+            try {
+                artifactCatalog.add(missing);
+            } catch (EJBException e) {
+                if (attempt == CATALOG_ATTEMPTS || !isConstraintViolation(e)) {
+                    throw e;
+                }
+                log.fine("Artifacts were added to the catalog concurrently, looking them up again: " + e.getMessage());
+                // ids were assigned by the rolled back insert
+                missing.forEach(artifact -> artifact.setId(null));
+            }
+        }
+    }
+
+    /**
+     * @return one artifact of each catalog key which is not in the catalog
+     */
+    private List<Artifact> findMissing(List<Artifact> artifacts, Map<String, Artifact> catalog) {
+        Map<String, Artifact> missing = new LinkedHashMap<>();
+        for (Artifact artifact : artifacts) {
+            String key = catalogKey(artifact);
+            if (key != null && !catalog.containsKey(key)) {
+                missing.putIfAbsent(key, artifact);
+            }
+        }
+        return new ArrayList<>(missing.values());
+    }
+
+    private static boolean isConstraintViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return stored artifacts with the checksums of the given ones by their catalog key
+     */
+    private Map<String, Artifact> lookupCatalog(List<Artifact> artifacts) {
+        Set<String> checksums = new HashSet<>();
+        for (Artifact artifact : artifacts) {
+            if (catalogKey(artifact) != null) {
+                checksums.add(artifact.getChecksum());
+            }
+        }
+
+        Map<String, Artifact> catalog = new HashMap<>();
+        List<String> lookup = new ArrayList<>(checksums);
+        for (int from = 0; from < lookup.size(); from += CATALOG_LOOKUP_SIZE) {
+            List<String> batch = lookup.subList(from, Math.min(from + CATALOG_LOOKUP_SIZE, lookup.size()));
+            for (Artifact stored : artifactRepository.findByChecksumIn(batch)) {
+                catalog.put(catalogKey(stored), stored);
+            }
+        }
+        return catalog;
+    }
+
+    /**
+     * @return the links to the catalog artifacts, artifacts without a catalog key are kept, an artifact reported more than
+     *         once is linked with the values of its first link
+     */
+    private List<BuildRecordArtifact> resolve(List<BuildRecordArtifact> links, Map<String, Artifact> catalog) {
+        if (links == null) {
+            return null;
+        }
+        List<BuildRecordArtifact> resolved = new ArrayList<>(links.size());
+        Set<Artifact> linked = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (BuildRecordArtifact link : links) {
+            Artifact catalogArtifact = resolve(link.getArtifact(), catalog);
+            if (linked.add(catalogArtifact)) {
+                resolved.add(new BuildRecordArtifact(catalogArtifact, link.getStatus(), link.getDeployUrl()));
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * @return the catalog artifact or the given one if it has no catalog key
+     */
+    private Artifact resolve(Artifact artifact, Map<String, Artifact> catalog) {
+        String key = catalogKey(artifact);
+        return key == null ? artifact : catalog.get(key);
+    }
+
+    private String catalogKey(Artifact artifact) {
+        if (artifact.getChecksum() == null || artifact.getIdentifier() == null) {
+            return null;
+        }
+        return artifact.getChecksum() + " " + artifact.getIdentifier();
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public BuildRecord getLatestSuccessfulBuildRecord(String buildContentId) {
+        List<BuildRecord> buildRecords = buildRecordRepository.findByBuildContentIdAndStatus(buildContentId,
+                BuildDriverStatus.SUCCESS, new PageRequest(0, 1));
+        return buildRecords.isEmpty() ? null : buildRecords.get(0);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<BuildRecord> getLatestSuccessfulBuildRecords(Integer buildConfigurationId, int maxResults) {
+        return buildRecordRepository.findFinishedByBuildConfigurationIdAndStatus(buildConfigurationId,
+                BuildDriverStatus.SUCCESS, new PageRequest(0, maxResults));
+    }
 }
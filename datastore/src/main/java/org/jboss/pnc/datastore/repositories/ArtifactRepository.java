@@ -1,14 +1,27 @@
 package org.jboss.pnc.datastore.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 public interface ArtifactRepository extends JpaRepository<Artifact, Integer> {
 
-    @Query("select u from Artifact u where u.buildRecord.id = ?1")
-    List<Artifact> findByBuildRecord(Integer buildRecordId);
+    @Query("select new org.jboss.pnc.model.BuildRecordArtifact(l.artifact, l.status, l.deployUrl)"
+            + " from BuildRecord br join br.builtArtifacts l where br.id = ?1")
+    List<BuildRecordArtifact> findBuiltArtifactsByBuildRecord(Integer buildRecordId);
+
+    @Query("select new org.jboss.pnc.model.BuildRecordArtifact(l.artifact, l.status, l.deployUrl)"
+            + " from BuildRecord br join br.dependencies l where br.id = ?1")
+    List<BuildRecordArtifact> findDependenciesByBuildRecord(Integer buildRecordId);
+
+    /**
+     * Uses the unique (checksum, identifier) index.
+     */
+    @Query("select a from Artifact a where a.checksum in ?1")
+    List<Artifact> findByChecksumIn(Collection<String> checksums);
 
 }
@@ -16,4 +16,7 @@ public interface BuildConfigurationRepository extends JpaRepository<BuildConfigu
 
     @Query("select u from BuildConfiguration u where u.project.id = ?1 and u.id = ?2")
     BuildConfiguration findByProjectIdAndConfigurationId(Integer projectId, Integer id);
+
+    @Query("select u from BuildConfiguration u where u.productVersion.id = ?1")
+    List<BuildConfiguration> findByProductVersionId(Integer productVersionId);
 }
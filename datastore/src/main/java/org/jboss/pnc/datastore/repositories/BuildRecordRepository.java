@@ -2,7 +2,9 @@ package org.jboss.pnc.datastore.repositories;
 
 import java.util.List;
 
+import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildRecord;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -13,4 +15,10 @@ public interface BuildRecordRepository extends JpaRepository<BuildRecord, Intege
 
     @Query("select br from BuildRecord br where br.buildConfiguration.id = ?1")
     List<BuildRecord> findByBuildConfigurationId(Integer buildConfigurationId);
+
+    @Query("select br from BuildRecord br where br.buildContentId = ?1 and br.status = ?2 order by br.id desc")
+    List<BuildRecord> findByBuildContentIdAndStatus(String buildContentId, BuildDriverStatus status, Pageable pageable);
+
+    @Query("select br from BuildRecord br where br.buildConfiguration.id = ?1 and br.status = ?2 and br.endTime is not null order by br.id desc")
+    List<BuildRecord> findFinishedByBuildConfigurationIdAndStatus(Integer buildConfigurationId, BuildDriverStatus status, Pageable pageable);
 }
@@ -0,0 +1,173 @@
+package org.jboss.pnc.datastore.repositories;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Keyset (seek) queries of entity listings.
+ *
+ * A page continues after the last row of the previous one by the value of the sorting field and the id, so the database
+ * seeks to the first row of the page in the index of the sorting field instead of reading and skipping the rows of all
+ * the previous pages. Rows are ordered by the sorting field and the id. Rows without a value of the sorting field (eg.
+ * build records stored before their end time was recorded) cannot be continued after and are not listed.
+ */
+@ApplicationScoped
+public class KeysetRepository {
+
+    public static final String ID_FIELD = "id";
+
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9]*");
+
+    private EntityManager entityManager;
+
+    @Deprecated
+    public KeysetRepository() {
+    }
+
+    @Inject
+    public KeysetRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @param condition JPQL condition on the entity aliased as e, or null to list all the entities
+     * @param afterValue value of the sorting field of the last row of the previous page
+     * @param afterId id of the last row of the previous page, null for the first page
+     */
+    public <T> List<Row<T>> findAfter(Class<T> entityClass, String condition, Map<String, Object> parameters,
+            String field, boolean ascending, Object afterValue, Integer afterId, int maxResults) {
+        return findAfter(entityClass, condition, parameters, Collections.emptyList(), field, ascending, afterValue,
+                afterId, maxResults);
+    }
+
+    /**
+     * @param values JPQL expressions on the entity aliased as e selected with each row, see {@link Row#getValues()}
+     */
+    public <T> List<Row<T>> findAfter(Class<T> entityClass, String condition, Map<String, Object> parameters,
+            List<String> values, String field, boolean ascending, Object afterValue, Integer afterId, int maxResults) {
+        checkFieldName(field);
+        String comparison = ascending ? " > " : " < ";
+        String direction = ascending ? " asc" : " desc";
+
+        List<String> conditions = listingConditions(condition, field);
+        String orderBy;
+        if (ID_FIELD.equals(field)) {
+            if (afterId != null) {
+                conditions.add("e.id" + comparison + ":afterId");
+            }
+            orderBy = " order by e.id" + direction;
+        } else {
+            if (afterId != null) {
+                conditions.add("(e." + field + comparison + ":afterValue or (e." + field + " = :afterValue and e.id"
+                        + comparison + ":afterId))");
+            }
+            orderBy = " order by e." + field + direction + ", e.id" + direction;
+        }
+
+        StringBuilder select = new StringBuilder("select e, e.").append(field).append(", e.id");
+        values.forEach(value -> select.append(", ").append(value));
+        TypedQuery<Object[]> query = entityManager.createQuery(select + " from " + entityClass.getSimpleName() + " e"
+                + where(conditions) + orderBy, Object[].class);
+        setParameters(query, parameters);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+            if (!ID_FIELD.equals(field)) {
+                query.setParameter("afterValue", afterValue);
+            }
+        }
+        query.setMaxResults(maxResults);
+
+        List<Object[]> results = query.getResultList();
+        List<Row<T>> rows = new ArrayList<>(results.size());
+        for (Object[] result : results) {
+            rows.add(new Row<>(entityClass.cast(result[0]), result[1], (Integer) result[2],
+                    Arrays.copyOfRange(result, 3, result.length)));
+        }
+        return rows;
+    }
+
+    /**
+     * @param condition JPQL condition on the entity aliased as e, or null to count all the entities
+     * @param field sorting field of the listing, rows without its value are not counted
+     */
+    public long count(Class<?> entityClass, String condition, Map<String, Object> parameters, String field) {
+        checkFieldName(field);
+        List<String> conditions = listingConditions(condition, field);
+        TypedQuery<Long> query = entityManager.createQuery("select count(e) from " + entityClass.getSimpleName() + " e"
+                + where(conditions), Long.class);
+        setParameters(query, parameters);
+        return query.getSingleResult();
+    }
+
+    private List<String> listingConditions(String condition, String field) {
+        List<String> conditions = new ArrayList<>(3);
+        if (condition != null) {
+            conditions.add("(" + condition + ")");
+        }
+        if (!ID_FIELD.equals(field)) {
+            conditions.add("e." + field + " is not null");
+        }
+        return conditions;
+    }
+
+    private String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private void setParameters(TypedQuery<?> query, Map<String, Object> parameters) {
+        if (parameters != null) {
+            parameters.forEach(query::setParameter);
+        }
+    }
+
+    private void checkFieldName(String field) {
+        if (field == null || !FIELD_NAME.matcher(field).matches()) {
+            throw new IllegalArgumentException("Invalid sorting field " + field);
+        }
+    }
+
+    /**
+     * Entity of a page with the values it is sorted by.
+     */
+    public static class Row<T> {
+
+        private final T entity;
+        private final Object sortingValue;
+        private final Integer id;
+        private final Object[] values;
+
+        Row(T entity, Object sortingValue, Integer id, Object[] values) {
+            this.entity = entity;
+            this.sortingValue = sortingValue;
+            this.id = id;
+            this.values = values;
+        }
+
+        public T getEntity() {
+            return entity;
+        }
+
+        public Object getSortingValue() {
+            return sortingValue;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        /**
+         * @return values of the expressions selected with the row, in the order they were given
+         */
+        public Object[] getValues() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+
+-- Artifacts are stored once per (checksum, identifier) and linked to the build records.
+-- Existing rows are linked to their build record by status: built artifacts to build_record_built_artifact, imported
+-- ones to build_record_dependency. Duplicates are merged into the row with the lowest id, rows without a checksum or an
+-- identifier are kept as they are. The status and the deploy url describe the artifact in its build, they are copied to
+-- the links before they are dropped from the shared rows.
+
+CREATE TABLE build_record_built_artifact (
+	build_record_id integer NOT NULL REFERENCES buildrecord(id),
+	artifact_id integer NOT NULL REFERENCES artifact(id),
+	status character varying(255),
+	deployurl character varying(255)
+);
+
+CREATE TABLE build_record_dependency (
+	build_record_id integer NOT NULL REFERENCES buildrecord(id),
+	artifact_id integer NOT NULL REFERENCES artifact(id),
+	status character varying(255),
+	deployurl character varying(255)
+);
+
+CREATE TEMPORARY TABLE artifact_catalog_id AS
+	SELECT id,
+		CASE WHEN checksum IS NULL OR identifier IS NULL THEN id
+			ELSE min(id) OVER (PARTITION BY checksum, identifier) END AS catalog_id,
+		buildrecord_id,
+		status,
+		deployurl
+	FROM artifact;
+
+-- a build record which reported an artifact twice keeps the values of its row with the lowest id
+INSERT INTO build_record_built_artifact (build_record_id, artifact_id, status, deployurl)
+	SELECT DISTINCT ON (buildrecord_id, catalog_id) buildrecord_id, catalog_id, status, deployurl
+	FROM artifact_catalog_id
+	WHERE buildrecord_id IS NOT NULL AND status = 'BINARY_BUILT'
+	ORDER BY buildrecord_id, catalog_id, id;
+
+INSERT INTO build_record_dependency (build_record_id, artifact_id, status, deployurl)
+	SELECT DISTINCT ON (buildrecord_id, catalog_id) buildrecord_id, catalog_id, coalesce(status, 'BINARY_IMPORTED'),
+		deployurl
+	FROM artifact_catalog_id
+	WHERE buildrecord_id IS NOT NULL AND (status IS NULL OR status <> 'BINARY_BUILT')
+	ORDER BY buildrecord_id, catalog_id, id;
+
+DELETE FROM artifact WHERE id IN (SELECT id FROM artifact_catalog_id WHERE id <> catalog_id);
+
+DROP TABLE artifact_catalog_id;
+
+ALTER TABLE artifact
+	DROP COLUMN buildrecord_id,
+	DROP COLUMN status,
+	DROP COLUMN deployurl,
+	ADD CONSTRAINT uk_artifact_checksum_identifier UNIQUE (checksum, identifier);
+
+CREATE INDEX idx_build_record_built_artifact_build_record ON build_record_built_artifact (build_record_id);
+CREATE INDEX idx_build_record_dependency_build_record ON build_record_dependency (build_record_id);
@@ -0,0 +1,10 @@
+
+-- Artifact ids come from artifact_id_seq with the pooled optimizer, the sequence increment has to match its increment_size.
+
+DROP SEQUENCE IF EXISTS artifact_id_seq;
+
+CREATE SEQUENCE artifact_id_seq
+	START WITH 1
+	INCREMENT BY 50;
+
+SELECT setval('artifact_id_seq', (SELECT coalesce(max(id), 0) + 50 FROM artifact));
@@ -0,0 +1,7 @@
+
+-- Build records are reused by the hash of their inputs, each dispatched build and each not yet submitted dependency
+-- looks up the last successful record with the same hash.
+
+ALTER TABLE buildrecord ADD COLUMN buildcontentid varchar(255);
+
+CREATE INDEX idx_buildrecord_buildcontentid ON buildrecord (buildcontentid);
@@ -0,0 +1,8 @@
+
+-- Keyset pages of the build record and build configuration listings seek into these indexes by the sorting field and
+-- the id. Rows without a value of the sorting field (eg. build records stored before the end time was recorded) are
+-- not listed.
+
+CREATE INDEX idx_buildrecord_endtime_id ON buildrecord (endtime, id);
+CREATE INDEX idx_buildrecord_buildconfiguration_endtime_id ON buildrecord (buildconfiguration_id, endtime, id);
+CREATE INDEX idx_buildconfiguration_project_name_id ON buildconfiguration (project_id, name, id);
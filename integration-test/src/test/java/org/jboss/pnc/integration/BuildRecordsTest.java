@@ -4,6 +4,7 @@ import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.junit.InSequence;
 import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.datastore.repositories.BuildConfigurationRepository;
 import org.jboss.pnc.datastore.repositories.BuildRecordRepository;
 import org.jboss.pnc.integration.deployments.Deployments;
@@ -41,6 +42,9 @@ public class BuildRecordsTest {
     @Inject
     private BuildConfigurationRepository buildConfigurationRepository;
 
+    @Inject
+    private ArtifactRepository artifactRepository;
+
     @Inject
     private BuildArtifactProvider buildArtifactProvider;
 
@@ -64,15 +68,14 @@ public class BuildRecordsTest {
 
         Artifact artifact = new Artifact();
         artifact.setIdentifier("test");
-        artifact.setStatus(ArtifactStatus.BINARY_BUILT);
+        artifact = artifactRepository.save(artifact);
 
         BuildRecord buildRecord = new BuildRecord();
         buildRecord.setBuildLog("test");
         buildRecord.setStatus(BuildDriverStatus.SUCCESS);
         buildRecord.setBuildConfiguration(buildConfiguration);
 
-        artifact.setBuildRecord(buildRecord);
-        buildRecord.getBuiltArtifacts().add(artifact);
+        buildRecord.getBuiltArtifacts().add(new BuildRecordArtifact(artifact, ArtifactStatus.BINARY_BUILT, "test-url"));
 
         buildRecord = buildRecordRepository.save(buildRecord);
 
@@ -82,7 +85,7 @@ public class BuildRecordsTest {
     @Test
     public void shouldGetAllBuildRecords() {
         // when
-        List<BuildRecordRest> buildRecords = (List<BuildRecordRest>) buildRecordProvider.getAllArchived(null, null, null, null);
+        List<BuildRecordRest> buildRecords = (List<BuildRecordRest>) buildRecordProvider.getAllArchived(null, null, null, null, null, false);
 
         // then
         assertThat(buildRecords).hasSize(1);
@@ -113,6 +116,8 @@ public class BuildRecordsTest {
 
         // then
         assertThat(artifacts).hasSize(1);
+        assertThat(artifacts.get(0).getStatus()).isEqualTo(ArtifactStatus.BINARY_BUILT);
+        assertThat(artifacts.get(0).getDeployUrl()).isEqualTo("test-url");
     }
 
 }
@@ -0,0 +1,93 @@
+package org.jboss.pnc.integration;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.pnc.integration.deployments.Deployments;
+import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandles;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.path.json.JsonPath.from;
+import static org.jboss.pnc.integration.env.IntegrationTestEnv.getHttpPort;
+
+@RunWith(Arquillian.class)
+public class BuildStatusStreamTest {
+
+    public static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int READ_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(60);
+
+    @Deployment(testable = false)
+    public static EnterpriseArchive deploy() {
+        EnterpriseArchive enterpriseArchive = Deployments.baseEar();
+        logger.info(enterpriseArchive.toString(true));
+        return enterpriseArchive;
+    }
+
+    @Test
+    public void shouldReceiveStatusEventOfTriggeredBuild() throws Exception {
+        //given
+        int productId = extractIdFromRest("/pnc-web/rest/product");
+        int versionId = extractIdFromRest(String.format("/pnc-web/rest/product/%d/version", productId));
+        int projectId = extractIdFromRest(String.format("/pnc-web/rest/product/%d/version/%d/project", productId, versionId));
+        int configurationId = extractIdFromRest(String.format("/pnc-web/rest/project/%d/configuration", projectId));
+
+        URL streamUrl = new URL(String.format("http://localhost:%d/pnc-web/events/build-status?configurationId=%d",
+                getHttpPort(), configurationId));
+        HttpURLConnection connection = (HttpURLConnection) streamUrl.openConnection();
+        connection.setReadTimeout(READ_TIMEOUT);
+        try {
+            Assert.assertEquals(200, connection.getResponseCode());
+            Assert.assertTrue(connection.getContentType().startsWith("text/event-stream"));
+
+            //when
+            given()
+                    .port(getHttpPort())
+            .when()
+                .post(String.format("/pnc-web/rest/project/%d/configuration/%d/build", projectId, configurationId))
+            .then()
+                .statusCode(200);
+
+            //then
+            String data = readFirstStatusEvent(connection);
+            Assert.assertTrue(data, data.contains("\"buildConfigurationId\":" + configurationId));
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return data of the first status event, read timeout fails the test when there is none
+     */
+    private String readFirstStatusEvent(HttpURLConnection connection) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+        boolean statusEvent = false;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals("event: status")) {
+                statusEvent = true;
+            } else if (statusEvent && line.startsWith("data: ")) {
+                return line.substring("data: ".length());
+            }
+        }
+        throw new AssertionError("Build status stream closed without a status event.");
+    }
+
+    Integer extractIdFromRest(String path) {
+        String returnedObject = from(given()
+                .port(getHttpPort()).get(path).asString()).get("[0].id").toString();
+        return Integer.valueOf(returnedObject);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jboss.pnc.integration;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
+import org.jboss.pnc.integration.deployments.Deployments;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
+import org.jboss.pnc.model.builder.ArtifactBuilder;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Builds are stored without a test transaction, so each of them is stored in its own transaction as in the build
+ * coordinator.
+ */
+@RunWith(Arquillian.class)
+public class DatastoreConcurrencyTest {
+
+    public static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int ARTIFACT_COUNT = 500;
+    private static final int BUILD_COUNT = 4;
+
+    @Inject
+    private ArtifactRepository artifactRepository;
+
+    @Inject
+    private Datastore datastore;
+
+    @Deployment
+    public static EnterpriseArchive deploy() {
+        EnterpriseArchive enterpriseArchive = Deployments.baseEarWithTestDependencies();
+        WebArchive war = enterpriseArchive.getAsType(WebArchive.class, "/pnc-web.war");
+        war.addClass(DatastoreConcurrencyTest.class);
+        logger.info(enterpriseArchive.toString(true));
+        return enterpriseArchive;
+    }
+
+    @Test
+    public void shouldStoreAllBuildsSharingNewArtifacts() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(BUILD_COUNT);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<BuildRecord>> stored = new ArrayList<>();
+        for (int i = 0; i < BUILD_COUNT; i++) {
+            BuildRecord buildRecord = buildWithSharedDependencies();
+            stored.add(executor.submit((Callable<BuildRecord>) () -> {
+                start.await();
+                datastore.storeCompletedBuild(buildRecord);
+                return buildRecord;
+            }));
+        }
+
+        //when
+        start.countDown();
+        executor.shutdown();
+
+        //then
+        assertThat(executor.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        Set<Integer> dependencyIds = new HashSet<>();
+        for (Future<BuildRecord> future : stored) {
+            List<BuildRecordArtifact> dependencies = artifactRepository.findDependenciesByBuildRecord(
+                    future.get().getId());
+            assertThat(dependencies).hasSize(ARTIFACT_COUNT);
+            dependencies.forEach(dependency -> dependencyIds.add(dependency.getArtifact().getId()));
+        }
+        assertThat(dependencyIds).hasSize(ARTIFACT_COUNT);
+    }
+
+    private BuildRecord buildWithSharedDependencies() {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+        for (int i = 0; i < ARTIFACT_COUNT; i++) {
+            buildRecord.getDependencies().add(ArtifactBuilder.newBuilder().identifier("org.test:shared-" + i + ":jar:1.0")
+                    .checksum("shared-" + i).filename("shared-" + i + "-1.0.jar").buildLink());
+        }
+        return buildRecord;
+    }
+}
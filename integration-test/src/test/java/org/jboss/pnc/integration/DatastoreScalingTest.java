@@ -0,0 +1,79 @@
+package org.jboss.pnc.integration;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
+import org.jboss.pnc.integration.deployments.Deployments;
+import org.jboss.pnc.model.ArtifactStatus;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.builder.ArtifactBuilder;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Stores builds with growing numbers of new artifacts and logs the time taken, so the time per artifact of the batched
+ * catalog inserts can be compared between the sizes. The functional checks of the artifact catalog are in
+ * {@link DatastoreTest}.
+ */
+@RunWith(Arquillian.class)
+@Transactional(TransactionMode.ROLLBACK)
+public class DatastoreScalingTest {
+
+    public static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int[] ARTIFACT_COUNTS = { 1000, 10000 };
+
+    @Inject
+    private ArtifactRepository artifactRepository;
+
+    @Inject
+    private Datastore datastore;
+
+    @Deployment
+    public static EnterpriseArchive deploy() {
+        EnterpriseArchive enterpriseArchive = Deployments.baseEarWithTestDependencies();
+        WebArchive war = enterpriseArchive.getAsType(WebArchive.class, "/pnc-web.war");
+        war.addClass(DatastoreScalingTest.class);
+        logger.info(enterpriseArchive.toString(true));
+        return enterpriseArchive;
+    }
+
+    @Test
+    public void shouldStoreBuildsWithThousandsOfArtifacts() throws Exception {
+        for (int artifactCount : ARTIFACT_COUNTS) {
+            //given
+            BuildRecord buildRecord = new BuildRecord();
+            buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+            for (int i = 0; i < artifactCount; i++) {
+                // catalog inserts are not rolled back with the test, each size adds new artifacts
+                buildRecord.getDependencies().add(ArtifactBuilder.newBuilder()
+                        .identifier("org.test:scaling-" + i + ":jar:1.0").checksum(artifactCount + "-" + i)
+                        .filename("scaling-" + i + "-1.0.jar").status(ArtifactStatus.BINARY_IMPORTED).buildLink());
+            }
+
+            //when
+            long start = System.nanoTime();
+            datastore.storeCompletedBuild(buildRecord);
+            artifactRepository.flush();
+            long duration = System.nanoTime() - start;
+
+            //then
+            logger.info("Stored build with {} new artifacts in {} ms, {} us per artifact.", artifactCount,
+                    duration / 1000000, duration / 1000 / artifactCount);
+            assertThat(artifactRepository.findDependenciesByBuildRecord(buildRecord.getId())).hasSize(artifactCount);
+        }
+    }
+}
@@ -4,10 +4,16 @@ import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
 import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
 import org.jboss.pnc.datastore.repositories.BuildRecordRepository;
 import org.jboss.pnc.integration.deployments.Deployments;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.ArtifactStatus;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
+import org.jboss.pnc.model.builder.ArtifactBuilder;
+import org.jboss.pnc.spi.datastore.Datastore;
 import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.Test;
@@ -17,6 +23,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -30,6 +38,12 @@ public class DatastoreTest {
     @Inject
     private BuildRecordRepository buildRecordRepository;
 
+    @Inject
+    private ArtifactRepository artifactRepository;
+
+    @Inject
+    private Datastore datastore;
+
 
     @Deployment
     public static EnterpriseArchive deploy() {
@@ -54,4 +68,83 @@ public class DatastoreTest {
         assertThat(objectsInDb).hasSize(1).containsExactly(objectToBeStored);
     }
 
+    @Test
+    public void shouldStoreSharedDependencyOnce() throws Exception {
+        //given
+        BuildRecord firstBuild = new BuildRecord();
+        firstBuild.setStatus(BuildDriverStatus.SUCCESS);
+        firstBuild.getDependencies().add(commonsLang());
+        BuildRecord secondBuild = new BuildRecord();
+        secondBuild.setStatus(BuildDriverStatus.SUCCESS);
+        secondBuild.getDependencies().add(commonsLang());
+
+        //when
+        datastore.storeCompletedBuild(firstBuild);
+        datastore.storeCompletedBuild(secondBuild);
+
+        //then
+        // catalog artifacts are added in their own transaction, they are not rolled back with the test
+        List<Artifact> artifacts = artifactRepository.findByChecksumIn(
+                Collections.singleton(commonsLang().getArtifact().getChecksum()));
+        assertThat(artifacts).hasSize(1);
+        for (BuildRecord buildRecord : Arrays.asList(firstBuild, secondBuild)) {
+            List<BuildRecordArtifact> dependencies = artifactRepository.findDependenciesByBuildRecord(buildRecord.getId());
+            assertThat(dependencies).extracting("artifact").containsExactly(artifacts.get(0));
+            assertThat(dependencies).extracting("status").containsExactly(ArtifactStatus.BINARY_IMPORTED);
+            assertThat(dependencies).extracting("deployUrl").containsExactly(commonsLang().getDeployUrl());
+        }
+    }
+
+    @Test
+    public void shouldStoreArtifactsOnce() throws Exception {
+        //given
+        Artifact artifact = ArtifactBuilder.newBuilder().identifier("org.test:stored-once:jar:1.0")
+                .checksum("stored-once").filename("stored-once-1.0.jar").build();
+        Artifact sameArtifact = ArtifactBuilder.newBuilder().identifier("org.test:stored-once:jar:1.0")
+                .checksum("stored-once").filename("stored-once-1.0.jar").build();
+        Artifact withoutChecksum = ArtifactBuilder.newBuilder().filename("build.log").build();
+
+        //when
+        List<Artifact> stored = datastore.storeArtifacts(Arrays.asList(artifact, sameArtifact, withoutChecksum));
+        List<Artifact> storedAgain = datastore.storeArtifacts(Collections.singletonList(sameArtifact));
+
+        //then
+        assertThat(stored).hasSize(2);
+        assertThat(stored).extracting("id").doesNotContainNull();
+        assertThat(storedAgain).extracting("id").containsExactly(stored.get(0).getId());
+    }
+
+    @Test
+    public void shouldStoreBuildWithManyArtifacts() throws Exception {
+        //given
+        int artifactCount = 1000;
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+        for (int i = 0; i < artifactCount; i++) {
+            buildRecord.getDependencies().add(ArtifactBuilder.newBuilder().identifier("org.test:artifact-" + i + ":jar:1.0")
+                    .checksum("artifact-" + i).filename("artifact-" + i + "-1.0.jar")
+                    .status(ArtifactStatus.BINARY_IMPORTED).buildLink());
+        }
+        buildRecord.getBuiltArtifacts().add(ArtifactBuilder.newBuilder().filename("build.log")
+                .status(ArtifactStatus.BINARY_BUILT).buildLink());
+
+        //when
+        datastore.storeCompletedBuild(buildRecord);
+        artifactRepository.flush();
+
+        //then
+        List<BuildRecordArtifact> dependencies = artifactRepository.findDependenciesByBuildRecord(buildRecord.getId());
+        assertThat(dependencies).hasSize(artifactCount);
+        assertThat(dependencies).extracting("artifact.id").doesNotHaveDuplicates();
+        assertThat(buildRecord.getBuiltArtifacts()).hasSize(1);
+        assertThat(buildRecord.getBuiltArtifacts().get(0).getArtifact().getId()).isNotNull();
+    }
+
+    private BuildRecordArtifact commonsLang() {
+        return ArtifactBuilder.newBuilder().identifier("org.apache.commons:commons-lang3:jar:3.3.2")
+                .checksum("5bd59e7c2e5fa0c3bd1e2b6a4c5e6d8c37aa86b8d5e0f1a86bcc8eab1e1b7d62")
+                .filename("commons-lang3-3.3.2.jar").status(ArtifactStatus.BINARY_IMPORTED)
+                .deployUrl("http://localhost/api/content/group/public/commons-lang3-3.3.2.jar").buildLink();
+    }
+
 }
@@ -0,0 +1,243 @@
+package org.jboss.pnc.integration;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.junit.InSequence;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.pnc.datastore.repositories.ArtifactRepository;
+import org.jboss.pnc.datastore.repositories.BuildConfigurationRepository;
+import org.jboss.pnc.datastore.repositories.BuildRecordRepository;
+import org.jboss.pnc.datastore.repositories.KeysetRepository;
+import org.jboss.pnc.integration.deployments.Deployments;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.ArtifactStatus;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
+import org.jboss.pnc.model.builder.ArtifactBuilder;
+import org.jboss.shrinkwrap.api.spec.EnterpriseArchive;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.lang.invoke.MethodHandles;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.jayway.restassured.RestAssured.given;
+import static com.jayway.restassured.path.json.JsonPath.from;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.jboss.pnc.integration.env.IntegrationTestEnv.getHttpPort;
+
+/**
+ * Walks the keyset listings page by page and compares them with the listings read at once.
+ */
+@RunWith(Arquillian.class)
+public class KeysetPaginationTest {
+
+    public static final Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final int PAGE_SIZE = 3;
+    private static final int BUILD_RECORD_COUNT = 8;
+    private static final int ARTIFACT_COUNT = 5;
+
+    private static Integer projectId;
+    private static Integer buildConfigurationId;
+    private static Integer buildRecordId;
+
+    @Inject
+    private BuildConfigurationRepository buildConfigurationRepository;
+
+    @Inject
+    private BuildRecordRepository buildRecordRepository;
+
+    @Inject
+    private ArtifactRepository artifactRepository;
+
+    @Inject
+    private KeysetRepository keysetRepository;
+
+    @Deployment
+    public static EnterpriseArchive deploy() {
+        EnterpriseArchive enterpriseArchive = Deployments.baseEarWithTestDependencies();
+        WebArchive war = enterpriseArchive.getAsType(WebArchive.class, "/pnc-web.war");
+        war.addClass(KeysetPaginationTest.class);
+        logger.info(enterpriseArchive.toString(true));
+        return enterpriseArchive;
+    }
+
+    @Test
+    @InSequence(-1)
+    @Transactional
+    public void shouldInsertBuildRecords() {
+        BuildConfiguration buildConfiguration = buildConfigurationRepository.findAll().iterator().next();
+        projectId = buildConfiguration.getProject().getId();
+        buildConfigurationId = buildConfiguration.getId();
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < BUILD_RECORD_COUNT; i++) {
+            BuildRecord buildRecord = new BuildRecord();
+            buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+            buildRecord.setBuildConfiguration(buildConfiguration);
+            // pairs of records end at the same time, they are ordered by their ids
+            buildRecord.setEndTime(new Timestamp(now - (i / 2) * 1000L));
+            if (i == 0) {
+                for (int a = 0; a < ARTIFACT_COUNT; a++) {
+                    Artifact artifact = artifactRepository.save(ArtifactBuilder.newBuilder()
+                            .filename("artifact-" + a + ".jar").build());
+                    buildRecord.getDependencies().add(new BuildRecordArtifact(artifact,
+                            ArtifactStatus.BINARY_IMPORTED, deployUrl(artifact)));
+                }
+            }
+            buildRecord = buildRecordRepository.save(buildRecord);
+            if (i == 0) {
+                buildRecordId = buildRecord.getId();
+            }
+        }
+
+        BuildRecord withoutEndTime = new BuildRecord();
+        withoutEndTime.setStatus(BuildDriverStatus.SUCCESS);
+        withoutEndTime.setBuildConfiguration(buildConfiguration);
+        buildRecordRepository.save(withoutEndTime);
+    }
+
+    @Test
+    public void shouldWalkPagesOfKeysetRepository() {
+        //given
+        Map<String, Object> parameters = Collections.singletonMap("buildConfigurationId", buildConfigurationId);
+        String condition = "e.buildConfiguration.id = :buildConfigurationId";
+
+        //when
+        List<Integer> walked = new ArrayList<>();
+        int pages = 0;
+        List<KeysetRepository.Row<BuildRecord>> rows = keysetRepository.findAfter(BuildRecord.class, condition,
+                parameters, "endTime", false, null, null, PAGE_SIZE);
+        while (!rows.isEmpty()) {
+            pages++;
+            rows.forEach(row -> walked.add(row.getId()));
+            KeysetRepository.Row<BuildRecord> last = rows.get(rows.size() - 1);
+            rows = keysetRepository.findAfter(BuildRecord.class, condition, parameters, "endTime", false,
+                    last.getSortingValue(), last.getId(), PAGE_SIZE);
+        }
+
+        //then
+        List<Integer> expected = buildRecordsByEndTime();
+        assertThat(pages).isGreaterThan(1);
+        assertThat(walked).isEqualTo(expected);
+        assertThat(keysetRepository.count(BuildRecord.class, condition, parameters, "endTime"))
+                .isEqualTo(expected.size());
+    }
+
+    @Test
+    public void shouldWalkPagesOfBuildRecordsOfConfiguration() {
+        //when
+        List<Integer> walked = walkPages(String.format(
+                "/pnc-web/rest/project/%d/configuration/%d/result?sorted_by=endTime&sorting=desc", projectId,
+                buildConfigurationId));
+
+        //then
+        assertThat(walked).isEqualTo(buildRecordsByEndTime());
+    }
+
+    @Test
+    public void shouldWalkPagesOfAllBuildRecords() {
+        //when
+        List<Integer> walked = walkPages("/pnc-web/rest/result?sorted_by=id");
+
+        //then
+        List<Integer> expected = buildRecordRepository.findAll().stream().map(BuildRecord::getId).sorted()
+                .collect(Collectors.toList());
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldWalkPagesOfBuildConfigurations() {
+        //when
+        List<Integer> walked = walkPages(String.format("/pnc-web/rest/project/%d/configuration?sorted_by=name",
+                projectId));
+
+        //then
+        List<Integer> expected = buildConfigurationRepository.findByProjectId(projectId).stream()
+                .filter(buildConfiguration -> buildConfiguration.getName() != null)
+                .sorted(Comparator.comparing(BuildConfiguration::getName).thenComparing(BuildConfiguration::getId))
+                .map(BuildConfiguration::getId).collect(Collectors.toList());
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldWalkPagesOfArtifacts() {
+        //when
+        List<Integer> walked = walkPages(String.format("/pnc-web/rest/result/%d/artifact?sorted_by=id", buildRecordId));
+
+        //then
+        List<Integer> expected = artifactRepository.findDependenciesByBuildRecord(buildRecordId).stream()
+                .map(dependency -> dependency.getArtifact().getId()).sorted().collect(Collectors.toList());
+        assertThat(expected).hasSize(ARTIFACT_COUNT);
+        assertThat(walked).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldListStatusAndDeployUrlOfArtifactsInBuildRecord() {
+        //when
+        String page = given().port(getHttpPort()).queryParam("pageSize", PAGE_SIZE).queryParam("after", "").when()
+                .get(String.format("/pnc-web/rest/result/%d/artifact?sorted_by=id", buildRecordId)).then()
+                .statusCode(200).extract().asString();
+
+        //then
+        List<Map<String, Object>> content = from(page).getList("content");
+        assertThat(content).hasSize(PAGE_SIZE);
+        for (Map<String, Object> artifact : content) {
+            assertThat(artifact.get("status")).isEqualTo(ArtifactStatus.BINARY_IMPORTED.name());
+            assertThat(artifact.get("deployUrl")).isEqualTo("http://localhost/" + artifact.get("filename"));
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidPageToken() {
+        given().port(getHttpPort()).queryParam("after", "invalid").when().get("/pnc-web/rest/result").then()
+                .statusCode(400);
+    }
+
+    private static String deployUrl(Artifact artifact) {
+        return "http://localhost/" + artifact.getFilename();
+    }
+
+    /**
+     * @return ids of the build records of the configuration with an end time, the last ended first
+     */
+    private List<Integer> buildRecordsByEndTime() {
+        return buildRecordRepository.findByBuildConfigurationId(buildConfigurationId).stream()
+                .filter(buildRecord -> buildRecord.getEndTime() != null)
+                .sorted(Comparator.comparing(BuildRecord::getEndTime).thenComparing(BuildRecord::getId).reversed())
+                .map(BuildRecord::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * Follows the next tokens from the first page to the last one.
+     *
+     * @return ids of the listed entities in the order of the pages
+     */
+    private List<Integer> walkPages(String path) {
+        List<Integer> ids = new ArrayList<>();
+        String after = "";
+        int pages = 0;
+        while (after != null) {
+            String page = given().port(getHttpPort()).queryParam("pageSize", PAGE_SIZE).queryParam("after", after)
+                    .when().get(path).then().statusCode(200).extract().asString();
+            pages++;
+            ids.addAll(from(page).getList("content.id", Integer.class));
+            after = from(page).getString("next");
+        }
+        logger.info("Walked {} pages of {}.", pages, path);
+        return ids;
+    }
+}
@@ -13,15 +13,26 @@ import java.io.IOException;
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-11-29.
  */
 class BuildJob {
+    private String masterUrl;
     private JenkinsServer jenkinsServer;
     private BuildConfiguration buildConfiguration;
     private BuildJobConfig buildJobConfig;
     private JobWithDetails job;
     private int buildNumber;
+    private String notificationUrl;
 
-    public BuildJob(JenkinsServer jenkinsServer, BuildConfiguration buildConfiguration) {
+    public BuildJob(String masterUrl, JenkinsServer jenkinsServer, BuildConfiguration buildConfiguration) {
+        this(masterUrl, jenkinsServer, buildConfiguration, null);
+    }
+
+    /**
+     * @param masterUrl url of the Jenkins master the job runs on
+     */
+    public BuildJob(String masterUrl, JenkinsServer jenkinsServer, BuildConfiguration buildConfiguration, String notificationUrl) {
+        this.masterUrl = masterUrl;
         this.jenkinsServer = jenkinsServer;
         this.buildConfiguration = buildConfiguration;
+        this.notificationUrl = notificationUrl;
     }
 
     public boolean configure(RepositoryConfiguration repositoryConfiguration, boolean override) throws BuildDriverException {
@@ -32,7 +43,8 @@ class BuildJob {
                 buildConfiguration.getScmUrl(),
                 buildConfiguration.getScmBranch(),
                 buildConfiguration.getBuildScript(),
-                repositoryConfiguration.getConnectionInfo());
+                repositoryConfiguration.getConnectionInfo(),
+                notificationUrl);
 
         try {
             job = jenkinsServer.getJob(jobName);
@@ -82,4 +94,8 @@ class BuildJob {
     public int getBuildNumber() {
         return buildNumber;
     }
+
+    public String getMasterUrl() {
+        return masterUrl;
+    }
 }
@@ -17,12 +17,21 @@ class BuildJobConfig {
     private String scmUrl;
     private String scmBranch;
     private String buildScript;
+    private String notificationUrl;
 
     public BuildJobConfig(String name, String scmUrl, String scmBranch, String buildScript, RepositoryConnectionInfo connectionInfo) {
+        this(name, scmUrl, scmBranch, buildScript, connectionInfo, null);
+    }
+
+    /**
+     * @param notificationUrl endpoint notified by Jenkins Notification plugin when the build is finalized, can be null
+     */
+    public BuildJobConfig(String name, String scmUrl, String scmBranch, String buildScript, RepositoryConnectionInfo connectionInfo, String notificationUrl) {
         this.name = name;
         this.scmUrl = scmUrl;
         this.buildScript = buildScript;
         this.connectionInfo = connectionInfo;
+        this.notificationUrl = notificationUrl;
         if (scmBranch != null && !scmBranch.equals("")) {
             this.scmBranch = scmBranch;
         } else{
@@ -43,6 +52,7 @@ class BuildJobConfig {
 
         properties.setProperty("maven_settings", getMavenConfig(connectionInfo.getDependencyUrl(), connectionInfo.getDeployUrl()));
         properties.setProperty("hudson.tasks.Shell.command", buildScript + " -s settings.xml");
+        properties.setProperty("notification_property", getNotificationProperty());
 
         return StringPropertyReplacer.replaceProperties(xmlString, properties);
     }
@@ -59,6 +69,19 @@ class BuildJobConfig {
 
     }
 
+    private String getNotificationProperty() {
+        if (notificationUrl == null) {
+            return "";
+        }
+        return "<com.tikal.hudson.plugins.notification.HudsonNotificationProperty plugin=\"notification\">" +
+                "<endpoints><com.tikal.hudson.plugins.notification.Endpoint>" +
+                "<protocol>HTTP</protocol><format>JSON</format>" +
+                "<url>" + notificationUrl.replace("&", "&amp;") + "</url>" +
+                "<event>finalized</event><timeout>30000</timeout><loglines>0</loglines>" +
+                "</com.tikal.hudson.plugins.notification.Endpoint></endpoints>" +
+                "</com.tikal.hudson.plugins.notification.HudsonNotificationProperty>";
+    }
+
     private String readConfigTemplate() throws BuildDriverException {
             try {
                 return IoUtils.readFileOrResource("jenkins-job-template", "jenkins-job-template.xml", getClass().getClassLoader());
@@ -1,5 +1,6 @@
 package org.jboss.pnc.jenkinsbuilddriver;
 
+import org.apache.http.client.HttpResponseException;
 import org.jboss.logging.Logger;
 import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.model.BuildType;
@@ -11,6 +12,7 @@ import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.io.IOException;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-11-23.
@@ -28,13 +30,16 @@ public class JenkinsBuildDriver implements BuildDriver {
 
     private JenkinsServerFactory jenkinsServerFactory;
     private JenkinsBuildMonitor jenkinsBuildMonitor;
+    private JenkinsMasterSelector jenkinsMasterSelector;
 
     JenkinsBuildDriver() {}
 
     @Inject
-    JenkinsBuildDriver(JenkinsServerFactory jenkinsServerFactory, JenkinsBuildMonitor jenkinsBuildMonitor) {
+    JenkinsBuildDriver(JenkinsServerFactory jenkinsServerFactory, JenkinsBuildMonitor jenkinsBuildMonitor,
+            JenkinsMasterSelector jenkinsMasterSelector) {
         this.jenkinsServerFactory = jenkinsServerFactory;
         this.jenkinsBuildMonitor = jenkinsBuildMonitor;
+        this.jenkinsMasterSelector = jenkinsMasterSelector;
     }
 
     @Override
@@ -47,17 +52,50 @@ public class JenkinsBuildDriver implements BuildDriver {
         return BuildType.JAVA.equals(buildType);
     }
 
+    /**
+     * Starts the build on the least loaded Jenkins master, the next master is tried when the build cannot be started.
+     * Only a master which can not be reached or fails with a server error gets no new builds for a while.
+     */
     @Override
     public RunningBuild startProjectBuild(BuildConfiguration buildConfiguration, RepositoryConfiguration repositoryConfiguration) throws BuildDriverException {
-        BuildJob build = new BuildJob(jenkinsServerFactory.getJenkinsServer(), buildConfiguration);
-        boolean configured = build.configure(repositoryConfiguration, true);
-        if (!configured) {
-            throw new AssertionError("Cannot configure build job.");
+        String notificationUrl = JenkinsBuildMonitor.getNotificationsUrl(configuration.getModuleConfig(DRIVER_ID));
+        BuildDriverException lastError = null;
+        for (String masterUrl : jenkinsMasterSelector.getMasters()) {
+            try {
+                BuildJob build = new BuildJob(masterUrl, jenkinsServerFactory.getJenkinsServer(masterUrl), buildConfiguration, notificationUrl);
+                boolean configured = build.configure(repositoryConfiguration, true);
+                if (!configured) {
+                    throw new BuildDriverException("Cannot configure build job.");
+                }
+                int buildNumber = build.start();
+                jenkinsMasterSelector.buildStarted(masterUrl);
+                log.infof("Started jenkins job %s #%s on %s.", build.getJobName(), buildNumber, masterUrl);
+                return new JenkinsRunningBuild(jenkinsServerFactory, jenkinsBuildMonitor, build);
+            } catch (BuildDriverException e) {
+                log.warnf("Cannot start jenkins job %s on %s: %s", buildConfiguration.getName(), masterUrl, e.getMessage());
+                if (isMasterError(e)) {
+                    jenkinsMasterSelector.masterFailed(masterUrl);
+                }
+                lastError = e;
+            }
         }
-        int buildNumber = build.start();
-        log.infof("Started jenkins job %s #%s.", build.getJobName(), buildNumber);
-        return new JenkinsRunningBuild(jenkinsServerFactory, jenkinsBuildMonitor, build);
+        throw new BuildDriverException("Cannot start jenkins job " + buildConfiguration.getName() + " on any master.", lastError);
     }
 
+    /**
+     * @return true if the master can not be reached or responded with a server error, other errors are caused by the
+     * job and say nothing about the master
+     */
+    static boolean isMasterError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException) {
+                return ((HttpResponseException) cause).getStatusCode() >= 500;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
 
 }
@@ -1,110 +1,509 @@
 package org.jboss.pnc.jenkinsbuilddriver;
 
-import com.offbytwo.jenkins.JenkinsServer;
-import com.offbytwo.jenkins.model.Build;
-import com.offbytwo.jenkins.model.BuildWithDetails;
-import com.offbytwo.jenkins.model.JobWithDetails;
+import com.offbytwo.jenkins.model.BuildResult;
 import org.jboss.logging.Logger;
-import org.jboss.pnc.common.util.ObjectWrapper;
+import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.spi.builddriver.BuildNotificationReceiver;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
+ * Waits for Jenkins builds to complete.
+ *
+ * Builds are completed by a notification from Jenkins (see {@link #buildCompleted(String, String, int, String)}),
+ * polling is used as a fallback in case a notification is lost. When notifications are not enabled polling is the only
+ * way to detect completed builds and it runs more often. Notifications are enabled only together with a shared token,
+ * which is added to the notification url and checked on each notification.
+ *
+ * All monitored builds are polled by a single poller. Each tick the builds due for a check are grouped by Jenkins master
+ * and job and resolved with one tree filtered request per job, or with one request for the whole master when there are
+ * many jobs. Builds are identified by the master, job name and build number, the same job can run on more masters.
+ * A build is checked less often the longer it runs, or close to its expected end when the expected duration is known.
+ *
+ * When a log consumer is given, new parts of the build log are read every jenkins.monitor.log-tail-interval seconds
+ * and once more when the build completes, but only while somebody wants the log. The read offset is kept, so the log
+ * written meanwhile is passed with the next read.
+ *
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-11.
  */
 @ApplicationScoped
-public class JenkinsBuildMonitor {
+public class JenkinsBuildMonitor implements BuildNotificationReceiver {
 
     private static final Logger log = Logger.getLogger(JenkinsBuildMonitor.class);
 
-    private ScheduledExecutorService executor; //TODO shutdown
+    /**
+     * Url of the notification endpoint which is added to the Jenkins jobs, notifications are disabled when not set.
+     */
+    static final String NOTIFICATIONS_URL_KEY = "jenkins.notifications.url";
+    /**
+     * Shared secret which Jenkins sends with the notifications, notifications are disabled when not set.
+     */
+    static final String NOTIFICATIONS_TOKEN_KEY = "jenkins.notifications.token";
+    static final String TOKEN_PARAMETER = "token";
+    static final String POLL_INTERVAL_KEY = "jenkins.monitor.poll-interval";
+    static final String FALLBACK_POLL_INTERVAL_KEY = "jenkins.monitor.fallback-poll-interval";
+    static final String MAX_POLL_INTERVAL_KEY = "jenkins.monitor.max-poll-interval";
+    static final String SERVER_QUERY_THRESHOLD_KEY = "jenkins.monitor.server-query-threshold";
+    static final String LOG_TAIL_INTERVAL_KEY = "jenkins.monitor.log-tail-interval";
+
+    private static final long DEFAULT_POLL_INTERVAL = 5L;
+    private static final long DEFAULT_FALLBACK_POLL_INTERVAL = 60L;
+    private static final long DEFAULT_MAX_POLL_INTERVAL = 60L;
+    private static final long DEFAULT_SERVER_QUERY_THRESHOLD = 10L;
+    private static final long DEFAULT_LOG_TAIL_INTERVAL = 5L;
+    private static final long TICK_MILLIS = 1000L;
+
+    private ScheduledExecutorService executor;
     private JenkinsServerFactory jenkinsServerFactory;
     private static final int MAX_IO_FAILURES = 5; //TODO configurable
 
+    /**
+     * Shortest and longest time between two checks of a build, in milliseconds
+     */
+    private long minPollInterval;
+    private long maxPollInterval;
+    /**
+     * Delay of the first poll in milliseconds, with notifications enabled the first poll is needed only if
+     * the notification is lost.
+     */
+    private long initialPollDelay;
+    /**
+     * When more jobs than this are due for a check, statuses of all jobs are read with a single request.
+     */
+    private long serverQueryThreshold;
+    private long logTailInterval;
+    private String notificationsToken;
+
+    private final Map<String, MonitoredBuild> monitoredBuilds = new ConcurrentHashMap<>();
+    private final AtomicBoolean polling = new AtomicBoolean(false);
+    private final AtomicLong pollRequests = new AtomicLong();
+
     @Deprecated
     public JenkinsBuildMonitor() {}
 
     @Inject
-    public JenkinsBuildMonitor(JenkinsServerFactory jenkinsServerFactory) {
+    public JenkinsBuildMonitor(JenkinsServerFactory jenkinsServerFactory, Configuration configuration) {
         this.jenkinsServerFactory = jenkinsServerFactory;
-        int nThreads = 4; //TODO configurable
-        executor = Executors.newScheduledThreadPool(nThreads);
+        executor = Executors.newSingleThreadScheduledExecutor();
+
+        Properties properties = configuration.getModuleConfig(JenkinsBuildDriver.DRIVER_ID);
+        notificationsToken = getNotificationsToken(properties);
+        boolean notificationsEnabled = getNotificationsUrl(properties) != null;
+        if (!notificationsEnabled && !properties.getProperty(NOTIFICATIONS_URL_KEY, "").trim().isEmpty()) {
+            log.warnf("Jenkins notifications are disabled, %s is not set.", NOTIFICATIONS_TOKEN_KEY);
+        }
+        if (notificationsEnabled) {
+            minPollInterval = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, FALLBACK_POLL_INTERVAL_KEY, DEFAULT_FALLBACK_POLL_INTERVAL, 1));
+            maxPollInterval = minPollInterval;
+            initialPollDelay = minPollInterval;
+        } else {
+            minPollInterval = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, POLL_INTERVAL_KEY, DEFAULT_POLL_INTERVAL, 1));
+            maxPollInterval = Math.max(minPollInterval, TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, MAX_POLL_INTERVAL_KEY, DEFAULT_MAX_POLL_INTERVAL, 1)));
+            initialPollDelay = 0L;
+        }
+        serverQueryThreshold = Configuration.getLong(properties, SERVER_QUERY_THRESHOLD_KEY, DEFAULT_SERVER_QUERY_THRESHOLD);
+        logTailInterval = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, LOG_TAIL_INTERVAL_KEY, DEFAULT_LOG_TAIL_INTERVAL, 1));
+        log.debugf("Jenkins notifications enabled: %s, polling every %s to %s ms.", notificationsEnabled, minPollInterval, maxPollInterval);
+
+        executor.scheduleWithFixedDelay(this::poll, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
     }
 
-    public void monitor(String jobName, int buildNumber, Consumer<BuildDriverStatus> onMonitorComplete, Consumer<Exception> onMonitorError) {
+    /**
+     * @param masterUrl url of the Jenkins master the build runs on, the one configured by url is used when null
+     */
+    public void monitor(String masterUrl, String jobName, int buildNumber, MonitorCallbacks<BuildDriverStatus> callbacks) {
+        MonitoredBuild monitoredBuild = new MonitoredBuild(masterUrl, jobName, buildNumber, callbacks);
+        monitoredBuild.nextPoll = monitoredBuild.started + initialPollDelay;
+        monitoredBuild.nextLogRead = monitoredBuild.started + logTailInterval;
+        monitoredBuilds.put(monitoredBuild.key, monitoredBuild);
+    }
 
-//        ObjectWrapper<Integer> statusRetrieveFailed = 0;
-        AtomicInteger statusRetrieveFailed = new AtomicInteger(0);
+    @Override
+    public boolean isTokenValid(String token) {
+        if (notificationsToken == null || token == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(notificationsToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8));
+    }
 
+    /**
+     * Completes the monitored build without waiting for the next poll. Builds of the same job and number on different
+     * masters are told apart by the build url, without the url the notification is accepted only if it is unambiguous.
+     *
+     * @param buildUrl absolute url of the build or null when the notification does not carry it
+     * @param result Jenkins build result eg. SUCCESS, FAILURE
+     * @return false if the build is not monitored (already completed or unknown)
+     */
+    @Override
+    public boolean buildCompleted(String buildUrl, String jobName, int buildNumber, String result) {
+        BuildResult buildResult = parseBuildResult(result);
+        List<MonitoredBuild> matching = monitoredBuilds.values().stream()
+                .filter(monitoredBuild -> monitoredBuild.isBuild(jobName, buildNumber) && monitoredBuild.isAt(buildUrl))
+                .collect(Collectors.toList());
+        if (matching.isEmpty()) {
+            log.debugf("Received completion of %s #%s (%s) which is not monitored.", jobName, buildNumber, buildUrl);
+            return false;
+        }
+        if (matching.size() > 1) {
+            log.debugf("Received completion of %s #%s without the build url, it runs on %s masters and is left to the poll.",
+                    jobName, buildNumber, matching.size());
+            return false;
+        }
+        log.debugf("Received completion of %s #%s (%s) with result %s.", jobName, buildNumber, buildUrl, buildResult);
+        complete(matching.get(0), new BuildStatusAdapter(buildResult).getBuildStatus());
+        return true;
+    }
 
-        ObjectWrapper<ScheduledFuture> futureReference = new ObjectWrapper();
-        Runnable monitor = () -> {
-            try {
-                Build jenkinsBuild = getBuild(jenkinsServerFactory.getJenkinsServer(), jobName, buildNumber);
-                if (jenkinsBuild == null)
-                    //Build didn't started yet.
-                    return;
+    /**
+     * Stops monitoring the build without calling its callbacks.
+     *
+     * @param masterUrl url of the Jenkins master the build runs on, the one configured by url when null
+     * @return false if the build is not monitored (already completed or unknown)
+     */
+    public boolean cancel(String masterUrl, String jobName, int buildNumber) {
+        MonitoredBuild monitoredBuild = monitoredBuilds.get(MonitoredBuild.key(masterUrl, jobName, buildNumber));
+        return monitoredBuild != null && stop(monitoredBuild);
+    }
+
+    /**
+     * @return number of builds which are waiting to complete
+     */
+    public int getMonitoredBuildsCount() {
+        return monitoredBuilds.size();
+    }
+
+    /**
+     * @return number of status requests sent to Jenkins
+     */
+    public long getPollRequestCount() {
+        return pollRequests.get();
+    }
+
+    /**
+     * Checks all builds which are due.
+     */
+    void poll() {
+        if (!polling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            Map<String, List<MonitoredBuild>> dueBuildsByMaster = monitoredBuilds.values().stream()
+                    .filter(monitoredBuild -> monitoredBuild.nextPoll <= now
+                            || (monitoredBuild.nextLogRead <= now && monitoredBuild.isLogWanted()))
+                    .collect(Collectors.groupingBy(monitoredBuild -> monitoredBuild.masterKey()));
+            dueBuildsByMaster.forEach((masterKey, builds) -> pollMaster(builds.get(0).masterUrl, builds, now));
+        } catch (RuntimeException e) {
+            log.errorf(e, "Error while polling Jenkins build statuses.");
+        } finally {
+            polling.set(false);
+        }
+    }
+
+    private void pollMaster(String masterUrl, List<MonitoredBuild> builds, long now) {
+        Map<String, List<MonitoredBuild>> dueBuildsByJob = builds.stream()
+                .filter(monitoredBuild -> monitoredBuild.nextPoll <= now)
+                .collect(Collectors.groupingBy(monitoredBuild -> monitoredBuild.jobName));
+        List<MonitoredBuild> dueLogReads = builds.stream()
+                .filter(monitoredBuild -> monitoredBuild.nextLogRead <= now && monitoredBuild.isLogWanted())
+                .collect(Collectors.toList());
+
+        JenkinsStatusClient statusClient;
+        try {
+            statusClient = jenkinsServerFactory.getStatusClient(masterUrl);
+        } catch (BuildDriverException e) {
+            dueBuildsByJob.values().forEach(jobBuilds -> jobBuilds.forEach(monitoredBuild -> fail(monitoredBuild, e)));
+            return;
+        }
+
+        for (MonitoredBuild monitoredBuild : dueLogReads) {
+            readLog(statusClient, monitoredBuild);
+            monitoredBuild.nextLogRead = now + logTailInterval;
+        }
+
+        if (dueBuildsByJob.isEmpty()) {
+            return;
+        }
+        if (dueBuildsByJob.size() > serverQueryThreshold) {
+            pollServer(statusClient, dueBuildsByJob, now);
+        } else {
+            dueBuildsByJob.forEach((jobName, jobBuilds) -> pollJob(statusClient, jobName, jobBuilds, now));
+        }
+    }
+
+    private void pollServer(JenkinsStatusClient statusClient, Map<String, List<MonitoredBuild>> dueBuildsByJob, long now) {
+        Map<String, Map<Integer, JenkinsBuildStatus>> jobs;
+        try {
+            pollRequests.incrementAndGet();
+            jobs = statusClient.getAllJobBuilds();
+        } catch (BuildDriverException e) {
+            dueBuildsByJob.values().forEach(builds -> builds.forEach(monitoredBuild -> pollFailed(monitoredBuild, e, now)));
+            return;
+        }
+        dueBuildsByJob.forEach((jobName, builds) ->
+                updateBuilds(statusClient, builds, jobs.getOrDefault(jobName, Collections.emptyMap()), now));
+    }
+
+    private void pollJob(JenkinsStatusClient statusClient, String jobName, List<MonitoredBuild> builds, long now) {
+        Map<Integer, JenkinsBuildStatus> jobBuilds;
+        try {
+            pollRequests.incrementAndGet();
+            jobBuilds = statusClient.getJobBuilds(jobName);
+        } catch (BuildDriverException e) {
+            builds.forEach(monitoredBuild -> pollFailed(monitoredBuild, e, now));
+            return;
+        }
+        updateBuilds(statusClient, builds, jobBuilds, now);
+    }
 
-                BuildWithDetails jenkinsBuildDetails = null;
+    /**
+     * @param jobBuilds recent builds of the job, a monitored build older than all of them is read by its number
+     */
+    private void updateBuilds(JenkinsStatusClient statusClient, List<MonitoredBuild> builds, Map<Integer, JenkinsBuildStatus> jobBuilds, long now) {
+        for (MonitoredBuild monitoredBuild : builds) {
+            JenkinsBuildStatus status = jobBuilds.get(monitoredBuild.buildNumber);
+            if (status == null && isOlderThanListed(monitoredBuild.buildNumber, jobBuilds)) {
                 try {
-                    jenkinsBuildDetails = jenkinsBuild.details();
-                    log.tracef("Checking if %s #%s is running.", jobName, buildNumber);
-                } catch (IOException e) {
-                    //Ignore error if it is not repeating
-                    int failed = statusRetrieveFailed.getAndIncrement();
-                    if (failed >= MAX_IO_FAILURES) {
-                        throw new BuildDriverException("Cannot read job " + jobName + " status.", e);
-                    }
+                    pollRequests.incrementAndGet();
+                    status = statusClient.getBuild(monitoredBuild.jobName, monitoredBuild.buildNumber);
+                } catch (BuildDriverException e) {
+                    pollFailed(monitoredBuild, e, now);
+                    continue;
                 }
-                boolean building = jenkinsBuildDetails.isBuilding();
-                int duration = jenkinsBuildDetails.getDuration();
-                if (!building && duration > 0 ) {
-                    BuildStatusAdapter buildStatusAdapter = new BuildStatusAdapter(jenkinsBuildDetails.getResult());
-                    onMonitorComplete.accept(buildStatusAdapter.getBuildStatus());
-                    futureReference.get().cancel(true);
+            }
+            monitoredBuild.statusRetrieveFailed.set(0);
+            if (status == null) {
+                log.tracef("There is no Job #%s for %s (probably hasn't started yet).", monitoredBuild.buildNumber, monitoredBuild.jobName);
+                monitoredBuild.nextPoll = now + minPollInterval;
+            } else if (status.isCompleted()) {
+                complete(monitoredBuild, new BuildStatusAdapter(parseBuildResult(status.getResult())).getBuildStatus());
+            } else {
+                monitoredBuild.nextPoll = now + nextPollDelay(monitoredBuild, now);
+            }
+        }
+    }
+
+    private boolean isOlderThanListed(int buildNumber, Map<Integer, JenkinsBuildStatus> jobBuilds) {
+        return jobBuilds.size() >= JenkinsStatusClient.RECENT_BUILDS
+                && jobBuilds.keySet().stream().allMatch(number -> number > buildNumber);
+    }
+
+    private void pollFailed(MonitoredBuild monitoredBuild, BuildDriverException e, long now) {
+        //Ignore error if it is not repeating
+        int failed = monitoredBuild.statusRetrieveFailed.getAndIncrement();
+        if (failed >= MAX_IO_FAILURES) {
+            fail(monitoredBuild, new BuildDriverException("Cannot read job " + monitoredBuild.jobName + " status.", e));
+        } else {
+            log.debugf("Cannot read status of %s #%s: %s", monitoredBuild.jobName, monitoredBuild.buildNumber, e.getMessage());
+            monitoredBuild.nextPoll = now + minPollInterval;
+        }
+    }
+
+    /**
+     * Before the expected end the delay halves the remaining time, once the build runs longer than expected
+     * (or when the expected duration is unknown) the delay grows with the time the build runs.
+     */
+    private long nextPollDelay(MonitoredBuild monitoredBuild, long now) {
+        long running = now - monitoredBuild.started;
+        long delay;
+        if (monitoredBuild.callbacks.getExpectedDuration() > running) {
+            delay = (monitoredBuild.callbacks.getExpectedDuration() - running) / 2;
+        } else {
+            delay = running / 10;
+        }
+        return Math.max(minPollInterval, Math.min(maxPollInterval, delay));
+    }
+
+    /**
+     * Passes the part of the log written since the last read to the log consumer.
+     * Bytes of a character split between two reads are kept for the next read.
+     */
+    private void readLog(JenkinsStatusClient statusClient, MonitoredBuild monitoredBuild) {
+        synchronized (monitoredBuild) {
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+            try {
+                chunk.write(monitoredBuild.logRemainder);
+                JenkinsStatusClient.ProgressiveText progressiveText = statusClient.writeLog(monitoredBuild.jobName,
+                        monitoredBuild.buildNumber, monitoredBuild.logOffset, chunk);
+                monitoredBuild.logOffset = progressiveText.getNextStart();
+            } catch (BuildDriverException | IOException e) {
+                log.debugf("Cannot read log of %s #%s: %s", monitoredBuild.jobName, monitoredBuild.buildNumber, e.getMessage());
+                return;
+            }
+            byte[] bytes = chunk.toByteArray();
+            int complete = completeUtf8Length(bytes);
+            monitoredBuild.logRemainder = Arrays.copyOfRange(bytes, complete, bytes.length);
+            if (complete > 0) {
+                try {
+                    monitoredBuild.callbacks.getOnLog().accept(new String(bytes, 0, complete, StandardCharsets.UTF_8));
+                } catch (RuntimeException e) {
+                    log.warnf(e, "Log consumer of %s #%s failed.", monitoredBuild.jobName, monitoredBuild.buildNumber);
                 }
-            } catch (Exception e) {
-                onMonitorError.accept(e);
             }
-        };
+        }
+    }
+
+    /**
+     * @return length of the bytes without an incomplete utf-8 sequence at the end
+     */
+    static int completeUtf8Length(byte[] bytes) {
+        int lead = bytes.length - 1;
+        while (lead >= 0 && bytes.length - lead <= 4 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead < 0 || bytes.length - lead > 4) {
+            return bytes.length;
+        }
+        int first = bytes[lead] & 0xFF;
+        int sequenceLength = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 1;
+        return bytes.length - lead < sequenceLength ? lead : bytes.length;
+    }
 
-        ScheduledFuture future = executor.scheduleAtFixedRate(monitor, 0L, 5L, TimeUnit.SECONDS); //TODO configurable
-        futureReference.set(future);
+    private void complete(MonitoredBuild monitoredBuild, BuildDriverStatus buildDriverStatus) {
+        if (stop(monitoredBuild)) {
+            if (monitoredBuild.isLogWanted()) {
+                try {
+                    readLog(jenkinsServerFactory.getStatusClient(monitoredBuild.masterUrl), monitoredBuild);
+                } catch (BuildDriverException e) {
+                    log.debugf("Cannot read log of %s #%s: %s", monitoredBuild.jobName, monitoredBuild.buildNumber, e.getMessage());
+                }
+            }
+            monitoredBuild.callbacks.getOnComplete().accept(buildDriverStatus);
+        }
+    }
 
+    private void fail(MonitoredBuild monitoredBuild, Exception e) {
+        if (stop(monitoredBuild)) {
+            monitoredBuild.callbacks.getOnError().accept(e);
+        }
     }
 
     /**
-     * @return Build or null if build didn't started yet
+     * @return true for the first caller only, either the poll or the notification completes the build
      */
-    private Build getBuild(JenkinsServer jenkinsServer, String jobName, int buildNumber) throws IOException, BuildDriverException {
-        JobWithDetails buildJob = jenkinsServer.getJob(jobName);
+    private boolean stop(MonitoredBuild monitoredBuild) {
+        if (!monitoredBuild.done.compareAndSet(false, true)) {
+            return false;
+        }
+        monitoredBuilds.remove(monitoredBuild.key, monitoredBuild);
+        return true;
+    }
 
-        //Build build = buildJob.getLastBuild() //throws NPE if there are no build for this job. see https://github.com/RisingOak/jenkins-client/issues/45
-        List<Build> builds = buildJob.getBuilds();
+    private BuildResult parseBuildResult(String result) {
+        if (result == null) {
+            return BuildResult.UNKNOWN;
+        }
+        try {
+            return BuildResult.valueOf(result.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warnf("Unknown Jenkins build result %s.", result);
+            return BuildResult.UNKNOWN;
+        }
+    }
 
-        List<Build> buildsMatchingNumber = builds.stream().filter(b -> b.getNumber() == buildNumber).collect(Collectors.toList());
+    /**
+     * @return notification endpoint url with the token parameter or null if notifications are not enabled
+     */
+    static String getNotificationsUrl(Properties properties) {
+        String url = properties.getProperty(NOTIFICATIONS_URL_KEY);
+        String token = getNotificationsToken(properties);
+        if (url == null || url.trim().isEmpty() || token == null) {
+            return null;
+        }
+        url = url.trim();
+        try {
+            return url + (url.contains("?") ? "&" : "?") + TOKEN_PARAMETER + "=" + URLEncoder.encode(token, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        if (buildsMatchingNumber.size() == 0) {
-            log.trace("There is no Job #" + buildNumber + " for " + jobName + " (probably hasn't started yet).");
+    private static String getNotificationsToken(Properties properties) {
+        String token = properties.getProperty(NOTIFICATIONS_TOKEN_KEY);
+        if (token == null || token.trim().isEmpty()) {
             return null;
-        } else if (buildsMatchingNumber.size() == 1) {
-            log.trace("Found Job #" + buildNumber + " for " + jobName + ".");
-            return buildsMatchingNumber.get(0);
-        } else {
-            throw new BuildDriverException("There are multiple builds for " + jobName + " with the same build number " + buildNumber + ".");
         }
+        return token.trim();
     }
 
+
+    private static class MonitoredBuild {
+        final String key;
+        final String masterUrl;
+        final String jobName;
+        final int buildNumber;
+        final long started = System.currentTimeMillis();
+        final MonitorCallbacks<BuildDriverStatus> callbacks;
+        final AtomicInteger statusRetrieveFailed = new AtomicInteger(0);
+        final AtomicBoolean done = new AtomicBoolean(false);
+        volatile long nextPoll;
+        volatile long nextLogRead;
+        long logOffset;
+        byte[] logRemainder = new byte[0];
+
+        MonitoredBuild(String masterUrl, String jobName, int buildNumber, MonitorCallbacks<BuildDriverStatus> callbacks) {
+            this.key = key(masterUrl, jobName, buildNumber);
+            this.masterUrl = masterUrl == null ? null : JenkinsServerFactory.normalizeUrl(masterUrl);
+            this.jobName = jobName;
+            this.buildNumber = buildNumber;
+            this.callbacks = callbacks;
+        }
+
+        boolean isLogWanted() {
+            return callbacks.isLogWanted();
+        }
+
+        static String key(String masterUrl, String jobName, int buildNumber) {
+            String master = masterUrl == null ? "" : JenkinsServerFactory.normalizeUrl(masterUrl);
+            return master + " " + jobName + "#" + buildNumber;
+        }
+
+        boolean isBuild(String jobName, int buildNumber) {
+            return this.buildNumber == buildNumber && this.jobName.equals(jobName);
+        }
+
+        /**
+         * @param buildUrl absolute url of a build, any build matches when it is null
+         * @return true if the build url is on the master of this build, the master configured by url matches any
+         */
+        boolean isAt(String buildUrl) {
+            return buildUrl == null || masterUrl == null || buildUrl.startsWith(masterUrl + "/");
+        }
+
+        /**
+         * @return key grouping the builds of one master, groupingBy does not accept null keys
+         */
+        String masterKey() {
+            return masterUrl == null ? "" : masterUrl;
+        }
+    }
 }
@@ -9,12 +9,16 @@ import org.jboss.pnc.spi.builddriver.BuildResult;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-23.
  */
 class JenkinsBuildResult implements BuildResult {
 
+    private static final int MAX_LOG_READS = 1000;
+    private static final long LOG_READ_DELAY_MILLIS = 1000L;
+
     private final JenkinsServerFactory jenkinsServerFactory;
     private BuildJob buildJob;
     private BuildWithDetails jenkinsBuildDetails = null;
@@ -33,6 +37,32 @@ class JenkinsBuildResult implements BuildResult {
         }
     }
 
+    /**
+     * Reads the log in chunks from Jenkins progressive text api until Jenkins reports there is no more data.
+     */
+    @Override
+    public void writeBuildLog(OutputStream outputStream) throws BuildDriverException {
+        JenkinsStatusClient statusClient = jenkinsServerFactory.getStatusClient(buildJob.getMasterUrl());
+        long start = 0;
+        for (int attempt = 0; attempt < MAX_LOG_READS; attempt++) {
+            JenkinsStatusClient.ProgressiveText progressiveText =
+                    statusClient.writeLog(buildJob.getJobName(), buildJob.getBuildNumber(), start, outputStream);
+            if (!progressiveText.hasMoreData()) {
+                return;
+            }
+            if (progressiveText.getNextStart() == start) { //log is not finalized yet
+                try {
+                    Thread.sleep(LOG_READ_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new BuildDriverException("Interrupted while reading build log.", e);
+                }
+            }
+            start = progressiveText.getNextStart();
+        }
+        throw new BuildDriverException("Build log of " + buildJob.getJobName() + " #" + buildJob.getBuildNumber() + " is not complete.");
+    }
+
     @Override
     public BuildDriverStatus getBuildDriverStatus() throws BuildDriverException {
         return new BuildStatusAdapter(getJenkinsBuildDetails().getResult()).getBuildStatus();
@@ -41,7 +71,7 @@ class JenkinsBuildResult implements BuildResult {
     private BuildWithDetails getJenkinsBuildDetails() throws BuildDriverException {
         if (jenkinsBuildDetails == null) { //TODO synchronized
             try {
-                Build jenkinsBuild = getBuild(jenkinsServerFactory.getJenkinsServer(), buildJob);
+                Build jenkinsBuild = getBuild(jenkinsServerFactory.getJenkinsServer(buildJob.getMasterUrl()), buildJob);
                 jenkinsBuildDetails = jenkinsBuild.details();
             } catch (IOException e) {
                 throw new BuildDriverException("Cannot read jenkins build details.", e);
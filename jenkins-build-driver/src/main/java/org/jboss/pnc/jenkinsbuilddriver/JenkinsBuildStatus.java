@@ -0,0 +1,48 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+/**
+ * Status of a single Jenkins build as returned by the tree filtered api query.
+ */
+class JenkinsBuildStatus {
+
+    private final int number;
+    private final boolean building;
+    private final String result;
+    private final long duration;
+
+    JenkinsBuildStatus(int number, boolean building, String result, long duration) {
+        this.number = number;
+        this.building = building;
+        this.result = result;
+        this.duration = duration;
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    boolean isBuilding() {
+        return building;
+    }
+
+    /**
+     * @return Jenkins build result eg. SUCCESS or null if the build is still running
+     */
+    String getResult() {
+        return result;
+    }
+
+    long getDuration() {
+        return duration;
+    }
+
+    boolean isCompleted() {
+        return !building && result != null && !result.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "JenkinsBuildStatus [number=" + number + ", building=" + building + ", result=" + result + ", duration="
+                + duration + "]";
+    }
+}
@@ -0,0 +1,174 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Chooses the Jenkins master a new build is started on.
+ *
+ * Load of a master is the number of busy executors, queued builds and builds started since the last load check
+ * divided by the number of executors. Load is read in the background every jenkins.masters.load-refresh-interval
+ * seconds, so starting a build does not wait for the masters. A master which fails to start a build or to report its
+ * load gets no new builds for jenkins.masters.failure-backoff seconds, unless all the masters failed.
+ */
+@ApplicationScoped
+public class JenkinsMasterSelector {
+
+    private static final Logger log = Logger.getLogger(JenkinsMasterSelector.class);
+
+    static final String LOAD_REFRESH_INTERVAL_KEY = "jenkins.masters.load-refresh-interval";
+    static final String FAILURE_BACKOFF_KEY = "jenkins.masters.failure-backoff";
+
+    private static final long DEFAULT_LOAD_REFRESH_INTERVAL = 10L;
+    private static final long DEFAULT_FAILURE_BACKOFF = 60L;
+
+    private JenkinsServerFactory jenkinsServerFactory;
+
+    /**
+     * In milliseconds
+     */
+    private long loadRefreshInterval;
+    private long failureBackoff;
+    private ScheduledExecutorService executor;
+
+    private final Map<String, MasterState> masters = new ConcurrentHashMap<>();
+
+    @Deprecated
+    public JenkinsMasterSelector() {}
+
+    @Inject
+    public JenkinsMasterSelector(JenkinsServerFactory jenkinsServerFactory, Configuration configuration) {
+        this.jenkinsServerFactory = jenkinsServerFactory;
+        Properties properties = configuration.getModuleConfig(JenkinsBuildDriver.DRIVER_ID);
+        loadRefreshInterval = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, LOAD_REFRESH_INTERVAL_KEY, DEFAULT_LOAD_REFRESH_INTERVAL, 1));
+        failureBackoff = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, FAILURE_BACKOFF_KEY, DEFAULT_FAILURE_BACKOFF, 0));
+    }
+
+    @PostConstruct
+    void start() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleWithFixedDelay(this::refreshLoads, 0L, loadRefreshInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return urls of the masters to try in order, the least loaded available master first and the failed masters last
+     */
+    List<String> getMasters() throws BuildDriverException {
+        long now = System.currentTimeMillis();
+        List<MasterState> available = new ArrayList<>();
+        List<MasterState> failed = new ArrayList<>();
+        for (String url : jenkinsServerFactory.getMasterUrls()) {
+            MasterState master = masters.computeIfAbsent(url, MasterState::new);
+            if (master.unavailableUntil <= now) {
+                available.add(master);
+            } else {
+                failed.add(master);
+            }
+        }
+        available.sort(Comparator.comparingDouble(MasterState::getLoad));
+        failed.sort(Comparator.comparingLong(master -> master.unavailableUntil));
+        available.addAll(failed);
+        return available.stream().map(master -> master.url).collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the build to the master load until the next load check.
+     */
+    void buildStarted(String masterUrl) {
+        MasterState master = masters.get(masterUrl);
+        if (master != null) {
+            synchronized (master) {
+                master.startedSinceLoadRead++;
+            }
+        }
+    }
+
+    /**
+     * Stops sending new builds to the master for the failure backoff.
+     */
+    void masterFailed(String masterUrl) {
+        MasterState master = masters.get(masterUrl);
+        if (master != null) {
+            master.unavailableUntil = System.currentTimeMillis() + failureBackoff;
+            log.warnf("Jenkins master %s is not used for new builds for %s ms.", masterUrl, failureBackoff);
+        }
+    }
+
+    /**
+     * Reads the load of the available masters, the masters in the failure backoff are skipped.
+     */
+    void refreshLoads() {
+        List<String> urls;
+        try {
+            urls = jenkinsServerFactory.getMasterUrls();
+        } catch (BuildDriverException | RuntimeException e) {
+            log.warnf("Cannot read Jenkins masters: %s", e.getMessage());
+            return;
+        }
+        for (String url : urls) {
+            MasterState master = masters.computeIfAbsent(url, MasterState::new);
+            long now = System.currentTimeMillis();
+            if (master.unavailableUntil <= now) {
+                refreshLoad(master, now);
+            }
+        }
+    }
+
+    private void refreshLoad(MasterState master, long now) {
+        try {
+            JenkinsStatusClient.MasterLoad load = jenkinsServerFactory.getStatusClient(master.url).getLoad();
+            synchronized (master) {
+                master.busyExecutors = load.getBusyExecutors();
+                master.totalExecutors = load.getTotalExecutors();
+                master.queueLength = load.getQueueLength();
+                master.startedSinceLoadRead = 0;
+            }
+            log.debugf("Jenkins master %s has %s of %s executors busy and %s queued builds.", master.url,
+                    load.getBusyExecutors(), load.getTotalExecutors(), load.getQueueLength());
+        } catch (BuildDriverException | RuntimeException e) {
+            log.warnf("Cannot read load of Jenkins master %s: %s", master.url, e.getMessage());
+            master.unavailableUntil = now + failureBackoff;
+        }
+    }
+
+
+    private static class MasterState {
+        final String url;
+        int busyExecutors;
+        int totalExecutors;
+        int queueLength;
+        int startedSinceLoadRead;
+        volatile long unavailableUntil;
+
+        MasterState(String url) {
+            this.url = url;
+        }
+
+        synchronized double getLoad() {
+            return (double) (busyExecutors + queueLength + startedSinceLoadRead) / Math.max(1, totalExecutors);
+        }
+    }
+}
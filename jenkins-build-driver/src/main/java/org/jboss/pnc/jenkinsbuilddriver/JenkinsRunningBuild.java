@@ -3,10 +3,9 @@ package org.jboss.pnc.jenkinsbuilddriver;
 import org.jboss.logging.Logger;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 
-import java.util.function.Consumer;
-
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-23.
  */
@@ -24,14 +23,24 @@ class JenkinsRunningBuild implements RunningBuild {
     }
 
     @Override
-    public void monitor(Consumer<CompletedBuild> onComplete, Consumer<Exception> onError) {
-        Consumer<BuildDriverStatus> onBuildComplete = (buildDriverStatus) -> {
-            onComplete.accept(new JenkinsCompletedBuild(jenkinsServerFactory, buildJob, buildDriverStatus));
-        };
-        Consumer<Exception> onBuildError = (e) -> {
-            onError.accept(e);
-        };
-        jenkinsBuildMonitor.monitor(buildJob.getJobName(), buildJob.getBuildNumber(), onBuildComplete, onBuildError);
-        log.infof("Waiting jenkins job %s #%s to complete.", buildJob.getJobName(), buildJob.getBuildNumber());
+    public void monitor(MonitorCallbacks<CompletedBuild> callbacks) {
+        MonitorCallbacks<BuildDriverStatus> buildCallbacks = callbacks.withCompletion(buildDriverStatus ->
+                callbacks.getOnComplete().accept(new JenkinsCompletedBuild(jenkinsServerFactory, buildJob, buildDriverStatus)));
+        jenkinsBuildMonitor.monitor(buildJob.getMasterUrl(), buildJob.getJobName(), buildJob.getBuildNumber(), buildCallbacks);
+        log.infof("Waiting jenkins job %s #%s on %s to complete.", buildJob.getJobName(), buildJob.getBuildNumber(), buildJob.getMasterUrl());
+    }
+
+    /**
+     * @return url of the Jenkins master the build runs on
+     */
+    public String getMasterUrl() {
+        return buildJob.getMasterUrl();
+    }
+
+    @Override
+    public void cancel() {
+        if (jenkinsBuildMonitor.cancel(buildJob.getMasterUrl(), buildJob.getJobName(), buildJob.getBuildNumber())) {
+            log.infof("Stopped waiting for jenkins job %s #%s.", buildJob.getJobName(), buildJob.getBuildNumber());
+        }
     }
 }
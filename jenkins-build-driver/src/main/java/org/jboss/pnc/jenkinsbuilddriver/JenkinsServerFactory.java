@@ -1,40 +1,240 @@
 package org.jboss.pnc.jenkinsbuilddriver;
 
 import com.offbytwo.jenkins.JenkinsServer;
+import com.offbytwo.jenkins.client.JenkinsHttpClient;
+import org.apache.http.HttpHeaders;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.jboss.logging.Logger;
 import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Factory to produce Jenkins server connection.
- * Each server configuration (each build) has its own factory.
+ *
+ * There is one {@link JenkinsServer} and one {@link JenkinsStatusClient} per configured Jenkins url and credentials,
+ * the clients are reused by all the builds. Connections are kept alive in bounded pools shared by all the clients.
+ *
+ * Builds can run on more Jenkins masters, the masters listed in jenkins.masters are used together with the one
+ * configured by url and share its credentials.
  *
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-23.
  */
+@ApplicationScoped
 public class JenkinsServerFactory {
 
+    private static final Logger log = Logger.getLogger(JenkinsServerFactory.class);
+
+    /**
+     * Comma separated urls of additional Jenkins masters.
+     */
+    static final String MASTERS_KEY = "jenkins.masters";
+    static final String MAX_CONNECTIONS_KEY = "jenkins.http.max-connections";
+    static final String MAX_CONNECTIONS_PER_ROUTE_KEY = "jenkins.http.max-connections-per-route";
+    /**
+     * Longest time in seconds an idle connection is kept alive, used also when the server does not send keep-alive timeout.
+     */
+    static final String KEEP_ALIVE_KEY = "jenkins.http.keep-alive";
+
+    private static final int DEFAULT_MAX_CONNECTIONS = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 10;
+    private static final int DEFAULT_KEEP_ALIVE = 30;
+
     @Inject
     Configuration configuration;
 
-    JenkinsServer getJenkinsServer() throws BuildDriverException {
-        try {
-            Properties properties = configuration.getModuleConfig(JenkinsBuildDriver.DRIVER_ID);
+    private final Map<String, JenkinsServer> jenkinsServers = new ConcurrentHashMap<>();
+    private final Map<String, JenkinsStatusClient> statusClients = new ConcurrentHashMap<>();
 
-            String url = properties.getProperty("url");
-            String username = properties.getProperty("username");
-            String password = properties.getProperty("password");
+    /**
+     * Pool used by jenkins-client, it works only with the pre 4.3 connection manager api.
+     */
+    private PoolingClientConnectionManager jenkinsClientConnectionManager;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
 
-            if (url == null || username == null || password == null) {
-                throw new BuildDriverException("Missing config to instantiate " + JenkinsBuildDriver.DRIVER_ID + ".");
+    /**
+     * @return urls of all the configured Jenkins masters, the one configured by url first
+     */
+    List<String> getMasterUrls() throws BuildDriverException {
+        Properties properties = getJenkinsProperties();
+        Set<String> urls = new LinkedHashSet<>();
+        urls.add(normalizeUrl(properties.getProperty("url")));
+        String masters = properties.getProperty(MASTERS_KEY);
+        if (masters != null) {
+            for (String master : masters.split(",")) {
+                if (!master.trim().isEmpty()) {
+                    urls.add(normalizeUrl(master));
+                }
             }
+        }
+        return new ArrayList<>(urls);
+    }
 
-            return new JenkinsServer(new URI(url), username, password);
+    /**
+     * @param masterUrl url of the Jenkins master, the one configured by url is used when null
+     */
+    JenkinsServer getJenkinsServer(String masterUrl) throws BuildDriverException {
+        Properties properties = getJenkinsProperties();
+        String url = masterUrl(masterUrl, properties);
+        String username = properties.getProperty("username");
+        String password = properties.getProperty("password");
+        URI uri;
+        try {
+            uri = new URI(url);
         } catch (URISyntaxException e) {
             throw new BuildDriverException("Cannot instantiate " + JenkinsBuildDriver.DRIVER_ID + ".", e);
         }
+        return jenkinsServers.computeIfAbsent(clientKey(url, username), key -> createJenkinsServer(uri, username, password, properties));
+    }
+
+    /**
+     * @param masterUrl url of the Jenkins master, the one configured by url is used when null
+     * @return client reading build statuses directly from Jenkins api
+     */
+    JenkinsStatusClient getStatusClient(String masterUrl) throws BuildDriverException {
+        Properties properties = getJenkinsProperties();
+        String url = masterUrl(masterUrl, properties);
+        String username = properties.getProperty("username");
+        String password = properties.getProperty("password");
+        return statusClients.computeIfAbsent(clientKey(url, username),
+                key -> new JenkinsStatusClient(getHttpClient(properties), url, username, password));
+    }
+
+    /**
+     * @return statistics of all the pooled connections to Jenkins
+     */
+    public PoolStats getConnectionPoolStats() {
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        int max = 0;
+        synchronized (this) {
+            for (PoolStats stats : new PoolStats[] {
+                    jenkinsClientConnectionManager == null ? null : jenkinsClientConnectionManager.getTotalStats(),
+                    connectionManager == null ? null : connectionManager.getTotalStats() }) {
+                if (stats != null) {
+                    leased += stats.getLeased();
+                    pending += stats.getPending();
+                    available += stats.getAvailable();
+                    max += stats.getMax();
+                }
+            }
+        }
+        return new PoolStats(leased, pending, available, max);
+    }
+
+    private JenkinsServer createJenkinsServer(URI uri, String username, String password, Properties properties) {
+        log.debugf("Creating Jenkins client for %s.", uri);
+        DefaultHttpClient client = new DefaultHttpClient(getJenkinsClientConnectionManager(properties));
+        client.setKeepAliveStrategy(keepAliveStrategy(properties));
+        String authorization = basicAuthorization(username, password);
+        client.addRequestInterceptor((request, context) -> request.setHeader(HttpHeaders.AUTHORIZATION, authorization));
+        return new JenkinsServer(new JenkinsHttpClient(uri, client));
+    }
+
+    private synchronized PoolingClientConnectionManager getJenkinsClientConnectionManager(Properties properties) {
+        if (jenkinsClientConnectionManager == null) {
+            jenkinsClientConnectionManager = new PoolingClientConnectionManager();
+            jenkinsClientConnectionManager.setMaxTotal(Configuration.getInt(properties, MAX_CONNECTIONS_KEY, DEFAULT_MAX_CONNECTIONS, 1));
+            jenkinsClientConnectionManager.setDefaultMaxPerRoute(Configuration.getInt(properties, MAX_CONNECTIONS_PER_ROUTE_KEY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, 1));
+        }
+        return jenkinsClientConnectionManager;
+    }
+
+    private synchronized CloseableHttpClient getHttpClient(Properties properties) {
+        if (httpClient == null) {
+            connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(Configuration.getInt(properties, MAX_CONNECTIONS_KEY, DEFAULT_MAX_CONNECTIONS, 1));
+            connectionManager.setDefaultMaxPerRoute(Configuration.getInt(properties, MAX_CONNECTIONS_PER_ROUTE_KEY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE, 1));
+            httpClient = HttpClients.custom()
+                    .useSystemProperties()
+                    .setConnectionManager(connectionManager)
+                    .setKeepAliveStrategy(keepAliveStrategy(properties))
+                    .build();
+        }
+        return httpClient;
+    }
+
+    private ConnectionKeepAliveStrategy keepAliveStrategy(Properties properties) {
+        long keepAlive = TimeUnit.SECONDS.toMillis(Configuration.getInt(properties, KEEP_ALIVE_KEY, DEFAULT_KEEP_ALIVE, 1));
+        return (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, keepAlive) : keepAlive;
+        };
+    }
+
+    private Properties getJenkinsProperties() throws BuildDriverException {
+        Properties properties = configuration.getModuleConfig(JenkinsBuildDriver.DRIVER_ID);
+
+        String url = properties.getProperty("url");
+        String username = properties.getProperty("username");
+        String password = properties.getProperty("password");
+
+        if (url == null || username == null || password == null) {
+            throw new BuildDriverException("Missing config to instantiate " + JenkinsBuildDriver.DRIVER_ID + ".");
+        }
+        return properties;
+    }
+
+    private String masterUrl(String masterUrl, Properties properties) {
+        return normalizeUrl(masterUrl == null ? properties.getProperty("url") : masterUrl);
+    }
+
+    static String normalizeUrl(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    private String clientKey(String url, String username) {
+        return username + "@" + url;
+    }
+
+    private String basicAuthorization(String username, String password) {
+        String credentials = username + ":" + password;
+        return "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    @PreDestroy
+    void close() throws IOException {
+        jenkinsServers.clear();
+        statusClients.clear();
+        closeConnections();
+    }
+
+    private synchronized void closeConnections() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+            httpClient = null;
+            connectionManager = null;
+        }
+        if (jenkinsClientConnectionManager != null) {
+            jenkinsClientConnectionManager.shutdown();
+            jenkinsClientConnectionManager = null;
+        }
     }
 }
@@ -0,0 +1,325 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.jboss.logging.Logger;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads statuses of many builds with a single tree filtered request to Jenkins xml api,
+ * instead of the job, build list and build details requests made by jenkins-client.
+ * Only the last {@link #RECENT_BUILDS} builds of a job are listed, an older build is read by its number.
+ * Build logs are read in chunks from the progressive text api.
+ * Load of the server is read from the executor counts and the build queue length.
+ */
+class JenkinsStatusClient {
+
+    private static final Logger log = Logger.getLogger(JenkinsStatusClient.class);
+
+    static final String BUILD_FIELDS = "number,building,result,duration";
+    /**
+     * Number of the newest builds listed per job, a monitored build is normally the last build of its job.
+     */
+    static final int RECENT_BUILDS = 5;
+    static final String RECENT_BUILDS_TREE = "builds[" + BUILD_FIELDS + "]{0," + RECENT_BUILDS + "}";
+
+    /**
+     * Offset of the next log chunk.
+     */
+    static final String TEXT_SIZE_HEADER = "X-Text-Size";
+    /**
+     * Present while the build is running and the log can grow.
+     */
+    static final String MORE_DATA_HEADER = "X-More-Data";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CloseableHttpClient httpClient;
+    private final String jenkinsUrl;
+    private final String authorization;
+
+    JenkinsStatusClient(CloseableHttpClient httpClient, String jenkinsUrl, String username, String password) {
+        this.httpClient = httpClient;
+        this.jenkinsUrl = jenkinsUrl.endsWith("/") ? jenkinsUrl : jenkinsUrl + "/";
+        String credentials = username + ":" + password;
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return statuses of the last {@link #RECENT_BUILDS} builds of the job by build number
+     */
+    Map<Integer, JenkinsBuildStatus> getJobBuilds(String jobName) throws BuildDriverException {
+        String url = jenkinsUrl + "job/" + encode(jobName) + "/api/xml?tree=" + encode(RECENT_BUILDS_TREE);
+        Document document = get(url);
+        return parseBuilds(document.getDocumentElement());
+    }
+
+    /**
+     * @return status of the build or null if Jenkins does not know the build
+     */
+    JenkinsBuildStatus getBuild(String jobName, int buildNumber) throws BuildDriverException {
+        String url = jenkinsUrl + "job/" + encode(jobName) + "/" + buildNumber + "/api/xml?tree=" + encode(BUILD_FIELDS);
+        Document document = get(url, true);
+        if (document == null) {
+            return null;
+        }
+        try {
+            return parseBuild(document.getDocumentElement());
+        } catch (NumberFormatException e) {
+            throw new BuildDriverException("Cannot parse status of " + jobName + " #" + buildNumber + ".", e);
+        }
+    }
+
+    /**
+     * @return statuses of the last {@link #RECENT_BUILDS} builds of all jobs on the server by job name and build number
+     */
+    Map<String, Map<Integer, JenkinsBuildStatus>> getAllJobBuilds() throws BuildDriverException {
+        String url = jenkinsUrl + "api/xml?tree=" + encode("jobs[name," + RECENT_BUILDS_TREE + "]");
+        Document document = get(url);
+        Map<String, Map<Integer, JenkinsBuildStatus>> jobs = new HashMap<>();
+        for (Element job : childElements(document.getDocumentElement(), "job")) {
+            String name = childText(job, "name");
+            if (name != null) {
+                jobs.put(name, parseBuilds(job));
+            }
+        }
+        return jobs;
+    }
+
+    /**
+     * @return busy and total executors of all the nodes and the number of queued builds
+     */
+    MasterLoad getLoad() throws BuildDriverException {
+        Element computers = get(jenkinsUrl + "computer/api/xml?tree=" + encode("busyExecutors,totalExecutors")).getDocumentElement();
+        Element queue = get(jenkinsUrl + "queue/api/xml?tree=" + encode("items[id]")).getDocumentElement();
+        try {
+            return parseLoad(computers, queue);
+        } catch (NumberFormatException e) {
+            throw new BuildDriverException("Cannot parse load of " + jenkinsUrl + ".", e);
+        }
+    }
+
+    /**
+     * Copies the log from the given offset to the output stream, the response is streamed so the log is not kept in memory.
+     *
+     * @param start offset in bytes of the first byte to read
+     * @return offset of the next chunk and whether the log can grow
+     */
+    ProgressiveText writeLog(String jobName, int buildNumber, long start, OutputStream outputStream) throws BuildDriverException {
+        String url = jenkinsUrl + "job/" + encode(jobName) + "/" + buildNumber + "/logText/progressiveText?start=" + start;
+        HttpGet request = new HttpGet(url);
+        request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (statusCode != HttpStatus.SC_OK) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new BuildDriverException("Cannot read build log from " + url + ", response status: " + statusCode + ".");
+            }
+            long copied = 0;
+            if (response.getEntity() != null) {
+                try (InputStream content = response.getEntity().getContent()) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int read;
+                    while ((read = content.read(buffer)) != -1) {
+                        outputStream.write(buffer, 0, read);
+                        copied += read;
+                    }
+                }
+            }
+            Header textSize = response.getFirstHeader(TEXT_SIZE_HEADER);
+            Header moreData = response.getFirstHeader(MORE_DATA_HEADER);
+            long nextStart = textSize == null ? start + copied : Long.parseLong(textSize.getValue().trim());
+            return new ProgressiveText(nextStart, moreData != null && Boolean.parseBoolean(moreData.getValue().trim()));
+        } catch (IOException | NumberFormatException e) {
+            throw new BuildDriverException("Cannot read build log from " + url + ".", e);
+        }
+    }
+
+    private Document get(String url) throws BuildDriverException {
+        return get(url, false);
+    }
+
+    /**
+     * @param nullIfNotFound return null instead of failing when the response status is 404
+     */
+    private Document get(String url, boolean nullIfNotFound) throws BuildDriverException {
+        HttpGet request = new HttpGet(url);
+        request.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int statusCode = response.getStatusLine().getStatusCode();
+            if (nullIfNotFound && statusCode == HttpStatus.SC_NOT_FOUND) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                return null;
+            }
+            if (statusCode != HttpStatus.SC_OK) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                throw new BuildDriverException("Cannot read " + url + ", response status: " + statusCode + ".");
+            }
+            try (InputStream content = response.getEntity().getContent()) {
+                return parse(content);
+            }
+        } catch (IOException e) {
+            throw new BuildDriverException("Cannot read " + url + ".", e);
+        }
+    }
+
+    static Document parse(InputStream content) throws BuildDriverException, IOException {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return builder.parse(content);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new BuildDriverException("Cannot parse Jenkins api response.", e);
+        }
+    }
+
+    /**
+     * A build which can not be parsed is skipped, the monitor checks it again with the next poll.
+     */
+    static Map<Integer, JenkinsBuildStatus> parseBuilds(Element parent) {
+        Map<Integer, JenkinsBuildStatus> builds = new HashMap<>();
+        for (Element build : childElements(parent, "build")) {
+            JenkinsBuildStatus status;
+            try {
+                status = parseBuild(build);
+            } catch (NumberFormatException e) {
+                log.warnf("Skipping build %s of %s with invalid status: %s", childText(build, "number"),
+                        childText(parent, "name"), e.getMessage());
+                continue;
+            }
+            if (status != null) {
+                builds.put(status.getNumber(), status);
+            }
+        }
+        return builds;
+    }
+
+    /**
+     * @return null if the build has no number
+     * @throws NumberFormatException if the number or the duration is not a number
+     */
+    static JenkinsBuildStatus parseBuild(Element build) {
+        String number = childText(build, "number");
+        if (number == null) {
+            return null;
+        }
+        String duration = childText(build, "duration");
+        return new JenkinsBuildStatus(
+                Integer.parseInt(number),
+                Boolean.parseBoolean(childText(build, "building")),
+                childText(build, "result"),
+                duration == null ? 0L : Long.parseLong(duration));
+    }
+
+    static MasterLoad parseLoad(Element computers, Element queue) {
+        String busyExecutors = childText(computers, "busyExecutors");
+        String totalExecutors = childText(computers, "totalExecutors");
+        return new MasterLoad(
+                busyExecutors == null ? 0 : Integer.parseInt(busyExecutors),
+                totalExecutors == null ? 0 : Integer.parseInt(totalExecutors),
+                childElements(queue, "item").size());
+    }
+
+    private static List<Element> childElements(Element parent, String name) {
+        List<Element> elements = new ArrayList<>();
+        NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == Node.ELEMENT_NODE && name.equals(child.getNodeName())) {
+                elements.add((Element) child);
+            }
+        }
+        return elements;
+    }
+
+    private static String childText(Element parent, String name) {
+        for (Element child : childElements(parent, name)) {
+            return child.getTextContent().trim();
+        }
+        return null;
+    }
+
+    static class ProgressiveText {
+        private final long nextStart;
+        private final boolean moreData;
+
+        ProgressiveText(long nextStart, boolean moreData) {
+            this.nextStart = nextStart;
+            this.moreData = moreData;
+        }
+
+        long getNextStart() {
+            return nextStart;
+        }
+
+        /**
+         * @return true if the build is still running and the log can grow
+         */
+        boolean hasMoreData() {
+            return moreData;
+        }
+    }
+
+    static class MasterLoad {
+        private final int busyExecutors;
+        private final int totalExecutors;
+        private final int queueLength;
+
+        MasterLoad(int busyExecutors, int totalExecutors, int queueLength) {
+            this.busyExecutors = busyExecutors;
+            this.totalExecutors = totalExecutors;
+            this.queueLength = queueLength;
+        }
+
+        int getBusyExecutors() {
+            return busyExecutors;
+        }
+
+        int getTotalExecutors() {
+            return totalExecutors;
+        }
+
+        /**
+         * @return number of builds waiting for an executor
+         */
+        int getQueueLength() {
+            return queueLength;
+        }
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
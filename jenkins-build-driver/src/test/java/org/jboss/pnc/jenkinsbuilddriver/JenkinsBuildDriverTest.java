@@ -0,0 +1,29 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+import org.apache.http.client.HttpResponseException;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.ConnectException;
+
+public class JenkinsBuildDriverTest {
+
+    @Test
+    public void shouldFailMasterOnlyOnConnectionAndServerErrors() {
+        //given
+        BuildDriverException connectionError = new BuildDriverException("Cannot check for existing job.",
+                new ConnectException("Connection refused"));
+        BuildDriverException serverError = new BuildDriverException("Cannot create/update job.",
+                new HttpResponseException(503, "Service Unavailable"));
+        BuildDriverException clientError = new BuildDriverException("Cannot create/update job.",
+                new HttpResponseException(400, "Bad Request"));
+        BuildDriverException jobError = new BuildDriverException("Cannot configure build job.");
+
+        //then
+        Assert.assertTrue(JenkinsBuildDriver.isMasterError(connectionError));
+        Assert.assertTrue(JenkinsBuildDriver.isMasterError(serverError));
+        Assert.assertFalse(JenkinsBuildDriver.isMasterError(clientError));
+        Assert.assertFalse(JenkinsBuildDriver.isMasterError(jobError));
+    }
+}
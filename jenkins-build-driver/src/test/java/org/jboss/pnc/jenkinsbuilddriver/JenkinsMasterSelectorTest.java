@@ -0,0 +1,127 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class JenkinsMasterSelectorTest {
+
+    private static final String MASTER_A = "http://jenkins-a:8080";
+    private static final String MASTER_B = "http://jenkins-b:8080";
+
+    private final Map<String, JenkinsStatusClient.MasterLoad> loads = new HashMap<>();
+
+    @Test
+    public void shouldSelectLeastLoadedMaster() throws Exception {
+        //given
+        loads.put(MASTER_A, new JenkinsStatusClient.MasterLoad(4, 4, 2));
+        loads.put(MASTER_B, new JenkinsStatusClient.MasterLoad(1, 4, 0));
+        JenkinsMasterSelector selector = new JenkinsMasterSelector(serverFactory(), configuration());
+        selector.refreshLoads();
+
+        //when
+        List<String> masters = selector.getMasters();
+
+        //then
+        Assert.assertEquals(Arrays.asList(MASTER_B, MASTER_A), masters);
+    }
+
+    @Test
+    public void shouldCountStartedBuildsUntilLoadIsRead() throws Exception {
+        //given
+        loads.put(MASTER_A, new JenkinsStatusClient.MasterLoad(1, 4, 0));
+        loads.put(MASTER_B, new JenkinsStatusClient.MasterLoad(2, 4, 0));
+        JenkinsMasterSelector selector = new JenkinsMasterSelector(serverFactory(), configuration());
+        selector.refreshLoads();
+        Assert.assertEquals(MASTER_A, selector.getMasters().get(0));
+
+        //when
+        selector.buildStarted(MASTER_A);
+        selector.buildStarted(MASTER_A);
+
+        //then
+        Assert.assertEquals(MASTER_B, selector.getMasters().get(0));
+    }
+
+    @Test
+    public void shouldTryFailedMasterLast() throws Exception {
+        //given
+        loads.put(MASTER_A, new JenkinsStatusClient.MasterLoad(0, 4, 0));
+        loads.put(MASTER_B, new JenkinsStatusClient.MasterLoad(3, 4, 0));
+        JenkinsMasterSelector selector = new JenkinsMasterSelector(serverFactory(), configuration());
+        selector.refreshLoads();
+        Assert.assertEquals(MASTER_A, selector.getMasters().get(0));
+
+        //when
+        selector.masterFailed(MASTER_A);
+
+        //then
+        Assert.assertEquals(Arrays.asList(MASTER_B, MASTER_A), selector.getMasters());
+    }
+
+    @Test
+    public void shouldNotSelectMasterWhichCannotReportLoad() throws Exception {
+        //given
+        loads.put(MASTER_B, new JenkinsStatusClient.MasterLoad(4, 4, 10));
+        JenkinsMasterSelector selector = new JenkinsMasterSelector(serverFactory(), configuration());
+        selector.refreshLoads();
+
+        //when
+        List<String> masters = selector.getMasters();
+
+        //then
+        Assert.assertEquals(Arrays.asList(MASTER_B, MASTER_A), masters);
+    }
+
+    @Test
+    public void shouldNotReadLoadWhenSelectingMaster() throws Exception {
+        //given
+        loads.put(MASTER_A, new JenkinsStatusClient.MasterLoad(4, 4, 0));
+        loads.put(MASTER_B, new JenkinsStatusClient.MasterLoad(0, 4, 0));
+        JenkinsMasterSelector selector = new JenkinsMasterSelector(serverFactory(), configuration());
+        selector.refreshLoads();
+
+        //when
+        loads.clear();
+        List<String> masters = selector.getMasters();
+
+        //then
+        Assert.assertEquals(Arrays.asList(MASTER_B, MASTER_A), masters);
+    }
+
+    private JenkinsServerFactory serverFactory() {
+        return new JenkinsServerFactory() {
+            @Override
+            List<String> getMasterUrls() {
+                return Arrays.asList(MASTER_A, MASTER_B);
+            }
+
+            @Override
+            JenkinsStatusClient getStatusClient(String masterUrl) {
+                return new JenkinsStatusClient(null, masterUrl, "user", "password") {
+                    @Override
+                    MasterLoad getLoad() throws BuildDriverException {
+                        MasterLoad load = loads.get(masterUrl);
+                        if (load == null) {
+                            throw new BuildDriverException("Cannot connect to " + masterUrl + ".");
+                        }
+                        return load;
+                    }
+                };
+            }
+        };
+    }
+
+    private Configuration configuration() {
+        Properties properties = new Properties();
+        properties.setProperty(JenkinsMasterSelector.LOAD_REFRESH_INTERVAL_KEY, "3600");
+        return new Configuration(properties);
+    }
+}
@@ -0,0 +1,85 @@
+package org.jboss.pnc.jenkinsbuilddriver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class JenkinsStatusClientTest {
+
+    @Test
+    public void shouldParseJobBuilds() throws Exception {
+        //given
+        String xml = "<freeStyleProject>" +
+                "<build><building>true</building><duration>0</duration><number>4</number></build>" +
+                "<build><building>false</building><duration>1200</duration><number>3</number><result>FAILURE</result></build>" +
+                "</freeStyleProject>";
+
+        //when
+        Document document = JenkinsStatusClient.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        Map<Integer, JenkinsBuildStatus> builds = JenkinsStatusClient.parseBuilds(document.getDocumentElement());
+
+        //then
+        Assert.assertEquals(2, builds.size());
+        Assert.assertFalse(builds.get(4).isCompleted());
+        Assert.assertNull(builds.get(4).getResult());
+        Assert.assertTrue(builds.get(3).isCompleted());
+        Assert.assertEquals("FAILURE", builds.get(3).getResult());
+        Assert.assertEquals(1200L, builds.get(3).getDuration());
+    }
+
+    @Test
+    public void shouldIgnoreBuildsWithoutNumber() throws Exception {
+        //given
+        String xml = "<freeStyleProject><build><building>false</building></build></freeStyleProject>";
+
+        //when
+        Document document = JenkinsStatusClient.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        Map<Integer, JenkinsBuildStatus> builds = JenkinsStatusClient.parseBuilds(document.getDocumentElement());
+
+        //then
+        Assert.assertTrue(builds.isEmpty());
+    }
+
+    @Test
+    public void shouldSkipBuildsWithInvalidStatus() throws Exception {
+        //given
+        String xml = "<freeStyleProject>" +
+                "<build><building>false</building><duration>12x</duration><number>4</number></build>" +
+                "<build><building>false</building><duration>1200</duration><number>three</number></build>" +
+                "<build><building>false</building><duration>800</duration><number>2</number><result>SUCCESS</result></build>" +
+                "</freeStyleProject>";
+
+        //when
+        Document document = JenkinsStatusClient.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        Map<Integer, JenkinsBuildStatus> builds = JenkinsStatusClient.parseBuilds(document.getDocumentElement());
+
+        //then
+        Assert.assertEquals(1, builds.size());
+        Assert.assertEquals("SUCCESS", builds.get(2).getResult());
+    }
+
+    @Test
+    public void shouldParseSingleBuild() throws Exception {
+        //given
+        String xml = "<freeStyleBuild><building>false</building><duration>800</duration><number>2</number><result>SUCCESS</result></freeStyleBuild>";
+
+        //when
+        Document document = JenkinsStatusClient.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        JenkinsBuildStatus build = JenkinsStatusClient.parseBuild(document.getDocumentElement());
+
+        //then
+        Assert.assertEquals(2, build.getNumber());
+        Assert.assertTrue(build.isCompleted());
+        Assert.assertEquals("SUCCESS", build.getResult());
+    }
+
+    @Test
+    public void shouldLimitListedBuilds() {
+        Assert.assertEquals("builds[number,building,result,duration]{0," + JenkinsStatusClient.RECENT_BUILDS + "}",
+                JenkinsStatusClient.RECENT_BUILDS_TREE);
+    }
+}
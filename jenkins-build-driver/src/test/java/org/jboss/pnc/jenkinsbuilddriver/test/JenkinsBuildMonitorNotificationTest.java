@@ -0,0 +1,97 @@
+package org.jboss.pnc.jenkinsbuilddriver.test;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.jenkinsbuilddriver.JenkinsBuildMonitor;
+import org.jboss.pnc.jenkinsbuilddriver.JenkinsServerFactory;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class JenkinsBuildMonitorNotificationTest {
+
+    @Test
+    public void shouldCompleteMonitoredBuildOnNotification() {
+        //given
+        JenkinsBuildMonitor monitor = new JenkinsBuildMonitor(new JenkinsServerFactory(), notificationsEnabledConfiguration());
+        List<BuildDriverStatus> completed = new CopyOnWriteArrayList<>();
+        List<Exception> errors = new CopyOnWriteArrayList<>();
+        monitor.monitor(null, "job-1", 3, new MonitorCallbacks<>(completed::add, errors::add));
+
+        //when
+        boolean accepted = monitor.buildCompleted(null, "job-1", 3, "SUCCESS");
+        boolean acceptedAgain = monitor.buildCompleted(null, "job-1", 3, "FAILURE");
+
+        //then
+        Assert.assertTrue(accepted);
+        Assert.assertFalse("Build should be completed only once.", acceptedAgain);
+        Assert.assertEquals(1, completed.size());
+        Assert.assertEquals(BuildDriverStatus.SUCCESS, completed.get(0));
+        Assert.assertEquals(0, errors.size());
+        Assert.assertEquals(0, monitor.getMonitoredBuildsCount());
+    }
+
+    @Test
+    public void shouldIgnoreNotificationOfUnknownBuild() {
+        //given
+        JenkinsBuildMonitor monitor = new JenkinsBuildMonitor(new JenkinsServerFactory(), notificationsEnabledConfiguration());
+        List<BuildDriverStatus> completed = new CopyOnWriteArrayList<>();
+        monitor.monitor(null, "job-1", 3, new MonitorCallbacks<>(completed::add, e -> {}));
+
+        //when
+        boolean accepted = monitor.buildCompleted(null, "job-1", 2, "SUCCESS");
+
+        //then
+        Assert.assertFalse(accepted);
+        Assert.assertEquals(0, completed.size());
+        Assert.assertEquals(1, monitor.getMonitoredBuildsCount());
+    }
+
+    @Test
+    public void shouldCompleteBuildOnMasterOfNotification() {
+        //given
+        JenkinsBuildMonitor monitor = new JenkinsBuildMonitor(new JenkinsServerFactory(), notificationsEnabledConfiguration());
+        List<BuildDriverStatus> completedOnA = new CopyOnWriteArrayList<>();
+        List<BuildDriverStatus> completedOnB = new CopyOnWriteArrayList<>();
+        monitor.monitor("http://jenkins-a:8080/", "job-1", 3, new MonitorCallbacks<>(completedOnA::add, e -> {}));
+        monitor.monitor("http://jenkins-b:8080", "job-1", 3, new MonitorCallbacks<>(completedOnB::add, e -> {}));
+
+        //when
+        boolean acceptedWithoutUrl = monitor.buildCompleted(null, "job-1", 3, "SUCCESS");
+        boolean acceptedOnB = monitor.buildCompleted("http://jenkins-b:8080/job/job-1/3/", "job-1", 3, "FAILURE");
+
+        //then
+        Assert.assertFalse("Notification without url is ambiguous.", acceptedWithoutUrl);
+        Assert.assertTrue(acceptedOnB);
+        Assert.assertTrue(completedOnA.isEmpty());
+        Assert.assertEquals(1, completedOnB.size());
+        Assert.assertEquals(BuildDriverStatus.FAILED, completedOnB.get(0));
+        Assert.assertEquals(1, monitor.getMonitoredBuildsCount());
+        Assert.assertTrue(monitor.cancel("http://jenkins-a:8080", "job-1", 3));
+    }
+
+    @Test
+    public void shouldAcceptOnlyConfiguredToken() {
+        //given
+        JenkinsBuildMonitor monitor = new JenkinsBuildMonitor(new JenkinsServerFactory(), notificationsEnabledConfiguration());
+        JenkinsBuildMonitor monitorWithoutToken = new JenkinsBuildMonitor(new JenkinsServerFactory(), new Configuration(new Properties()));
+
+        //then
+        Assert.assertTrue(monitor.isTokenValid("secret"));
+        Assert.assertFalse(monitor.isTokenValid("other"));
+        Assert.assertFalse(monitor.isTokenValid(null));
+        Assert.assertFalse(monitorWithoutToken.isTokenValid(""));
+    }
+
+    private Configuration notificationsEnabledConfiguration() {
+        Properties properties = new Properties();
+        properties.setProperty("jenkins.notifications.url", "http://localhost:8080/pnc-rest/rest/jenkins/notification");
+        properties.setProperty("jenkins.notifications.token", "secret");
+        properties.setProperty("jenkins.monitor.fallback-poll-interval", "3600");
+        return new Configuration(properties);
+    }
+}
@@ -6,6 +6,7 @@ import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.common.util.ObjectWrapper;
 import org.jboss.pnc.jenkinsbuilddriver.JenkinsBuildDriver;
 import org.jboss.pnc.jenkinsbuilddriver.JenkinsBuildMonitor;
+import org.jboss.pnc.jenkinsbuilddriver.JenkinsMasterSelector;
 import org.jboss.pnc.jenkinsbuilddriver.JenkinsServerFactory;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildDriverStatus;
@@ -13,6 +14,7 @@ import org.jboss.pnc.model.Project;
 import org.jboss.pnc.model.RepositoryType;
 import org.jboss.pnc.spi.builddriver.BuildResult;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConnectionInfo;
@@ -51,6 +53,7 @@ public class JenkinsDriverRemoteTest {
                 .addClass(Configuration.class)
                 .addClass(JenkinsBuildDriver.class)
                 .addClass(JenkinsBuildMonitor.class)
+                .addClass(JenkinsMasterSelector.class)
                 .addClass(JenkinsServerFactory.class);
         System.out.println(jar.toString(true));
         return jar;
@@ -85,7 +88,7 @@ public class JenkinsDriverRemoteTest {
         };
         mutex.acquire();
         RunningBuild runningBuild = jenkinsBuildDriver.startProjectBuild(pbc, repositoryConfiguration);
-        runningBuild.monitor(onComplete, onError);
+        runningBuild.monitor(new MonitorCallbacks<>(onComplete, onError));
         mutex.tryAcquire(30, TimeUnit.SECONDS); //wait for callback to release
 
         Assert.assertTrue("There was no complete callback.", completed.get());
@@ -105,7 +108,7 @@ public class JenkinsDriverRemoteTest {
             throw new AssertionError(e);
         };
 
-        runningBuild.monitor(onWaitComplete, onWaitError);
+        runningBuild.monitor(new MonitorCallbacks<>(onWaitComplete, onWaitError));
         mutex.tryAcquire(120, TimeUnit.SECONDS); //wait for callback to release
 
         long minBuildTime = 10000;
@@ -0,0 +1,171 @@
+package org.jboss.pnc.mavenrepositorymanager;
+
+import org.commonjava.aprox.client.core.AproxClientException;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Build-level hosted repository + group pairs created in advance, so a build does not wait for their creation.
+ *
+ * Pairs are kept per product repo id, because the build group contains the product-level group. A product starts to be
+ * pooled with its first build, each pair taken from the pool is replaced in the background. Pool size of zero or less
+ * disables the pool. Pairs which are not taken are deleted from AProx when the pool is cleared or shut down.
+ */
+class BuildRepositoryPool {
+
+    private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
+    /**
+     * Creates the build-level hosted repository and group in AProx.
+     */
+    interface Creator {
+        /**
+         * @return id of the created build repo
+         */
+        String create(String productRepoId) throws AproxClientException;
+    }
+
+    /**
+     * Deletes the build-level hosted repository and group from AProx.
+     */
+    interface Deleter {
+        void delete(String buildRepoId) throws AproxClientException;
+    }
+
+    /**
+     * Seconds the shut down waits for the build repos being created, so they are deleted too
+     */
+    private static final long SHUTDOWN_TIMEOUT = 10L;
+
+    private final int size;
+
+    private final Creator creator;
+
+    private final Deleter deleter;
+
+    private final Map<String, ProductPool> pools = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor;
+
+    BuildRepositoryPool(int size, Creator creator, Deleter deleter) {
+        this.size = size;
+        this.creator = creator;
+        this.deleter = deleter;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aprox-build-repo-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes a ready build repo of the product and starts creating its replacement.
+     *
+     * @return id of the build repo or null if none is ready
+     */
+    String take(String productRepoId) {
+        if (size <= 0) {
+            return null;
+        }
+        ProductPool pool = pools.computeIfAbsent(productRepoId, key -> new ProductPool());
+        String buildRepoId = pool.ready.poll();
+        if (buildRepoId != null) {
+            pool.pooled.decrementAndGet();
+        }
+        refill(productRepoId, pool);
+        return buildRepoId;
+    }
+
+    /**
+     * Deletes all the ready build repos in the background, eg. after the product stores were removed from AProx and the
+     * pooled build groups point to missing stores.
+     */
+    void clear() {
+        for (ProductPool pool : pools.values()) {
+            for (String buildRepoId : drain(pool)) {
+                try {
+                    executor.execute(() -> delete(buildRepoId));
+                } catch (RejectedExecutionException e) {
+                    logger.warning("Cannot delete pooled build repo " + buildRepoId + ", the pool is shut down.");
+                }
+            }
+        }
+    }
+
+    int getReadyCount(String productRepoId) {
+        ProductPool pool = pools.get(productRepoId);
+        return pool == null ? 0 : pool.ready.size();
+    }
+
+    /**
+     * Stops creating build repos and deletes the ready ones, so they are not left behind in AProx.
+     */
+    void shutdown() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pools.values().forEach(pool -> drain(pool).forEach(this::delete));
+    }
+
+    private List<String> drain(ProductPool pool) {
+        List<String> drained = new ArrayList<>();
+        String buildRepoId;
+        while ((buildRepoId = pool.ready.poll()) != null) {
+            pool.pooled.decrementAndGet();
+            drained.add(buildRepoId);
+        }
+        return drained;
+    }
+
+    private void refill(String productRepoId, ProductPool pool) {
+        int pooled;
+        while ((pooled = pool.pooled.get()) < size) {
+            if (pool.pooled.compareAndSet(pooled, pooled + 1)) {
+                executor.execute(() -> create(productRepoId, pool));
+            }
+        }
+    }
+
+    private void create(String productRepoId, ProductPool pool) {
+        try {
+            String buildRepoId = creator.create(productRepoId);
+            pool.ready.add(buildRepoId);
+            logger.fine("Build repo " + buildRepoId + " of " + productRepoId + " is ready in the pool.");
+        } catch (AproxClientException | RuntimeException e) {
+            pool.pooled.decrementAndGet();
+            logger.warning("Cannot create pooled build repo of " + productRepoId + ": " + e.getMessage());
+        }
+    }
+
+    private void delete(String buildRepoId) {
+        try {
+            deleter.delete(buildRepoId);
+            logger.fine("Pooled build repo " + buildRepoId + " was deleted.");
+        } catch (AproxClientException | RuntimeException e) {
+            logger.warning("Cannot delete pooled build repo " + buildRepoId + ": " + e.getMessage());
+        }
+    }
+
+    private static class ProductPool {
+        final Queue<String> ready = new ConcurrentLinkedQueue<>();
+        /**
+         * Ready build repos and the ones being created
+         */
+        final AtomicInteger pooled = new AtomicInteger();
+    }
+}
@@ -17,11 +17,11 @@ import org.commonjava.aprox.promote.model.PromoteResult;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.util.ArtifactPathInfo;
 import org.jboss.pnc.common.Configuration;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.ArtifactStatus;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.model.ProductVersion;
 import org.jboss.pnc.model.RepositoryType;
 import org.jboss.pnc.model.builder.ArtifactBuilder;
@@ -30,6 +30,7 @@ import org.jboss.pnc.spi.repositorymanager.RepositoryManagerException;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 
 import java.io.File;
+import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,7 +38,17 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
@@ -52,11 +63,27 @@ import javax.inject.Inject;
 @ApplicationScoped
 public class RepositoryManagerDriver implements RepositoryManager {
 
+    private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass().getName());
+
     private static final String MAVEN_REPOSITORY_CONFIG_SECTION = "maven-repository";
 
     private static final String BASE_URL_PROPERTY = "base.url";
 
-    private static final String GROUP_ID_FORMAT = "product+%s+%s";
+    static final String STORE_CACHE_TTL_PROPERTY = "aprox.store-cache.ttl";
+
+    private static final long DEFAULT_STORE_CACHE_TTL = 600L;
+
+    static final String PROMOTION_THREADS_PROPERTY = "aprox.promotion.threads";
+
+    private static final int DEFAULT_PROMOTION_THREADS = 4;
+
+    static final String BUILD_REPO_POOL_SIZE_PROPERTY = "aprox.build-repo-pool.size";
+
+    private static final int DEFAULT_BUILD_REPO_POOL_SIZE = 2;
+
+    private static final String PRODUCT_PREFIX = "product+";
+
+    private static final String GROUP_ID_FORMAT = PRODUCT_PREFIX + "%s+%s";
 
     private static final String REPO_ID_FORMAT = "build+%s+%s";
 
@@ -68,6 +95,17 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
     private Aprox aprox;
 
+    private StoreExistenceCache storeCache;
+
+    private ExecutorService promotionExecutor;
+
+    private BuildRepositoryPool buildRepoPool;
+
+    /**
+     * Makes build repo ids unique, starts from the current time so ids are not reused after restart.
+     */
+    private final AtomicLong buildRepoSequence = new AtomicLong(System.currentTimeMillis());
+
     @Deprecated
     public RepositoryManagerDriver() { // workaround for CDI constructor parameter injection bug
     }
@@ -87,6 +125,43 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
         aprox = new Aprox(baseUrl, new AproxFoloAdminClientModule(), new AproxFoloContentClientModule(),
                 new AproxPromoteClientModule()).connect();
+
+        storeCache = new StoreExistenceCache(TimeUnit.SECONDS.toMillis(Configuration.getLong(properties,
+                STORE_CACHE_TTL_PROPERTY, DEFAULT_STORE_CACHE_TTL)));
+
+        int promotionThreads = Configuration.getInt(properties, PROMOTION_THREADS_PROPERTY, DEFAULT_PROMOTION_THREADS, 1);
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        promotionExecutor = Executors.newFixedThreadPool(promotionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "aprox-promotion-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int poolSize = Configuration.getInt(properties, BUILD_REPO_POOL_SIZE_PROPERTY, DEFAULT_BUILD_REPO_POOL_SIZE);
+        buildRepoPool = new BuildRepositoryPool(poolSize, productRepoId -> {
+            String buildRepoId = newBuildRepoId(productRepoId);
+            setupBuildRepos(buildRepoId, productRepoId);
+            return buildRepoId;
+        }, this::deleteBuildRepos);
+
+        // global repos are created once here, if AProx is not available yet they are created with the first build
+        try {
+            setupGlobalRepos();
+        } catch (AproxClientException e) {
+            logger.warning("Cannot setup shared hosted repositories on startup, they will be set up with the first build: "
+                    + e.getMessage());
+        }
+    }
+
+
+    @PreDestroy
+    void shutdown() {
+        if (promotionExecutor != null) {
+            promotionExecutor.shutdown();
+        }
+        if (buildRepoPool != null) {
+            buildRepoPool.shutdown();
+        }
     }
 
     /**
@@ -103,6 +178,10 @@ public class RepositoryManagerDriver implements RepositoryManager {
      * flexible configurations on demand. Because these rules will create the necessary repositories the first time they are
      * accessed, this driver only has to formulate a repository URL that will trigger the appropriate AutoProx rule, then pass
      * this back via a {@link MavenRepositoryConfiguration} instance.
+     *
+     * Global and product-level stores which are known to exist are not checked again until their cache entry expires, so
+     * in the steady state no AProx call is needed. The build-level stores are taken from a pool of stores created in advance
+     * for the product, they are only created here when the pool of the product is empty, eg. for its first build.
      * 
      * @throws RepositoryManagerException In the event one or more repositories or groups can't be created to support the build
      *         (or product, or shared-releases).
@@ -124,19 +203,22 @@ public class RepositoryManagerDriver implements RepositoryManager {
         try {
             setupProductRepos(productRepoId);
         } catch (AproxClientException e) {
+            invalidateProductRepos(productRepoId);
             throw new RepositoryManagerException("Failed to setup product-local hosted repository or repository group: %s", e,
                     e.getMessage());
         }
 
-        // TODO Better way to generate id that doesn't rely on System.currentTimeMillis() but will still be relatively fast.
-
-        String buildRepoId = String.format(REPO_ID_FORMAT, safeUrlPart(buildConfiguration.getProject().getName()),
-                System.currentTimeMillis());
-        try {
-            setupBuildRepos(buildRepoId, productRepoId);
-        } catch (AproxClientException e) {
-            throw new RepositoryManagerException("Failed to setup build-local hosted repository or repository group: %s", e,
-                    e.getMessage());
+        String buildRepoId = buildRepoPool.take(productRepoId);
+        if (buildRepoId == null) {
+            buildRepoId = newBuildRepoId(productRepoId);
+            try {
+                setupBuildRepos(buildRepoId, productRepoId);
+            } catch (AproxClientException e) {
+                // the product group may have been removed since it was cached
+                invalidateProductRepos(productRepoId);
+                throw new RepositoryManagerException("Failed to setup build-local hosted repository or repository group: %s",
+                        e, e.getMessage());
+            }
         }
 
         // since we're setting up a group/hosted repo per build, we can pin the tracking ID to the build repo ID.
@@ -154,8 +236,9 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
     /**
      * Retrieve tracking report from repository manager. Add each tracked download to the dependencies of the build result. Add
-     * each tracked upload to the built artifacts of the build result. Promote uploaded artifacts to the product-level storage.
-     * Finally, clear the tracking report, and delete the hosted repository + group associated with the completed build.
+     * each tracked upload to the built artifacts of the build result. Promote uploaded artifacts to the product-level storage
+     * and imported dependencies to the shared imports, all the promotions run concurrently and are rolled back together if
+     * any of them fails. Finally, clear the tracking report, and delete the hosted repository + group associated with the completed build.
      */
     @Override
     // TODO move under returned object (do not use the one from model) form createRepo
@@ -170,8 +253,11 @@ public class RepositoryManagerDriver implements RepositoryManager {
                     e.getMessage());
         }
 
-        processUploads(report, buildResult, repository);
-        processDownloads(report, buildResult);
+        List<PromoteRequest> promotions = new ArrayList<>();
+        processUploads(report, buildResult, repository, promotions);
+        processDownloads(report, buildResult, promotions);
+
+        promoteAll(buildId, promotions);
 
         // clean up.
         try {
@@ -186,14 +272,16 @@ public class RepositoryManagerDriver implements RepositoryManager {
     }
 
     /**
-     * Promote all build dependencies NOT ALREADY CAPTURED to the hosted repository holding store for the shared imports, then
-     * for each dependency artifact, add its metadata to the build result.
+     * Prepare promotion of all build dependencies NOT ALREADY CAPTURED to the hosted repository holding store for the shared
+     * imports, one request per source store, then for each dependency artifact, add its metadata to the build result.
      * 
      * @param report The tracking report that contains info about artifacts downloaded by the build
      * @param buildResult The build result where dependency artifact metadata should be appended
-     * @throws RepositoryManagerException In case of a client API transport error or an error during promotion of artifacts
+     * @param promotions The promotion requests of the build, where the dependency promotions are appended
+     * @throws RepositoryManagerException In case of a client API transport error
      */
-    private void processDownloads(TrackedContentDTO report, BuildRecord buildResult) throws RepositoryManagerException {
+    private void processDownloads(TrackedContentDTO report, BuildRecord buildResult, List<PromoteRequest> promotions)
+            throws RepositoryManagerException {
 
         AproxContentClientModule content;
         try {
@@ -204,7 +292,7 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
         Set<TrackedContentEntryDTO> downloads = report.getDownloads();
         if (downloads != null) {
-            List<Artifact> deps = new ArrayList<>();
+            List<BuildRecordArtifact> deps = new ArrayList<>();
 
             Map<StoreKey, Set<String>> toPromote = new HashMap<>();
 
@@ -236,13 +324,13 @@ public class RepositoryManagerDriver implements RepositoryManager {
                 ArtifactBuilder artifactBuilder = ArtifactBuilder.newBuilder().checksum(download.getSha256())
                         .deployUrl(content.contentUrl(download.getStoreKey(), download.getPath()))
                         .filename(new File(path).getName()).identifier(aref.toString()).repoType(RepositoryType.MAVEN)
-                        .status(ArtifactStatus.BINARY_IMPORTED).buildRecord(buildResult);
-                deps.add(artifactBuilder.build());
+                        .status(ArtifactStatus.BINARY_IMPORTED);
+                deps.add(artifactBuilder.buildLink());
             }
 
             for (Map.Entry<StoreKey, Set<String>> entry : toPromote.entrySet()) {
                 PromoteRequest req = new PromoteRequest(entry.getKey(), sharedImports, entry.getValue()).setPurgeSource(false);
-                doPromote(req);
+                promotions.add(req);
             }
 
             buildResult.setDependencies(deps);
@@ -250,23 +338,17 @@ public class RepositoryManagerDriver implements RepositoryManager {
     }
 
     /**
-     * Promote all build output to the hosted repository holding store for the build collection to which this build belongs,
-     * then for each output artifact, add its metadata to the build result.
+     * Prepare promotion of all build output to the hosted repository holding store for the build collection to which this
+     * build belongs, then for each output artifact, add its metadata to the build result.
      * 
      * @param report The tracking report that contains info about artifacts uploaded (output) from the build
      * @param buildResult The build result where output artifact metadata should be appended
      * @param repository The AProx connection configuration containing the build- and collection-level repo id's
-     * @throws RepositoryManagerException In case of a client API transport error or an error during promotion of artifacts
+     * @param promotions The promotion requests of the build, where the output promotion is appended
+     * @throws RepositoryManagerException In case of a client API transport error
      */
-    private void processUploads(TrackedContentDTO report, BuildRecord buildResult, RepositoryConfiguration repository)
-            throws RepositoryManagerException {
-
-        AproxContentClientModule content;
-        try {
-            content = aprox.content();
-        } catch (AproxClientException e) {
-            throw new RepositoryManagerException("Failed to retrieve AProx client module. Reason: %s", e, e.getMessage());
-        }
+    private void processUploads(TrackedContentDTO report, BuildRecord buildResult, RepositoryConfiguration repository,
+            List<PromoteRequest> promotions) throws RepositoryManagerException {
 
         String buildId = repository.getId();
         String collectionId = repository.getCollectionId();
@@ -276,9 +358,9 @@ public class RepositoryManagerDriver implements RepositoryManager {
             PromoteRequest promoteReq = new PromoteRequest(new StoreKey(StoreType.hosted, buildId), new StoreKey(
                     StoreType.hosted, collectionId));
 
-            doPromote(promoteReq);
+            promotions.add(promoteReq);
 
-            List<Artifact> builds = new ArrayList<>();
+            List<BuildRecordArtifact> builds = new ArrayList<>();
 
             for (TrackedContentEntryDTO upload : uploads) {
 
@@ -290,13 +372,12 @@ public class RepositoryManagerDriver implements RepositoryManager {
                 }
 
                 ArtifactRef aref = new ArtifactRef(pathInfo.getProjectId(), pathInfo.getType(), pathInfo.getClassifier(), false);
-                content.contentUrl(StoreType.hosted, collectionId, upload.getPath());
 
                 ArtifactBuilder artifactBuilder = ArtifactBuilder.newBuilder().checksum(upload.getSha256())
                         .deployUrl(upload.getLocalUrl()).filename(new File(path).getName()).identifier(aref.toString())
-                        .repoType(RepositoryType.MAVEN).status(ArtifactStatus.BINARY_BUILT).buildRecord(buildResult);
+                        .repoType(RepositoryType.MAVEN).status(ArtifactStatus.BINARY_BUILT);
 
-                builds.add(artifactBuilder.build());
+                builds.add(artifactBuilder.buildLink());
             }
 
             buildResult.setBuiltArtifacts(builds);
@@ -304,16 +385,22 @@ public class RepositoryManagerDriver implements RepositoryManager {
     }
 
     /**
-     * Promotes a set of artifact paths (or everything, if the path-set is missing) from a particular AProx artifact store to
-     * another, and handle the various error conditions that may arise. If the promote call fails, attempt to rollback before
-     * throwing an exception.
+     * Promotes sets of artifact paths (or everything, if the path-set is missing) from AProx artifact stores to others. The
+     * promotions run concurrently on the promotion pool, bounded by aprox.promotion.threads. The batch is all-or-nothing: when
+     * any promotion fails, every promotion of the batch is rolled back before throwing an exception. Time taken by each
+     * promotion is logged.
      * 
-     * @param req The promotion request to process, which contains source and target store keys, and (optionally) the set of
-     *        paths to promote
+     * @param buildId The build the promotions belong to, used in the log and error messages
+     * @param requests The promotion requests to process, each contains source and target store keys, and (optionally) the set
+     *        of paths to promote
      * @throws RepositoryManagerException When either the client API throws an exception due to something unexpected in
      *         transport, or if the promotion process results in an error.
      */
-    private void doPromote(PromoteRequest req) throws RepositoryManagerException {
+    private void promoteAll(String buildId, List<PromoteRequest> requests) throws RepositoryManagerException {
+        if (requests.isEmpty()) {
+            return;
+        }
+
         AproxPromoteClientModule promoter;
         try {
             promoter = aprox.module(AproxPromoteClientModule.class);
@@ -321,26 +408,103 @@ public class RepositoryManagerDriver implements RepositoryManager {
             throw new RepositoryManagerException("Failed to retrieve AProx client module. Reason: %s", e, e.getMessage());
         }
 
+        long start = System.currentTimeMillis();
+        List<Callable<Promotion>> tasks = new ArrayList<>();
+        for (PromoteRequest req : requests) {
+            tasks.add(() -> promote(promoter, req));
+        }
+
+        List<Promotion> promotions = new ArrayList<>();
+        StringBuilder errors = new StringBuilder();
         try {
-            PromoteResult result = promoter.promote(req);
-            if (result.getError() != null) {
-                String addendum = "";
+            for (Future<Promotion> future : promotionExecutor.invokeAll(tasks)) {
                 try {
-                    PromoteResult rollback = promoter.rollback(result);
-                    if (rollback.getError() != null) {
-                        addendum = "\nROLLBACK WARNING: Promotion rollback also failed! Reason given: " + result.getError();
+                    Promotion promotion = future.get();
+                    promotions.add(promotion);
+                    if (promotion.error != null) {
+                        errors.append("\n").append(promotion.request).append(": ").append(promotion.error);
                     }
-
-                } catch (AproxClientException e) {
-                    throw new RepositoryManagerException("Rollback failed for promotion of: %s. Reason: %s", e, req,
-                            e.getMessage());
+                } catch (ExecutionException e) {
+                    errors.append("\n").append(e.getCause());
                 }
-
-                throw new RepositoryManagerException("Failed to promote: %s. Reason given was: %s%s", req, result.getError(),
-                        addendum);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.append("\nInterrupted while waiting for the promotions to finish.");
+        }
+
+        if (errors.length() > 0) {
+            String addendum = rollbackAll(promoter, promotions);
+            throw new RepositoryManagerException("Failed to promote artifacts of: %s. Reasons given were: %s%s", buildId,
+                    errors, addendum);
+        }
+
+        long longest = promotions.stream().mapToLong(promotion -> promotion.duration).max().orElse(0L);
+        logger.info(String.format("Finished %s promotions of %s in %s ms, the longest took %s ms.", promotions.size(),
+                buildId, System.currentTimeMillis() - start, longest));
+    }
+
+    private Promotion promote(AproxPromoteClientModule promoter, PromoteRequest req) {
+        long start = System.currentTimeMillis();
+        PromoteResult result = null;
+        String error;
+        try {
+            result = promoter.promote(req);
+            error = result.getError();
         } catch (AproxClientException e) {
-            throw new RepositoryManagerException("Failed to promote: %s. Reason: %s", e, req, e.getMessage());
+            error = e.getMessage();
+        }
+        long duration = System.currentTimeMillis() - start;
+
+        if (error != null) {
+            // the target may have been removed since it was cached
+            storeCache.invalidate(req.getTarget());
+            logger.warning(String.format("Promotion of %s failed after %s ms: %s", req, duration, error));
+        } else {
+            logger.fine(String.format("Promotion of %s took %s ms.", req, duration));
+        }
+        return new Promotion(req, result, error, duration);
+    }
+
+    /**
+     * Rolls back every promotion of the batch which (even partially) happened.
+     *
+     * @return description of the rollbacks which failed, empty if all succeeded
+     */
+    private String rollbackAll(AproxPromoteClientModule promoter, List<Promotion> promotions) {
+        StringBuilder addendum = new StringBuilder();
+        for (Promotion promotion : promotions) {
+            if (promotion.result == null) {
+                continue;
+            }
+            try {
+                PromoteResult rollback = promoter.rollback(promotion.result);
+                if (rollback.getError() != null) {
+                    addendum.append("\nROLLBACK WARNING: Promotion rollback of ").append(promotion.request)
+                            .append(" also failed! Reason given: ").append(rollback.getError());
+                }
+            } catch (AproxClientException e) {
+                addendum.append("\nROLLBACK WARNING: Promotion rollback of ").append(promotion.request)
+                        .append(" also failed! Reason: ").append(e.getMessage());
+            }
+        }
+        return addendum.toString();
+    }
+
+    private static class Promotion {
+        final PromoteRequest request;
+        final PromoteResult result;
+        final String error;
+        /**
+         * In milliseconds
+         */
+        final long duration;
+
+        Promotion(PromoteRequest request, PromoteResult result, String error, long duration) {
+            this.request = request;
+            this.result = result;
+            this.error = error;
+            this.duration = duration;
         }
     }
 
@@ -349,35 +513,48 @@ public class RepositoryManagerDriver implements RepositoryManager {
      * uploaded from the build, and the group coordinates access to this hosted repository, along with content from the
      * product-level content group with which this build is associated. The group also provides a tracking target, so the
      * repository manager can keep track of downloads and uploads for the build.
+     *
+     * The build repo id is new for each build, so the stores are created without checking whether they exist.
      * 
      * @param buildRepoId
      * @param productRepoId
      * @throws AproxClientException
      */
     private void setupBuildRepos(String buildRepoId, String productRepoId) throws AproxClientException {
-        // if the build-level group doesn't exist, create it.
-        if (!aprox.stores().exists(StoreType.group, buildRepoId)) {
-            // if the product-level storage repo (for in-progress product builds) doesn't exist, create it.
-            if (!aprox.stores().exists(StoreType.hosted, buildRepoId)) {
-                HostedRepository buildArtifacts = new HostedRepository(buildRepoId);
-                buildArtifacts.setAllowSnapshots(true);
-                buildArtifacts.setAllowReleases(true);
+        HostedRepository buildArtifacts = new HostedRepository(buildRepoId);
+        buildArtifacts.setAllowSnapshots(true);
+        buildArtifacts.setAllowReleases(true);
 
-                aprox.stores().create(buildArtifacts, HostedRepository.class);
-            }
+        aprox.stores().create(buildArtifacts, HostedRepository.class);
 
-            Group buildGroup = new Group(buildRepoId);
+        Group buildGroup = new Group(buildRepoId);
 
-            // Priorities for build-local group:
+        // Priorities for build-local group:
 
-            // 1. build-local artifacts
-            buildGroup.addConstituent(new StoreKey(StoreType.hosted, buildRepoId));
+        // 1. build-local artifacts
+        buildGroup.addConstituent(new StoreKey(StoreType.hosted, buildRepoId));
 
-            // 2. product-level group
-            buildGroup.addConstituent(new StoreKey(StoreType.group, productRepoId));
+        // 2. product-level group
+        buildGroup.addConstituent(new StoreKey(StoreType.group, productRepoId));
 
-            aprox.stores().create(buildGroup, Group.class);
-        }
+        aprox.stores().create(buildGroup, Group.class);
+    }
+
+    /**
+     * Delete the group and the hosted repository of a build repo which was never used by a build.
+     */
+    private void deleteBuildRepos(String buildRepoId) throws AproxClientException {
+        aprox.stores().delete(StoreType.group, buildRepoId);
+        aprox.stores().delete(StoreType.hosted, buildRepoId);
+    }
+
+    /**
+     * Build repo ids name the product version rather than the project, so the build repos created in advance by the pool
+     * and the ones created for a build look the same, eg. build+myproduct+1-0+1434112563041.
+     */
+    private String newBuildRepoId(String productRepoId) {
+        return String.format(REPO_ID_FORMAT, productRepoId.substring(PRODUCT_PREFIX.length()),
+                buildRepoSequence.incrementAndGet());
     }
 
     /**
@@ -389,11 +566,19 @@ public class RepositoryManagerDriver implements RepositoryManager {
      * <li>global shared-imports hosted repository (contains anything imported for a previous build)</li>
      * <li>the 'public' group, which manages the allowed remote repositories from which imports can be downloaded</li>
      * </ol>
+     *
+     * The product repo id is derived from the {@link ProductVersion}, so the stores are cached per product version.
      * 
      * @param productRepoId
      * @throws AproxClientException
      */
     private void setupProductRepos(String productRepoId) throws AproxClientException {
+        StoreKey productHostedKey = new StoreKey(StoreType.hosted, productRepoId);
+        StoreKey productGroupKey = new StoreKey(StoreType.group, productRepoId);
+        if (storeCache.isKnown(productHostedKey) && storeCache.isKnown(productGroupKey)) {
+            return;
+        }
+
         // if the product-level group doesn't exist, create it.
         if (!aprox.stores().exists(StoreType.group, productRepoId)) {
             // if the product-level storage repo (for in-progress product builds) doesn't exist, create it.
@@ -424,31 +609,45 @@ public class RepositoryManagerDriver implements RepositoryManager {
 
             aprox.stores().create(productGroup, Group.class);
         }
+
+        storeCache.markExisting(productHostedKey);
+        storeCache.markExisting(productGroupKey);
+    }
+
+    private void invalidateProductRepos(String productRepoId) {
+        storeCache.invalidate(new StoreKey(StoreType.hosted, productRepoId));
+        storeCache.invalidate(new StoreKey(StoreType.group, productRepoId));
     }
 
     /**
-     * Lazily create the shared-releases and shared-imports global hosted repositories if they don't already exist.
+     * Lazily create the shared-releases and shared-imports global hosted repositories if they don't already exist. They are
+     * set up on startup, later calls only check them again when their cache entries expire.
      * 
      * @throws AproxClientException
      */
     private void setupGlobalRepos() throws AproxClientException {
         // if the global shared-releases repository doesn't exist, create it.
-        if (!aprox.stores().exists(StoreType.hosted, SHARED_RELEASES_ID)) {
-            HostedRepository sharedArtifacts = new HostedRepository(SHARED_RELEASES_ID);
+        setupGlobalRepo(SHARED_RELEASES_ID);
+
+        // if the global imports repo doesn't exist, create it.
+        setupGlobalRepo(SHARED_IMPORTS_ID);
+    }
+
+    private void setupGlobalRepo(String repoId) throws AproxClientException {
+        StoreKey key = new StoreKey(StoreType.hosted, repoId);
+        if (storeCache.isKnown(key)) {
+            return;
+        }
+
+        if (!aprox.stores().exists(StoreType.hosted, repoId)) {
+            HostedRepository sharedArtifacts = new HostedRepository(repoId);
             sharedArtifacts.setAllowSnapshots(false);
             sharedArtifacts.setAllowReleases(true);
 
             aprox.stores().create(sharedArtifacts, HostedRepository.class);
         }
 
-        // if the global imports repo doesn't exist, create it.
-        if (!aprox.stores().exists(StoreType.hosted, SHARED_IMPORTS_ID)) {
-            HostedRepository productArtifacts = new HostedRepository(SHARED_IMPORTS_ID);
-            productArtifacts.setAllowSnapshots(false);
-            productArtifacts.setAllowReleases(true);
-
-            aprox.stores().create(productArtifacts, HostedRepository.class);
-        }
+        storeCache.markExisting(key);
     }
 
     /**
@@ -466,4 +665,13 @@ public class RepositoryManagerDriver implements RepositoryManager {
         return aprox;
     }
 
+    /**
+     * Drops all the cached store existence checks and deletes the pooled build repos, eg. after the stores were removed
+     * from AProx.
+     */
+    public void invalidateStoreCache() {
+        storeCache.invalidateAll();
+        buildRepoPool.clear();
+    }
+
 }
@@ -0,0 +1,53 @@
+package org.jboss.pnc.mavenrepositorymanager;
+
+import org.commonjava.aprox.model.core.StoreKey;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers AProx stores which are known to exist, so they don't have to be checked before every build.
+ *
+ * An entry expires after the configured time to live, then the store is checked in AProx again. Entries are
+ * invalidated when an operation on the store fails, because the store may have been removed in the meantime. Time to
+ * live of zero or less disables the cache.
+ */
+class StoreExistenceCache {
+
+    /**
+     * In milliseconds
+     */
+    private final long ttl;
+
+    private final Map<StoreKey, Long> expirations = new ConcurrentHashMap<>();
+
+    StoreExistenceCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    boolean isKnown(StoreKey key) {
+        Long expiration = expirations.get(key);
+        if (expiration == null) {
+            return false;
+        }
+        if (expiration <= System.currentTimeMillis()) {
+            expirations.remove(key, expiration);
+            return false;
+        }
+        return true;
+    }
+
+    void markExisting(StoreKey key) {
+        if (ttl > 0) {
+            expirations.put(key, System.currentTimeMillis() + ttl);
+        }
+    }
+
+    void invalidate(StoreKey key) {
+        expirations.remove(key);
+    }
+
+    void invalidateAll() {
+        expirations.clear();
+    }
+}
@@ -0,0 +1,123 @@
+package org.jboss.pnc.mavenrepositorymanager;
+
+import org.commonjava.aprox.client.core.AproxClientException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BuildRepositoryPoolTest {
+
+    private static final String PRODUCT_REPO_ID = "product+foo+1-0";
+
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+
+    @Test
+    public void shouldFillPoolOfProductWithFirstBuild() throws Exception {
+        //given
+        BuildRepositoryPool pool = newPool(2);
+
+        //when
+        String first = pool.take(PRODUCT_REPO_ID);
+        waitForReady(pool, 2);
+
+        //then
+        Assert.assertNull(first);
+        Assert.assertEquals(2, pool.getReadyCount(PRODUCT_REPO_ID));
+        Assert.assertEquals(0, pool.getReadyCount("product+bar+1-0"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldReplaceTakenBuildRepo() throws Exception {
+        //given
+        BuildRepositoryPool pool = newPool(2);
+        pool.take(PRODUCT_REPO_ID);
+        waitForReady(pool, 2);
+
+        //when
+        Set<String> taken = new HashSet<>();
+        taken.add(pool.take(PRODUCT_REPO_ID));
+        taken.add(pool.take(PRODUCT_REPO_ID));
+        waitForReady(pool, 2);
+
+        //then
+        Assert.assertEquals(2, taken.size());
+        Assert.assertFalse(taken.contains(null));
+        Assert.assertEquals(4, sequence.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldNotPoolWhenCreationFails() throws Exception {
+        //given
+        CountDownLatch attempts = new CountDownLatch(2);
+        BuildRepositoryPool pool = new BuildRepositoryPool(2, productRepoId -> {
+            attempts.countDown();
+            throw new AproxClientException("AProx is not available.");
+        }, deleted::add);
+
+        //when
+        pool.take(PRODUCT_REPO_ID);
+
+        //then
+        Assert.assertTrue(attempts.await(5L, TimeUnit.SECONDS));
+        Assert.assertNull(pool.take(PRODUCT_REPO_ID));
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldNotPoolWhenSizeIsZero() {
+        //given
+        BuildRepositoryPool pool = newPool(0);
+
+        //when
+        String buildRepoId = pool.take(PRODUCT_REPO_ID);
+
+        //then
+        Assert.assertNull(buildRepoId);
+        Assert.assertEquals(0, sequence.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void shouldDeleteReadyBuildReposOnClearAndShutdown() throws Exception {
+        //given
+        CountDownLatch deletions = new CountDownLatch(2);
+        BuildRepositoryPool pool = new BuildRepositoryPool(2, productRepoId -> "build+foo+1-0+" + sequence.incrementAndGet(),
+                buildRepoId -> {
+                    deleted.add(buildRepoId);
+                    deletions.countDown();
+                });
+        pool.take(PRODUCT_REPO_ID);
+        waitForReady(pool, 2);
+
+        //when
+        pool.clear();
+
+        //then
+        Assert.assertTrue(deletions.await(5L, TimeUnit.SECONDS));
+        Assert.assertEquals(0, pool.getReadyCount(PRODUCT_REPO_ID));
+        pool.take(PRODUCT_REPO_ID);
+        waitForReady(pool, 2);
+        pool.shutdown();
+        Assert.assertEquals(4, deleted.size());
+    }
+
+    private BuildRepositoryPool newPool(int size) {
+        return new BuildRepositoryPool(size, productRepoId -> "build+foo+1-0+" + sequence.incrementAndGet(), deleted::add);
+    }
+
+    private void waitForReady(BuildRepositoryPool pool, int count) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000L;
+        while (pool.getReadyCount(PRODUCT_REPO_ID) < count && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10L);
+        }
+    }
+}
@@ -28,8 +28,9 @@ public class RepositoryManagerDriver01Test
         RepositoryConnectionInfo connectionInfo = repositoryConfiguration.getConnectionInfo();
         assertThat(connectionInfo, notNullValue());
 
-        String expectedUrlPrefix = String.format("%sfolo/track/build+%s", url, pbc.getProject().getName());
-        String expectedGroupPathPrefix = String.format("/group/build+%s", pbc.getProject().getName());
+        String productPart = pbc.getProductVersion().getProduct().getName() + "+1-0";
+        String expectedUrlPrefix = String.format("%sfolo/track/build+%s", url, productPart);
+        String expectedGroupPathPrefix = String.format("/group/build+%s", productPart);
 
         assertThat("Expected URL prefix: " + expectedUrlPrefix + "\nActual URL was: " + connectionInfo.getDependencyUrl(),
                 connectionInfo.getDependencyUrl().startsWith(expectedUrlPrefix), equalTo(true));
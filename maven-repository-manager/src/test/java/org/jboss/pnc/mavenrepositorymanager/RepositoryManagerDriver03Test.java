@@ -17,10 +17,10 @@ import org.commonjava.aprox.client.core.util.UrlUtils;
 import org.commonjava.aprox.model.core.StoreType;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 import org.junit.Test;
 
@@ -70,7 +70,7 @@ public class RepositoryManagerDriver03Test
         BuildRecord record = new BuildRecord();
         driver.persistArtifacts(rc, record);
 
-        List<Artifact> deps = record.getDependencies();
+        List<BuildRecordArtifact> deps = record.getDependencies();
         System.out.println(deps);
 
         assertThat(deps, notNullValue());
@@ -81,8 +81,9 @@ public class RepositoryManagerDriver03Test
         refs.add(new ArtifactRef(pvr, "pom", null, false).toString());
         refs.add(new ArtifactRef(pvr, "jar", null, false).toString());
 
-        for (Artifact artifact : deps) {
-            assertThat(artifact + " is not in the expected list of deps: " + refs, refs.contains(artifact.getIdentifier()),
+        for (BuildRecordArtifact artifact : deps) {
+            assertThat(artifact + " is not in the expected list of deps: " + refs,
+                    refs.contains(artifact.getArtifact().getIdentifier()),
                     equalTo(true));
         }
 
@@ -19,10 +19,10 @@ import org.commonjava.aprox.client.core.util.UrlUtils;
 import org.commonjava.aprox.model.core.StoreType;
 import org.commonjava.maven.atlas.ident.ref.ArtifactRef;
 import org.commonjava.maven.atlas.ident.ref.ProjectVersionRef;
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 import org.junit.Test;
 
@@ -76,7 +76,7 @@ public class RepositoryManagerDriver04Test
         BuildRecord record = new BuildRecord();
         driver.persistArtifacts(rc, record);
 
-        List<Artifact> artifacts = record.getBuiltArtifacts();
+        List<BuildRecordArtifact> artifacts = record.getBuiltArtifacts();
         System.out.println(artifacts);
 
         assertThat(artifacts, notNullValue());
@@ -87,9 +87,9 @@ public class RepositoryManagerDriver04Test
         refs.add(new ArtifactRef(pvr, "pom", null, false).toString());
         refs.add(new ArtifactRef(pvr, "jar", null, false).toString());
 
-        for (Artifact artifact : artifacts) {
+        for (BuildRecordArtifact artifact : artifacts) {
             assertThat(artifact + " is not in the expected list of built artifacts: " + refs,
-                    refs.contains(artifact.getIdentifier()),
+                    refs.contains(artifact.getArtifact().getIdentifier()),
                     equalTo(true));
         }
 
@@ -0,0 +1,62 @@
+package org.jboss.pnc.mavenrepositorymanager;
+
+import org.commonjava.aprox.model.core.StoreKey;
+import org.commonjava.aprox.model.core.StoreType;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StoreExistenceCacheTest {
+
+    private final StoreKey productGroup = new StoreKey(StoreType.group, "product+foo+1-0");
+
+    @Test
+    public void shouldRememberExistingStore() {
+        //given
+        StoreExistenceCache cache = new StoreExistenceCache(60000L);
+
+        //when
+        cache.markExisting(productGroup);
+
+        //then
+        Assert.assertTrue(cache.isKnown(productGroup));
+        Assert.assertFalse(cache.isKnown(new StoreKey(StoreType.hosted, "product+foo+1-0")));
+    }
+
+    @Test
+    public void shouldForgetInvalidatedStore() {
+        //given
+        StoreExistenceCache cache = new StoreExistenceCache(60000L);
+        cache.markExisting(productGroup);
+
+        //when
+        cache.invalidate(productGroup);
+
+        //then
+        Assert.assertFalse(cache.isKnown(productGroup));
+    }
+
+    @Test
+    public void shouldNotCacheWhenTtlIsZero() {
+        //given
+        StoreExistenceCache cache = new StoreExistenceCache(0L);
+
+        //when
+        cache.markExisting(productGroup);
+
+        //then
+        Assert.assertFalse(cache.isKnown(productGroup));
+    }
+
+    @Test
+    public void shouldExpireStore() throws Exception {
+        //given
+        StoreExistenceCache cache = new StoreExistenceCache(10L);
+        cache.markExisting(productGroup);
+
+        //when
+        Thread.sleep(50L);
+
+        //then
+        Assert.assertFalse(cache.isKnown(productGroup));
+    }
+}
@@ -0,0 +1,93 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds submitted together, eg. all the configurations of a product version.
+ *
+ * The configurations and their dependencies are added to the build tree in one pass, a dependency shared by more
+ * configurations is built once. Tasks which were already submitted by an earlier request are shared with it.
+ */
+public class BuildBatch {
+
+    private final int id;
+    private final Integer productVersionId;
+    private final long submitTime = System.currentTimeMillis();
+    /**
+     * Tasks of the requested configurations.
+     */
+    private final Set<BuildTask> requestedTasks = new LinkedHashSet<>();
+    /**
+     * Requested tasks and the tasks of their dependencies added for them.
+     */
+    private final Set<BuildTask> buildTasks = new LinkedHashSet<>();
+
+    BuildBatch(int id, Integer productVersionId) {
+        this.id = id;
+        this.productVersionId = productVersionId;
+    }
+
+    synchronized void addRequested(BuildTask buildTask) {
+        requestedTasks.add(buildTask);
+        buildTasks.add(buildTask);
+    }
+
+    synchronized void add(BuildTask buildTask) {
+        buildTasks.add(buildTask);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return product version the batch builds or null if it was submitted as a list of configurations
+     */
+    public Integer getProductVersionId() {
+        return productVersionId;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public synchronized List<BuildTask> getRequestedTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(requestedTasks));
+    }
+
+    public synchronized List<BuildTask> getBuildTasks() {
+        return Collections.unmodifiableList(new ArrayList<>(buildTasks));
+    }
+
+    /**
+     * @return number of tasks of the batch in each status
+     */
+    public synchronized Map<BuildStatus, Integer> getProgress() {
+        Map<BuildStatus, Integer> progress = new EnumMap<>(BuildStatus.class);
+        for (BuildTask buildTask : buildTasks) {
+            progress.merge(buildTask.getStatus(), 1, Integer::sum);
+        }
+        return progress;
+    }
+
+    /**
+     * @return true when all the tasks are done, rejected or failed with a system error
+     */
+    public synchronized boolean isCompleted() {
+        for (BuildTask buildTask : buildTasks) {
+            BuildStatus status = buildTask.getStatus();
+            if (status != BuildStatus.DONE && status != BuildStatus.REJECTED && status != BuildStatus.SYSTEM_ERROR) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
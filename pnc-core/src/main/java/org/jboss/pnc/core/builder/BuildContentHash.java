@@ -0,0 +1,135 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.Environment;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Content address of a build: a hash of everything that goes into the build, so two builds with the same hash produce
+ * the same result and the last successful one can be reused.
+ *
+ * The hash covers the scm url, the revision, the build script, the patches url, the environment and the hashes of the
+ * dependencies. There is no scm client to resolve a branch to a commit, so only configurations which are pinned to
+ * a commit id have a hash, the others are always built.
+ */
+public class BuildContentHash {
+
+    private static final Pattern COMMIT_ID = Pattern.compile("[0-9a-fA-F]{40}|[0-9a-fA-F]{64}");
+
+    private final Map<Integer, String> computed = new HashMap<>();
+    private final Set<Integer> inProgress = new HashSet<>();
+
+    /**
+     * @return hash of the build inputs or null if the inputs can not be fully resolved
+     */
+    public static String of(BuildConfiguration buildConfiguration) {
+        return new BuildContentHash().get(buildConfiguration);
+    }
+
+    /**
+     * Hashes of the configurations and their dependencies are kept by the instance, so one instance hashes a whole
+     * dependency graph in linear time.
+     *
+     * @return hash of the build inputs or null if the inputs can not be fully resolved
+     */
+    public String get(BuildConfiguration buildConfiguration) {
+        return compute(buildConfiguration);
+    }
+
+    private String compute(BuildConfiguration buildConfiguration) {
+        Integer id = buildConfiguration.getId();
+        if (computed.containsKey(id)) {
+            return computed.get(id);
+        }
+        if (!inProgress.add(id)) {
+            return null; //cycle, the configuration can not be built anyway
+        }
+        String hash = null;
+        String revision = resolveRevision(buildConfiguration);
+        if (revision != null) {
+            List<String> dependencyHashes = new ArrayList<>();
+            boolean resolved = true;
+            for (BuildConfiguration dependency : dependencies(buildConfiguration)) {
+                String dependencyHash = compute(dependency);
+                if (dependencyHash == null) {
+                    resolved = false;
+                    break;
+                }
+                dependencyHashes.add(dependencyHash);
+            }
+            if (resolved) {
+                Collections.sort(dependencyHashes);
+                hash = digest(buildConfiguration, revision, dependencyHashes);
+            }
+        }
+        inProgress.remove(id);
+        computed.put(id, hash);
+        return hash;
+    }
+
+    /**
+     * @return immutable revision of the sources or null if it is not known
+     */
+    static String resolveRevision(BuildConfiguration buildConfiguration) {
+        String scmBranch = buildConfiguration.getScmBranch();
+        if (scmBranch == null || !COMMIT_ID.matcher(scmBranch.trim()).matches()) {
+            return null;
+        }
+        return scmBranch.trim().toLowerCase();
+    }
+
+    private static Set<BuildConfiguration> dependencies(BuildConfiguration buildConfiguration) {
+        Set<BuildConfiguration> dependencies = buildConfiguration.getDependencies();
+        return dependencies == null ? Collections.emptySet() : dependencies;
+    }
+
+    private static String digest(BuildConfiguration buildConfiguration, String revision, List<String> dependencyHashes) {
+        MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+        Environment environment = buildConfiguration.getEnvironment();
+        update(messageDigest, buildConfiguration.getScmUrl());
+        update(messageDigest, revision);
+        update(messageDigest, buildConfiguration.getBuildScript());
+        update(messageDigest, buildConfiguration.getPatchesUrl());
+        update(messageDigest, environment == null ? null : String.valueOf(environment.getBuildType()));
+        update(messageDigest, environment == null ? null : String.valueOf(environment.getOperationalSystem()));
+        for (String dependencyHash : dependencyHashes) {
+            update(messageDigest, dependencyHash);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : messageDigest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Each value is prefixed with its length, so moving characters between two values changes the hash.
+     */
+    private static void update(MessageDigest messageDigest, String value) {
+        if (value == null) {
+            messageDigest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        messageDigest.update((byte) 1);
+        messageDigest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) ':');
+        messageDigest.update(bytes);
+    }
+}
@@ -1,12 +1,16 @@
 package org.jboss.pnc.core.builder;
 
 import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.core.BuildDriverFactory;
 import org.jboss.pnc.core.RepositoryManagerFactory;
 import org.jboss.pnc.core.exception.CoreException;
 import org.jboss.pnc.core.exception.CoreExceptionWrapper;
+import org.jboss.pnc.core.notifications.BuildStatusPublisher;
+import org.jboss.pnc.core.statistics.BuildDurationStatistics;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.Product;
 import org.jboss.pnc.model.ProductVersion;
 import org.jboss.pnc.model.BuildConfiguration;
@@ -15,32 +19,32 @@ import org.jboss.pnc.spi.BuildStatus;
 import org.jboss.pnc.spi.builddriver.BuildDriver;
 import org.jboss.pnc.spi.builddriver.BuildResult;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 import org.jboss.pnc.spi.datastore.DatastoreException;
 import org.jboss.pnc.spi.repositorymanager.RepositoryManager;
 import org.jboss.pnc.spi.repositorymanager.RepositoryManagerException;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
-import org.jboss.util.graph.Edge;
-import org.jboss.util.graph.Vertex;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 /**
  *
@@ -50,11 +54,30 @@ import java.util.stream.Collectors;
 public class BuildCoordinator {
 
     private Logger log = Logger.getLogger(BuildCoordinator.class);
-    private Queue<BuildTask> buildTasks = new ConcurrentLinkedQueue(); //TODO garbage collector (time-out, error state)
-
-//    @Resource
-//    private ManagedThreadFactory threadFactory;
-    private Executor executor = Executors.newFixedThreadPool(4); //TODO configurable
+    private BuildTasksTree buildTasksTree = new BuildTasksTree(this);
+
+    /**
+     * Size in bytes of the retained tail of a running build log.
+     */
+    static final String LOG_BUFFER_SIZE_KEY = "coordinator.build-log.buffer-size";
+    /**
+     * Number of the last build batches kept for progress reporting.
+     */
+    static final int MAX_BUILD_BATCHES = 100;
+
+    private BuildStageExecutors stageExecutors;
+    private BuildTaskReaper reaper;
+    private BuildQueue buildQueue;
+    private BuildDurationStatistics durationStatistics;
+    private int logBufferSize = BuildTask.DEFAULT_LOG_BUFFER_SIZE;
+    private final BuildStatusPublisher statusPublisher = new BuildStatusPublisher();
+    private final AtomicInteger buildBatchSequence = new AtomicInteger();
+    private final Map<Integer, BuildBatch> buildBatches = Collections.synchronizedMap(new LinkedHashMap<Integer, BuildBatch>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, BuildBatch> eldest) {
+            return size() > MAX_BUILD_BATCHES;
+        }
+    });
 
     private RepositoryManagerFactory repositoryManagerFactory;
     private BuildDriverFactory buildDriverFactory;
@@ -64,10 +87,30 @@ public class BuildCoordinator {
     public BuildCoordinator(){} //workaround for CDI constructor parameter injection
 
     @Inject
-    public BuildCoordinator(BuildDriverFactory buildDriverFactory, RepositoryManagerFactory repositoryManagerFactory, DatastoreAdapter datastoreAdapter) {
+    public BuildCoordinator(BuildDriverFactory buildDriverFactory, RepositoryManagerFactory repositoryManagerFactory,
+            DatastoreAdapter datastoreAdapter, Configuration configuration) {
         this.buildDriverFactory = buildDriverFactory;
         this.repositoryManagerFactory = repositoryManagerFactory;
         this.datastoreAdapter = datastoreAdapter;
+        this.stageExecutors = new BuildStageExecutors(configuration);
+        this.buildQueue = new BuildQueue(configuration);
+        this.durationStatistics = new BuildDurationStatistics(datastoreAdapter::getBuildDurations);
+        this.reaper = new BuildTaskReaper(configuration, buildTasksTree.getRegistry(), this::reclaim);
+
+        this.logBufferSize = Configuration.getInt(configuration.getModuleConfig(BuildStageExecutors.CONFIG_SECTION),
+                LOG_BUFFER_SIZE_KEY, BuildTask.DEFAULT_LOG_BUFFER_SIZE, 1);
+    }
+
+    @PostConstruct
+    void init() {
+        reaper.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        reaper.shutdown();
+        stageExecutors.shutdown();
+        datastoreAdapter.shutdown();
     }
 
     public BuildTask build(BuildConfiguration buildConfiguration) throws CoreException {
@@ -75,69 +118,155 @@ public class BuildCoordinator {
     }
 
     public BuildTask build(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers) throws CoreException {
-        BuildTasksTree buildTasksTree = new BuildTasksTree(this);
+        BuildTask buildTask = createBuildTask(buildConfiguration, statusUpdateListeners, logConsumers);
+        List<BuildTask> readyTasks = buildTasksTree.submit(buildTask);
+        readyTasks.forEach(buildQueue::add);
+        dispatchReadyBuilds();
+        return buildTask;
+    }
 
-        BuildTask buildTask = buildTasksTree.getOrCreateSubmittedBuild(buildConfiguration, statusUpdateListeners, logConsumers);
+    /**
+     * Builds the configurations and their dependencies as one batch with a single dependency graph, see
+     * {@link BuildTasksTree#submit(BuildBatch, List)}.
+     *
+     * @param productVersionId product version of the configurations or null if they were listed one by one
+     */
+    public BuildBatch build(Collection<BuildConfiguration> buildConfigurations, Integer productVersionId) {
+        BuildBatch buildBatch = new BuildBatch(buildBatchSequence.incrementAndGet(), productVersionId);
+        List<BuildTask> readyTasks = buildTasksTree.submit(buildBatch, new ArrayList<>(buildConfigurations));
+        buildBatches.put(buildBatch.getId(), buildBatch);
+        readyTasks.forEach(buildQueue::add);
+        dispatchReadyBuilds();
+        return buildBatch;
+    }
 
-        if (!isBuildAlreadySubmitted(buildTask)) {
+    /**
+     * @return the batch or null if it is not one of the last {@link #MAX_BUILD_BATCHES} batches
+     */
+    public BuildBatch getBuildBatch(Integer id) {
+        return buildBatches.get(id);
+    }
 
-            Edge<BuildTask>[] cycles = buildTasksTree.findCycles();
-            if (cycles.length > 0) {
-                buildTask.setStatus(BuildStatus.REJECTED);
-                buildTask.setStatusDescription("Cycle dependencies found."); //TODO add edges to description
-            }
+    /**
+     * Starts the ready tasks with the highest priority while there are free build slots.
+     */
+    private void dispatchReadyBuilds() {
+        buildQueue.pollDispatchable().forEach(this::startDispatchedBuild);
+    }
 
-            Predicate<Vertex<BuildTask>> acceptOnly = (vertex) -> {
-                BuildTask build = vertex.getData();
-                List<BuildStatus> buildStatuses = Arrays.asList(BuildStatus.NEW, BuildStatus.WAITING_FOR_DEPENDENCIES);
-                return buildStatuses.contains(build.getStatus());
-            };
-
-            buildTasksTree.getSubmittedBuilds().stream().filter(acceptOnly)
-                    .forEach(processBuildTask());
-        } else {
-            buildTask.setStatus(BuildStatus.REJECTED);
-            buildTask.setStatusDescription("The configuration is already in the build queue.");
+    private void startDispatchedBuild(BuildTask buildTask) {
+        if (buildTask.isCompleted()) {
+            log.debugf("Build task #%s was completed while it was queued.", buildTask.getId());
+            releaseCompleted(buildTask);
+            return;
+        }
+        if (reuseBuildRecord(buildTask)) {
+            return;
+        }
+        try {
+            startBuilding(buildTask);
+        } catch (CoreException | RejectedExecutionException e) {
+            if (buildTask.markCompleted()) {
+                buildTask.setStatus(BuildStatus.SYSTEM_ERROR);
+                buildTask.setStatusDescription(e.getMessage());
+                buildFailed(buildTask);
+            }
         }
-        return buildTask;
     }
 
-    private Consumer<Vertex<BuildTask>> processBuildTask() {
-        return (vertex) -> {
-            BuildTask buildTask = vertex.getData();
-            List<BuildTask> missingDependencies = findDirectMissingDependencies(vertex);
-            missingDependencies.forEach((missingDependency) -> missingDependency.addWaiting(buildTask));
-            if (missingDependencies.size() == 0) {
-                try {
-                    startBuilding(buildTask);
-                    buildTasks.add(buildTask);
-                } catch (CoreException e) {
-                    buildTask.setStatus(BuildStatus.SYSTEM_ERROR);
-                    buildTask.setStatusDescription(e.getMessage());
-                }
-            } else {
-                buildTask.setStatus(BuildStatus.WAITING_FOR_DEPENDENCIES);
-                buildTask.setRequiredBuilds(missingDependencies);
-                buildTasks.add(buildTask);
+    /**
+     * Rejects the tasks which transitively depend on the failed task and passes its build slot to the next ready task.
+     */
+    private void buildFailed(BuildTask buildTask) {
+        for (BuildTask dependant : buildTasksTree.buildFailed(buildTask)) {
+            if (dependant.markCompleted()) {
+                dependant.setStatus(BuildStatus.REJECTED);
+                dependant.setStatusDescription("Dependency #" + buildTask.getId() + " failed: " + buildTask.getStatusDescription());
             }
-        };
+        }
+        buildQueue.release(buildTask);
+        dispatchReadyBuilds();
     }
 
-    private List<BuildTask> findDirectMissingDependencies(Vertex<BuildTask> vertex) {
-        List<BuildTask> missingDependencies = new ArrayList<>();
-        List<Edge<BuildTask>> outgoingEdges = vertex.getOutgoingEdges();
-        for (Edge<BuildTask> outgoingEdge : outgoingEdges) {
-            Vertex<BuildTask> dependentVertex = outgoingEdge.getTo();
-            BuildTask dependentBuildTask = dependentVertex.getData();
-            if (!isConfigurationBuilt(dependentBuildTask.buildConfiguration)) {
-                missingDependencies.add(dependentBuildTask);
-            }
+    /**
+     * Passes the build slot taken by a dispatched task, which has been completed meanwhile (eg. reclaimed by the
+     * reaper), to the next ready task. The task released its slot on completion when it was not dispatched yet.
+     */
+    private void releaseCompleted(BuildTask buildTask) {
+        buildQueue.release(buildTask);
+        dispatchReadyBuilds();
+    }
+
+    /**
+     * Queues the tasks which were waiting for the completed task and passes its build slot to the next ready task.
+     */
+    private void buildCompleted(BuildTask buildTask, List<BuildTask> readyTasks) {
+        readyTasks.forEach(buildQueue::add);
+        buildQueue.release(buildTask);
+        dispatchReadyBuilds();
+    }
+
+    /**
+     * Completes the task without building when there is a successful build with the same inputs.
+     * The inputs are hashed only when the build tree did not hash them on submit.
+     *
+     * @return true if the task was completed, here or meanwhile
+     */
+    private boolean reuseBuildRecord(BuildTask buildTask) {
+        if (!buildTask.isBuildContentHashed()) {
+            buildTask.setBuildContentId(BuildContentHash.of(buildTask.getBuildConfiguration()));
+        }
+        String buildContentId = buildTask.getBuildContentId();
+        BuildRecord buildRecord;
+        try {
+            buildRecord = datastoreAdapter.getReusableBuildRecord(buildContentId);
+        } catch (DatastoreException e) {
+            log.warnf(e, "Cannot look up previous builds of build task #%s, building it again.", buildTask.getId());
+            return false;
+        }
+        if (buildRecord == null) {
+            return false;
+        }
+        if (!buildTask.markCompleted()) {
+            log.debugf("Build task #%s was completed while its build records were looked up.", buildTask.getId());
+            releaseCompleted(buildTask);
+            return true;
+        }
+        log.infof("Reusing build record #%s for build task #%s, its inputs have not changed.", buildRecord.getId(), buildTask.getId());
+        buildTask.setStatus(BuildStatus.BUILD_COMPLETED_SUCCESS);
+        buildTask.setStatusDescription("Reused build record #" + buildRecord.getId() + " with the same inputs.");
+        List<BuildTask> readyTasks = buildTasksTree.buildCompleted(buildTask);
+        buildTask.setStatus(BuildStatus.DONE);
+        buildCompleted(buildTask, readyTasks);
+        return true;
+    }
+
+    /**
+     * Completes a stuck task with SYSTEM_ERROR and rejects the tasks depending on it. The remaining stages of its
+     * pipeline are skipped.
+     *
+     * @return false if the task has already completed
+     */
+    boolean reclaim(BuildTask buildTask, String reason) {
+        if (!buildTask.markCompleted()) {
+            return false;
+        }
+        log.warnf("Reclaiming build task #%s: %s", buildTask.getId(), reason);
+        buildTask.cancelRunningBuild();
+        BuildStatus lastStatus = buildTask.getStatus();
+        buildTask.setStatus(BuildStatus.SYSTEM_ERROR);
+        buildTask.setStatusDescription(reason);
+        try {
+            datastoreAdapter.storeResult(buildTask, new CoreException("Build task stuck in " + lastStatus + ". " + reason));
+        } catch (DatastoreException | RuntimeException e) {
+            log.errorf(e, "Error storing results of reclaimed build task #%s to datastore.", buildTask.getId());
         }
-        return missingDependencies;
+        buildFailed(buildTask);
+        return true;
     }
 
-    private boolean isConfigurationBuilt(BuildConfiguration buildConfiguration) {
-        return datastoreAdapter.isBuildConfigurationBuilt();
+    boolean isConfigurationBuilt(BuildConfiguration buildConfiguration, String buildContentId) {
+        return datastoreAdapter.isBuildConfigurationBuilt(buildConfiguration, buildContentId);
     }
 
     void startBuilding(BuildTask buildTask) throws CoreException {
@@ -153,6 +282,7 @@ public class BuildCoordinator {
 
     private CompletableFuture<RepositoryConfiguration> configureRepository(BuildTask buildTask, RepositoryManager repositoryManager) {
         return CompletableFuture.supplyAsync( () ->  {
+            checkNotCompleted(buildTask);
             buildTask.setStatus(BuildStatus.REPO_SETTING_UP);
             BuildConfiguration buildConfiguration = buildTask.getBuildConfiguration();
             try {
@@ -170,11 +300,12 @@ public class BuildCoordinator {
             } catch (RepositoryManagerException e) {
                 throw new CoreExceptionWrapper(e);
             }
-        }, executor);
+        }, stageExecutors.getExecutor(BuildStage.REPO_SETUP));
     }
 
     private CompletableFuture<RunningBuild> buildSetUp(BuildTask buildTask, BuildDriver buildDriver, RepositoryConfiguration repositoryConfiguration) {
         return CompletableFuture.supplyAsync( () ->  {
+            checkNotCompleted(buildTask);
             buildTask.setStatus(BuildStatus.BUILD_SETTING_UP);
             BuildConfiguration buildConfiguration = buildTask.getBuildConfiguration();
             try {
@@ -182,7 +313,7 @@ public class BuildCoordinator {
             } catch (BuildDriverException e) {
                 throw new CoreExceptionWrapper(e);
             }
-        }, executor);
+        }, stageExecutors.getExecutor(BuildStage.BUILD_SETUP));
     }
 
     private CompletableFuture<CompletedBuild> waitBuildToComplete(BuildTask buildTask, RunningBuild runningBuild) {
@@ -195,8 +326,16 @@ public class BuildCoordinator {
                     waitToCompleteFuture.completeExceptionally(e);
                 };
                 buildTask.setStatus(BuildStatus.BUILD_WAITING);
+                buildTask.setRunningBuild(runningBuild);
+                if (buildTask.isCompleted()) { //reclaimed before the running build was set
+                    runningBuild.cancel();
+                    checkNotCompleted(buildTask);
+                }
 
-                runningBuild.monitor(onComplete, onError);
+                runningBuild.monitor(new MonitorCallbacks<>(onComplete, onError)
+                        .onLog(buildTask::appendLog)
+                        .logWanted(buildTask::isLogWanted)
+                        .expectedDuration(durationStatistics.estimate(buildTask.getId(), BuildStatus.BUILD_WAITING)));
             } catch (Exception exception) {
                 waitToCompleteFuture.completeExceptionally(exception);
             }
@@ -205,6 +344,7 @@ public class BuildCoordinator {
 
     private CompletionStage<BuildResult> retrieveBuildResults(BuildTask buildTask, CompletedBuild completedBuild) {
         return CompletableFuture.supplyAsync( () ->  {
+            checkNotCompleted(buildTask);
             buildTask.setStatus(BuildStatus.COLLECTING_RESULTS);
             BuildConfiguration buildConfiguration = buildTask.getBuildConfiguration();
             try {
@@ -212,12 +352,44 @@ public class BuildCoordinator {
             } catch (BuildDriverException e) {
                 throw new CoreExceptionWrapper(e);
             }
-        }, executor);
+        }, stageExecutors.getExecutor(BuildStage.COLLECTING_RESULTS));
+    }
+
+    /**
+     * Stops the pipeline of a task which has been completed meanwhile, eg. reclaimed by the reaper.
+     */
+    private void checkNotCompleted(BuildTask buildTask) {
+        if (buildTask.isCompleted()) {
+            throw new CancellationException("Build task #" + buildTask.getId() + " has already been completed.");
+        }
     }
 
     private CompletableFuture<Boolean> storeResults(BuildTask buildTask, BuildResult buildResult, Throwable e) {
+        if (buildTask.isCompleted()) {
+            log.debugf("Build task #%s has already been completed by the reaper.", buildTask.getId());
+            return CompletableFuture.completedFuture(false);
+        }
+        try {
+            return storeResultsAsync(buildTask, buildResult, e);
+        } catch (RejectedExecutionException rejected) {
+            log.errorf("Cannot store results of build task #%s, the storing-results queue is full.", buildTask.getId());
+            if (buildTask.markCompleted()) {
+                buildTask.setStatus(BuildStatus.SYSTEM_ERROR);
+                buildTask.setStatusDescription("Results were not stored, the storing-results queue is full.");
+                buildFailed(buildTask);
+            }
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    private CompletableFuture<Boolean> storeResultsAsync(BuildTask buildTask, BuildResult buildResult, Throwable e) {
         return CompletableFuture.supplyAsync( () ->  {
+            if (!buildTask.markCompleted()) {
+                log.debugf("Build task #%s has already been completed by the reaper.", buildTask.getId());
+                return false;
+            }
             boolean completedOk = false;
+            boolean successful = false;
             try {
                 try {
                     if (buildResult != null) {
@@ -232,6 +404,7 @@ public class BuildCoordinator {
                         buildTask.setStatus(BuildStatus.STORING_RESULTS);
                         datastoreAdapter.storeResult(buildTask, buildResult);
                         completedOk = true;
+                        successful = buildDriverStatus == BuildDriverStatus.SUCCESS;
                     } else {
                         datastoreAdapter.storeResult(buildTask, e);
                         completedOk = false;
@@ -243,25 +416,84 @@ public class BuildCoordinator {
             } catch (DatastoreException de) {
                 log.errorf(e, "Error storing results of build configuration: %s to datastore.", buildTask.getId());
             } finally {
-                buildTask.setStatus(BuildStatus.DONE);
-                buildTasks.remove(buildTask);
+                if (successful) {
+                    List<BuildTask> readyTasks = buildTasksTree.buildCompleted(buildTask);
+                    buildTask.setStatus(BuildStatus.DONE);
+                    durationStatistics.record(buildTask.getId(), System.currentTimeMillis() - buildTask.getStartTime(),
+                            buildTask.getStatusDurations());
+                    buildCompleted(buildTask, readyTasks);
+                } else {
+                    // the dependants can not be built without the results of the task
+                    buildTask.setStatus(BuildStatus.DONE);
+                    buildFailed(buildTask);
+                }
             }
             return completedOk;
-        }, executor);
+        }, stageExecutors.getExecutor(BuildStage.STORING_RESULTS));
+    }
+
+    BuildTask createBuildTask(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers) {
+        BuildTask buildTask = new BuildTask(buildConfiguration, statusUpdateListeners, logConsumers, logBufferSize);
+        buildTask.addStatusChangedListener(statusPublisher::publish);
+        long expectedDuration = durationStatistics.estimate(buildConfiguration.getId());
+        if (expectedDuration > 0) {
+            buildTask.setExpectedDuration(expectedDuration);
+        }
+        return buildTask;
+    }
+
+    /**
+     * @return publisher of status transitions of all the build tasks
+     */
+    public BuildStatusPublisher getStatusPublisher() {
+        return statusPublisher;
+    }
+
+    /**
+     * @return durations of the successful builds per configuration
+     */
+    public BuildDurationStatistics getDurationStatistics() {
+        return durationStatistics;
+    }
+
+    public BuildQueue getBuildQueue() {
+        return buildQueue;
+    }
+
+    public BuildTaskReaper getReaper() {
+        return reaper;
+    }
+
+    public BuildStageExecutors getStageExecutors() {
+        return stageExecutors;
     }
 
     public List<BuildTask> getBuildTasks() {
-        return Collections.unmodifiableList(buildTasks.stream().collect(Collectors.toList()));
+        return Collections.unmodifiableList(buildTasksTree.getSubmittedBuilds());
     }
 
-    public BuildTask getBuild(String identifier) {
-        List<BuildTask> buildsFilteredTask = buildTasks.stream()
-                .filter(b -> identifier.equals(b.buildConfiguration.getName())).collect(Collectors.toList());
-        return buildsFilteredTask.get(0); //TODO validate that there is exactly one ?
+    /**
+     * @return submitted build of the configuration or null if the configuration is not in the build queue
+     */
+    public BuildTask getBuildTask(Integer buildConfigurationId) {
+        return buildTasksTree.getRegistry().getById(buildConfigurationId);
+    }
+
+    public Set<BuildTask> getBuildTasks(BuildStatus status) {
+        return buildTasksTree.getRegistry().getByStatus(status);
     }
 
-    private boolean isBuildAlreadySubmitted(BuildTask buildTask) {
-        return buildTasks.contains(buildTask);
+    public boolean isBuildAlreadySubmitted(BuildConfiguration buildConfiguration) {
+        return buildTasksTree.getRegistry().contains(buildConfiguration.getId());
+    }
+
+    /**
+     * @return submitted build of the configuration with the name or null if there is none, configuration names are not
+     * unique so any of the matching builds is returned
+     */
+    public BuildTask getBuild(String identifier) {
+        Set<BuildTask> buildsFilteredTask = buildTasksTree.getRegistry().getByName(identifier);
+        return buildsFilteredTask.stream().findFirst().orElse(null);
     }
 
 
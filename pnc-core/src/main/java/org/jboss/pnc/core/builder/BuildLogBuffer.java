@@ -0,0 +1,123 @@
+package org.jboss.pnc.core.builder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded ring buffer keeping the tail of a running build log.
+ *
+ * Offsets are positions in the whole log in bytes, so a reader can continue from the offset it received last time.
+ * When the reader is behind the retained tail, it continues from the oldest retained byte.
+ * The buffer grows with the log up to its capacity, so queued builds without a log do not take memory.
+ */
+public class BuildLogBuffer {
+
+    private static final int INITIAL_SIZE = 4096;
+
+    private final int capacity;
+    private byte[] buffer = new byte[0];
+    /**
+     * Number of bytes ever appended, offset of the next appended byte.
+     */
+    private long size;
+
+    public BuildLogBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Log buffer capacity must be positive.");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void append(byte[] bytes) {
+        if (bytes.length == 0) {
+            return;
+        }
+        int from = 0;
+        int length = bytes.length;
+        if (length > capacity) { //only the tail fits
+            from = length - capacity;
+            size += from;
+            length = capacity;
+        }
+        grow(size + length);
+        int position = (int) (size % buffer.length);
+        int firstPart = Math.min(length, buffer.length - position);
+        System.arraycopy(bytes, from, buffer, position, firstPart);
+        System.arraycopy(bytes, from + firstPart, buffer, 0, length - firstPart);
+        size += length;
+    }
+
+    public void append(String chunk) {
+        append(chunk.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Until the buffer reaches its capacity the log is not wrapped, it starts at the beginning of the buffer.
+     */
+    private void grow(long required) {
+        if (buffer.length < capacity && required > buffer.length) {
+            long newSize = Math.max(required, Math.max(INITIAL_SIZE, 2L * buffer.length));
+            buffer = Arrays.copyOf(buffer, (int) Math.min(capacity, newSize));
+        }
+    }
+
+    /**
+     * @param offset offset of the first requested byte
+     * @return retained bytes from the offset to the end of the log
+     */
+    public synchronized Chunk read(long offset) {
+        long start = Math.max(Math.max(offset, 0), getStartOffset());
+        if (start >= size) {
+            return new Chunk(size, new byte[0]);
+        }
+        int length = (int) (size - start);
+        byte[] data = new byte[length];
+        int position = (int) (start % buffer.length);
+        int firstPart = Math.min(length, buffer.length - position);
+        System.arraycopy(buffer, position, data, 0, firstPart);
+        System.arraycopy(buffer, 0, data, firstPart, length - firstPart);
+        return new Chunk(start, data);
+    }
+
+    /**
+     * @return offset of the oldest retained byte
+     */
+    public synchronized long getStartOffset() {
+        return Math.max(0, size - capacity);
+    }
+
+    /**
+     * @return number of bytes ever appended
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public static class Chunk {
+        private final long offset;
+        private final byte[] data;
+
+        Chunk(long offset, byte[] data) {
+            this.offset = offset;
+            this.data = data;
+        }
+
+        /**
+         * @return offset of the first byte of the chunk, greater than requested when the requested part is not retained
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * @return offset to continue reading from
+         */
+        public long getNextOffset() {
+            return offset + data.length;
+        }
+    }
+}
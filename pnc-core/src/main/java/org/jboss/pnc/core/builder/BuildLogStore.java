@@ -0,0 +1,99 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.spi.builddriver.BuildResult;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Stores build logs as files, a {@link org.jboss.pnc.model.BuildRecord} keeps only the returned reference.
+ * Logs are streamed from the driver to the file, so the memory used does not depend on the log size.
+ *
+ * The directory is configured with coordinator.build-log.dir, when not set the logs are stored to pnc-build-logs in
+ * the data directory of the application server, or in the user home directory outside of the server.
+ */
+@ApplicationScoped
+public class BuildLogStore {
+
+    private static final Logger log = Logger.getLogger(BuildLogStore.class);
+
+    public static final String CONFIG_SECTION = "build-log-store";
+    static final String LOG_DIR_KEY = "coordinator.build-log.dir";
+    static final String DEFAULT_LOG_DIR_NAME = "pnc-build-logs";
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private Path logDir;
+
+    @Deprecated
+    public BuildLogStore() {}
+
+    @Inject
+    public BuildLogStore(Configuration configuration) {
+        Properties properties = configuration.getModuleConfig(CONFIG_SECTION);
+        String dir = properties.getProperty(LOG_DIR_KEY);
+        if (dir == null || dir.trim().isEmpty()) {
+            String dataDir = System.getProperty("jboss.server.data.dir", System.getProperty("user.home"));
+            logDir = Paths.get(dataDir, DEFAULT_LOG_DIR_NAME);
+            log.infof("%s is not set, storing build logs to %s.", LOG_DIR_KEY, logDir);
+        } else {
+            logDir = Paths.get(dir.trim());
+        }
+        logDir = logDir.toAbsolutePath().normalize();
+        log.debugf("Storing build logs to %s.", logDir);
+    }
+
+    /**
+     * @return reference of the stored log
+     */
+    public String store(BuildTask buildTask, BuildResult buildResult) throws IOException, BuildDriverException {
+        Files.createDirectories(logDir);
+        String reference = "build-" + buildTask.getId() + "-" + UUID.randomUUID() + LOG_SUFFIX;
+        Path tmpFile = Files.createTempFile(logDir, "build-" + buildTask.getId() + "-", ".tmp");
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tmpFile), BUFFER_SIZE)) {
+                buildResult.writeBuildLog(outputStream);
+            }
+            Files.move(tmpFile, logDir.resolve(reference), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmpFile);
+        }
+        return reference;
+    }
+
+    /**
+     * @return stream of the stored log, the caller is responsible to close it
+     */
+    public InputStream open(String reference) throws IOException {
+        return Files.newInputStream(resolve(reference));
+    }
+
+    /**
+     * @return size of the stored log in bytes
+     */
+    public long size(String reference) throws IOException {
+        return Files.size(resolve(reference));
+    }
+
+    private Path resolve(String reference) throws IOException {
+        Path file = logDir.resolve(reference).normalize();
+        if (!logDir.equals(file.getParent()) || !reference.endsWith(LOG_SUFFIX)) {
+            throw new IOException("Invalid build log reference " + reference + ".");
+        }
+        return file;
+    }
+}
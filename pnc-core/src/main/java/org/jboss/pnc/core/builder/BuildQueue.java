@@ -0,0 +1,247 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+
+/**
+ * Ready build tasks waiting for a free build slot.
+ *
+ * At most coordinator.max-concurrent-builds tasks are built at once and at most the quota of their tenant (product
+ * version or project, see {@link BuildQuotas}) per tenant. Ready tasks are queued per tenant, a free slot goes to the
+ * tenant with the fewest running builds which is below its quota, so a large submission does not starve the others.
+ * Within a tenant the task with the longest critical path starts first: its expected duration plus the longest chain
+ * of expected durations of the tasks waiting for it. Tasks with the same critical path start in the order they became
+ * ready.
+ *
+ * Queued tasks are {@link BuildStatus#ENQUEUED}, tasks of a tenant which reached its quota are
+ * {@link BuildStatus#WAITING_FOR_QUOTA} until they start.
+ */
+public class BuildQueue {
+
+    private static final Logger log = Logger.getLogger(BuildQueue.class);
+
+    static final String MAX_CONCURRENT_BUILDS_KEY = "coordinator.max-concurrent-builds";
+
+    private static final int DEFAULT_MAX_CONCURRENT_BUILDS = 20;
+
+    private static final Comparator<QueuedTask> PRIORITY =
+            Comparator.comparingLong((QueuedTask queued) -> queued.criticalPath).reversed()
+                    .thenComparingLong(queued -> queued.sequence);
+
+    /**
+     * Tenant with fewer running builds first, then the one with the higher priority task.
+     */
+    private static final Comparator<TenantQueue> FAIR_SHARE =
+            Comparator.comparingInt((TenantQueue tenantQueue) -> tenantQueue.running)
+                    .thenComparing(tenantQueue -> tenantQueue.readyTasks.peek(), PRIORITY);
+
+    private final Map<String, TenantQueue> tenantQueues = new HashMap<>();
+    private final BuildQuotas quotas;
+    private final int maxConcurrentBuilds;
+    private int runningBuilds;
+    private int queuedTasks;
+    private long sequence;
+
+    public BuildQueue(Configuration configuration) {
+        Properties properties = configuration.getModuleConfig(BuildStageExecutors.CONFIG_SECTION);
+        this.maxConcurrentBuilds = Configuration.getInt(properties, MAX_CONCURRENT_BUILDS_KEY,
+                DEFAULT_MAX_CONCURRENT_BUILDS, 1);
+        this.quotas = new BuildQuotas(configuration);
+    }
+
+    void add(BuildTask buildTask) {
+        BuildStatus status = buildTask.getStatus();
+        if (status == BuildStatus.NEW || status == BuildStatus.WAITING_FOR_DEPENDENCIES) {
+            buildTask.compareAndSetStatus(status, BuildStatus.ENQUEUED);
+        }
+        String tenant = BuildQuotas.tenantOf(buildTask.getBuildConfiguration());
+        boolean overQuota;
+        synchronized (this) {
+            long criticalPath = criticalPath(buildTask, new HashMap<>());
+            TenantQueue tenantQueue = tenantQueues.computeIfAbsent(tenant, key -> new TenantQueue(key, quotas.getLimit(key)));
+            tenantQueue.readyTasks.add(new QueuedTask(buildTask, criticalPath, sequence++));
+            queuedTasks++;
+            overQuota = tenantQueue.isOverQuota();
+            log.debugf("Build task #%s of %s is ready with critical path %s ms, %s tasks are queued.", buildTask.getId(), tenant,
+                    criticalPath, queuedTasks);
+        }
+        if (overQuota) {
+            holdBack(buildTask, tenant);
+        }
+    }
+
+    /**
+     * Takes the tasks for the free slots, each returned task holds a slot until it is {@link #release(BuildTask) released}.
+     *
+     * @return tasks to start in order of their priority
+     */
+    List<BuildTask> pollDispatchable() {
+        List<BuildTask> dispatchable = new ArrayList<>();
+        Map<String, List<BuildTask>> heldBack = new HashMap<>();
+        synchronized (this) {
+            while (runningBuilds < maxConcurrentBuilds) {
+                TenantQueue next = null;
+                for (TenantQueue tenantQueue : tenantQueues.values()) {
+                    if (!tenantQueue.readyTasks.isEmpty() && !tenantQueue.isOverQuota()
+                            && (next == null || FAIR_SHARE.compare(tenantQueue, next) < 0)) {
+                        next = tenantQueue;
+                    }
+                }
+                if (next == null) {
+                    break;
+                }
+                BuildTask buildTask = next.readyTasks.poll().buildTask;
+                queuedTasks--;
+                if (buildTask.markDispatched()) {
+                    runningBuilds++;
+                    next.running++;
+                    dispatchable.add(buildTask);
+                    if (next.isOverQuota() && !next.readyTasks.isEmpty()) {
+                        List<BuildTask> tasks = new ArrayList<>();
+                        next.readyTasks.forEach(queued -> tasks.add(queued.buildTask));
+                        heldBack.put(next.tenant, tasks);
+                    }
+                } else {
+                    log.debugf("Build task #%s has already been dispatched.", buildTask.getId());
+                    removeIfIdle(next);
+                }
+            }
+        }
+        heldBack.forEach((tenant, tasks) -> tasks.forEach(buildTask -> holdBack(buildTask, tenant)));
+        return dispatchable;
+    }
+
+    /**
+     * Frees the slot of a completed task.
+     */
+    synchronized void release(BuildTask buildTask) {
+        if (!buildTask.isDispatched()) {
+            return;
+        }
+        runningBuilds--;
+        TenantQueue tenantQueue = tenantQueues.get(BuildQuotas.tenantOf(buildTask.getBuildConfiguration()));
+        if (tenantQueue != null) {
+            tenantQueue.running--;
+            removeIfIdle(tenantQueue);
+        }
+    }
+
+    private void removeIfIdle(TenantQueue tenantQueue) {
+        if (tenantQueue.running <= 0 && tenantQueue.readyTasks.isEmpty()) {
+            tenantQueues.remove(tenantQueue.tenant);
+        }
+    }
+
+    private void holdBack(BuildTask buildTask, String tenant) {
+        if (buildTask.compareAndSetStatus(BuildStatus.ENQUEUED, BuildStatus.WAITING_FOR_QUOTA)) {
+            buildTask.setStatusDescription("Waiting for a build slot of " + tenant + ", its concurrent build quota is "
+                    + quotas.getLimit(tenant) + ".");
+        }
+    }
+
+    /**
+     * Positions are estimated from the current queues as if no task completed and no other task was queued.
+     *
+     * @return 1 based order in which the queued tasks are going to start
+     */
+    public synchronized Map<BuildTask, Integer> getQueuePositions() {
+        Map<BuildTask, Integer> positions = new HashMap<>();
+        List<TenantQueue> simulated = new ArrayList<>();
+        for (TenantQueue tenantQueue : tenantQueues.values()) {
+            TenantQueue copy = new TenantQueue(tenantQueue.tenant, tenantQueue.limit);
+            copy.readyTasks.addAll(tenantQueue.readyTasks);
+            copy.running = tenantQueue.running;
+            simulated.add(copy);
+        }
+        Comparator<TenantQueue> order = Comparator.comparing(TenantQueue::isOverQuota).thenComparing(FAIR_SHARE);
+        int position = 0;
+        while (true) {
+            TenantQueue next = null;
+            for (TenantQueue tenantQueue : simulated) {
+                if (!tenantQueue.readyTasks.isEmpty() && (next == null || order.compare(tenantQueue, next) < 0)) {
+                    next = tenantQueue;
+                }
+            }
+            if (next == null) {
+                return positions;
+            }
+            positions.put(next.readyTasks.poll().buildTask, ++position);
+            next.running++;
+        }
+    }
+
+    /**
+     * @return expected duration of the task and of the longest chain of tasks waiting for it
+     */
+    static long criticalPath(BuildTask buildTask, Map<BuildTask, Long> computed) {
+        Long known = computed.get(buildTask);
+        if (known != null) {
+            return known;
+        }
+        long longestWaiting = 0L;
+        for (BuildTask waiting : buildTask.getWaiting()) {
+            longestWaiting = Math.max(longestWaiting, criticalPath(waiting, computed));
+        }
+        long criticalPath = buildTask.getExpectedDuration() + longestWaiting;
+        computed.put(buildTask, criticalPath);
+        return criticalPath;
+    }
+
+    public synchronized int getQueuedCount() {
+        return queuedTasks;
+    }
+
+    public synchronized int getRunningCount() {
+        return runningBuilds;
+    }
+
+    /**
+     * @return number of running builds of each tenant with running or queued builds
+     */
+    public synchronized Map<String, Integer> getRunningCountByTenant() {
+        Map<String, Integer> runningByTenant = new HashMap<>();
+        tenantQueues.forEach((tenant, tenantQueue) -> runningByTenant.put(tenant, tenantQueue.running));
+        return runningByTenant;
+    }
+
+    public int getMaxConcurrentBuilds() {
+        return maxConcurrentBuilds;
+    }
+
+    private static class TenantQueue {
+        final String tenant;
+        final int limit;
+        final PriorityQueue<QueuedTask> readyTasks = new PriorityQueue<>(PRIORITY);
+        int running;
+
+        TenantQueue(String tenant, int limit) {
+            this.tenant = tenant;
+            this.limit = limit;
+        }
+
+        boolean isOverQuota() {
+            return running >= limit;
+        }
+    }
+
+    private static class QueuedTask {
+        final BuildTask buildTask;
+        final long criticalPath;
+        final long sequence;
+
+        QueuedTask(BuildTask buildTask, long criticalPath, long sequence) {
+            this.buildTask = buildTask;
+            this.criticalPath = criticalPath;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.model.BuildConfiguration;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent build limits of the tenants sharing the build slots.
+ *
+ * A build belongs to the product version of its configuration, or to its project when the configuration is not part
+ * of a product version. The limit of all product versions or projects is set by
+ * coordinator.quota.product-version.max-concurrent-builds and coordinator.quota.project.max-concurrent-builds,
+ * the limit of a single one by coordinator.quota.product-version.&lt;id&gt;.max-concurrent-builds or
+ * coordinator.quota.project.&lt;id&gt;.max-concurrent-builds. Without a limit a tenant is bounded only by
+ * coordinator.max-concurrent-builds.
+ */
+public class BuildQuotas {
+
+    static final String QUOTA_KEY_PREFIX = "coordinator.quota.";
+    static final String MAX_CONCURRENT_BUILDS_KEY_SUFFIX = ".max-concurrent-builds";
+    static final String PRODUCT_VERSION = "product-version";
+    static final String PROJECT = "project";
+    /**
+     * Tenant of the configurations without a product version and a project.
+     */
+    static final String DEFAULT_TENANT = "default";
+
+    static final int UNLIMITED = Integer.MAX_VALUE;
+
+    private final Properties properties;
+    private final Map<String, Integer> limits = new ConcurrentHashMap<>();
+
+    public BuildQuotas(Configuration configuration) {
+        this.properties = configuration.getModuleConfig(BuildStageExecutors.CONFIG_SECTION);
+    }
+
+    /**
+     * @return tenant of the configuration, eg. product-version.3 or project.5
+     */
+    static String tenantOf(BuildConfiguration buildConfiguration) {
+        if (buildConfiguration.getProductVersion() != null && buildConfiguration.getProductVersion().getId() != null) {
+            return PRODUCT_VERSION + "." + buildConfiguration.getProductVersion().getId();
+        }
+        if (buildConfiguration.getProject() != null && buildConfiguration.getProject().getId() != null) {
+            return PROJECT + "." + buildConfiguration.getProject().getId();
+        }
+        return DEFAULT_TENANT;
+    }
+
+    /**
+     * @return maximum number of concurrent builds of the tenant, {@link #UNLIMITED} if it has no limit
+     */
+    int getLimit(String tenant) {
+        return limits.computeIfAbsent(tenant, this::readLimit);
+    }
+
+    private int readLimit(String tenant) {
+        String key = QUOTA_KEY_PREFIX + tenant + MAX_CONCURRENT_BUILDS_KEY_SUFFIX;
+        String value = properties.getProperty(key);
+        int separator = tenant.indexOf('.');
+        if ((value == null || value.trim().isEmpty()) && separator > 0) {
+            key = QUOTA_KEY_PREFIX + tenant.substring(0, separator) + MAX_CONCURRENT_BUILDS_KEY_SUFFIX;
+        }
+        return Configuration.getInt(properties, key, UNLIMITED, 1);
+    }
+}
@@ -0,0 +1,181 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.ArtifactStatus;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
+import org.jboss.pnc.model.RepositoryType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry of a build record in the {@link BuildRecordJournal}.
+ *
+ * Only the fields of a completed build are written: the build configuration is referenced by its id, the artifacts by
+ * their identity (checksum, identifier, filename, repository type) and the status they have in the build. The rest of
+ * the graph is not needed to store the record and is not journaled.
+ */
+final class BuildRecordEntry {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private BuildRecordEntry() {
+    }
+
+    static byte[] write(BuildRecord buildRecord) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(FORMAT_VERSION);
+            BuildConfiguration buildConfiguration = buildRecord.getBuildConfiguration();
+            writeInteger(output, buildConfiguration == null ? null : buildConfiguration.getId());
+            writeEnum(output, buildRecord.getStatus());
+            writeString(output, buildRecord.getBuildContentId());
+            writeTimestamp(output, buildRecord.getStartTime());
+            writeTimestamp(output, buildRecord.getEndTime());
+            writeString(output, buildRecord.getBuildScript());
+            writeString(output, buildRecord.getSourceUrl());
+            writeString(output, buildRecord.getPatchesUrl());
+            writeString(output, buildRecord.getBuildDriverId());
+            writeString(output, buildRecord.getBuildLogReference());
+            writeString(output, buildRecord.getBuildLog());
+            writeArtifacts(output, buildRecord.getBuiltArtifacts());
+            writeArtifacts(output, buildRecord.getDependencies());
+        }
+        return bytes.toByteArray();
+    }
+
+    static BuildRecord read(byte[] entry) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(entry))) {
+            byte version = input.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unknown format " + version + " of the journal entry.");
+            }
+            BuildRecord buildRecord = new BuildRecord();
+            Integer buildConfigurationId = readInteger(input);
+            if (buildConfigurationId != null) {
+                BuildConfiguration buildConfiguration = new BuildConfiguration();
+                buildConfiguration.setId(buildConfigurationId);
+                buildRecord.setBuildConfiguration(buildConfiguration);
+            }
+            buildRecord.setStatus(readEnum(input, BuildDriverStatus.class));
+            buildRecord.setBuildContentId(readString(input));
+            buildRecord.setStartTime(readTimestamp(input));
+            buildRecord.setEndTime(readTimestamp(input));
+            buildRecord.setBuildScript(readString(input));
+            buildRecord.setSourceUrl(readString(input));
+            buildRecord.setPatchesUrl(readString(input));
+            buildRecord.setBuildDriverId(readString(input));
+            buildRecord.setBuildLogReference(readString(input));
+            buildRecord.setBuildLog(readString(input));
+            buildRecord.setBuiltArtifacts(readArtifacts(input));
+            buildRecord.setDependencies(readArtifacts(input));
+            return buildRecord;
+        }
+    }
+
+    private static void writeArtifacts(DataOutputStream output, List<BuildRecordArtifact> links) throws IOException {
+        if (links == null) {
+            output.writeInt(0);
+            return;
+        }
+        output.writeInt(links.size());
+        for (BuildRecordArtifact link : links) {
+            Artifact artifact = link.getArtifact();
+            writeString(output, artifact.getIdentifier());
+            writeString(output, artifact.getChecksum());
+            writeString(output, artifact.getFilename());
+            writeEnum(output, artifact.getRepoType());
+            writeEnum(output, link.getStatus());
+            writeString(output, link.getDeployUrl());
+        }
+    }
+
+    private static List<BuildRecordArtifact> readArtifacts(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<BuildRecordArtifact> links = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Artifact artifact = new Artifact();
+            artifact.setIdentifier(readString(input));
+            artifact.setChecksum(readString(input));
+            artifact.setFilename(readString(input));
+            artifact.setRepoType(readEnum(input, RepositoryType.class));
+            links.add(new BuildRecordArtifact(artifact, readEnum(input, ArtifactStatus.class), readString(input)));
+        }
+        return links;
+    }
+
+    /**
+     * Strings are written as their UTF-8 length and bytes, {@link DataOutputStream#writeUTF(String)} is limited to 64KB
+     * which a build log can exceed.
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInteger(DataOutputStream output, Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    private static void writeTimestamp(DataOutputStream output, Timestamp value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.getTime());
+            output.writeInt(value.getNanos());
+        }
+    }
+
+    private static Timestamp readTimestamp(DataInputStream input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        Timestamp value = new Timestamp(input.readLong());
+        value.setNanos(input.readInt());
+        return value;
+    }
+
+    private static void writeEnum(DataOutputStream output, Enum<?> value) throws IOException {
+        writeString(output, value == null ? null : value.name());
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInputStream input, Class<E> type) throws IOException {
+        String name = readString(input);
+        try {
+            return name == null ? null : Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " " + name + " in the journal entry.", e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.jboss.pnc.core.builder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Build records waiting to be written to the datastore, kept in a memory-mapped file so they survive a crash.
+ *
+ * The file starts with the write and the read position (int each), followed by the entries. Each entry is its length
+ * (int) and the build record written by
+ * {@link BuildRecordEntry}. Entries between the read and the write position are pending, they are
+ * acknowledged one by one in the order they were appended.
+ */
+class BuildRecordJournal implements Closeable {
+
+    private static final int HEADER_SIZE = 8;
+    private static final int WRITE_POSITION = 0;
+    private static final int READ_POSITION = 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int writePosition;
+    private int readPosition;
+
+    /**
+     * Opens the journal file, pending entries of an existing journal are kept.
+     *
+     * @param size size of the journal file in bytes
+     */
+    BuildRecordJournal(Path file, int size) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        capacity = (int) Math.max(size, Math.min(channel.size(), Integer.MAX_VALUE));
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        writePosition = buffer.getInt(WRITE_POSITION);
+        readPosition = buffer.getInt(READ_POSITION);
+        if (writePosition < HEADER_SIZE || writePosition > capacity || readPosition < HEADER_SIZE
+                || readPosition > writePosition) {
+            // new file
+            writePosition = HEADER_SIZE;
+            readPosition = HEADER_SIZE;
+            writeHeader();
+        }
+    }
+
+    /**
+     * Appends the entry and forces it to the disk.
+     *
+     * @throws IOException when there is no space for the entry in the journal
+     */
+    synchronized void append(byte[] entry) throws IOException {
+        int entrySize = 4 + entry.length;
+        if (writePosition + entrySize > capacity) {
+            compact();
+            if (writePosition + entrySize > capacity) {
+                throw new IOException("Journal is full, " + (capacity - writePosition) + " bytes left for an entry of "
+                        + entrySize + " bytes.");
+            }
+        }
+        buffer.putInt(writePosition, entry.length);
+        ByteBuffer target = buffer.duplicate();
+        target.position(writePosition + 4);
+        target.put(entry);
+        buffer.force();
+        writePosition += entrySize;
+        writeHeader();
+    }
+
+    /**
+     * @return pending entries, the oldest first
+     */
+    synchronized List<byte[]> readPending() {
+        List<byte[]> entries = new ArrayList<>();
+        int position = readPosition;
+        while (position < writePosition) {
+            byte[] entry = new byte[buffer.getInt(position)];
+            ByteBuffer source = buffer.duplicate();
+            source.position(position + 4);
+            source.get(entry);
+            entries.add(entry);
+            position += 4 + entry.length;
+        }
+        return entries;
+    }
+
+    /**
+     * Removes the oldest pending entry.
+     */
+    synchronized void acknowledge() {
+        if (readPosition >= writePosition) {
+            return;
+        }
+        readPosition += 4 + buffer.getInt(readPosition);
+        if (readPosition == writePosition) {
+            readPosition = HEADER_SIZE;
+            writePosition = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    synchronized boolean isEmpty() {
+        return readPosition == writePosition;
+    }
+
+    /**
+     * Moves the pending entries to the start of the journal. Only done when they do not overlap their new place, so the
+     * entries are not lost on a crash before the header points to the moved ones.
+     */
+    private void compact() {
+        int pendingSize = writePosition - readPosition;
+        if (readPosition == HEADER_SIZE || pendingSize > readPosition - HEADER_SIZE) {
+            return;
+        }
+        ByteBuffer source = buffer.duplicate();
+        source.position(readPosition);
+        source.limit(writePosition);
+        ByteBuffer target = buffer.duplicate();
+        target.position(HEADER_SIZE);
+        target.put(source);
+        buffer.force();
+        readPosition = HEADER_SIZE;
+        writePosition = HEADER_SIZE + pendingSize;
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        buffer.putInt(WRITE_POSITION, writePosition);
+        buffer.putInt(READ_POSITION, readPosition);
+        buffer.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
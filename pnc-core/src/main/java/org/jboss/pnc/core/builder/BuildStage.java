@@ -0,0 +1,28 @@
+package org.jboss.pnc.core.builder;
+
+/**
+ * Stages of the build pipeline which are executed on their own thread pool.
+ */
+public enum BuildStage {
+
+    REPO_SETUP("repo-setup"),
+
+    BUILD_SETUP("build-setup"),
+
+    COLLECTING_RESULTS("collecting-results"),
+
+    STORING_RESULTS("storing-results");
+
+    private final String configKey;
+
+    BuildStage(String configKey) {
+        this.configKey = configKey;
+    }
+
+    /**
+     * @return stage name as used in configuration keys and thread names
+     */
+    public String getConfigKey() {
+        return configKey;
+    }
+}
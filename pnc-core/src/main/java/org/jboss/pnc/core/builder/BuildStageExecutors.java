@@ -0,0 +1,68 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * Holds a separate thread pool for each {@link BuildStage}, so a slow stage (eg. a stalled repository manager) does not
+ * block the other stages.
+ *
+ * Pools are configured with:
+ * <pre>
+ * coordinator.executor.&lt;stage&gt;.threads
+ * coordinator.executor.&lt;stage&gt;.queue-size
+ * </pre>
+ * A task submitted to a full queue is rejected and the build fails, it never runs on the submitting thread (eg. the
+ * Jenkins poller).
+ */
+public class BuildStageExecutors {
+
+    public static final String CONFIG_SECTION = "build-coordinator";
+
+    private static final String KEY_PREFIX = "coordinator.executor.";
+
+    private static final int DEFAULT_THREADS = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    private static final Logger log = Logger.getLogger(BuildStageExecutors.class);
+
+    private final Map<BuildStage, MonitoredThreadPoolExecutor> executors = new EnumMap<>(BuildStage.class);
+
+    public BuildStageExecutors(Configuration configuration) {
+        Properties properties = configuration.getModuleConfig(CONFIG_SECTION);
+
+        for (BuildStage stage : BuildStage.values()) {
+            int threads = Configuration.getInt(properties, KEY_PREFIX + stage.getConfigKey() + ".threads",
+                    DEFAULT_THREADS, 1);
+            int queueSize = Configuration.getInt(properties, KEY_PREFIX + stage.getConfigKey() + ".queue-size",
+                    DEFAULT_QUEUE_SIZE, 1);
+            log.debugf("Creating executor for stage %s with %s threads and queue size %s.", stage, threads, queueSize);
+            executors.put(stage, new MonitoredThreadPoolExecutor(stage.getConfigKey(), threads, queueSize));
+        }
+    }
+
+    public Executor getExecutor(BuildStage stage) {
+        return executors.get(stage);
+    }
+
+    /**
+     * @return executors including their queue depth and wait time metrics
+     */
+    public Collection<MonitoredThreadPoolExecutor> getExecutors() {
+        return Collections.unmodifiableCollection(executors.values());
+    }
+
+    public void shutdown() {
+        executors.values().forEach(executor -> {
+            log.debugf("Shutting down %s", executor);
+            executor.shutdown();
+        });
+    }
+}
@@ -1,17 +1,32 @@
 package org.jboss.pnc.core.builder;
 
 import org.jboss.logging.Logger;
-import org.jboss.pnc.core.exception.CoreException;
+import org.jboss.pnc.core.notifications.BuildStatusChangedEvent;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.spi.BuildStatus;
+import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.util.collection.WeakSet;
 
-import java.util.HashSet;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
+* Status changes are compare-and-set transitions along {@link #ALLOWED_TRANSITIONS}, once the task is DONE or REJECTED
+* its status can not change anymore.
+* Dependency completions and dispatch to the build pipeline are safe to call from any thread.
+*
 * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-23.
 */
 public class BuildTask {
@@ -19,29 +34,121 @@ public class BuildTask {
     public static final Logger log = Logger.getLogger(BuildTask.class);
 
     public BuildConfiguration buildConfiguration;
-    BuildStatus status = BuildStatus.NEW;
-    private String statusDescription;
+    private final AtomicReference<BuildStatus> status = new AtomicReference<>(BuildStatus.NEW);
+    private volatile String statusDescription;
+
+    /**
+     * Default size in bytes of the retained tail of the build log
+     */
+    static final int DEFAULT_LOG_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Expected duration of a build without history
+     */
+    static final long DEFAULT_EXPECTED_DURATION = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * Time in milliseconds after the last read of the running build log until the log is not tailed anymore
+     */
+    static final long LOG_READER_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Forward transitions by the current status. A task which is not final can always end with SYSTEM_ERROR (eg. when
+     * it is reclaimed), a pipeline stage can end with DONE when the stage fails and its error is stored.
+     */
+    private static final Map<BuildStatus, Set<BuildStatus>> ALLOWED_TRANSITIONS = new EnumMap<>(BuildStatus.class);
+
+    static {
+        allow(BuildStatus.NEW, BuildStatus.WAITING_FOR_DEPENDENCIES, BuildStatus.ENQUEUED, BuildStatus.REJECTED);
+        allow(BuildStatus.WAITING_FOR_DEPENDENCIES, BuildStatus.ENQUEUED, BuildStatus.REJECTED);
+        allow(BuildStatus.ENQUEUED, BuildStatus.WAITING_FOR_QUOTA, BuildStatus.REPO_SETTING_UP,
+                BuildStatus.BUILD_COMPLETED_SUCCESS, BuildStatus.REJECTED);
+        allow(BuildStatus.WAITING_FOR_QUOTA, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_COMPLETED_SUCCESS,
+                BuildStatus.REJECTED);
+        allow(BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_ENV_SETTING_UP, BuildStatus.BUILD_SETTING_UP, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_ENV_SETTING_UP, BuildStatus.BUILD_ENV_WAITING, BuildStatus.BUILD_ENV_SETUP_COMPLETE_SUCCESS,
+                BuildStatus.BUILD_ENV_SETUP_COMPLETE_WITH_ERROR, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_ENV_WAITING, BuildStatus.BUILD_ENV_SETUP_COMPLETE_SUCCESS,
+                BuildStatus.BUILD_ENV_SETUP_COMPLETE_WITH_ERROR, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_ENV_SETUP_COMPLETE_SUCCESS, BuildStatus.BUILD_SETTING_UP, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_ENV_SETUP_COMPLETE_WITH_ERROR, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_SETTING_UP, BuildStatus.BUILD_WAITING, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_WAITING, BuildStatus.COLLECTING_RESULTS, BuildStatus.BUILD_COMPLETED_SUCCESS,
+                BuildStatus.BUILD_COMPLETED_WITH_ERROR, BuildStatus.DONE);
+        allow(BuildStatus.COLLECTING_RESULTS, BuildStatus.BUILD_COMPLETED_SUCCESS, BuildStatus.BUILD_COMPLETED_WITH_ERROR,
+                BuildStatus.DONE);
+        allow(BuildStatus.BUILD_COMPLETED_SUCCESS, BuildStatus.STORING_RESULTS, BuildStatus.DONE);
+        allow(BuildStatus.BUILD_COMPLETED_WITH_ERROR, BuildStatus.STORING_RESULTS, BuildStatus.DONE);
+        allow(BuildStatus.STORING_RESULTS, BuildStatus.DONE);
+        allow(BuildStatus.SYSTEM_ERROR, BuildStatus.DONE);
+        ALLOWED_TRANSITIONS.put(BuildStatus.DONE, EnumSet.noneOf(BuildStatus.class));
+        ALLOWED_TRANSITIONS.put(BuildStatus.REJECTED, EnumSet.noneOf(BuildStatus.class));
+    }
+
+    private static void allow(BuildStatus from, BuildStatus... to) {
+        Set<BuildStatus> allowed = EnumSet.of(BuildStatus.SYSTEM_ERROR, to);
+        allowed.remove(from);
+        ALLOWED_TRANSITIONS.put(from, allowed);
+    }
 
     private Set<Consumer<BuildStatus>> statusUpdateListeners;
     private Set<Consumer<String>> logConsumers;
+    private final BuildLogBuffer logBuffer;
+    private volatile long lastLogRead;
+    /**
+     * Listeners of all the transitions, unlike the status update listeners they are strongly referenced.
+     */
+    private final List<Consumer<BuildStatusChangedEvent>> statusChangedListeners = new CopyOnWriteArrayList<>();
 
     /**
      * A list of builds waiting for this build to complete.
      */
     private Set<BuildTask> waiting;
-    private List<BuildTask> requiredBuilds;
-    private BuildCoordinator buildCoordinator;
+    /**
+     * Builds this build is waiting for.
+     */
+    private Set<BuildTask> requiredBuilds;
+    private final AtomicInteger remainingRequiredBuilds = new AtomicInteger();
+    private final AtomicBoolean dispatched = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    private volatile long statusChangeTime = System.currentTimeMillis();
+    /**
+     * Time in milliseconds spent in each of the past statuses
+     */
+    private final Map<BuildStatus, Long> statusDurations = new ConcurrentHashMap<>();
+    /**
+     * Time of the dispatch to the build pipeline, 0 until the task is dispatched
+     */
+    private volatile long startTime;
+    private volatile RunningBuild runningBuild;
+    private volatile String buildContentId;
+    private volatile boolean buildContentHashed;
+    /**
+     * Expected build duration in milliseconds, used to prioritize the tasks on the critical path
+     */
+    private volatile long expectedDuration = DEFAULT_EXPECTED_DURATION;
+
+    BuildTask(BuildConfiguration buildConfiguration) {
+        this(buildConfiguration, DEFAULT_LOG_BUFFER_SIZE);
+    }
 
-    BuildTask(BuildCoordinator buildCoordinator, BuildConfiguration buildConfiguration) {
-        this.buildCoordinator = buildCoordinator;
+    BuildTask(BuildConfiguration buildConfiguration, int logBufferSize) {
         this.buildConfiguration = buildConfiguration;
-        statusUpdateListeners = new WeakSet();
-        logConsumers = new WeakSet();
-        waiting = new HashSet<>();
+        this.logBuffer = new BuildLogBuffer(logBufferSize);
+        statusUpdateListeners = Collections.synchronizedSet(new WeakSet());
+        logConsumers = Collections.synchronizedSet(new WeakSet());
+        waiting = ConcurrentHashMap.newKeySet();
+        requiredBuilds = ConcurrentHashMap.newKeySet();
     }
 
-    BuildTask(BuildCoordinator buildCoordinator, BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers) {
-        this(buildCoordinator, buildConfiguration);
+    BuildTask(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers) {
+        this(buildConfiguration, statusUpdateListeners, logConsumers, DEFAULT_LOG_BUFFER_SIZE);
+    }
+
+    BuildTask(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers,
+            int logBufferSize) {
+        this(buildConfiguration, logBufferSize);
         this.statusUpdateListeners.addAll(statusUpdateListeners);
         this.logConsumers.addAll(logConsumers);
     }
@@ -54,36 +161,176 @@ public class BuildTask {
         this.logConsumers.add(logConsumer);
     }
 
-    public void setStatus(BuildStatus status) {
-        log.debugf("Updating build task #%s status to %s", this.getId(), status);
-        statusUpdateListeners.forEach(consumer -> consumer.accept(status));
-        if (status.equals(BuildStatus.DONE)) {
-            waiting.forEach((submittedBuild) -> submittedBuild.requiredBuildCompleted(this));
+    public void setStatus(BuildStatus newStatus) {
+        BuildStatus current;
+        do {
+            current = status.get();
+            if (!isTransitionAllowed(current, newStatus)) {
+                log.debugf("Ignoring status update of build task #%s from %s to %s", this.getId(), current, newStatus);
+                return;
+            }
+        } while (!status.compareAndSet(current, newStatus));
+        log.debugf("Updating build task #%s status to %s", this.getId(), newStatus);
+        statusChanged(current, newStatus);
+    }
+
+    /**
+     * Updates the status only if the current one is expected.
+     *
+     * @return true if the status was updated
+     */
+    boolean compareAndSetStatus(BuildStatus expected, BuildStatus newStatus) {
+        if (!isTransitionAllowed(expected, newStatus) || !status.compareAndSet(expected, newStatus)) {
+            return false;
         }
-        this.status = status;
+        log.debugf("Updating build task #%s status from %s to %s", this.getId(), expected, newStatus);
+        statusChanged(expected, newStatus);
+        return true;
     }
 
-    void setRequiredBuilds(List<BuildTask> requiredBuilds) {
-        this.requiredBuilds = requiredBuilds;
+    private void statusChanged(BuildStatus oldStatus, BuildStatus newStatus) {
+        long now = System.currentTimeMillis();
+        statusDurations.merge(oldStatus, now - statusChangeTime, Long::sum);
+        statusChangeTime = now;
+        statusUpdateListeners.forEach(consumer -> consumer.accept(newStatus));
+        if (!statusChangedListeners.isEmpty()) {
+            BuildStatusChangedEvent event = new BuildStatusChangedEvent(getId(), oldStatus, newStatus);
+            statusChangedListeners.forEach(listener -> listener.accept(event));
+        }
     }
 
-    private void requiredBuildCompleted(BuildTask completed) {
-        requiredBuilds.remove(completed);
-        if (requiredBuilds.size() == 0) {
-            try {
-                buildCoordinator.startBuilding(this);
-            } catch (CoreException e) {
-                setStatus(BuildStatus.SYSTEM_ERROR);
-                setStatusDescription(e.getMessage());
-            }
+    void addStatusChangedListener(Consumer<BuildStatusChangedEvent> statusChangedListener) {
+        statusChangedListeners.add(statusChangedListener);
+    }
+
+    static boolean isTransitionAllowed(BuildStatus from, BuildStatus to) {
+        return ALLOWED_TRANSITIONS.get(from).contains(to);
+    }
+
+    void addRequiredBuild(BuildTask buildTask) {
+        if (requiredBuilds.add(buildTask)) {
+            remainingRequiredBuilds.incrementAndGet();
+        }
+    }
+
+    Set<BuildTask> getRequiredBuilds() {
+        return Collections.unmodifiableSet(requiredBuilds);
+    }
+
+    boolean hasRequiredBuilds() {
+        return remainingRequiredBuilds.get() > 0;
+    }
+
+    /**
+     * Only one of concurrent completions of the same required build is counted.
+     *
+     * @return true if it was the last required build
+     */
+    boolean requiredBuildCompleted(BuildTask completed) {
+        return requiredBuilds.remove(completed) && remainingRequiredBuilds.decrementAndGet() == 0;
+    }
+
+    /**
+     * @return true only for the first call, the caller is responsible to start the build
+     */
+    boolean markDispatched() {
+        if (!dispatched.compareAndSet(false, true)) {
+            return false;
+        }
+        startTime = System.currentTimeMillis();
+        return true;
+    }
+
+    boolean isDispatched() {
+        return dispatched.get();
+    }
+
+    /**
+     * Either the build pipeline or the reaper completes the task.
+     *
+     * @return true only for the first call, the caller is responsible to store the result
+     */
+    boolean markCompleted() {
+        return completed.compareAndSet(false, true);
+    }
+
+    /**
+     * @return true once the pipeline or the reaper completed the task, the remaining stages are then skipped
+     */
+    boolean isCompleted() {
+        return completed.get();
+    }
+
+    void setRunningBuild(RunningBuild runningBuild) {
+        this.runningBuild = runningBuild;
+    }
+
+    /**
+     * Stops waiting for the running build, if there is one.
+     */
+    void cancelRunningBuild() {
+        RunningBuild running = runningBuild;
+        if (running != null) {
+            running.cancel();
         }
     }
 
+    void setExpectedDuration(long expectedDuration) {
+        this.expectedDuration = expectedDuration;
+    }
+
+    public long getExpectedDuration() {
+        return expectedDuration;
+    }
+
+    void setBuildContentId(String buildContentId) {
+        this.buildContentId = buildContentId;
+        this.buildContentHashed = true;
+    }
+
+    /**
+     * @return true if the build content id was already computed, it may still be null
+     */
+    boolean isBuildContentHashed() {
+        return buildContentHashed;
+    }
+
+    /**
+     * @return hash of the build inputs or null if they can not be fully resolved
+     */
+    public String getBuildContentId() {
+        return buildContentId;
+    }
+
+    /**
+     * @return time in milliseconds spent in each of the past statuses, eg. BUILD_WAITING is the time the build driver
+     * was running the build
+     */
+    public Map<BuildStatus, Long> getStatusDurations() {
+        Map<BuildStatus, Long> durations = new EnumMap<>(BuildStatus.class);
+        durations.putAll(statusDurations);
+        return durations;
+    }
+
+    /**
+     * @return time of the last status change in milliseconds
+     */
+    public long getStatusChangeTime() {
+        return statusChangeTime;
+    }
+
+    /**
+     * @return time when the task was dispatched to the build pipeline in milliseconds or 0 if it is not dispatched yet
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
     /**
      * @return current status
      */
     public BuildStatus getStatus() {
-        return status;
+        return status.get();
     }
 
     /**
@@ -101,6 +348,14 @@ public class BuildTask {
         waiting.add(buildTask);
     }
 
+    void removeWaiting(BuildTask buildTask) {
+        waiting.remove(buildTask);
+    }
+
+    Set<BuildTask> getWaiting() {
+        return Collections.unmodifiableSet(waiting);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -126,8 +381,35 @@ public class BuildTask {
         return buildConfiguration.getId();
     }
 
+    /**
+     * Keeps the chunk of a running build log and passes it to the registered log consumers.
+     */
+    void appendLog(String logChunk) {
+        logBuffer.append(logChunk);
+        logConsumers.forEach(consumer -> consumer.accept(logChunk));
+    }
+
+    /**
+     * @return true while there is a registered log consumer or the log was read recently
+     */
+    boolean isLogWanted() {
+        return !logConsumers.isEmpty() || System.currentTimeMillis() - lastLogRead < LOG_READER_TIMEOUT;
+    }
+
+    /**
+     * @return retained tail of the build log, the complete log is stored when the build completes
+     */
     public String getBuildLog() {
-        return null;//TODO reference to progressive log
+        lastLogRead = System.currentTimeMillis();
+        return new String(logBuffer.read(0).getData(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param offset byte offset in the whole log to continue from
+     */
+    public BuildLogBuffer.Chunk readBuildLog(long offset) {
+        lastLogRead = System.currentTimeMillis();
+        return logBuffer.read(offset);
     }
 
 }
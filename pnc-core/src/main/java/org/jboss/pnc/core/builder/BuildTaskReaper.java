@@ -0,0 +1,144 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+
+/**
+ * Periodically reclaims build tasks which are stuck, eg. the Jenkins job disappeared or the build pipeline failed
+ * before the results were stored.
+ *
+ * A task is stuck when it stays in a stage longer than the stage deadline or when it runs longer than the maximum
+ * build duration, which also limits the wait for the build itself. Timeouts are in seconds:
+ * <pre>
+ * coordinator.reaper.interval
+ * coordinator.reaper.&lt;stage&gt;.timeout  (repo-setup | build-setup | collecting-results)
+ * coordinator.reaper.max-build-duration
+ * </pre>
+ * Storing of the results has no deadline, the task is already completed when its results are being stored.
+ */
+public class BuildTaskReaper {
+
+    private static final Logger log = Logger.getLogger(BuildTaskReaper.class);
+
+    private static final String KEY_PREFIX = "coordinator.reaper.";
+
+    private static final long DEFAULT_INTERVAL = 60L;
+    private static final long DEFAULT_STAGE_TIMEOUT = TimeUnit.MINUTES.toSeconds(30);
+    private static final long DEFAULT_MAX_BUILD_DURATION = TimeUnit.HOURS.toSeconds(24);
+
+    private final BuildTaskRegistry registry;
+    private final BiPredicate<BuildTask, String> reclaim;
+
+    private final long interval;
+    private final long maxBuildDuration;
+    /**
+     * Deadlines in milliseconds of the statuses set by the stages
+     */
+    private final Map<BuildStatus, Long> stageDeadlines = new EnumMap<>(BuildStatus.class);
+
+    private final AtomicLong reclaimedTotal = new AtomicLong();
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param reclaim moves the task to an error state with the given reason, returns false if the task has already
+     *                completed
+     */
+    public BuildTaskReaper(Configuration configuration, BuildTaskRegistry registry, BiPredicate<BuildTask, String> reclaim) {
+        this.registry = registry;
+        this.reclaim = reclaim;
+
+        Properties properties = configuration.getModuleConfig(BuildStageExecutors.CONFIG_SECTION);
+        interval = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, KEY_PREFIX + "interval", DEFAULT_INTERVAL, 1));
+        maxBuildDuration = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, KEY_PREFIX + "max-build-duration", DEFAULT_MAX_BUILD_DURATION, 1));
+        for (BuildStage stage : BuildStage.values()) {
+            if (stage == BuildStage.STORING_RESULTS) {
+                continue;
+            }
+            long timeout = TimeUnit.SECONDS.toMillis(Configuration.getLong(properties, KEY_PREFIX + stage.getConfigKey() + ".timeout", DEFAULT_STAGE_TIMEOUT, 1));
+            stageDeadlines.put(getStageStatus(stage), timeout);
+        }
+    }
+
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+        executor.scheduleWithFixedDelay(this::run, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run() {
+        try {
+            reap(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            log.errorf(e, "Error while reclaiming stuck build tasks.");
+        }
+    }
+
+    /**
+     * @return number of reclaimed tasks
+     */
+    int reap(long now) {
+        int reclaimed = 0;
+        for (Map.Entry<BuildStatus, Long> deadline : stageDeadlines.entrySet()) {
+            for (BuildTask buildTask : registry.getByStatus(deadline.getKey())) {
+                long inStage = now - buildTask.getStatusChangeTime();
+                if (inStage > deadline.getValue() && buildTask.getStatus() == deadline.getKey()) {
+                    String reason = "Build task stayed in " + deadline.getKey() + " for " + inStage / 1000 + "s.";
+                    if (reclaim.test(buildTask, reason)) {
+                        reclaimed++;
+                    }
+                }
+            }
+        }
+        for (BuildTask buildTask : registry.getAll()) {
+            long startTime = buildTask.getStartTime();
+            if (startTime > 0 && now - startTime > maxBuildDuration) {
+                String reason = "Build exceeded the maximum build duration of " + maxBuildDuration / 1000 + "s.";
+                if (reclaim.test(buildTask, reason)) {
+                    reclaimed++;
+                }
+            }
+        }
+        reclaimedTotal.addAndGet(reclaimed);
+        if (reclaimed > 0) {
+            log.infof("Reclaimed %s stuck build tasks, %s since start.", reclaimed, reclaimedTotal.get());
+        } else {
+            log.debugf("There are no stuck build tasks.");
+        }
+        return reclaimed;
+    }
+
+    /**
+     * @return number of tasks reclaimed since the reaper was created
+     */
+    public long getReclaimedCount() {
+        return reclaimedTotal.get();
+    }
+
+    private static BuildStatus getStageStatus(BuildStage stage) {
+        switch (stage) {
+            case REPO_SETUP:
+                return BuildStatus.REPO_SETTING_UP;
+            case BUILD_SETUP:
+                return BuildStatus.BUILD_SETTING_UP;
+            case COLLECTING_RESULTS:
+                return BuildStatus.COLLECTING_RESULTS;
+            default:
+                throw new IllegalArgumentException("Unknown build stage " + stage);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Submitted build tasks indexed by configuration id, configuration name and status.
+ *
+ * Lookups do not lock and do not scan the tasks. The status index follows the status transitions of the registered tasks,
+ * its updates are serialized so a task is always in the set of its current status.
+ */
+public class BuildTaskRegistry {
+
+    private final Map<Integer, BuildTask> byId = new ConcurrentHashMap<>();
+    private final Map<String, Set<BuildTask>> byName = new ConcurrentHashMap<>();
+    private final Map<BuildStatus, Set<BuildTask>> byStatus = new EnumMap<>(BuildStatus.class);
+
+    public BuildTaskRegistry() {
+        for (BuildStatus status : BuildStatus.values()) {
+            byStatus.put(status, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * @return false if a task of the same configuration is already registered
+     */
+    boolean add(BuildTask buildTask) {
+        if (byId.putIfAbsent(buildTask.getId(), buildTask) != null) {
+            return false;
+        }
+        String name = buildTask.getBuildConfiguration().getName();
+        if (name != null) {
+            byName.computeIfAbsent(name, n -> ConcurrentHashMap.newKeySet()).add(buildTask);
+        }
+        buildTask.addStatusChangedListener(event -> statusChanged(buildTask, event.getOldStatus()));
+        synchronized (byStatus) {
+            byStatus.get(buildTask.getStatus()).add(buildTask);
+        }
+        return true;
+    }
+
+    /**
+     * @return false if the task is not registered
+     */
+    boolean remove(BuildTask buildTask) {
+        if (!byId.remove(buildTask.getId(), buildTask)) {
+            return false;
+        }
+        String name = buildTask.getBuildConfiguration().getName();
+        if (name != null) {
+            byName.computeIfPresent(name, (n, tasks) -> {
+                tasks.remove(buildTask);
+                return tasks.isEmpty() ? null : tasks;
+            });
+        }
+        synchronized (byStatus) {
+            byStatus.get(buildTask.getStatus()).remove(buildTask);
+        }
+        return true;
+    }
+
+    private void statusChanged(BuildTask buildTask, BuildStatus oldStatus) {
+        synchronized (byStatus) {
+            byStatus.get(oldStatus).remove(buildTask);
+            // transitions can be reported out of order, the current status is the one to index
+            if (byId.get(buildTask.getId()) == buildTask) {
+                byStatus.get(buildTask.getStatus()).add(buildTask);
+            }
+        }
+    }
+
+    public BuildTask getById(Integer buildConfigurationId) {
+        return byId.get(buildConfigurationId);
+    }
+
+    public boolean contains(Integer buildConfigurationId) {
+        return byId.containsKey(buildConfigurationId);
+    }
+
+    /**
+     * @return tasks of the configurations with the given name, configuration names are not unique
+     */
+    public Set<BuildTask> getByName(String name) {
+        Set<BuildTask> tasks = byName.get(name);
+        return tasks == null ? Collections.emptySet() : Collections.unmodifiableSet(tasks);
+    }
+
+    public Set<BuildTask> getByStatus(BuildStatus status) {
+        return Collections.unmodifiableSet(byStatus.get(status));
+    }
+
+    public List<BuildTask> getAll() {
+        return new ArrayList<>(byId.values());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+}
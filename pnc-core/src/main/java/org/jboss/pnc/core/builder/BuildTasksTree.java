@@ -3,23 +3,41 @@ package org.jboss.pnc.core.builder;
 import org.jboss.logging.Logger;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.spi.BuildStatus;
-import org.jboss.util.graph.Edge;
-import org.jboss.util.graph.Graph;
-import org.jboss.util.graph.Vertex;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Consumer;
 
 /**
+ * Long lived dependency graph of all submitted builds.
+ *
+ * New submissions are added to the existing graph, only the newly added part is checked for cycles. Edges always point
+ * from a new task to a new or an already submitted task, so a cycle can not go through already submitted tasks.
+ * Tasks are removed from the graph when they complete, releasing the tasks waiting for them.
+ *
+ * The inputs of the submitted configurations are hashed and the dependencies which are already built are looked up in
+ * the datastore before the tree is locked. A dependency which completes in between is submitted again and reused from
+ * its build record when it is dispatched.
+ *
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2015-01-05.
  */
 public class BuildTasksTree {
 
     public static final Logger log = Logger.getLogger(BuildTasksTree.class);
 
-    private Graph<BuildTask> tree = new Graph<>();
+    /**
+     * Submitted and not yet completed builds, changes of the graph are synchronized on the tree.
+     */
+    private final BuildTaskRegistry submittedBuilds = new BuildTaskRegistry();
 
     BuildCoordinator buildCoordinator;
 
@@ -27,54 +45,281 @@ public class BuildTasksTree {
         this.buildCoordinator = buildCoordinator;
     }
 
-    public BuildTask getOrCreateSubmittedBuild(BuildConfiguration buildConfiguration) {
-        return getOrCreateSubmittedBuild(buildConfiguration, Collections.emptySet(), Collections.emptySet());
+    /**
+     * Adds the task and its not yet submitted dependencies to the graph.
+     * If the task is already submitted or the new part of the graph contains a cycle, nothing is added
+     * and the task is REJECTED.
+     *
+     * @return newly added tasks without pending dependencies, dependencies come before their dependants
+     */
+    List<BuildTask> submit(BuildTask buildTask) {
+        SubmittedContent submittedContent = lookUpContent(Collections.singletonList(buildTask.getBuildConfiguration()));
+        synchronized (this) {
+            if (submittedBuilds.contains(buildTask.getId())) {
+                buildTask.setStatus(BuildStatus.REJECTED);
+                buildTask.setStatusDescription("The configuration is already in the build queue.");
+                return Collections.emptyList();
+            }
+
+            List<BuildTask> ready = new ArrayList<>();
+            addWithDependencies(buildTask, ready, submittedContent);
+            return ready;
+        }
+    }
+
+    /**
+     * Adds the tasks of all the configurations and their not yet submitted dependencies to the graph in one pass.
+     * A dependency shared by more configurations is added once, a configuration which is already submitted is shared
+     * with the earlier submission. Each configuration is checked for cycles separately, a cycle rejects only the
+     * configurations which depend on it.
+     *
+     * @return newly added tasks without pending dependencies, dependencies come before their dependants
+     */
+    List<BuildTask> submit(BuildBatch buildBatch, List<BuildConfiguration> buildConfigurations) {
+        SubmittedContent submittedContent = lookUpContent(buildConfigurations);
+        List<BuildTask> ready = new ArrayList<>();
+        synchronized (this) {
+            for (BuildConfiguration buildConfiguration : buildConfigurations) {
+                BuildTask submittedBuild = submittedBuilds.getById(buildConfiguration.getId());
+                if (submittedBuild != null) {
+                    buildBatch.addRequested(submittedBuild);
+                    continue;
+                }
+                BuildTask buildTask = buildCoordinator.createBuildTask(buildConfiguration, Collections.emptySet(), Collections.emptySet());
+                buildBatch.addRequested(buildTask);
+                addWithDependencies(buildTask, ready, submittedContent).forEach(buildBatch::add);
+            }
+        }
+        log.debugf("Build batch #%s of %s configurations has %s tasks.", buildBatch.getId(), buildConfigurations.size(),
+                buildBatch.getBuildTasks().size());
+        return ready;
+    }
+
+    /**
+     * Walks the dependencies of the configurations without locking the tree, hashes their inputs and looks up which of
+     * them are already built. All the configurations of the submit share one {@link BuildContentHash}, so each of them
+     * is hashed once. Dependencies of a built or an already submitted configuration are not walked.
+     */
+    private SubmittedContent lookUpContent(Collection<BuildConfiguration> buildConfigurations) {
+        BuildContentHash buildContentHash = new BuildContentHash();
+        SubmittedContent submittedContent = new SubmittedContent();
+        Set<Integer> visited = new HashSet<>();
+        Deque<BuildConfiguration> toVisit = new ArrayDeque<>();
+        for (BuildConfiguration buildConfiguration : buildConfigurations) {
+            visited.add(buildConfiguration.getId());
+            submittedContent.buildContentIds.put(buildConfiguration.getId(), buildContentHash.get(buildConfiguration));
+            toVisit.addAll(buildConfiguration.getDependencies());
+        }
+        while (!toVisit.isEmpty()) {
+            BuildConfiguration dependency = toVisit.poll();
+            if (!visited.add(dependency.getId()) || submittedBuilds.contains(dependency.getId())) {
+                continue;
+            }
+            String buildContentId = buildContentHash.get(dependency);
+            submittedContent.buildContentIds.put(dependency.getId(), buildContentId);
+            if (buildCoordinator.isConfigurationBuilt(dependency, buildContentId)) {
+                submittedContent.built.add(dependency.getId());
+            } else {
+                toVisit.addAll(dependency.getDependencies());
+            }
+        }
+        return submittedContent;
+    }
+
+    /**
+     * @param ready receives the added tasks without pending dependencies
+     * @param submittedContent inputs looked up before the tree was locked
+     * @return added tasks, empty if the task was rejected
+     */
+    private Set<BuildTask> addWithDependencies(BuildTask buildTask, List<BuildTask> ready, SubmittedContent submittedContent) {
+        Set<BuildTask> added = new LinkedHashSet<>();
+        List<BuildTask> addedReady = new ArrayList<>();
+        submittedContent.setBuildContentId(buildTask);
+        submittedBuilds.add(buildTask);
+        added.add(buildTask);
+
+        String rejection = addDependencies(buildTask, added, addedReady, submittedContent);
+        if (rejection != null) {
+            rollback(added);
+            buildTask.setStatus(BuildStatus.REJECTED);
+            buildTask.setStatusDescription(rejection);
+            return Collections.emptySet();
+        }
+
+        for (BuildTask addedTask : added) {
+            if (addedTask.hasRequiredBuilds()) {
+                addedTask.setStatus(BuildStatus.WAITING_FOR_DEPENDENCIES);
+            }
+        }
+        log.debugf("Added %s tasks to the build tree, %s of them are ready to build.", added.size(), addedReady.size());
+        ready.addAll(addedReady);
+        return added;
+    }
+
+    /**
+     * Depth first walk over dependencies which are not in the graph yet. The walk keeps its own stack, so a long chain
+     * of dependencies can not overflow the thread stack.
+     *
+     * @return rejection reason or null if the dependencies were added
+     */
+    private String addDependencies(BuildTask buildTask, Set<BuildTask> added, List<BuildTask> ready,
+            SubmittedContent submittedContent) {
+        // configuration ids on the way from the submitted task, used to detect cycles
+        Set<Integer> path = new LinkedHashSet<>();
+        Deque<DependencyWalk> toWalk = new ArrayDeque<>();
+        path.add(buildTask.getId());
+        toWalk.push(new DependencyWalk(buildTask));
+        while (!toWalk.isEmpty()) {
+            DependencyWalk walk = toWalk.peek();
+            Integer id = walk.buildTask.getId();
+            if (!walk.dependencies.hasNext()) {
+                toWalk.pop();
+                path.remove(id);
+                if (!walk.buildTask.hasRequiredBuilds()) {
+                    ready.add(walk.buildTask);
+                }
+                continue;
+            }
+            BuildConfiguration dependency = walk.dependencies.next();
+            Integer dependencyId = dependency.getId();
+            if (id.equals(dependencyId)) {
+                log.debugf("Project build configuration %s depends on itself.", id);
+                return "Configuration depends on itself.";
+            }
+            if (path.contains(dependencyId)) {
+                log.debugf("Cycle dependencies found for build configuration %s.", id);
+                return "Cycle dependencies found: " + describeCycle(path, dependencyId);
+            }
+            BuildTask dependencyTask = submittedBuilds.getById(dependencyId);
+            if (dependencyTask == null) {
+                if (submittedContent.built.contains(dependencyId)) {
+                    continue;
+                }
+                dependencyTask = buildCoordinator.createBuildTask(dependency, Collections.emptySet(), Collections.emptySet());
+                submittedContent.setBuildContentId(dependencyTask);
+                submittedBuilds.add(dependencyTask);
+                added.add(dependencyTask);
+                path.add(dependencyId);
+                toWalk.push(new DependencyWalk(dependencyTask));
+            }
+            walk.buildTask.addRequiredBuild(dependencyTask);
+            dependencyTask.addWaiting(walk.buildTask);
+        }
+        return null;
     }
 
-    BuildTask getOrCreateSubmittedBuild(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners, Set<Consumer<String>> logConsumers) {
-        Vertex<BuildTask> submittedBuildVertex = getVertexByBuildConfiguration(buildConfiguration);
-        if (submittedBuildVertex != null) {
-            return submittedBuildVertex.getData();
-        } else {
-            BuildTask buildTask = new BuildTask(buildCoordinator, buildConfiguration, statusUpdateListeners, logConsumers);
-            addElementAndItsChildrenToTree(buildTask);
-            return buildTask;
+    private String describeCycle(Set<Integer> path, Integer closingId) {
+        StringBuilder cycle = new StringBuilder();
+        boolean inCycle = false;
+        for (Integer id : path) {
+            inCycle = inCycle || id.equals(closingId);
+            if (inCycle) {
+                cycle.append(id).append(" -> ");
+            }
         }
+        return cycle.append(closingId).toString();
     }
 
-    private Vertex<BuildTask> getVertexByBuildConfiguration(BuildConfiguration buildConfiguration) {
-        return tree.findVertexByName(buildConfiguration.getId().toString());
+    private void rollback(Set<BuildTask> added) {
+        for (BuildTask addedTask : added) {
+            submittedBuilds.remove(addedTask);
+            addedTask.getRequiredBuilds().forEach(requiredBuild -> requiredBuild.removeWaiting(addedTask));
+        }
+    }
+
+    /**
+     * Removes completed task from the graph.
+     *
+     * @return waiting tasks which have no more pending dependencies
+     */
+    List<BuildTask> buildCompleted(BuildTask completed) {
+        synchronized (this) {
+            if (!submittedBuilds.remove(completed)) {
+                return Collections.emptyList();
+            }
+        }
+        // completed task is not reachable for new submissions anymore, its waiting set can't grow
+        List<BuildTask> ready = new ArrayList<>();
+        for (BuildTask waitingTask : completed.getWaiting()) {
+            if (waitingTask.requiredBuildCompleted(completed)) {
+                ready.add(waitingTask);
+            }
+        }
+        return ready;
     }
 
-    private Vertex<BuildTask> addElementAndItsChildrenToTree(BuildTask parentBuildTask) {
-        Vertex<BuildTask> parentVertex = new Vertex(parentBuildTask.getId().toString(), parentBuildTask);
-        tree.addVertex(parentVertex);
-        BuildConfiguration parentBuildConfiguration = parentBuildTask.getBuildConfiguration();
-        for (BuildConfiguration childBuildConfiguration : parentBuildConfiguration.getDependencies()) {
-            if (parentBuildConfiguration.equals(childBuildConfiguration)) {
-                log.debugf("Project build configuration %s depends on itself.", parentBuildTask.getId());
-                parentBuildTask.setStatus(BuildStatus.REJECTED);
-                parentBuildTask.setStatusDescription("Configuration depends on itself.");
-                break;
+    /**
+     * Removes failed task from the graph together with all the tasks which transitively depend on it, they can not be
+     * built anymore.
+     *
+     * @return removed dependants of the failed task
+     */
+    List<BuildTask> buildFailed(BuildTask failed) {
+        List<BuildTask> dependants = new ArrayList<>();
+        synchronized (this) {
+            if (!submittedBuilds.remove(failed)) {
+                return dependants;
             }
-            Vertex<BuildTask> childVertex = getVertexByBuildConfiguration(childBuildConfiguration);
-            if (childVertex == null) { //if it don't exists yet (it could exist in case of cycle)
-                BuildTask childBuildTask = new BuildTask(buildCoordinator, childBuildConfiguration);
-                childVertex = addElementAndItsChildrenToTree(childBuildTask);
+            Deque<BuildTask> toRemove = new ArrayDeque<>(failed.getWaiting());
+            while (!toRemove.isEmpty()) {
+                BuildTask dependant = toRemove.poll();
+                if (submittedBuilds.remove(dependant)) {
+                    dependants.add(dependant);
+                    toRemove.addAll(dependant.getWaiting());
+                }
             }
-            tree.addEdge(parentVertex, childVertex, 1);
         }
-        return parentVertex;
+        return dependants;
     }
 
+    public List<BuildTask> getSubmittedBuilds() {
+        return submittedBuilds.getAll();
+    }
 
-    Edge<BuildTask>[] findCycles() {
-        return tree.findCycles();
+    /**
+     * @return index of the submitted builds, it is safe to read without locking the tree
+     */
+    public BuildTaskRegistry getRegistry() {
+        return submittedBuilds;
     }
 
-    public List<Vertex<BuildTask>> getSubmittedBuilds() {
-        return tree.getVerticies();
+    /**
+     * Task on the stack of {@link #addDependencies(BuildTask, Set, List, SubmittedContent)} with its not yet walked
+     * dependencies.
+     */
+    private static class DependencyWalk {
+
+        private final BuildTask buildTask;
+        private final Iterator<BuildConfiguration> dependencies;
+
+        DependencyWalk(BuildTask buildTask) {
+            this.buildTask = buildTask;
+            this.dependencies = buildTask.getBuildConfiguration().getDependencies().iterator();
+        }
     }
 
+    /**
+     * Inputs of the configurations of one submit, looked up before the tree is locked.
+     */
+    private static class SubmittedContent {
+
+        /**
+         * Build content ids by configuration id, null when the inputs can not be fully resolved
+         */
+        private final Map<Integer, String> buildContentIds = new HashMap<>();
+        /**
+         * Ids of the dependencies which are not built again
+         */
+        private final Set<Integer> built = new HashSet<>();
+
+        /**
+         * Passes the hash to the task, so it is not computed again when the task is dispatched.
+         */
+        void setBuildContentId(BuildTask buildTask) {
+            if (buildContentIds.containsKey(buildTask.getId())) {
+                buildTask.setBuildContentId(buildContentIds.get(buildTask.getId()));
+            }
+        }
+    }
 
 }
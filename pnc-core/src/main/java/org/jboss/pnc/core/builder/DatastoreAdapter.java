@@ -1,6 +1,7 @@
 package org.jboss.pnc.core.builder;
 
 import org.jboss.logging.Logger;
+import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildRecord;
@@ -9,8 +10,17 @@ import org.jboss.pnc.spi.datastore.Datastore;
 import org.jboss.pnc.spi.datastore.DatastoreException;
 
 import javax.inject.Inject;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-15.
@@ -18,22 +28,72 @@ import java.io.StringWriter;
 public class DatastoreAdapter {
 
     private Datastore datastore;
+    private BuildLogStore buildLogStore;
 
     private static final Logger log = Logger.getLogger(DatastoreAdapter.class);
 
+    /**
+     * Number of the last builds the duration statistics are seeded from
+     */
+    private static final int DURATION_SAMPLES = 20;
+
+    static final String JOURNAL_FILE_KEY = "coordinator.datastore.journal-file";
+    static final String JOURNAL_SIZE_KEY = "coordinator.datastore.journal-size";
+    static final String RETRY_INTERVAL_KEY = "coordinator.datastore.retry-interval";
+    static final String MAX_WRITE_ATTEMPTS_KEY = "coordinator.datastore.max-write-attempts";
+
+    private static final long DEFAULT_JOURNAL_SIZE = 64;
+    private static final long DEFAULT_RETRY_INTERVAL = 5000;
+    private static final int DEFAULT_MAX_WRITE_ATTEMPTS = 60;
+
+    private WriteBehindDatastore writeBehindDatastore;
+
     @Inject
-    public DatastoreAdapter(Datastore datastore) {
+    public DatastoreAdapter(Datastore datastore, BuildLogStore buildLogStore, Configuration configuration) {
         this.datastore = datastore;
+        this.buildLogStore = buildLogStore;
+
+        Properties properties = configuration.getModuleConfig(BuildStageExecutors.CONFIG_SECTION);
+        String journalFile = properties.getProperty(JOURNAL_FILE_KEY);
+        if (journalFile != null && !journalFile.trim().isEmpty()) {
+            Path path = Paths.get(journalFile.trim()).toAbsolutePath().normalize();
+            long journalSize = Configuration.getLong(properties, JOURNAL_SIZE_KEY, DEFAULT_JOURNAL_SIZE, 1);
+            long retryInterval = Configuration.getLong(properties, RETRY_INTERVAL_KEY, DEFAULT_RETRY_INTERVAL, 1);
+            int maxWriteAttempts = Configuration.getInt(properties, MAX_WRITE_ATTEMPTS_KEY, DEFAULT_MAX_WRITE_ATTEMPTS, 1);
+            Path deadLetterFile = path.resolveSibling(path.getFileName() + ".failed");
+            try {
+                BuildRecordJournal journal = new BuildRecordJournal(path, (int) Math.min(journalSize * 1024 * 1024,
+                        Integer.MAX_VALUE));
+                writeBehindDatastore = new WriteBehindDatastore(datastore, journal, retryInterval, maxWriteAttempts,
+                        deadLetterFile);
+                this.datastore = writeBehindDatastore;
+                log.infof("Writing build records to datastore in the background, journal %s.", path);
+            } catch (IOException e) {
+                log.warnf(e, "Cannot open datastore journal %s, writing build records directly.", path);
+            }
+        }
     }
 
+    /**
+     * Stops the background writer, records which are not written yet stay in the journal.
+     */
+    void shutdown() {
+        if (writeBehindDatastore != null) {
+            writeBehindDatastore.shutdown();
+        }
+    }
+
+
     public void storeResult(BuildTask buildTask, BuildResult completedBuild) throws DatastoreException {
         try {
             BuildConfiguration buildConfiguration = buildTask.getBuildConfiguration();
 
             BuildRecord buildRecord = new BuildRecord();
-            buildRecord.setBuildLog(completedBuild.getBuildLog());
+            buildRecord.setBuildLogReference(buildLogStore.store(buildTask, completedBuild));
+            buildRecord.setBuildContentId(buildTask.getBuildContentId());
             buildRecord.setStatus(completedBuild.getBuildDriverStatus());
             buildRecord.setBuildConfiguration(buildConfiguration);
+            setBuildTimes(buildRecord, buildTask);
             // Additional information needed for historical purpose
             buildRecord.setBuildScript(buildConfiguration.getBuildScript());
             buildRecord.setPatchesUrl(buildConfiguration.getPatchesUrl());
@@ -59,6 +119,7 @@ public class DatastoreAdapter {
         errorMessage += "Caught exception: " + stackTraceWriter.toString();
         buildRecord.setBuildLog(errorMessage);
         buildRecord.setBuildConfiguration(buildConfiguration);
+        setBuildTimes(buildRecord, buildTask);
         // Additional information needed for historical purpose
         buildRecord.setBuildScript(buildConfiguration.getBuildScript());
         buildRecord.setPatchesUrl(buildConfiguration.getPatchesUrl());
@@ -67,7 +128,57 @@ public class DatastoreAdapter {
         datastore.storeCompletedBuild(buildRecord);
     }
 
-    public boolean isBuildConfigurationBuilt() {
-        return false; //TODO
+    /**
+     * @param buildContentId hash of the build inputs, see {@link BuildContentHash}
+     * @return last successful build record with the same inputs or null if the configuration has to be built
+     */
+    public BuildRecord getReusableBuildRecord(String buildContentId) throws DatastoreException {
+        if (buildContentId == null) {
+            return null;
+        }
+        return datastore.getLatestSuccessfulBuildRecord(buildContentId);
+    }
+
+    /**
+     * Build starts when the task is dispatched to the build pipeline and ends when its results are being stored.
+     */
+    private void setBuildTimes(BuildRecord buildRecord, BuildTask buildTask) {
+        if (buildTask.getStartTime() > 0) {
+            buildRecord.setStartTime(new Timestamp(buildTask.getStartTime()));
+        }
+        buildRecord.setEndTime(Timestamp.from(Instant.now()));
+    }
+
+    /**
+     * @return durations in milliseconds of the last successful builds, the oldest first
+     */
+    public List<Long> getBuildDurations(Integer buildConfigurationId) {
+        List<BuildRecord> buildRecords;
+        try {
+            buildRecords = datastore.getLatestSuccessfulBuildRecords(buildConfigurationId, DURATION_SAMPLES);
+        } catch (DatastoreException e) {
+            log.warnf(e, "Cannot read build durations of configuration %s.", buildConfigurationId);
+            return Collections.emptyList();
+        }
+        List<Long> durations = new ArrayList<>();
+        for (BuildRecord buildRecord : buildRecords) {
+            if (buildRecord.getStartTime() != null && buildRecord.getEndTime() != null) {
+                durations.add(Math.max(0L, buildRecord.getEndTime().getTime() - buildRecord.getStartTime().getTime()));
+            }
+        }
+        Collections.reverse(durations);
+        return durations;
+    }
+
+    /**
+     * @param buildContentId hash of the configuration inputs, see {@link BuildContentHash}
+     */
+    public boolean isBuildConfigurationBuilt(BuildConfiguration buildConfiguration, String buildContentId) {
+        try {
+            return getReusableBuildRecord(buildContentId) != null;
+        } catch (DatastoreException e) {
+            log.warnf(e, "Cannot look up previous builds of %s, building it again.", buildConfiguration.getName());
+            return false;
+        }
     }
 }
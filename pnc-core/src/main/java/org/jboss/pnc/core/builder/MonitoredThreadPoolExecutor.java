@@ -0,0 +1,130 @@
+package org.jboss.pnc.core.builder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed size thread pool with a bounded queue.
+ * Keeps track of rejected tasks and of the time tasks spent waiting in the queue. Tasks submitted to a full queue are
+ * rejected with RejectedExecutionException.
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+
+    private final String name;
+    private final CountingRejectedExecutionHandler rejectedExecutionHandler;
+
+    private final LongAdder waitedTasks = new LongAdder();
+    private final LongAdder totalWaitTimeNanos = new LongAdder();
+    private final LongAccumulator maxWaitTimeNanos = new LongAccumulator(Long::max, 0L);
+
+    public MonitoredThreadPoolExecutor(String name, int threads, int queueSize) {
+        this(name, threads, queueSize, new CountingRejectedExecutionHandler());
+    }
+
+    private MonitoredThreadPoolExecutor(String name, int threads, int queueSize,
+            CountingRejectedExecutionHandler rejectedExecutionHandler) {
+        super(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize),
+                new NamedThreadFactory(name), rejectedExecutionHandler);
+        this.name = name;
+        this.rejectedExecutionHandler = rejectedExecutionHandler;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedRunnable(command));
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof TimedRunnable) {
+            long waited = System.nanoTime() - ((TimedRunnable) runnable).enqueuedAt;
+            waitedTasks.increment();
+            totalWaitTimeNanos.add(waited);
+            maxWaitTimeNanos.accumulate(waited);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of tasks waiting for a free thread
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getRemainingQueueCapacity() {
+        return getQueue().remainingCapacity();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedExecutionHandler.rejected.sum();
+    }
+
+    public long getAverageWaitTimeMillis() {
+        long count = waitedTasks.sum();
+        if (count == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitTimeNanos.sum() / count);
+    }
+
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTimeNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "MonitoredThreadPoolExecutor [name=" + name + ", active=" + getActiveCount() + ", queueDepth="
+                + getQueueDepth() + ", completed=" + getCompletedTaskCount() + ", rejected=" + getRejectedTaskCount()
+                + ", avgWaitMs=" + getAverageWaitTimeMillis() + ", maxWaitMs=" + getMaxWaitTimeMillis() + "]";
+    }
+
+    private static class TimedRunnable implements Runnable {
+        private final Runnable delegate;
+        private final long enqueuedAt = System.nanoTime();
+
+        TimedRunnable(Runnable delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private static class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final LongAdder rejected = new LongAdder();
+        private final RejectedExecutionHandler delegate = new AbortPolicy();
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(runnable, executor);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String namePrefix;
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        NamedThreadFactory(String name) {
+            this.namePrefix = "pnc-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, namePrefix + threadNumber.getAndIncrement());
+        }
+    }
+}
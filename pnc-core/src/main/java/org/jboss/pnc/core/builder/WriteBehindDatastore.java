@@ -0,0 +1,246 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.jboss.pnc.spi.datastore.DatastoreException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Datastore which acknowledges completed builds as soon as they are appended to a {@link BuildRecordJournal} and writes
+ * them to the underlying datastore in the background, so the build pipeline does not wait for the database.
+ *
+ * Records are written in the order they were stored, one transaction each. A record which cannot be written stays in
+ * the journal and is retried, records left in the journal by a crash are written after restart. A record which still
+ * cannot be written after the maximum number of attempts (or cannot be read from the journal) is moved to the dead
+ * letter file, so it does not block the records behind it. Records which are not written yet are visible to the lookups
+ * of reusable build records. When a record cannot be journaled (eg. the journal is full) it is written synchronously.
+ */
+class WriteBehindDatastore implements Datastore {
+
+    private static final Logger log = Logger.getLogger(WriteBehindDatastore.class);
+
+    private final Datastore datastore;
+    private final BuildRecordJournal journal;
+    private final int maxAttempts;
+    private final Path deadLetterFile;
+
+    /**
+     * Journal entries and their records, the oldest first
+     */
+    private final Deque<PendingRecord> pending = new ArrayDeque<>();
+
+    /**
+     * Failed attempts to write the oldest pending record, used by the writer thread only
+     */
+    private int failedAttempts;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "datastore-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param retryInterval milliseconds between the attempts to write pending records
+     * @param maxAttempts attempts to write a record before it is moved to the dead letter file
+     * @param deadLetterFile file the records which cannot be written are appended to, in the format of journal entries
+     */
+    WriteBehindDatastore(Datastore datastore, BuildRecordJournal journal, long retryInterval, int maxAttempts,
+            Path deadLetterFile) {
+        this.datastore = datastore;
+        this.journal = journal;
+        this.maxAttempts = maxAttempts;
+        this.deadLetterFile = deadLetterFile;
+        for (byte[] entry : journal.readPending()) {
+            pending.add(new PendingRecord(entry, read(entry)));
+        }
+        if (!pending.isEmpty()) {
+            log.infof("Replaying %s build records from the datastore journal.", pending.size());
+        }
+        writer.scheduleWithFixedDelay(this::writePending, 0L, retryInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void storeCompletedBuild(BuildRecord buildRecord) throws DatastoreException {
+        try {
+            byte[] entry = BuildRecordEntry.write(buildRecord);
+            synchronized (pending) {
+                journal.append(entry);
+                pending.add(new PendingRecord(entry, buildRecord));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warnf("Cannot journal build record of %s, writing it directly: %s", buildRecord.getBuildConfiguration(),
+                    e.getMessage());
+            datastore.storeCompletedBuild(buildRecord);
+            return;
+        }
+        try {
+            writer.execute(this::writePending);
+        } catch (RejectedExecutionException e) {
+            log.debugf("Datastore writer is shut down, the build record is written after restart.");
+        }
+    }
+
+    /**
+     * Artifacts are stored synchronously, the caller links the stored ones to its build record.
+     */
+    @Override
+    public List<Artifact> storeArtifacts(List<Artifact> artifacts) throws DatastoreException {
+        return datastore.storeArtifacts(artifacts);
+    }
+
+    @Override
+    public BuildRecord getLatestSuccessfulBuildRecord(String buildContentId) throws DatastoreException {
+        synchronized (pending) {
+            Iterator<PendingRecord> newestFirst = pending.descendingIterator();
+            while (newestFirst.hasNext()) {
+                BuildRecord buildRecord = newestFirst.next().buildRecord;
+                if (buildRecord != null && buildContentId.equals(buildRecord.getBuildContentId())
+                        && buildRecord.getStatus() == BuildDriverStatus.SUCCESS) {
+                    return buildRecord;
+                }
+            }
+        }
+        return datastore.getLatestSuccessfulBuildRecord(buildContentId);
+    }
+
+    @Override
+    public List<BuildRecord> getLatestSuccessfulBuildRecords(Integer buildConfigurationId, int maxResults)
+            throws DatastoreException {
+        List<BuildRecord> latest = new ArrayList<>();
+        synchronized (pending) {
+            Iterator<PendingRecord> newestFirst = pending.descendingIterator();
+            while (newestFirst.hasNext() && latest.size() < maxResults) {
+                BuildRecord buildRecord = newestFirst.next().buildRecord;
+                if (buildRecord != null && buildRecord.getBuildConfiguration() != null
+                        && buildConfigurationId.equals(buildRecord.getBuildConfiguration().getId())
+                        && buildRecord.getStatus() == BuildDriverStatus.SUCCESS && buildRecord.getEndTime() != null) {
+                    latest.add(buildRecord);
+                }
+            }
+        }
+        if (latest.size() < maxResults) {
+            latest.addAll(datastore.getLatestSuccessfulBuildRecords(buildConfigurationId, maxResults - latest.size()));
+        }
+        return latest;
+    }
+
+    /**
+     * Writes the pending records until the journal is empty or a write fails.
+     */
+    private void writePending() {
+        while (true) {
+            PendingRecord oldest;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                oldest = pending.peekFirst();
+            }
+            if (oldest.buildRecord == null) {
+                deadLetter(oldest, "it cannot be read from the journal");
+            } else {
+                try {
+                    datastore.storeCompletedBuild(oldest.buildRecord);
+                } catch (DatastoreException | RuntimeException e) {
+                    failedAttempts++;
+                    if (failedAttempts < maxAttempts) {
+                        log.warnf(e, "Cannot write build record of %s to datastore (attempt %s of %s), %s records are "
+                                + "pending.", oldest.buildRecord.getBuildConfiguration(), failedAttempts, maxAttempts,
+                                getPendingCount());
+                        return;
+                    }
+                    log.errorf(e, "Cannot write build record of %s to datastore.", oldest.buildRecord.getBuildConfiguration());
+                    deadLetter(oldest, "it cannot be written after " + maxAttempts + " attempts");
+                }
+            }
+            failedAttempts = 0;
+            synchronized (pending) {
+                pending.pollFirst();
+                journal.acknowledge();
+            }
+        }
+    }
+
+    /**
+     * Appends the entry to the dead letter file, it is lost when the file cannot be written.
+     */
+    private void deadLetter(PendingRecord record, String reason) {
+        try (OutputStream file = Files.newOutputStream(deadLetterFile, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND); DataOutputStream output = new DataOutputStream(file)) {
+            output.writeInt(record.entry.length);
+            output.write(record.entry);
+            log.errorf("Moved build record of %s to %s, %s.", describe(record), deadLetterFile, reason);
+        } catch (IOException e) {
+            log.errorf(e, "Dropped build record of %s, %s and the dead letter file %s cannot be written.",
+                    describe(record), reason, deadLetterFile);
+        }
+    }
+
+    private static String describe(PendingRecord record) {
+        BuildRecord buildRecord = record.buildRecord;
+        if (buildRecord == null) {
+            return "unknown configuration";
+        }
+        return buildRecord.getBuildConfiguration() + " (status " + buildRecord.getStatus() + ", build log "
+                + buildRecord.getBuildLogReference() + ")";
+    }
+
+    int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    void shutdown() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Cannot close datastore journal.", e);
+        }
+    }
+
+    /**
+     * @return the record or null if the entry cannot be read, it is moved to the dead letter file by the writer
+     */
+    private static BuildRecord read(byte[] entry) {
+        try {
+            return BuildRecordEntry.read(entry);
+        } catch (IOException | RuntimeException e) {
+            log.errorf(e, "Cannot read build record from the datastore journal.");
+            return null;
+        }
+    }
+
+    private static class PendingRecord {
+        private final byte[] entry;
+        private final BuildRecord buildRecord;
+
+        PendingRecord(byte[] entry, BuildRecord buildRecord) {
+            this.entry = entry;
+            this.buildRecord = buildRecord;
+        }
+    }
+}
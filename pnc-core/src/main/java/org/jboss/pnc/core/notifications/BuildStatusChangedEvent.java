@@ -0,0 +1,43 @@
+package org.jboss.pnc.core.notifications;
+
+import org.jboss.pnc.spi.BuildStatus;
+
+/**
+ * Status transition of a build task.
+ */
+public class BuildStatusChangedEvent {
+
+    private final Integer buildConfigurationId;
+    private final BuildStatus oldStatus;
+    private final BuildStatus newStatus;
+    private final long timestamp;
+
+    public BuildStatusChangedEvent(Integer buildConfigurationId, BuildStatus oldStatus, BuildStatus newStatus) {
+        this.buildConfigurationId = buildConfigurationId;
+        this.oldStatus = oldStatus;
+        this.newStatus = newStatus;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public Integer getBuildConfigurationId() {
+        return buildConfigurationId;
+    }
+
+    public BuildStatus getOldStatus() {
+        return oldStatus;
+    }
+
+    public BuildStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildStatusChangedEvent [buildConfigurationId=" + buildConfigurationId + ", oldStatus=" + oldStatus
+                + ", newStatus=" + newStatus + "]";
+    }
+}
@@ -0,0 +1,48 @@
+package org.jboss.pnc.core.notifications;
+
+import org.jboss.logging.Logger;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Predicate;
+
+/**
+ * Fans out status transitions of all build tasks to the subscribers.
+ * Publishing only puts the event to the subscriptions, it never waits for a subscriber.
+ */
+public class BuildStatusPublisher {
+
+    private static final Logger log = Logger.getLogger(BuildStatusPublisher.class);
+
+    private final Set<BuildStatusSubscription> subscriptions = new CopyOnWriteArraySet<>();
+
+    /**
+     * @param filter selects the events of the subscriber eg. by build configuration
+     * @param capacity number of events kept for a slow subscriber
+     * @param onPending called when an event is waiting for delivery
+     */
+    public BuildStatusSubscription subscribe(Predicate<BuildStatusChangedEvent> filter, int capacity, Runnable onPending) {
+        BuildStatusSubscription subscription = new BuildStatusSubscription(filter, capacity, onPending);
+        subscriptions.add(subscription);
+        log.debugf("New build status subscription, there are %s subscriptions.", subscriptions.size());
+        return subscription;
+    }
+
+    public void unsubscribe(BuildStatusSubscription subscription) {
+        subscriptions.remove(subscription);
+    }
+
+    public void publish(BuildStatusChangedEvent event) {
+        for (BuildStatusSubscription subscription : subscriptions) {
+            try {
+                subscription.offer(event);
+            } catch (RuntimeException e) {
+                log.warnf(e, "Cannot deliver %s.", event);
+            }
+        }
+    }
+
+    public int getSubscriptionsCount() {
+        return subscriptions.size();
+    }
+}
@@ -0,0 +1,77 @@
+package org.jboss.pnc.core.notifications;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Bounded buffer of events waiting to be delivered to a single subscriber.
+ *
+ * A slow subscriber does not slow down the publisher: transitions of a build which is already waiting for delivery are
+ * coalesced into one event, when the buffer is full the oldest event is dropped and counted.
+ */
+public class BuildStatusSubscription {
+
+    private final Predicate<BuildStatusChangedEvent> filter;
+    private final int capacity;
+    private final Runnable onPending;
+
+    private final Map<Integer, BuildStatusChangedEvent> pending = new LinkedHashMap<>();
+    private long dropped;
+
+    /**
+     * @param onPending called when the first event is waiting for delivery, the subscriber should then {@link #drain()}
+     */
+    BuildStatusSubscription(Predicate<BuildStatusChangedEvent> filter, int capacity, Runnable onPending) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Subscription capacity must be positive.");
+        }
+        this.filter = filter;
+        this.capacity = capacity;
+        this.onPending = onPending;
+    }
+
+    void offer(BuildStatusChangedEvent event) {
+        if (!filter.test(event)) {
+            return;
+        }
+        boolean wasEmpty;
+        synchronized (this) {
+            wasEmpty = pending.isEmpty();
+            BuildStatusChangedEvent waiting = pending.remove(event.getBuildConfigurationId());
+            if (waiting != null) {
+                event = new BuildStatusChangedEvent(event.getBuildConfigurationId(), waiting.getOldStatus(), event.getNewStatus());
+            } else if (pending.size() >= capacity) {
+                Iterator<BuildStatusChangedEvent> oldest = pending.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped++;
+            }
+            pending.put(event.getBuildConfigurationId(), event);
+        }
+        if (wasEmpty) {
+            onPending.run();
+        }
+    }
+
+    /**
+     * @return events waiting for delivery in order of their last transition
+     */
+    public synchronized List<BuildStatusChangedEvent> drain() {
+        List<BuildStatusChangedEvent> events = new ArrayList<>(pending.values());
+        pending.clear();
+        return events;
+    }
+
+    /**
+     * @return number of events dropped since the last call, the subscriber should re-read the state when it is not 0
+     */
+    public synchronized long drainDropped() {
+        long count = dropped;
+        dropped = 0;
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+package org.jboss.pnc.core.statistics;
+
+import org.jboss.logging.Logger;
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Rolling statistics of successful build durations per build configuration.
+ *
+ * Keeps the last {@link #WINDOW} durations for percentiles and an exponentially weighted moving average which follows
+ * recent changes. Statistics of a configuration are seeded from its stored build records on first use, time spent in
+ * each stage is known only for the builds completed since the start. Only configurations which have some builds are
+ * kept, reads of unknown configurations are not cached, so they can not grow the statistics.
+ */
+public class BuildDurationStatistics {
+
+    private static final Logger log = Logger.getLogger(BuildDurationStatistics.class);
+
+    static final int WINDOW = 20;
+    static final double EWMA_WEIGHT = 0.3;
+
+    private final Function<Integer, List<Long>> history;
+    private final Map<Integer, ConfigurationStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * @param history durations of the stored builds of a configuration, the oldest first
+     */
+    public BuildDurationStatistics(Function<Integer, List<Long>> history) {
+        this.history = history;
+    }
+
+    /**
+     * @param duration whole build duration in milliseconds
+     * @param stageDurations time spent in each status in milliseconds
+     */
+    public void record(Integer buildConfigurationId, long duration, Map<BuildStatus, Long> stageDurations) {
+        ConfigurationStatistics configurationStatistics = get(buildConfigurationId, true);
+        synchronized (configurationStatistics) {
+            configurationStatistics.add(duration);
+            stageDurations.forEach(configurationStatistics::addStage);
+        }
+        log.debugf("Build of configuration %s took %s ms.", buildConfigurationId, duration);
+    }
+
+    /**
+     * @return expected build duration in milliseconds or 0 if it is not known
+     */
+    public long estimate(Integer buildConfigurationId) {
+        ConfigurationStatistics configurationStatistics = get(buildConfigurationId);
+        synchronized (configurationStatistics) {
+            return Math.round(configurationStatistics.ewma);
+        }
+    }
+
+    /**
+     * @return expected time in the given status in milliseconds or 0 if it is not known
+     */
+    public long estimate(Integer buildConfigurationId, BuildStatus stage) {
+        ConfigurationStatistics configurationStatistics = get(buildConfigurationId);
+        synchronized (configurationStatistics) {
+            Double stageEwma = configurationStatistics.stageEwma.get(stage);
+            return stageEwma == null ? 0L : Math.round(stageEwma);
+        }
+    }
+
+    public DurationStatistics getStatistics(Integer buildConfigurationId) {
+        ConfigurationStatistics configurationStatistics = get(buildConfigurationId);
+        synchronized (configurationStatistics) {
+            List<Long> sorted = new ArrayList<>(configurationStatistics.window);
+            Collections.sort(sorted);
+            Map<BuildStatus, Long> stages = new EnumMap<>(BuildStatus.class);
+            configurationStatistics.stageEwma.forEach((stage, ewma) -> stages.put(stage, Math.round(ewma)));
+            return new DurationStatistics(buildConfigurationId, configurationStatistics.samples, percentile(sorted, 50),
+                    percentile(sorted, 95), Math.round(configurationStatistics.ewma), stages);
+        }
+    }
+
+    /**
+     * Nearest rank percentile.
+     */
+    static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0L;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private ConfigurationStatistics get(Integer buildConfigurationId) {
+        return get(buildConfigurationId, false);
+    }
+
+    /**
+     * @param recording true if a build of the configuration completed, statistics without any builds are cached only
+     * then
+     */
+    private ConfigurationStatistics get(Integer buildConfigurationId, boolean recording) {
+        ConfigurationStatistics configurationStatistics = statistics.get(buildConfigurationId);
+        if (configurationStatistics != null) {
+            return configurationStatistics;
+        }
+        ConfigurationStatistics seeded = new ConfigurationStatistics();
+        try {
+            history.apply(buildConfigurationId).forEach(seeded::add);
+        } catch (RuntimeException e) {
+            log.warnf(e, "Cannot read build durations of configuration %s.", buildConfigurationId);
+        }
+        if (seeded.samples == 0 && !recording) {
+            return seeded;
+        }
+        configurationStatistics = statistics.putIfAbsent(buildConfigurationId, seeded);
+        return configurationStatistics == null ? seeded : configurationStatistics;
+    }
+
+    private static class ConfigurationStatistics {
+        final Deque<Long> window = new ArrayDeque<>(WINDOW);
+        final Map<BuildStatus, Double> stageEwma = new EnumMap<>(BuildStatus.class);
+        long samples;
+        double ewma;
+
+        void add(long duration) {
+            if (window.size() == WINDOW) {
+                window.removeFirst();
+            }
+            window.addLast(duration);
+            ewma = samples == 0 ? duration : EWMA_WEIGHT * duration + (1 - EWMA_WEIGHT) * ewma;
+            samples++;
+        }
+
+        void addStage(BuildStatus stage, long duration) {
+            stageEwma.merge(stage, (double) duration, (previous, current) -> EWMA_WEIGHT * current + (1 - EWMA_WEIGHT) * previous);
+        }
+    }
+}
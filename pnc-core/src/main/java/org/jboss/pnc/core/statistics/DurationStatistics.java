@@ -0,0 +1,61 @@
+package org.jboss.pnc.core.statistics;
+
+import org.jboss.pnc.spi.BuildStatus;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Build duration statistics of a build configuration, durations are in milliseconds.
+ */
+public class DurationStatistics {
+
+    private final Integer buildConfigurationId;
+    private final long samples;
+    private final long p50;
+    private final long p95;
+    private final long ewma;
+    private final Map<BuildStatus, Long> stages;
+
+    DurationStatistics(Integer buildConfigurationId, long samples, long p50, long p95, long ewma, Map<BuildStatus, Long> stages) {
+        this.buildConfigurationId = buildConfigurationId;
+        this.samples = samples;
+        this.p50 = p50;
+        this.p95 = p95;
+        this.ewma = ewma;
+        this.stages = Collections.unmodifiableMap(stages);
+    }
+
+    public Integer getBuildConfigurationId() {
+        return buildConfigurationId;
+    }
+
+    /**
+     * @return number of builds the statistics are computed from
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    /**
+     * @return exponentially weighted moving average of the build duration
+     */
+    public long getEwma() {
+        return ewma;
+    }
+
+    /**
+     * @return moving average of the time spent in each status
+     */
+    public Map<BuildStatus, Long> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,62 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+
+public class BuildBatchTest {
+
+    @Test
+    public void shouldAggregateProgressOfAllTasks() {
+        //given
+        BuildBatch buildBatch = new BuildBatch(1, 10);
+        BuildTask requested = task(1);
+        BuildTask sharedDependency = task(2);
+        buildBatch.addRequested(requested);
+        buildBatch.add(sharedDependency);
+        buildBatch.add(sharedDependency);
+
+        //when
+        requested.setStatus(BuildStatus.WAITING_FOR_DEPENDENCIES);
+        sharedDependency.setStatus(BuildStatus.ENQUEUED);
+        sharedDependency.setStatus(BuildStatus.REPO_SETTING_UP);
+        sharedDependency.setStatus(BuildStatus.BUILD_SETTING_UP);
+        sharedDependency.setStatus(BuildStatus.BUILD_WAITING);
+        Map<BuildStatus, Integer> progress = buildBatch.getProgress();
+
+        //then
+        Assert.assertEquals(2, buildBatch.getBuildTasks().size());
+        Assert.assertEquals(1, buildBatch.getRequestedTasks().size());
+        Assert.assertEquals(Integer.valueOf(1), progress.get(BuildStatus.WAITING_FOR_DEPENDENCIES));
+        Assert.assertEquals(Integer.valueOf(1), progress.get(BuildStatus.BUILD_WAITING));
+        Assert.assertFalse(buildBatch.isCompleted());
+    }
+
+    @Test
+    public void shouldCompleteWhenAllTasksAreFinal() {
+        //given
+        BuildBatch buildBatch = new BuildBatch(1, null);
+        BuildTask built = task(1);
+        BuildTask rejected = task(2);
+        buildBatch.addRequested(built);
+        buildBatch.addRequested(rejected);
+
+        //when
+        built.setStatus(BuildStatus.ENQUEUED);
+        built.setStatus(BuildStatus.BUILD_COMPLETED_SUCCESS);
+        built.setStatus(BuildStatus.DONE);
+        rejected.setStatus(BuildStatus.REJECTED);
+
+        //then
+        Assert.assertTrue(buildBatch.isCompleted());
+    }
+
+    private BuildTask task(int id) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        return new BuildTask(configuration);
+    }
+}
@@ -0,0 +1,81 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildType;
+import org.jboss.pnc.model.Environment;
+import org.jboss.pnc.model.OperationalSystem;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BuildContentHashTest {
+
+    private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+    private static final String OTHER_COMMIT = "76543210fedcba9876543210fedcba9876543210";
+
+    @Test
+    public void shouldHashEqualInputsEqually() {
+        //given
+        BuildConfiguration configuration = configuration(1, COMMIT);
+        BuildConfiguration sameInputs = configuration(2, COMMIT);
+
+        //when
+        String hash = BuildContentHash.of(configuration);
+
+        //then
+        Assert.assertNotNull(hash);
+        Assert.assertEquals(hash, BuildContentHash.of(sameInputs));
+    }
+
+    @Test
+    public void shouldChangeHashWhenDependencyChanges() {
+        //given
+        BuildConfiguration configuration = configuration(1, COMMIT);
+        BuildConfiguration dependency = configuration(2, COMMIT);
+        configuration.addDependency(dependency);
+        String hash = BuildContentHash.of(configuration);
+
+        //when
+        dependency.setScmBranch(OTHER_COMMIT);
+
+        //then
+        Assert.assertNotEquals(hash, BuildContentHash.of(configuration));
+    }
+
+    @Test
+    public void shouldNotHashUnresolvedRevision() {
+        //given
+        BuildConfiguration configuration = configuration(1, COMMIT);
+        configuration.addDependency(configuration(2, "master"));
+
+        //when
+        String hash = BuildContentHash.of(configuration);
+
+        //then
+        Assert.assertNull(hash);
+    }
+
+    @Test
+    public void shouldNotHashCycle() {
+        //given
+        BuildConfiguration configuration = configuration(1, COMMIT);
+        BuildConfiguration dependency = configuration(2, COMMIT);
+        configuration.addDependency(dependency);
+        dependency.addDependency(configuration);
+
+        //when
+        String hash = BuildContentHash.of(configuration);
+
+        //then
+        Assert.assertNull(hash);
+    }
+
+    private BuildConfiguration configuration(int id, String revision) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        configuration.setScmUrl("https://github.com/project-ncl/pnc.git");
+        configuration.setScmBranch(revision);
+        configuration.setBuildScript("mvn clean deploy");
+        configuration.setEnvironment(new Environment(BuildType.JAVA, OperationalSystem.LINUX));
+        return configuration;
+    }
+}
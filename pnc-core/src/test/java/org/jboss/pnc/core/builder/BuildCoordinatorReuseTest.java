@@ -0,0 +1,127 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.core.test.mock.DatastoreMock;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildType;
+import org.jboss.pnc.model.Environment;
+import org.jboss.pnc.model.OperationalSystem;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class BuildCoordinatorReuseTest {
+
+    private static final String COMMIT = "0123456789abcdef0123456789abcdef01234567";
+
+    private final DatastoreMock datastore = new DatastoreMock();
+    private final List<BuildTask> startedBuilds = new CopyOnWriteArrayList<>();
+    private BuildCoordinator buildCoordinator;
+
+    @Before
+    public void setUp() {
+        Configuration configuration = new Configuration(new Properties());
+        DatastoreAdapter datastoreAdapter = new DatastoreAdapter(datastore, new BuildLogStore(), configuration);
+        buildCoordinator = new BuildCoordinator(null, null, datastoreAdapter, configuration) {
+            @Override
+            void startBuilding(BuildTask buildTask) {
+                startedBuilds.add(buildTask);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        buildCoordinator.shutdown();
+    }
+
+    @Test
+    public void shouldReuseBuildRecordWithSameInputs() throws Exception {
+        //given
+        BuildConfiguration configuration = configuration(1, "mvn clean deploy");
+        datastore.storeCompletedBuild(successfulBuildRecord(configuration));
+
+        //when
+        BuildTask buildTask = buildCoordinator.build(configuration);
+
+        //then
+        Assert.assertTrue(startedBuilds.isEmpty());
+        Assert.assertTrue(buildTask.isCompleted());
+        Assert.assertEquals(BuildStatus.DONE, buildTask.getStatus());
+        Assert.assertTrue(buildCoordinator.getBuildTasks().isEmpty());
+    }
+
+    @Test
+    public void shouldBuildWhenInputsChanged() throws Exception {
+        //given
+        datastore.storeCompletedBuild(successfulBuildRecord(configuration(1, "mvn clean install")));
+        BuildConfiguration configuration = configuration(1, "mvn clean deploy");
+
+        //when
+        BuildTask buildTask = buildCoordinator.build(configuration);
+
+        //then
+        Assert.assertEquals(1, startedBuilds.size());
+        Assert.assertSame(buildTask, startedBuilds.get(0));
+        Assert.assertFalse(buildTask.isCompleted());
+        Assert.assertEquals(BuildContentHash.of(configuration), buildTask.getBuildContentId());
+    }
+
+    @Test
+    public void shouldReleaseSlotOfTaskCompletedWhileQueued() throws Exception {
+        //given
+        Properties properties = new Properties();
+        properties.setProperty(BuildQueue.MAX_CONCURRENT_BUILDS_KEY, "1");
+        Configuration configuration = new Configuration(properties);
+        BuildCoordinator singleSlotCoordinator = new BuildCoordinator(null, null,
+                new DatastoreAdapter(datastore, new BuildLogStore(), configuration), configuration) {
+            @Override
+            void startBuilding(BuildTask buildTask) {
+                startedBuilds.add(buildTask);
+            }
+        };
+        try {
+            BuildTask running = singleSlotCoordinator.build(configuration(1, "mvn clean deploy"));
+            BuildTask queued = singleSlotCoordinator.build(configuration(2, "mvn clean deploy"));
+
+            //when
+            singleSlotCoordinator.reclaim(queued, "Stuck in the queue.");
+            singleSlotCoordinator.reclaim(running, "Stuck in the build.");
+
+            //then
+            Assert.assertEquals(1, startedBuilds.size());
+            Assert.assertSame(running, startedBuilds.get(0));
+            Assert.assertEquals(0, singleSlotCoordinator.getBuildQueue().getRunningCount());
+            Assert.assertEquals(0, singleSlotCoordinator.getBuildQueue().getQueuedCount());
+        } finally {
+            singleSlotCoordinator.shutdown();
+        }
+    }
+
+    private BuildRecord successfulBuildRecord(BuildConfiguration configuration) {
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setId(1);
+        buildRecord.setBuildConfiguration(configuration);
+        buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+        buildRecord.setBuildContentId(BuildContentHash.of(configuration));
+        return buildRecord;
+    }
+
+    private BuildConfiguration configuration(int id, String buildScript) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        configuration.setScmUrl("https://github.com/project-ncl/pnc.git");
+        configuration.setScmBranch(COMMIT);
+        configuration.setBuildScript(buildScript);
+        configuration.setEnvironment(new Environment(BuildType.JAVA, OperationalSystem.LINUX));
+        return configuration;
+    }
+}
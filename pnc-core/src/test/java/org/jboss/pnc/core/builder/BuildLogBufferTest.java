@@ -0,0 +1,48 @@
+package org.jboss.pnc.core.builder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class BuildLogBufferTest {
+
+    @Test
+    public void shouldContinueFromOffset() {
+        //given
+        BuildLogBuffer logBuffer = new BuildLogBuffer(16);
+        logBuffer.append("[INFO] ");
+        BuildLogBuffer.Chunk first = logBuffer.read(0);
+
+        //when
+        logBuffer.append("BUILD SUCCESS");
+        BuildLogBuffer.Chunk next = logBuffer.read(first.getNextOffset());
+
+        //then
+        Assert.assertEquals("[INFO] ", asString(first));
+        Assert.assertEquals(7L, next.getOffset());
+        Assert.assertEquals("BUILD SUCCESS", asString(next));
+        Assert.assertEquals(20L, next.getNextOffset());
+    }
+
+    @Test
+    public void shouldKeepOnlyTheTail() {
+        //given
+        BuildLogBuffer logBuffer = new BuildLogBuffer(8);
+
+        //when
+        logBuffer.append("0123456789");
+        logBuffer.append("abc");
+        BuildLogBuffer.Chunk chunk = logBuffer.read(0);
+
+        //then
+        Assert.assertEquals(5L, logBuffer.getStartOffset());
+        Assert.assertEquals(5L, chunk.getOffset());
+        Assert.assertEquals("56789abc", asString(chunk));
+        Assert.assertEquals(0, logBuffer.read(chunk.getNextOffset()).getData().length);
+    }
+
+    private String asString(BuildLogBuffer.Chunk chunk) {
+        return new String(chunk.getData(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,83 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.spi.builddriver.BuildResult;
+import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.Scanner;
+
+public class BuildLogStoreTest {
+
+    @Test
+    public void shouldStreamBuildLogToStore() throws Exception {
+        //given
+        BuildLogStore buildLogStore = new BuildLogStore(configuration(Files.createTempDirectory("build-logs")));
+        BuildTask buildTask = new BuildTask(buildConfiguration(1));
+
+        //when
+        String reference = buildLogStore.store(buildTask, buildResult("Building in workspace ... Finished: SUCCESS"));
+
+        //then
+        Assert.assertTrue(reference.startsWith("build-1-"));
+        Assert.assertEquals(43L, buildLogStore.size(reference));
+        try (InputStream buildLog = buildLogStore.open(reference)) {
+            Assert.assertEquals("Building in workspace ... Finished: SUCCESS",
+                    new Scanner(buildLog, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectReferenceOutsideOfStore() throws Exception {
+        //given
+        BuildLogStore buildLogStore = new BuildLogStore(configuration(Files.createTempDirectory("build-logs")));
+
+        //when
+        buildLogStore.open("../build-1.log");
+    }
+
+    private Configuration configuration(Path logDir) {
+        Properties properties = new Properties();
+        properties.setProperty("coordinator.build-log.dir", logDir.toString());
+        return new Configuration(properties);
+    }
+
+    private BuildConfiguration buildConfiguration(int id) {
+        BuildConfiguration buildConfiguration = new BuildConfiguration();
+        buildConfiguration.setId(id);
+        return buildConfiguration;
+    }
+
+    private BuildResult buildResult(String log) {
+        return new BuildResult() {
+            @Override
+            public String getBuildLog() throws BuildDriverException {
+                return log;
+            }
+
+            @Override
+            public void writeBuildLog(OutputStream outputStream) throws BuildDriverException {
+                try {
+                    outputStream.write(log.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new BuildDriverException("Cannot write build log.", e);
+                }
+            }
+
+            @Override
+            public BuildDriverStatus getBuildDriverStatus() throws BuildDriverException {
+                return BuildDriverStatus.SUCCESS;
+            }
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.ProductVersion;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+public class BuildQueueTest {
+
+    @Test
+    public void shouldStartLongestCriticalPathFirst() {
+        //given
+        BuildQueue buildQueue = new BuildQueue(configuration(1));
+        BuildTask leaf = task(1, 1000L);
+        BuildTask chainStart = task(2, 100L);
+        BuildTask chainEnd = task(3, 5000L);
+        waitFor(chainEnd, chainStart);
+
+        //when
+        buildQueue.add(leaf);
+        buildQueue.add(chainStart);
+        List<BuildTask> first = buildQueue.pollDispatchable();
+
+        //then
+        Assert.assertEquals(1, first.size());
+        Assert.assertSame(chainStart, first.get(0));
+        Assert.assertTrue(buildQueue.pollDispatchable().isEmpty());
+        Assert.assertEquals(1, buildQueue.getQueuedCount());
+    }
+
+    @Test
+    public void shouldStartNextTaskWhenSlotIsReleased() {
+        //given
+        BuildQueue buildQueue = new BuildQueue(configuration(1));
+        BuildTask first = task(1, 1000L);
+        BuildTask second = task(2, 1000L);
+        buildQueue.add(first);
+        buildQueue.add(second);
+        Assert.assertSame(first, buildQueue.pollDispatchable().get(0));
+
+        //when
+        buildQueue.release(first);
+        List<BuildTask> next = buildQueue.pollDispatchable();
+
+        //then
+        Assert.assertEquals(1, next.size());
+        Assert.assertSame(second, next.get(0));
+        Assert.assertEquals(1, buildQueue.getRunningCount());
+    }
+
+    @Test
+    public void shouldNotDispatchTaskTwice() {
+        //given
+        BuildQueue buildQueue = new BuildQueue(configuration(2));
+        BuildTask buildTask = task(1, 1000L);
+
+        //when
+        buildQueue.add(buildTask);
+        buildQueue.add(buildTask);
+
+        //then
+        Assert.assertEquals(1, buildQueue.pollDispatchable().size());
+        Assert.assertEquals(1, buildQueue.getRunningCount());
+    }
+
+    @Test
+    public void shouldHoldBackTasksOverProductVersionQuota() {
+        //given
+        Properties properties = properties(10);
+        properties.setProperty("coordinator.quota.product-version.max-concurrent-builds", "1");
+        BuildQueue buildQueue = new BuildQueue(new Configuration(properties));
+        BuildTask first = task(1, 1000L, 100);
+        BuildTask second = task(2, 1000L, 100);
+
+        //when
+        buildQueue.add(first);
+        buildQueue.add(second);
+        List<BuildTask> dispatched = buildQueue.pollDispatchable();
+
+        //then
+        Assert.assertEquals(1, dispatched.size());
+        Assert.assertSame(first, dispatched.get(0));
+        Assert.assertEquals(BuildStatus.WAITING_FOR_QUOTA, second.getStatus());
+        Assert.assertEquals(Integer.valueOf(1), buildQueue.getQueuePositions().get(second));
+
+        buildQueue.release(first);
+        Assert.assertSame(second, buildQueue.pollDispatchable().get(0));
+    }
+
+    @Test
+    public void shouldShareSlotsFairlyBetweenProductVersions() {
+        //given
+        BuildQueue buildQueue = new BuildQueue(configuration(2));
+        BuildTask large1 = task(1, 5000L, 100);
+        BuildTask large2 = task(2, 5000L, 100);
+        BuildTask small = task(3, 1000L, 200);
+
+        //when
+        buildQueue.add(large1);
+        buildQueue.add(large2);
+        buildQueue.add(small);
+        List<BuildTask> dispatched = buildQueue.pollDispatchable();
+
+        //then
+        Assert.assertEquals(2, dispatched.size());
+        Assert.assertTrue(dispatched.contains(small));
+        Assert.assertEquals(BuildStatus.ENQUEUED, dispatched.contains(large1) ? large2.getStatus() : large1.getStatus());
+    }
+
+    @Test
+    public void shouldReportQueuePositionsInStartOrder() {
+        //given
+        BuildQueue buildQueue = new BuildQueue(configuration(1));
+        BuildTask running = task(1, 1000L, 100);
+        buildQueue.add(running);
+        buildQueue.pollDispatchable();
+        BuildTask sameProductVersion = task(2, 9000L, 100);
+        BuildTask otherProductVersion = task(3, 1000L, 200);
+
+        //when
+        buildQueue.add(sameProductVersion);
+        buildQueue.add(otherProductVersion);
+        Map<BuildTask, Integer> positions = buildQueue.getQueuePositions();
+
+        //then
+        Assert.assertEquals(2, positions.size());
+        Assert.assertEquals(Integer.valueOf(1), positions.get(otherProductVersion));
+        Assert.assertEquals(Integer.valueOf(2), positions.get(sameProductVersion));
+        Assert.assertNull(positions.get(running));
+    }
+
+    private void waitFor(BuildTask waiting, BuildTask required) {
+        waiting.addRequiredBuild(required);
+        required.addWaiting(waiting);
+    }
+
+    private BuildTask task(int id, long expectedDuration) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        BuildTask buildTask = new BuildTask(configuration);
+        buildTask.setExpectedDuration(expectedDuration);
+        return buildTask;
+    }
+
+    private BuildTask task(int id, long expectedDuration, int productVersionId) {
+        BuildTask buildTask = task(id, expectedDuration);
+        ProductVersion productVersion = new ProductVersion();
+        productVersion.setId(productVersionId);
+        buildTask.getBuildConfiguration().setProductVersion(productVersion);
+        return buildTask;
+    }
+
+    private Configuration configuration(int maxConcurrentBuilds) {
+        return new Configuration(properties(maxConcurrentBuilds));
+    }
+
+    private Properties properties(int maxConcurrentBuilds) {
+        Properties properties = new Properties();
+        properties.setProperty(BuildQueue.MAX_CONCURRENT_BUILDS_KEY, Integer.toString(maxConcurrentBuilds));
+        return properties;
+    }
+}
@@ -0,0 +1,94 @@
+package org.jboss.pnc.core.builder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class BuildRecordJournalTest {
+
+    @Test
+    public void shouldKeepPendingEntriesAfterReopen() throws Exception {
+        //given
+        Path file = Files.createTempFile("build-record-journal", ".dat");
+        try (BuildRecordJournal journal = new BuildRecordJournal(file, 1024)) {
+            journal.append(bytes("first"));
+            journal.append(bytes("second"));
+            journal.append(bytes("third"));
+            journal.acknowledge();
+        }
+
+        //when
+        List<byte[]> pending;
+        try (BuildRecordJournal journal = new BuildRecordJournal(file, 1024)) {
+            pending = journal.readPending();
+        }
+
+        //then
+        Assert.assertEquals(2, pending.size());
+        Assert.assertEquals("second", string(pending.get(0)));
+        Assert.assertEquals("third", string(pending.get(1)));
+    }
+
+    @Test
+    public void shouldReuseSpaceOfAcknowledgedEntries() throws Exception {
+        //given
+        Path file = Files.createTempFile("build-record-journal", ".dat");
+        try (BuildRecordJournal journal = new BuildRecordJournal(file, 56)) {
+            journal.append(bytes("0123456789"));
+            journal.append(bytes("0123456789"));
+            journal.append(bytes("0123456789"));
+            journal.acknowledge();
+            journal.acknowledge();
+
+            //when
+            journal.append(bytes("abcdefghij"));
+
+            //then
+            List<byte[]> pending = journal.readPending();
+            Assert.assertEquals(2, pending.size());
+            Assert.assertEquals("0123456789", string(pending.get(0)));
+            Assert.assertEquals("abcdefghij", string(pending.get(1)));
+        }
+    }
+
+    @Test
+    public void shouldBeEmptyWhenAllEntriesAreAcknowledged() throws Exception {
+        //given
+        Path file = Files.createTempFile("build-record-journal", ".dat");
+        try (BuildRecordJournal journal = new BuildRecordJournal(file, 64)) {
+            journal.append(bytes("first"));
+
+            //when
+            journal.acknowledge();
+
+            //then
+            Assert.assertTrue(journal.isEmpty());
+            Assert.assertTrue(journal.readPending().isEmpty());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectEntryWhenJournalIsFull() throws Exception {
+        //given
+        Path file = Files.createTempFile("build-record-journal", ".dat");
+        try (BuildRecordJournal journal = new BuildRecordJournal(file, 32)) {
+            journal.append(bytes("0123456789"));
+
+            //when
+            journal.append(bytes("0123456789"));
+        }
+    }
+
+    private byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
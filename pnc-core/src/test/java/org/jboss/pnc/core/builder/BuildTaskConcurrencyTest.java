@@ -0,0 +1,157 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.core.notifications.BuildStatusChangedEvent;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completes dependencies and dispatches tasks from many threads at once.
+ */
+public class BuildTaskConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int DEPENDENCIES = 5000;
+
+    private ExecutorService executor;
+
+    @Before
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void lastRequiredBuildIsReportedExactlyOnceTestCase() throws Exception {
+        BuildTask dependant = new BuildTask(configuration(0));
+        List<BuildTask> dependencies = new ArrayList<>();
+        for (int i = 1; i <= DEPENDENCIES; i++) {
+            BuildTask dependency = new BuildTask(configuration(i));
+            dependant.addRequiredBuild(dependency);
+            dependencies.add(dependency);
+        }
+
+        AtomicInteger lastCompletions = new AtomicInteger();
+        // every dependency is reported twice to simulate duplicate completion notifications
+        runConcurrently(DEPENDENCIES * 2, i -> {
+            if (dependant.requiredBuildCompleted(dependencies.get(i % DEPENDENCIES))) {
+                lastCompletions.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals("Dependant should be released exactly once.", 1, lastCompletions.get());
+        Assert.assertFalse(dependant.hasRequiredBuilds());
+    }
+
+    @Test
+    public void taskIsDispatchedExactlyOnceTestCase() throws Exception {
+        List<BuildTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new BuildTask(configuration(i)));
+        }
+
+        AtomicInteger dispatches = new AtomicInteger();
+        runConcurrently(tasks.size() * THREADS, i -> {
+            if (tasks.get(i % tasks.size()).markDispatched()) {
+                dispatches.incrementAndGet();
+            }
+        });
+
+        Assert.assertEquals(tasks.size(), dispatches.get());
+    }
+
+    @Test
+    public void doneStatusIsFinalTestCase() throws Exception {
+        BuildTask buildTask = new BuildTask(configuration(1));
+        AtomicInteger doneUpdates = new AtomicInteger();
+        buildTask.registerStatusUpdateListener(status -> {
+            if (status == BuildStatus.DONE) {
+                doneUpdates.incrementAndGet();
+            }
+        });
+        List<BuildStatusChangedEvent> transitions = new CopyOnWriteArrayList<>();
+        buildTask.addStatusChangedListener(transitions::add);
+
+        BuildStatus[] statuses = BuildStatus.values();
+        runConcurrently(DEPENDENCIES, i -> buildTask.setStatus(statuses[i % statuses.length]));
+        buildTask.setStatus(BuildStatus.SYSTEM_ERROR);
+        buildTask.setStatus(BuildStatus.DONE);
+        buildTask.setStatus(BuildStatus.BUILD_WAITING);
+
+        Assert.assertTrue("Status should be final.", buildTask.getStatus() == BuildStatus.DONE
+                || buildTask.getStatus() == BuildStatus.REJECTED);
+        Assert.assertTrue("DONE should be reported at most once.", doneUpdates.get() <= 1);
+        for (BuildStatusChangedEvent transition : transitions) {
+            Assert.assertTrue("Illegal transition from " + transition.getOldStatus() + " to " + transition.getNewStatus(),
+                    BuildTask.isTransitionAllowed(transition.getOldStatus(), transition.getNewStatus()));
+        }
+    }
+
+    @Test
+    public void illegalTransitionsAreRefusedTestCase() throws Exception {
+        BuildTask buildTask = new BuildTask(configuration(1));
+        buildTask.setStatus(BuildStatus.ENQUEUED);
+        buildTask.setStatus(BuildStatus.REPO_SETTING_UP);
+        buildTask.setStatus(BuildStatus.BUILD_SETTING_UP);
+        buildTask.setStatus(BuildStatus.BUILD_WAITING);
+
+        // every thread tries to move the running build back to the queue or to reject it
+        runConcurrently(DEPENDENCIES, i -> {
+            buildTask.setStatus(i % 2 == 0 ? BuildStatus.ENQUEUED : BuildStatus.REJECTED);
+            buildTask.compareAndSetStatus(BuildStatus.BUILD_WAITING, BuildStatus.NEW);
+        });
+
+        Assert.assertEquals(BuildStatus.BUILD_WAITING, buildTask.getStatus());
+        Assert.assertFalse(buildTask.compareAndSetStatus(BuildStatus.BUILD_WAITING, BuildStatus.STORING_RESULTS));
+        Assert.assertFalse(BuildTask.isTransitionAllowed(BuildStatus.NEW, BuildStatus.DONE));
+        Assert.assertFalse(BuildTask.isTransitionAllowed(BuildStatus.STORING_RESULTS, BuildStatus.BUILD_WAITING));
+        Assert.assertFalse(BuildTask.isTransitionAllowed(BuildStatus.SYSTEM_ERROR, BuildStatus.REJECTED));
+    }
+
+    private void runConcurrently(int count, IntTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            final int index = i;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    task.run(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        Assert.assertTrue("Timeout while waiting for tasks to complete.", done.await(30, TimeUnit.SECONDS));
+    }
+
+    private BuildConfiguration configuration(int id) {
+        BuildConfiguration buildConfiguration = new BuildConfiguration();
+        buildConfiguration.setId(id);
+        buildConfiguration.setName("c" + id);
+        return buildConfiguration;
+    }
+
+    private interface IntTask {
+        void run(int index);
+    }
+}
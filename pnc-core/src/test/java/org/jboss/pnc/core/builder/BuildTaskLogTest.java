@@ -0,0 +1,30 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.BuildConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.function.Consumer;
+
+public class BuildTaskLogTest {
+
+    @Test
+    public void shouldWantLogOnlyWithReader() {
+        //given
+        BuildConfiguration buildConfiguration = new BuildConfiguration();
+        buildConfiguration.setId(1);
+        BuildTask buildTask = new BuildTask(buildConfiguration);
+        BuildTask tailedTask = new BuildTask(buildConfiguration);
+        Consumer<String> logConsumer = logChunk -> {};
+
+        //when
+        boolean wantedWithoutReader = buildTask.isLogWanted();
+        tailedTask.registerLogConsumer(logConsumer);
+        buildTask.readBuildLog(0);
+
+        //then
+        Assert.assertFalse(wantedWithoutReader);
+        Assert.assertTrue(buildTask.isLogWanted());
+        Assert.assertTrue(tailedTask.isLogWanted());
+    }
+}
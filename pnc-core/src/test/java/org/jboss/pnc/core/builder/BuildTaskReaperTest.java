@@ -0,0 +1,126 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.common.Configuration;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+public class BuildTaskReaperTest {
+
+    private final List<BuildTask> reclaimed = new ArrayList<>();
+
+    @Test
+    public void shouldReclaimTaskStuckInStage() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask stuck = submit(registry, 1);
+        advance(stuck, BuildStatus.ENQUEUED, BuildStatus.REPO_SETTING_UP);
+        BuildTask waiting = submit(registry, 2);
+        waiting.setStatus(BuildStatus.WAITING_FOR_DEPENDENCIES);
+        BuildTaskReaper reaper = new BuildTaskReaper(configuration(), registry, this::reclaim);
+
+        //when
+        int count = reaper.reap(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(11));
+
+        //then
+        Assert.assertEquals(1, count);
+        Assert.assertEquals(1, reclaimed.size());
+        Assert.assertSame(stuck, reclaimed.get(0));
+        Assert.assertEquals(1L, reaper.getReclaimedCount());
+    }
+
+    @Test
+    public void shouldReclaimTaskExceedingMaxBuildDuration() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask running = submit(registry, 1);
+        running.markDispatched();
+        advance(running, BuildStatus.ENQUEUED, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_SETTING_UP,
+                BuildStatus.BUILD_WAITING);
+        BuildTaskReaper reaper = new BuildTaskReaper(configuration(), registry, this::reclaim);
+
+        //when
+        int beforeDeadline = reaper.reap(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(50));
+        int afterDeadline = reaper.reap(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(61));
+
+        //then
+        Assert.assertEquals(0, beforeDeadline);
+        Assert.assertEquals(1, afterDeadline);
+        Assert.assertSame(running, reclaimed.get(0));
+    }
+
+    @Test
+    public void shouldNotCountCompletedTasks() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask stuck = submit(registry, 1);
+        advance(stuck, BuildStatus.ENQUEUED, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_SETTING_UP,
+                BuildStatus.BUILD_WAITING, BuildStatus.COLLECTING_RESULTS);
+        stuck.markCompleted();
+        BuildTaskReaper reaper = new BuildTaskReaper(configuration(), registry, this::reclaim);
+
+        //when
+        int count = reaper.reap(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(11));
+
+        //then
+        Assert.assertEquals(0, count);
+        Assert.assertTrue(reclaimed.isEmpty());
+    }
+
+    @Test
+    public void shouldNotReclaimTaskStoringResults() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask storing = submit(registry, 1);
+        advance(storing, BuildStatus.ENQUEUED, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_SETTING_UP,
+                BuildStatus.BUILD_WAITING, BuildStatus.BUILD_COMPLETED_SUCCESS, BuildStatus.STORING_RESULTS);
+        BuildTaskReaper reaper = new BuildTaskReaper(configuration(), registry, this::reclaim);
+
+        //when
+        int count = reaper.reap(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(11));
+
+        //then
+        Assert.assertEquals(0, count);
+    }
+
+    private boolean reclaim(BuildTask buildTask, String reason) {
+        if (!buildTask.markCompleted()) {
+            return false;
+        }
+        reclaimed.add(buildTask);
+        return true;
+    }
+
+    private BuildTask submit(BuildTaskRegistry registry, int id) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        BuildTask buildTask = new BuildTask(configuration);
+        registry.add(buildTask);
+        return buildTask;
+    }
+
+    /**
+     * Moves the task through the statuses of the pipeline, only forward transitions are allowed.
+     */
+    private void advance(BuildTask buildTask, BuildStatus... statuses) {
+        for (BuildStatus status : statuses) {
+            buildTask.setStatus(status);
+        }
+        Assert.assertEquals(statuses[statuses.length - 1], buildTask.getStatus());
+    }
+
+    private Configuration configuration() {
+        Properties properties = new Properties();
+        properties.setProperty("coordinator.reaper.repo-setup.timeout", "10");
+        properties.setProperty("coordinator.reaper.collecting-results.timeout", "10");
+        properties.setProperty("coordinator.reaper.storing-results.timeout", "10");
+        properties.setProperty("coordinator.reaper.max-build-duration", "60");
+        return new Configuration(properties);
+    }
+}
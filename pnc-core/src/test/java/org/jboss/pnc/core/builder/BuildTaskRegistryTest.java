@@ -0,0 +1,69 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BuildTaskRegistryTest {
+
+    @Test
+    public void shouldFindTasksByIdAndName() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask buildTask = new BuildTask(configuration(1, "project-a"));
+
+        //when
+        boolean added = registry.add(buildTask);
+        boolean addedAgain = registry.add(new BuildTask(configuration(1, "project-a")));
+
+        //then
+        Assert.assertTrue(added);
+        Assert.assertFalse(addedAgain);
+        Assert.assertSame(buildTask, registry.getById(1));
+        Assert.assertTrue(registry.getByName("project-a").contains(buildTask));
+        Assert.assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void shouldFollowStatusTransitions() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask buildTask = new BuildTask(configuration(1, "project-a"));
+        registry.add(buildTask);
+
+        //when
+        buildTask.setStatus(BuildStatus.WAITING_FOR_DEPENDENCIES);
+
+        //then
+        Assert.assertTrue(registry.getByStatus(BuildStatus.NEW).isEmpty());
+        Assert.assertTrue(registry.getByStatus(BuildStatus.WAITING_FOR_DEPENDENCIES).contains(buildTask));
+    }
+
+    @Test
+    public void shouldNotIndexRemovedTasks() {
+        //given
+        BuildTaskRegistry registry = new BuildTaskRegistry();
+        BuildTask buildTask = new BuildTask(configuration(1, "project-a"));
+        registry.add(buildTask);
+
+        //when
+        boolean removed = registry.remove(buildTask);
+        buildTask.setStatus(BuildStatus.REJECTED);
+
+        //then
+        Assert.assertTrue(removed);
+        Assert.assertNull(registry.getById(1));
+        Assert.assertTrue(registry.getByName("project-a").isEmpty());
+        Assert.assertTrue(registry.getByStatus(BuildStatus.NEW).isEmpty());
+        Assert.assertTrue(registry.getByStatus(BuildStatus.REJECTED).isEmpty());
+        Assert.assertFalse(registry.remove(buildTask));
+    }
+
+    private BuildConfiguration configuration(int id, String name) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        configuration.setName(name);
+        return configuration;
+    }
+}
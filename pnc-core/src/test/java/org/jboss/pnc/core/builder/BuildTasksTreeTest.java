@@ -0,0 +1,115 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.core.test.configurationBuilders.TestProjectConfigurationBuilder;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class BuildTasksTreeTest {
+
+    private final Set<Integer> builtConfigurations = new HashSet<>();
+    private BuildTasksTree buildTasksTree;
+
+    @Before
+    public void setUp() {
+        BuildCoordinator buildCoordinator = new BuildCoordinator() {
+            @Override
+            boolean isConfigurationBuilt(BuildConfiguration buildConfiguration, String buildContentId) {
+                Assert.assertFalse("Datastore is queried while the tree is locked.", Thread.holdsLock(buildTasksTree));
+                return builtConfigurations.contains(buildConfiguration.getId());
+            }
+
+            @Override
+            BuildTask createBuildTask(BuildConfiguration buildConfiguration, Set<Consumer<BuildStatus>> statusUpdateListeners,
+                    Set<Consumer<String>> logConsumers) {
+                return new BuildTask(buildConfiguration);
+            }
+        };
+        buildTasksTree = new BuildTasksTree(buildCoordinator);
+    }
+
+    @Test
+    public void shouldSubmitDependencies() {
+        //given
+        BuildConfiguration configuration = new TestProjectConfigurationBuilder().buildConfigurationWithDependencies();
+
+        //when
+        List<BuildTask> ready = buildTasksTree.submit(new BuildTask(configuration));
+
+        //then
+        Assert.assertEquals("Missing projects in tree structure.", 5, buildTasksTree.getSubmittedBuilds().size());
+        Assert.assertFalse(ready.isEmpty());
+        ready.forEach(task -> Assert.assertFalse(task.hasRequiredBuilds()));
+    }
+
+    @Test
+    public void shouldAddToExistingTree() {
+        //given
+        BuildConfiguration configuration = new TestProjectConfigurationBuilder().buildConfigurationWithDependencies();
+        BuildConfiguration dependency = configuration.getDependencies().iterator().next();
+        BuildTask dependencyTask = new BuildTask(dependency);
+        buildTasksTree.submit(dependencyTask);
+        Assert.assertEquals("Missing projects in tree structure.", 4, buildTasksTree.getSubmittedBuilds().size());
+
+        //when
+        BuildTask buildTask = new BuildTask(configuration);
+        buildTasksTree.submit(buildTask);
+
+        //then
+        Assert.assertEquals("Already submitted dependencies should be reused.", 5, buildTasksTree.getSubmittedBuilds().size());
+        Assert.assertSame(dependencyTask, buildTasksTree.getRegistry().getById(dependency.getId()));
+        Assert.assertTrue(buildTask.getRequiredBuilds().contains(dependencyTask));
+    }
+
+    @Test
+    public void shouldNotSubmitBuiltDependencies() {
+        //given
+        BuildConfiguration built = configuration(3);
+        BuildConfiguration dependency = configuration(2);
+        BuildConfiguration configuration = configuration(1).addDependency(dependency).addDependency(built);
+        builtConfigurations.add(built.getId());
+
+        //when
+        List<BuildTask> ready = buildTasksTree.submit(new BuildTask(configuration));
+
+        //then
+        Assert.assertEquals(2, buildTasksTree.getSubmittedBuilds().size());
+        Assert.assertFalse(buildTasksTree.getRegistry().contains(built.getId()));
+        Assert.assertEquals(1, ready.size());
+        Assert.assertEquals(dependency.getId(), ready.get(0).getId());
+    }
+
+    @Test
+    public void shouldRemoveDependantsOfFailedTask() {
+        //given
+        BuildConfiguration dependency = configuration(3);
+        BuildConfiguration sibling = configuration(4);
+        BuildConfiguration dependant = configuration(2).addDependency(dependency).addDependency(sibling);
+        BuildConfiguration configuration = configuration(1).addDependency(dependant);
+        buildTasksTree.submit(new BuildTask(configuration));
+        BuildTask failed = buildTasksTree.getRegistry().getById(dependency.getId());
+        BuildTask siblingTask = buildTasksTree.getRegistry().getById(sibling.getId());
+
+        //when
+        List<BuildTask> removed = buildTasksTree.buildFailed(failed);
+        List<BuildTask> released = buildTasksTree.buildCompleted(siblingTask);
+
+        //then
+        Assert.assertEquals(2, removed.size());
+        Assert.assertTrue(released.isEmpty());
+        Assert.assertTrue(buildTasksTree.getSubmittedBuilds().isEmpty());
+    }
+
+    private BuildConfiguration configuration(int id) {
+        BuildConfiguration configuration = new BuildConfiguration();
+        configuration.setId(id);
+        return configuration;
+    }
+}
@@ -0,0 +1,238 @@
+package org.jboss.pnc.core.builder;
+
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.ArtifactStatus;
+import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildDriverStatus;
+import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
+import org.jboss.pnc.spi.datastore.Datastore;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+public class WriteBehindDatastoreTest {
+
+    private static final long RETRY_INTERVAL = 10L;
+
+    @Test
+    public void shouldReplayPendingRecordsAfterRestart() throws Exception {
+        //given
+        Path journalFile = Files.createTempFile("build-record-journal", ".dat");
+        RecordingDatastore unavailable = new RecordingDatastore(buildRecord -> true);
+        WriteBehindDatastore beforeRestart = new WriteBehindDatastore(unavailable,
+                new BuildRecordJournal(journalFile, 4096), RETRY_INTERVAL, Integer.MAX_VALUE, deadLetterFile(journalFile));
+        BuildRecord buildRecord = buildRecord(1, "content-1");
+        buildRecord.getDependencies().add(artifact());
+        beforeRestart.storeCompletedBuild(buildRecord);
+        beforeRestart.shutdown();
+
+        //when
+        RecordingDatastore available = new RecordingDatastore(record -> false);
+        WriteBehindDatastore afterRestart = new WriteBehindDatastore(available,
+                new BuildRecordJournal(journalFile, 4096), RETRY_INTERVAL, Integer.MAX_VALUE, deadLetterFile(journalFile));
+
+        //then
+        try {
+            waitFor(() -> afterRestart.getPendingCount() == 0);
+            Assert.assertEquals(1, available.stored.size());
+            BuildRecord replayed = available.stored.get(0);
+            Assert.assertEquals(Integer.valueOf(1), replayed.getBuildConfiguration().getId());
+            Assert.assertEquals("content-1", replayed.getBuildContentId());
+            Assert.assertEquals(BuildDriverStatus.SUCCESS, replayed.getStatus());
+            Assert.assertEquals(buildRecord.getStartTime(), replayed.getStartTime());
+            Assert.assertEquals(buildRecord.getEndTime(), replayed.getEndTime());
+            Assert.assertEquals("logs/1", replayed.getBuildLogReference());
+            Assert.assertEquals(1, replayed.getDependencies().size());
+            BuildRecordArtifact dependency = replayed.getDependencies().get(0);
+            Assert.assertEquals("org.test:test:jar:1.0", dependency.getArtifact().getIdentifier());
+            Assert.assertEquals("checksum", dependency.getArtifact().getChecksum());
+            Assert.assertEquals(ArtifactStatus.BINARY_IMPORTED, dependency.getStatus());
+            Assert.assertEquals("http://repo/test-1.0.jar", dependency.getDeployUrl());
+        } finally {
+            afterRestart.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRetryFailedWrite() throws Exception {
+        //given
+        Path journalFile = Files.createTempFile("build-record-journal", ".dat");
+        RecordingDatastore datastore = new RecordingDatastore(new Predicate<BuildRecord>() {
+            private int failures = 3;
+
+            @Override
+            public boolean test(BuildRecord buildRecord) {
+                return failures-- > 0;
+            }
+        });
+        WriteBehindDatastore writeBehindDatastore = new WriteBehindDatastore(datastore,
+                new BuildRecordJournal(journalFile, 4096), RETRY_INTERVAL, Integer.MAX_VALUE, deadLetterFile(journalFile));
+
+        //when
+        writeBehindDatastore.storeCompletedBuild(buildRecord(1, "content-1"));
+
+        //then
+        try {
+            waitFor(() -> writeBehindDatastore.getPendingCount() == 0);
+            Assert.assertEquals(4, datastore.attempts);
+            Assert.assertEquals(1, datastore.stored.size());
+            Assert.assertFalse(Files.exists(deadLetterFile(journalFile)));
+        } finally {
+            writeBehindDatastore.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldMoveRecordWhichCannotBeWrittenToDeadLetterFile() throws Exception {
+        //given
+        Path journalFile = Files.createTempFile("build-record-journal", ".dat");
+        Files.deleteIfExists(deadLetterFile(journalFile));
+        RecordingDatastore datastore = new RecordingDatastore(
+                buildRecord -> "poisoned".equals(buildRecord.getBuildContentId()));
+        WriteBehindDatastore writeBehindDatastore = new WriteBehindDatastore(datastore,
+                new BuildRecordJournal(journalFile, 4096), RETRY_INTERVAL, 3, deadLetterFile(journalFile));
+
+        //when
+        writeBehindDatastore.storeCompletedBuild(buildRecord(1, "poisoned"));
+        writeBehindDatastore.storeCompletedBuild(buildRecord(2, "content-2"));
+
+        //then
+        try {
+            waitFor(() -> writeBehindDatastore.getPendingCount() == 0);
+            Assert.assertEquals(1, datastore.stored.size());
+            Assert.assertEquals("content-2", datastore.stored.get(0).getBuildContentId());
+            Assert.assertTrue(Files.size(deadLetterFile(journalFile)) > 0);
+        } finally {
+            writeBehindDatastore.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldWriteDirectlyWhenJournalIsFull() throws Exception {
+        //given
+        Path journalFile = Files.createTempFile("build-record-journal", ".dat");
+        RecordingDatastore datastore = new RecordingDatastore(buildRecord -> false);
+        WriteBehindDatastore writeBehindDatastore = new WriteBehindDatastore(datastore,
+                new BuildRecordJournal(journalFile, 32), RETRY_INTERVAL, Integer.MAX_VALUE, deadLetterFile(journalFile));
+        BuildRecord buildRecord = buildRecord(1, "content-1");
+
+        //when
+        writeBehindDatastore.storeCompletedBuild(buildRecord);
+
+        //then
+        try {
+            Assert.assertEquals(0, writeBehindDatastore.getPendingCount());
+            Assert.assertEquals(Collections.singletonList(buildRecord), datastore.stored);
+            Assert.assertEquals(Collections.singletonList(Thread.currentThread()), datastore.writers);
+        } finally {
+            writeBehindDatastore.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldFindPendingRecords() throws Exception {
+        //given
+        Path journalFile = Files.createTempFile("build-record-journal", ".dat");
+        RecordingDatastore unavailable = new RecordingDatastore(buildRecord -> true);
+        WriteBehindDatastore writeBehindDatastore = new WriteBehindDatastore(unavailable,
+                new BuildRecordJournal(journalFile, 4096), RETRY_INTERVAL, Integer.MAX_VALUE, deadLetterFile(journalFile));
+        BuildRecord buildRecord = buildRecord(1, "content-1");
+
+        //when
+        writeBehindDatastore.storeCompletedBuild(buildRecord);
+
+        //then
+        try {
+            Assert.assertEquals(1, writeBehindDatastore.getPendingCount());
+            Assert.assertSame(buildRecord, writeBehindDatastore.getLatestSuccessfulBuildRecord("content-1"));
+            Assert.assertNull(writeBehindDatastore.getLatestSuccessfulBuildRecord("content-2"));
+            Assert.assertEquals(Collections.singletonList(buildRecord),
+                    writeBehindDatastore.getLatestSuccessfulBuildRecords(1, 5));
+        } finally {
+            writeBehindDatastore.shutdown();
+        }
+    }
+
+    private static Path deadLetterFile(Path journalFile) {
+        return journalFile.resolveSibling(journalFile.getFileName() + ".failed");
+    }
+
+    private static BuildRecord buildRecord(int buildConfigurationId, String buildContentId) {
+        BuildConfiguration buildConfiguration = new BuildConfiguration();
+        buildConfiguration.setId(buildConfigurationId);
+        BuildRecord buildRecord = new BuildRecord();
+        buildRecord.setBuildConfiguration(buildConfiguration);
+        buildRecord.setBuildContentId(buildContentId);
+        buildRecord.setStatus(BuildDriverStatus.SUCCESS);
+        buildRecord.setEndTime(new Timestamp(buildRecord.getStartTime().getTime() + 1000L));
+        buildRecord.setBuildLogReference("logs/" + buildConfigurationId);
+        return buildRecord;
+    }
+
+    private static BuildRecordArtifact artifact() {
+        Artifact artifact = new Artifact();
+        artifact.setIdentifier("org.test:test:jar:1.0");
+        artifact.setChecksum("checksum");
+        artifact.setFilename("test-1.0.jar");
+        return new BuildRecordArtifact(artifact, ArtifactStatus.BINARY_IMPORTED, "http://repo/test-1.0.jar");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Timed out waiting for the datastore writer.", System.nanoTime() < deadline);
+            Thread.sleep(RETRY_INTERVAL);
+        }
+    }
+
+    /**
+     * Records the written build records, fails the writes of the records matching the predicate.
+     */
+    private static class RecordingDatastore implements Datastore {
+
+        private final Predicate<BuildRecord> failing;
+        private final List<BuildRecord> stored = new CopyOnWriteArrayList<>();
+        private final List<Thread> writers = new CopyOnWriteArrayList<>();
+        private volatile int attempts;
+
+        RecordingDatastore(Predicate<BuildRecord> failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public void storeCompletedBuild(BuildRecord buildRecord) {
+            attempts++;
+            if (failing.test(buildRecord)) {
+                throw new IllegalStateException("Datastore is not available.");
+            }
+            stored.add(buildRecord);
+            writers.add(Thread.currentThread());
+        }
+
+        @Override
+        public List<Artifact> storeArtifacts(List<Artifact> artifacts) {
+            return artifacts;
+        }
+
+        @Override
+        public BuildRecord getLatestSuccessfulBuildRecord(String buildContentId) {
+            return null;
+        }
+
+        @Override
+        public List<BuildRecord> getLatestSuccessfulBuildRecords(Integer buildConfigurationId, int maxResults) {
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.jboss.pnc.core.notifications;
+
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BuildStatusPublisherTest {
+
+    @Test
+    public void shouldDeliverOnlyFilteredEvents() {
+        //given
+        BuildStatusPublisher publisher = new BuildStatusPublisher();
+        AtomicInteger pendingCalls = new AtomicInteger();
+        BuildStatusSubscription subscription = publisher.subscribe(event -> event.getBuildConfigurationId() == 1, 10,
+                pendingCalls::incrementAndGet);
+
+        //when
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+        publisher.publish(new BuildStatusChangedEvent(2, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+
+        //then
+        List<BuildStatusChangedEvent> events = subscription.drain();
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(Integer.valueOf(1), events.get(0).getBuildConfigurationId());
+        Assert.assertEquals(1, pendingCalls.get());
+    }
+
+    @Test
+    public void shouldCoalesceAndDropEventsOfSlowSubscriber() {
+        //given
+        BuildStatusPublisher publisher = new BuildStatusPublisher();
+        BuildStatusSubscription subscription = publisher.subscribe(event -> true, 2, () -> {});
+
+        //when
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_SETTING_UP));
+        publisher.publish(new BuildStatusChangedEvent(2, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+        publisher.publish(new BuildStatusChangedEvent(3, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+
+        //then
+        List<BuildStatusChangedEvent> events = subscription.drain();
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(Integer.valueOf(2), events.get(0).getBuildConfigurationId());
+        Assert.assertEquals(Integer.valueOf(3), events.get(1).getBuildConfigurationId());
+        Assert.assertEquals(1L, subscription.drainDropped());
+        Assert.assertEquals(0L, subscription.drainDropped());
+    }
+
+    @Test
+    public void shouldKeepFirstOldStatusWhenCoalescing() {
+        //given
+        BuildStatusPublisher publisher = new BuildStatusPublisher();
+        BuildStatusSubscription subscription = publisher.subscribe(event -> true, 10, () -> {});
+
+        //when
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.NEW, BuildStatus.REPO_SETTING_UP));
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.REPO_SETTING_UP, BuildStatus.BUILD_SETTING_UP));
+        publisher.unsubscribe(subscription);
+        publisher.publish(new BuildStatusChangedEvent(1, BuildStatus.BUILD_SETTING_UP, BuildStatus.BUILD_WAITING));
+
+        //then
+        List<BuildStatusChangedEvent> events = subscription.drain();
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(BuildStatus.NEW, events.get(0).getOldStatus());
+        Assert.assertEquals(BuildStatus.BUILD_SETTING_UP, events.get(0).getNewStatus());
+        Assert.assertEquals(0, publisher.getSubscriptionsCount());
+    }
+}
@@ -0,0 +1,84 @@
+package org.jboss.pnc.core.statistics;
+
+import org.jboss.pnc.spi.BuildStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BuildDurationStatisticsTest {
+
+    @Test
+    public void shouldSeedStatisticsFromHistory() {
+        //given
+        BuildDurationStatistics statistics = new BuildDurationStatistics(id -> Arrays.asList(100L, 200L, 300L, 400L));
+
+        //when
+        DurationStatistics durationStatistics = statistics.getStatistics(1);
+
+        //then
+        Assert.assertEquals(4L, durationStatistics.getSamples());
+        Assert.assertEquals(200L, durationStatistics.getP50());
+        Assert.assertEquals(400L, durationStatistics.getP95());
+        Assert.assertTrue(durationStatistics.getEwma() > 200L && durationStatistics.getEwma() < 400L);
+    }
+
+    @Test
+    public void shouldKeepOnlyLastDurationsForPercentiles() {
+        //given
+        BuildDurationStatistics statistics = new BuildDurationStatistics(id -> Collections.emptyList());
+
+        //when
+        statistics.record(1, 1000000L, Collections.emptyMap());
+        for (int i = 0; i < BuildDurationStatistics.WINDOW; i++) {
+            statistics.record(1, 1000L, Collections.emptyMap());
+        }
+
+        //then
+        DurationStatistics durationStatistics = statistics.getStatistics(1);
+        Assert.assertEquals(BuildDurationStatistics.WINDOW + 1, durationStatistics.getSamples());
+        Assert.assertEquals(1000L, durationStatistics.getP95());
+    }
+
+    @Test
+    public void shouldEstimateStageDurations() {
+        //given
+        BuildDurationStatistics statistics = new BuildDurationStatistics(id -> Collections.emptyList());
+        Map<BuildStatus, Long> stages = new EnumMap<>(BuildStatus.class);
+        stages.put(BuildStatus.BUILD_WAITING, 5000L);
+
+        //when
+        statistics.record(1, 6000L, stages);
+
+        //then
+        Assert.assertEquals(5000L, statistics.estimate(1, BuildStatus.BUILD_WAITING));
+        Assert.assertEquals(0L, statistics.estimate(1, BuildStatus.REPO_SETTING_UP));
+        Assert.assertEquals(6000L, statistics.estimate(1));
+        Assert.assertEquals(0L, statistics.estimate(2));
+    }
+
+    @Test
+    public void shouldNotCacheConfigurationsWithoutBuilds() {
+        //given
+        AtomicInteger historyReads = new AtomicInteger();
+        BuildDurationStatistics statistics = new BuildDurationStatistics(id -> {
+            historyReads.incrementAndGet();
+            return Collections.emptyList();
+        });
+
+        //when
+        statistics.estimate(1);
+        statistics.getStatistics(1);
+        int unknownReads = historyReads.get();
+        statistics.record(1, 1000L, Collections.emptyMap());
+        statistics.estimate(1);
+
+        //then
+        Assert.assertEquals(2, unknownReads);
+        Assert.assertEquals(3, historyReads.get());
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Consumer;
@@ -77,12 +78,12 @@ public class MultipleProjectsBuild extends ProjectBuilder {
 
     @Test
     @InSequence(20)
-    public void checkDatabaseForResult() {  //TODO datastore task is waiting all build to complete see BuildCoordinator::startBuilding
+    public void checkDatabaseForResult() throws IOException {  //TODO datastore task is waiting all build to complete see BuildCoordinator::startBuilding
         List<BuildRecord> buildRecords = datastore.getBuildRecords();
         Assert.assertEquals("Wrong datastore results count.", 100, buildRecords.size());
 
         BuildRecord buildRecord = buildRecords.get(0);
-        String buildLog = buildRecord.getBuildLog();
+        String buildLog = readBuildLog(buildRecord);
         Assert.assertTrue("Invalid build log.", buildLog.contains("Finished: SUCCESS"));
     }
 
@@ -5,12 +5,14 @@ import org.jboss.pnc.common.Configuration;
 import org.jboss.pnc.core.BuildDriverFactory;
 import org.jboss.pnc.core.RepositoryManagerFactory;
 import org.jboss.pnc.core.builder.BuildCoordinator;
+import org.jboss.pnc.core.builder.BuildLogStore;
 import org.jboss.pnc.core.builder.BuildTask;
 import org.jboss.pnc.core.exception.CoreException;
 import org.jboss.pnc.core.test.mock.BuildDriverMock;
 import org.jboss.pnc.core.test.mock.DatastoreMock;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildConfiguration;
+import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.model.builder.EnvironmentBuilder;
 import org.jboss.pnc.spi.BuildStatus;
 import org.jboss.pnc.spi.environment.EnvironmentDriverProvider;
@@ -20,10 +22,14 @@ import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.junit.Assert;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +47,9 @@ public class ProjectBuilder {
     @Inject
     DatastoreMock datastore;
 
+    @Inject
+    BuildLogStore buildLogStore;
+
     private static final Logger log = Logger.getLogger(ProjectBuilder.class.getName());
 
     @Deployment
@@ -98,6 +107,13 @@ public class ProjectBuilder {
         assertStatusUpdateReceived(receivedStatuses, BuildStatus.STORING_RESULTS);
     }
 
+    String readBuildLog(BuildRecord buildRecord) throws IOException {
+        Assert.assertNotNull("Missing build log reference.", buildRecord.getBuildLogReference());
+        try (InputStream buildLog = buildLogStore.open(buildRecord.getBuildLogReference())) {
+            return new Scanner(buildLog, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next();
+        }
+    }
+
     private void assertStatusUpdateReceived(List<BuildStatus> receivedStatuses, BuildStatus status) {
         boolean received = false;
         for (BuildStatus receivedStatus : receivedStatuses) {
@@ -10,6 +10,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -28,12 +29,12 @@ public class ProjectWithDependenciesBuildTest extends ProjectBuilder {
 
     @Test
     @InSequence(20)
-    public void checkDatabaseForResult() {
+    public void checkDatabaseForResult() throws IOException {
         List<BuildRecord> buildRecords = datastore.getBuildRecords();
         Assert.assertEquals("Wrong datastore results count.", 5, buildRecords.size());
 
         BuildRecord buildRecord = buildRecords.get(0);
-        String buildLog = buildRecord.getBuildLog();
+        String buildLog = readBuildLog(buildRecord);
         Assert.assertTrue("Invalid build log.", buildLog.contains("Finished: SUCCESS"));
     }
 }
@@ -8,11 +8,14 @@ import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.spi.builddriver.BuildDriver;
 import org.jboss.pnc.spi.builddriver.BuildResult;
 import org.jboss.pnc.spi.builddriver.CompletedBuild;
+import org.jboss.pnc.spi.builddriver.MonitorCallbacks;
 import org.jboss.pnc.spi.builddriver.RunningBuild;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 import org.jboss.pnc.spi.repositorymanager.model.RepositoryConfiguration;
 
-import java.util.function.Consumer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-11-24.
@@ -21,6 +24,8 @@ public class BuildDriverMock implements BuildDriver {
 
     public static final Logger log = Logger.getLogger(BuildDriverMock.class);
 
+    private static final String BUILD_LOG = "Building in workspace ... Finished: SUCCESS";
+
     @Override
     public String getDriverId() {
         return null;
@@ -34,8 +39,11 @@ public class BuildDriverMock implements BuildDriver {
             Thread.sleep(RandomUtils.randInt(100, 300));
             return new RunningBuild() {
                 @Override
-                public void monitor(Consumer<CompletedBuild> onComplete, Consumer<Exception> onError) {
-                    onComplete.accept(new CompletedBuild() {
+                public void monitor(MonitorCallbacks<CompletedBuild> callbacks) {
+                    if (callbacks.getOnLog() != null) {
+                        callbacks.getOnLog().accept(BUILD_LOG);
+                    }
+                    callbacks.getOnComplete().accept(new CompletedBuild() {
                         @Override
                         public BuildDriverStatus getCompleteStatus() {
                             return BuildDriverStatus.SUCCESS;
@@ -57,7 +65,16 @@ public class BuildDriverMock implements BuildDriver {
         return new BuildResult() {
             @Override
             public String getBuildLog() throws BuildDriverException {
-                return "Building in workspace ... Finished: SUCCESS";
+                return BUILD_LOG;
+            }
+
+            @Override
+            public void writeBuildLog(OutputStream outputStream) throws BuildDriverException {
+                try {
+                    outputStream.write(BUILD_LOG.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    throw new BuildDriverException("Cannot write build log.", e);
+                }
             }
 
             @Override
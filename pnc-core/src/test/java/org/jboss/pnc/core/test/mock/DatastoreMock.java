@@ -1,5 +1,7 @@
 package org.jboss.pnc.core.test.mock;
 
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildRecord;
 import org.jboss.pnc.spi.datastore.Datastore;
 
@@ -25,6 +27,39 @@ public class DatastoreMock implements Datastore {
         buildRecords.add(buildRecord);
     }
 
+    @Override
+    public List<Artifact> storeArtifacts(List<Artifact> artifacts) {
+        return artifacts;
+    }
+
+    @Override
+    public BuildRecord getLatestSuccessfulBuildRecord(String buildContentId) {
+        synchronized (buildRecords) {
+            for (int i = buildRecords.size() - 1; i >= 0; i--) {
+                BuildRecord buildRecord = buildRecords.get(i);
+                if (buildContentId.equals(buildRecord.getBuildContentId()) && buildRecord.getStatus() == BuildDriverStatus.SUCCESS) {
+                    return buildRecord;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<BuildRecord> getLatestSuccessfulBuildRecords(Integer buildConfigurationId, int maxResults) {
+        List<BuildRecord> latest = new ArrayList<>();
+        synchronized (buildRecords) {
+            for (int i = buildRecords.size() - 1; i >= 0 && latest.size() < maxResults; i--) {
+                BuildRecord buildRecord = buildRecords.get(i);
+                if (buildConfigurationId.equals(buildRecord.getBuildConfiguration().getId())
+                        && buildRecord.getStatus() == BuildDriverStatus.SUCCESS && buildRecord.getEndTime() != null) {
+                    latest.add(buildRecord);
+                }
+            }
+        }
+        return latest;
+    }
+
     public List<BuildRecord> getBuildRecords() {
         return buildRecords;
     }
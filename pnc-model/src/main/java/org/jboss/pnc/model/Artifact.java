@@ -3,11 +3,13 @@ package org.jboss.pnc.model;
 import java.io.Serializable;
 
 import javax.persistence.Entity;
-import javax.persistence.EnumType;
-import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
-import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-11-23.
@@ -16,14 +18,16 @@ import javax.persistence.ManyToOne;
  * 
  * Different types of artifacts should provide different logic for the identifier field.
  * 
- * The status indicates the genesis of the artifact, whether it has been imported from external repositories, or built
- * internally.
+ * Whether the artifact has been imported from external repositories or built internally, and where it was deployed,
+ * depends on the build, so the status and the deploy url are stored with the link to the build record, see
+ * {@link BuildRecordArtifact}.
  * 
- * All the artifacts are mapped to the BuildRecord, that are the results deriving from a BuildConfiguration, so that given a
- * build, the artifacts used can be tracked
+ * The artifacts form a catalog shared by all the builds: each distinct artifact is stored once and the BuildRecords,
+ * that are the results deriving from a BuildConfiguration, link the artifacts they built and used, so that given a build,
+ * the artifacts used can be tracked
  * 
  * 
- * (identifier + checksum) should be unique
+ * (identifier + checksum) is unique, the checksum is the sha256 of the artifact
  */
 // TODO: We need to capture two types of artifact:
 // 1. Build output, which has an associated build result
@@ -32,12 +36,23 @@ import javax.persistence.ManyToOne;
 // Ordinarily, I'd model this as a common base class and two subclasses to capture the variant info.
 // I'm not sure how it would need to be modeled for efficient storage via JPA.
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "checksum", "identifier" }))
 public class Artifact implements Serializable {
 
     private static final long serialVersionUID = -2368833657284575734L;
 
+    public static final String DEFAULT_SORTING_FIELD = "id";
+
+    /**
+     * Ids are allocated from the sequence in blocks of 50 (pooled optimizer), so the inserts of a build's artifacts can be
+     * sent in JDBC batches. The generator is declared here so the id generation of the other entities is not changed.
+     */
     @Id
-    @GeneratedValue
+    @GenericGenerator(name = "artifact_id_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "artifact_id_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled") })
+    @GeneratedValue(generator = "artifact_id_seq")
     private Integer id;
 
     /**
@@ -54,16 +69,6 @@ public class Artifact implements Serializable {
 
     private String filename;
 
-    // What is this used for?
-    private String deployUrl;
-
-    @Enumerated(EnumType.STRING)
-    private ArtifactStatus status;
-
-    // bi-directional many-to-one association to buildRecord
-    @ManyToOne
-    private BuildRecord buildRecord;
-
     /**
      * Instantiates a new artifact.
      */
@@ -145,62 +150,6 @@ public class Artifact implements Serializable {
         this.filename = filename;
     }
 
-    /**
-     * Gets the deploy url.
-     *
-     * @return the deploy url
-     */
-    public String getDeployUrl() {
-        return deployUrl;
-    }
-
-    /**
-     * Sets the deploy url.
-     *
-     * @param deployUrl the new deploy url
-     */
-    public void setDeployUrl(String deployUrl) {
-        this.deployUrl = deployUrl;
-    }
-
-    /**
-     * Gets the status.
-     * 
-     * The status (the genesis of the artifact, whether it has been imported or built internally).
-     *
-     * @return the status
-     */
-    public ArtifactStatus getStatus() {
-        return status;
-    }
-
-    /**
-     * Sets the status.
-     *
-     * @param status the new status
-     */
-    public void setStatus(ArtifactStatus status) {
-        this.status = status;
-    }
-
-    /**
-     * Gets the project build record.
-     *
-     * @return the project build record
-     */
-    public BuildRecord getBuildRecord() {
-        return buildRecord;
-    }
-
-    /**
-     * Sets the project build record.
-     *
-     * @param buildRecord the new project build record
-     */
-    public void setBuildRecord(BuildRecord buildRecord) {
-        this.buildRecord = buildRecord;
-    }
-
     /**
      * @return the repoType
      */
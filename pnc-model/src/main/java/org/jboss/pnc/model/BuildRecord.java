@@ -44,17 +44,36 @@ public class BuildRecord implements Serializable {
 
     private String patchesUrl;
 
+    /**
+     * Short log stored inline, eg. an error of the build system. Build driver logs are stored outside of the database.
+     */
     @Lob
     private String buildLog;
 
+    /**
+     * Reference of the build log in the build log store.
+     */
+    private String buildLogReference;
+
+    /**
+     * Hash of the build inputs, a successful build record with the same hash can be reused instead of building again.
+     */
+    private String buildContentId;
+
     @Enumerated(value = EnumType.STRING)
     private BuildDriverStatus status;
 
-    @OneToMany(mappedBy = "buildRecord", cascade = CascadeType.ALL)
-    private List<Artifact> builtArtifacts;
+    /**
+     * Artifacts are shared with the other build records, see {@link Artifact}. The links hold the status and the deploy
+     * url of the artifacts in this build, the artifacts have to be stored before the build record.
+     */
+    @ElementCollection
+    @CollectionTable(name = "build_record_built_artifact", joinColumns = @JoinColumn(name = "build_record_id"))
+    private List<BuildRecordArtifact> builtArtifacts;
 
-    @OneToMany(mappedBy = "buildRecord", cascade = CascadeType.ALL)
-    private List<Artifact> dependencies;
+    @ElementCollection
+    @CollectionTable(name = "build_record_dependency", joinColumns = @JoinColumn(name = "build_record_id"))
+    private List<BuildRecordArtifact> dependencies;
 
     /**
      * Driver that was used to run the build.
@@ -227,6 +246,42 @@ public class BuildRecord implements Serializable {
         this.buildLog = buildLog;
     }
 
+    /**
+     * Gets the build log reference.
+     *
+     * @return the build log reference
+     */
+    public String getBuildLogReference() {
+        return buildLogReference;
+    }
+
+    /**
+     * Sets the build log reference.
+     *
+     * @param buildLogReference the new build log reference
+     */
+    public void setBuildLogReference(String buildLogReference) {
+        this.buildLogReference = buildLogReference;
+    }
+
+    /**
+     * Gets the build content id.
+     *
+     * @return the build content id
+     */
+    public String getBuildContentId() {
+        return buildContentId;
+    }
+
+    /**
+     * Sets the build content id.
+     *
+     * @param buildContentId the new build content id
+     */
+    public void setBuildContentId(String buildContentId) {
+        this.buildContentId = buildContentId;
+    }
+
     /**
      * Gets the status.
      *
@@ -250,7 +305,7 @@ public class BuildRecord implements Serializable {
      *
      * @return the built artifacts
      */
-    public List<Artifact> getBuiltArtifacts() {
+    public List<BuildRecordArtifact> getBuiltArtifacts() {
         return builtArtifacts;
     }
 
@@ -259,7 +314,7 @@ public class BuildRecord implements Serializable {
      *
      * @param builtArtifacts the new built artifacts
      */
-    public void setBuiltArtifacts(List<Artifact> builtArtifacts) {
+    public void setBuiltArtifacts(List<BuildRecordArtifact> builtArtifacts) {
         this.builtArtifacts = builtArtifacts;
     }
 
@@ -268,7 +323,7 @@ public class BuildRecord implements Serializable {
      *
      * @return the dependencies
      */
-    public List<Artifact> getDependencies() {
+    public List<BuildRecordArtifact> getDependencies() {
         return dependencies;
     }
 
@@ -277,7 +332,7 @@ public class BuildRecord implements Serializable {
      *
      * @param dependencies the new dependencies
      */
-    public void setDependencies(List<Artifact> dependencies) {
+    public void setDependencies(List<BuildRecordArtifact> dependencies) {
         this.dependencies = dependencies;
     }
 
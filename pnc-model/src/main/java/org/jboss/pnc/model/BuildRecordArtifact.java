@@ -0,0 +1,107 @@
+package org.jboss.pnc.model;
+
+import java.io.Serializable;
+
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+
+/**
+ * Link of a build record to an artifact it built or used.
+ *
+ * The artifact is shared by all the build records which reference it, see {@link Artifact}. The status and the deploy url
+ * describe the artifact in this build, so they are stored with the link.
+ */
+@Embeddable
+public class BuildRecordArtifact implements Serializable {
+
+    private static final long serialVersionUID = 4675325370364744397L;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "artifact_id")
+    private Artifact artifact;
+
+    @Enumerated(EnumType.STRING)
+    private ArtifactStatus status;
+
+    private String deployUrl;
+
+    /**
+     * Instantiates a new link.
+     */
+    public BuildRecordArtifact() {
+    }
+
+    public BuildRecordArtifact(Artifact artifact, ArtifactStatus status, String deployUrl) {
+        this.artifact = artifact;
+        this.status = status;
+        this.deployUrl = deployUrl;
+    }
+
+    /**
+     * Gets the artifact.
+     *
+     * @return the artifact
+     */
+    public Artifact getArtifact() {
+        return artifact;
+    }
+
+    /**
+     * Sets the artifact.
+     *
+     * @param artifact the new artifact
+     */
+    public void setArtifact(Artifact artifact) {
+        this.artifact = artifact;
+    }
+
+    /**
+     * Gets the status.
+     *
+     * The status (the genesis of the artifact, whether it has been imported or built internally).
+     *
+     * @return the status
+     */
+    public ArtifactStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status.
+     *
+     * @param status the new status
+     */
+    public void setStatus(ArtifactStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Gets the deploy url.
+     *
+     * @return the deploy url
+     */
+    public String getDeployUrl() {
+        return deployUrl;
+    }
+
+    /**
+     * Sets the deploy url.
+     *
+     * @param deployUrl the new deploy url
+     */
+    public void setDeployUrl(String deployUrl) {
+        this.deployUrl = deployUrl;
+    }
+
+    /*
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+        return "BuildRecordArtifact [artifact=" + artifact + ", status=" + status + "]";
+    }
+
+}
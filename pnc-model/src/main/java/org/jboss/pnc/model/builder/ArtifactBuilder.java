@@ -19,7 +19,7 @@ package org.jboss.pnc.model.builder;
 
 import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.ArtifactStatus;
-import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.model.RepositoryType;
 
 /**
@@ -42,8 +42,6 @@ public class ArtifactBuilder {
 
     private ArtifactStatus status;
 
-    private BuildRecord buildRecord;
-
     private ArtifactBuilder() {
     }
 
@@ -58,13 +56,17 @@ public class ArtifactBuilder {
         artifact.setRepoType(repoType);
         artifact.setChecksum(checksum);
         artifact.setFilename(filename);
-        artifact.setDeployUrl(deployUrl);
-        artifact.setStatus(status);
-        artifact.setBuildRecord(buildRecord);
 
         return artifact;
     }
 
+    /**
+     * @return link of a build record to the artifact with the status and the deploy url the artifact has in the build
+     */
+    public BuildRecordArtifact buildLink() {
+        return new BuildRecordArtifact(build(), status, deployUrl);
+    }
+
     public ArtifactBuilder id(Integer id) {
         this.id = id;
         return this;
@@ -100,11 +102,6 @@ public class ArtifactBuilder {
         return this;
     }
 
-    public ArtifactBuilder buildRecord(BuildRecord buildRecord) {
-        this.buildRecord = buildRecord;
-        return this;
-    }
-
     public Integer getId() {
         return id;
     }
@@ -133,8 +130,4 @@ public class ArtifactBuilder {
         return status;
     }
 
-    public BuildRecord getBuildRecord() {
-        return buildRecord;
-    }
-
 }
@@ -22,11 +22,11 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.model.SystemImage;
 import org.jboss.pnc.model.User;
 
@@ -54,11 +54,15 @@ public class BuildRecordBuilder {
 
     private String buildLog;
 
+    private String buildLogReference;
+
+    private String buildContentId;
+
     private BuildDriverStatus status;
 
-    private List<Artifact> builtArtifacts;
+    private List<BuildRecordArtifact> builtArtifacts;
 
-    private List<Artifact> dependencies;
+    private List<BuildRecordArtifact> dependencies;
 
     private String buildDriverId;
 
@@ -88,20 +92,13 @@ public class BuildRecordBuilder {
         buildRecord.setSourceUrl(sourceUrl);
         buildRecord.setPatchesUrl(patchesUrl);
         buildRecord.setBuildLog(buildLog);
+        buildRecord.setBuildLogReference(buildLogReference);
+        buildRecord.setBuildContentId(buildContentId);
         buildRecord.setStatus(status);
         buildRecord.setBuildDriverId(buildDriverId);
         buildRecord.setSystemImage(systemImage);
 
-        // Set the bi-directional mapping
-        for (Artifact artifact : builtArtifacts) {
-            artifact.setBuildRecord(buildRecord);
-        }
         buildRecord.setBuiltArtifacts(builtArtifacts);
-
-        // Set the bi-directional mapping
-        for (Artifact artifact : dependencies) {
-            artifact.setBuildRecord(buildRecord);
-        }
         buildRecord.setDependencies(dependencies);
 
         buildRecord.setBuildCollections(buildCollections);
@@ -154,27 +151,37 @@ public class BuildRecordBuilder {
         return this;
     }
 
+    public BuildRecordBuilder buildLogReference(String buildLogReference) {
+        this.buildLogReference = buildLogReference;
+        return this;
+    }
+
+    public BuildRecordBuilder buildContentId(String buildContentId) {
+        this.buildContentId = buildContentId;
+        return this;
+    }
+
     public BuildRecordBuilder status(BuildDriverStatus status) {
         this.status = status;
         return this;
     }
 
-    public BuildRecordBuilder builtArtifact(Artifact builtArtifact) {
+    public BuildRecordBuilder builtArtifact(BuildRecordArtifact builtArtifact) {
         this.builtArtifacts.add(builtArtifact);
         return this;
     }
 
-    public BuildRecordBuilder builtArtifacts(List<Artifact> builtArtifacts) {
+    public BuildRecordBuilder builtArtifacts(List<BuildRecordArtifact> builtArtifacts) {
         this.builtArtifacts = builtArtifacts;
         return this;
     }
 
-    public BuildRecordBuilder dependency(Artifact builtArtifact) {
+    public BuildRecordBuilder dependency(BuildRecordArtifact builtArtifact) {
         this.dependencies.add(builtArtifact);
         return this;
     }
 
-    public BuildRecordBuilder dependencies(List<Artifact> dependencies) {
+    public BuildRecordBuilder dependencies(List<BuildRecordArtifact> dependencies) {
         this.dependencies = dependencies;
         return this;
     }
@@ -230,15 +237,23 @@ public class BuildRecordBuilder {
         return buildLog;
     }
 
+    public String getBuildLogReference() {
+        return buildLogReference;
+    }
+
+    public String getBuildContentId() {
+        return buildContentId;
+    }
+
     public BuildDriverStatus getStatus() {
         return status;
     }
 
-    public List<Artifact> getBuiltArtifacts() {
+    public List<BuildRecordArtifact> getBuiltArtifacts() {
         return builtArtifacts;
     }
 
-    public List<Artifact> getDependencies() {
+    public List<BuildRecordArtifact> getDependencies() {
         return dependencies;
     }
 
@@ -0,0 +1,33 @@
+package org.jboss.pnc.rest.configuration;
+
+import org.jboss.logging.Logger;
+
+import javax.ejb.EJBException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.Provider;
+
+import java.lang.invoke.MethodHandles;
+
+/**
+ * The container wraps runtime exceptions of the @Stateless providers in an EJBException, an invalid argument (eg. an
+ * invalid page token) is a bad request as when it is thrown by an endpoint, see {@link IllegalArgumentExceptionMapper}.
+ */
+@Provider
+public class EJBExceptionMapper implements ExceptionMapper<EJBException> {
+
+    private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final IllegalArgumentExceptionMapper illegalArgumentExceptionMapper = new IllegalArgumentExceptionMapper();
+
+    @Override
+    public Response toResponse(EJBException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalArgumentException) {
+                return illegalArgumentExceptionMapper.toResponse((IllegalArgumentException) cause);
+            }
+        }
+        logger.error("Error processing the request.", e);
+        return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    }
+}
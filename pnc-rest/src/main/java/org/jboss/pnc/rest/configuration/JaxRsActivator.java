@@ -20,6 +20,7 @@ public class JaxRsActivator extends Application {
 
     private void addProjectResources(Set<Class<?>> resources) {
         resources.add(TriggerBuildEndpoint.class);
+        resources.add(BuildBatchEndpoint.class);
         resources.add(ProductEndpoint.class);
         resources.add(ProductVersionEndpoint.class);
         resources.add(ProjectEndpoint.class);
@@ -27,6 +28,7 @@ public class JaxRsActivator extends Application {
         resources.add(LegacyEndpoint.class);
         resources.add(BuildRecordEndpoint.class);
         resources.add(RunningBuildRecordEndpoint.class);
+        resources.add(JenkinsNotificationEndpoint.class);
         resources.add(UserEndpoint.class);
         resources.add(IllegalArgumentExceptionMapper.class);
     }
@@ -5,13 +5,11 @@ import com.wordnik.swagger.annotations.ApiOperation;
 import com.wordnik.swagger.annotations.ApiParam;
 
 import org.jboss.pnc.rest.provider.BuildArtifactProvider;
-import org.jboss.pnc.rest.restmodel.ArtifactRest;
 
 import javax.inject.Inject;
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
-
-import java.util.List;
+import javax.ws.rs.core.Response;
 
 @Api(value = "/result/{buildRecordId}/artifact", description = "Results of building process")
 @Path("/result/{buildRecordId}/artifact")
@@ -31,8 +29,14 @@ public class BuildArtifactEndpoint {
 
     @ApiOperation(value = "Gets all Build Artifacts")
     @GET
-    public List<ArtifactRest> getAll(
-            @ApiParam(value = "Build Result id", required = true) @PathParam("buildRecordId") Integer buildRecordId) {
-        return buildArtifactProvider.getAll(buildRecordId);
+    public Response getAll(
+            @ApiParam(value = "Build Result id", required = true) @PathParam("buildRecordId") Integer buildRecordId,
+            @ApiParam(value = "Pagination size", required = false) @QueryParam("pageSize") Integer pageSize,
+            @ApiParam(value = "Sorting field", required = false) @QueryParam("sorted_by") String field,
+            @ApiParam(value = "Sort direction", required = false) @QueryParam("sorting") String sorting,
+            @ApiParam(value = "Page token, empty for the first page", required = false) @QueryParam("after") String after,
+            @ApiParam(value = "Count all elements", required = false) @QueryParam("count") @DefaultValue("false")
+            boolean count) {
+        return Response.ok(buildArtifactProvider.getAll(buildRecordId, pageSize, field, sorting, after, count)).build();
     }
 }
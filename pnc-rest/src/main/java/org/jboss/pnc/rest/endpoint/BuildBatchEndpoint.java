@@ -0,0 +1,89 @@
+package org.jboss.pnc.rest.endpoint;
+
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiParam;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.jboss.logging.Logger;
+import org.jboss.pnc.rest.provider.BuildRecordProvider;
+import org.jboss.pnc.rest.restmodel.BuildBatchRest;
+import org.jboss.pnc.rest.trigger.BuildTriggerer;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.UriInfo;
+import java.lang.invoke.MethodHandles;
+import java.net.URI;
+import java.util.List;
+
+@Api(value = "/build-batch", description = "Building many Build Configurations at once")
+@Path("/build-batch")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes(MediaType.APPLICATION_JSON)
+public class BuildBatchEndpoint {
+
+    private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass());
+
+    private BuildTriggerer buildTriggerer;
+    private BuildRecordProvider buildRecordProvider;
+
+    public BuildBatchEndpoint() {
+    }
+
+    @Inject
+    public BuildBatchEndpoint(BuildTriggerer buildTriggerer, BuildRecordProvider buildRecordProvider) {
+        this.buildTriggerer = buildTriggerer;
+        this.buildRecordProvider = buildRecordProvider;
+    }
+
+    @ApiOperation(value = "Triggers build of the Build Configurations and their dependencies")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Everything is OK"),
+            @ApiResponse(code = 400, message = "Unknown Build Configuration") })
+    @POST
+    public Response triggerBuildBatch(
+            @ApiParam(value = "Build Configuration ids", required = true) List<Integer> buildConfigurationIds,
+            @Context UriInfo uriInfo) {
+        int buildBatchId = buildTriggerer.triggerBuildBatch(buildConfigurationIds);
+        logger.debugf("Triggered build batch #%s of configurations %s.", buildBatchId, buildConfigurationIds);
+        return buildBatchCreated(buildBatchId, uriInfo);
+    }
+
+    @ApiOperation(value = "Triggers build of all the Build Configurations of the Product Version")
+    @ApiResponses(value = { @ApiResponse(code = 200, message = "Everything is OK"),
+            @ApiResponse(code = 400, message = "Product Version has no Build Configurations") })
+    @POST
+    @Path("/product-version/{productVersionId}")
+    public Response triggerProductVersionBuild(
+            @ApiParam(value = "Product Version id", required = true) @PathParam("productVersionId") Integer productVersionId,
+            @Context UriInfo uriInfo) {
+        int buildBatchId = buildTriggerer.triggerProductVersionBuild(productVersionId);
+        logger.debugf("Triggered build batch #%s of product version %s.", buildBatchId, productVersionId);
+        return buildBatchCreated(buildBatchId, uriInfo);
+    }
+
+    @ApiOperation(value = "Gets progress of specific build batch")
+    @GET
+    @Path("/{id}")
+    public Response getSpecific(@ApiParam(value = "Build batch id", required = true) @PathParam("id") Integer id) {
+        BuildBatchRest buildBatch = buildRecordProvider.getBuildBatch(id);
+        if (buildBatch == null) {
+            return Response.status(Response.Status.NOT_FOUND).build();
+        }
+        return Response.ok(buildBatch).build();
+    }
+
+    private Response buildBatchCreated(int buildBatchId, UriInfo uriInfo) {
+        URI uri = UriBuilder.fromUri(uriInfo.getBaseUri()).path("/build-batch/{id}").build(buildBatchId);
+        return Response.ok(uri).entity(uri).build();
+    }
+}
@@ -7,7 +7,7 @@ import com.wordnik.swagger.annotations.ApiParam;
 import org.jboss.pnc.rest.provider.BuildConfigurationProvider;
 import org.jboss.pnc.rest.provider.BuildRecordProvider;
 import org.jboss.pnc.rest.restmodel.BuildConfigurationRest;
-import org.jboss.pnc.rest.restmodel.BuildRecordRest;
+import org.jboss.pnc.rest.restmodel.BuildDurationStatisticsRest;
 
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -15,8 +15,6 @@ import javax.validation.constraints.NotNull;
 import javax.ws.rs.*;
 import javax.ws.rs.core.*;
 
-import java.util.List;
-
 @Api(value = "/project/{projectId}/configuration", description = "Build Configuration related information")
 @Path("/project/{projectId}/configuration")
 @Produces(MediaType.APPLICATION_JSON)
@@ -38,9 +36,16 @@ public class BuildConfigurationEndpoint {
 
     @ApiOperation(value = "Gets all Build Configurations")
     @GET
-    public List<BuildConfigurationRest> getAll(
-            @ApiParam(value = "Project id", required = true) @PathParam("projectId") Integer projectId) {
-        return buildConfigurationProvider.getAll(projectId);
+    public Response getAll(
+            @ApiParam(value = "Project id", required = true) @PathParam("projectId") Integer projectId,
+            @ApiParam(value = "Pagination size", required = false) @QueryParam("pageSize") Integer pageSize,
+            @ApiParam(value = "Sorting field", required = false) @QueryParam("sorted_by") String field,
+            @ApiParam(value = "Sort direction", required = false) @QueryParam("sorting") String sorting,
+            @ApiParam(value = "Page token, empty for the first page", required = false) @QueryParam("after") String after,
+            @ApiParam(value = "Count all elements", required = false) @QueryParam("count") @DefaultValue("false")
+            boolean count) {
+        return Response.ok(buildConfigurationProvider.getAll(projectId, pageSize, field, sorting, after, count))
+                .build();
     }
 
     @ApiOperation(value = "Gets a specific Project's Build Configuration")
@@ -55,10 +60,27 @@ public class BuildConfigurationEndpoint {
     @ApiOperation(value = "Gets the Build Records of a specific Build Configuration")
     @GET
     @Path("/{id}/result")
-    public List<BuildRecordRest> getResultsOfSpecificBuildConfiguration(
+    public Response getResultsOfSpecificBuildConfiguration(
+            @ApiParam(value = "Project id", required = true) @PathParam("projectId") Integer projectId,
+            @ApiParam(value = "Build Configuration id", required = true) @PathParam("id") Integer id,
+            @ApiParam(value = "Pagination size", required = false) @QueryParam("pageSize") Integer pageSize,
+            @ApiParam(value = "Sorting field", required = false) @QueryParam("sorted_by") String field,
+            @ApiParam(value = "Sort direction", required = false) @QueryParam("sorting") String sorting,
+            @ApiParam(value = "Page token, empty for the first page", required = false) @QueryParam("after") String after,
+            @ApiParam(value = "Count all elements", required = false) @QueryParam("count") @DefaultValue("false")
+            boolean count) {
+        return Response.ok(
+                buildRecordProvider.getAllArchivedOfBuildConfiguration(id, pageSize, field, sorting, after, count))
+                .build();
+    }
+
+    @ApiOperation(value = "Gets build duration statistics of a specific Build Configuration")
+    @GET
+    @Path("/{id}/statistics")
+    public BuildDurationStatisticsRest getDurationStatistics(
             @ApiParam(value = "Project id", required = true) @PathParam("projectId") Integer projectId,
             @ApiParam(value = "Build Configuration id", required = true) @PathParam("id") Integer id) {
-        return buildRecordProvider.getAllArchivedOfBuildConfiguration(id);
+        return buildRecordProvider.getDurationStatistics(id);
     }
 
     @ApiOperation(value = "Creates new Project's Build Configuration")
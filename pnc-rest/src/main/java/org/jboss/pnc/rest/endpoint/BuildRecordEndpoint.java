@@ -2,6 +2,7 @@ package org.jboss.pnc.rest.endpoint;
 
 import javax.inject.Inject;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -38,9 +39,13 @@ public class BuildRecordEndpoint {
     public Response getAll(@ApiParam(value = "Page index", required = false) @QueryParam("pageIndex") Integer pageIndex,
             @ApiParam(value = "Pagination size", required = false) @QueryParam("pageSize") Integer pageSize,
             @ApiParam(value = "Sorting field", required = false) @QueryParam("sorted_by") String field,
-            @ApiParam(value = "Sort direction", required = false) @QueryParam("sorting") String sorting) {
+            @ApiParam(value = "Sort direction", required = false) @QueryParam("sorting") String sorting,
+            @ApiParam(value = "Page token, empty for the first page", required = false) @QueryParam("after") String after,
+            @ApiParam(value = "Count all elements", required = false) @QueryParam("count") @DefaultValue("false")
+            boolean count) {
 
-        return Response.ok(buildRecordProvider.getAllArchived(pageIndex, pageSize, field, sorting)).build();
+        return Response.ok(buildRecordProvider.getAllArchived(pageIndex, pageSize, field, sorting, after, count))
+                .build();
     }
 
     @ApiOperation(value = "Gets specific Build Record")
@@ -0,0 +1,80 @@
+package org.jboss.pnc.rest.endpoint;
+
+import com.wordnik.swagger.annotations.Api;
+import com.wordnik.swagger.annotations.ApiOperation;
+import com.wordnik.swagger.annotations.ApiResponse;
+import com.wordnik.swagger.annotations.ApiResponses;
+import org.jboss.logging.Logger;
+import org.jboss.pnc.spi.builddriver.BuildNotificationReceiver;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+
+/**
+ * Receives notifications sent by Jenkins Notification plugin.
+ * The payload is read as a map as the plugin versions differ in the fields they send, eg. the absolute url of the build
+ * (full_url) which tells apart the masters is sent only by the newer ones.
+ * Notifications are accepted only with the token configured by jenkins.notifications.token, the build driver adds it
+ * to the notification url of the jobs.
+ */
+@Api(value = "/jenkins/notification", description = "Notifications of Jenkins build jobs")
+@Path("/jenkins/notification")
+@Consumes(MediaType.APPLICATION_JSON)
+public class JenkinsNotificationEndpoint {
+
+    private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * Build log and result are complete only in the last phase.
+     */
+    static final String FINALIZED_PHASE = "FINALIZED";
+
+    private BuildNotificationReceiver notificationReceiver;
+
+    public JenkinsNotificationEndpoint() {
+    }
+
+    @Inject
+    public JenkinsNotificationEndpoint(BuildNotificationReceiver notificationReceiver) {
+        this.notificationReceiver = notificationReceiver;
+    }
+
+    @ApiOperation(value = "Notifies about a Jenkins build phase change")
+    @ApiResponses(value = { @ApiResponse(code = 204, message = "Notification accepted"),
+            @ApiResponse(code = 400, message = "Invalid notification"),
+            @ApiResponse(code = 403, message = "Invalid token") })
+    @POST
+    public Response notify(@QueryParam("token") String token, Map<String, Object> notification) {
+        if (!notificationReceiver.isTokenValid(token)) {
+            logger.warn("Rejected Jenkins notification with an invalid token.");
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        Object jobName = notification.get("name");
+        Object build = notification.get("build");
+        if (jobName == null || !(build instanceof Map)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Missing job name or build.").build();
+        }
+        Map<?, ?> buildDetails = (Map<?, ?>) build;
+        Object phase = buildDetails.get("phase");
+        Object number = buildDetails.get("number");
+        if (!(number instanceof Number)) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("Missing build number.").build();
+        }
+
+        logger.debugf("Received Jenkins notification for %s #%s in phase %s.", jobName, number, phase);
+        if (FINALIZED_PHASE.equals(phase)) {
+            Object status = buildDetails.get("status");
+            Object fullUrl = buildDetails.get("full_url");
+            notificationReceiver.buildCompleted(fullUrl == null ? null : fullUrl.toString(), jobName.toString(),
+                    ((Number) number).intValue(), status == null ? null : status.toString());
+        }
+        return Response.noContent().build();
+    }
+}
@@ -3,8 +3,10 @@ package org.jboss.pnc.rest.endpoint;
 import com.wordnik.swagger.annotations.Api;
 import com.wordnik.swagger.annotations.ApiOperation;
 import com.wordnik.swagger.annotations.ApiParam;
+import org.jboss.pnc.core.builder.BuildLogBuffer;
 import org.jboss.pnc.rest.provider.BuildRecordProvider;
 import org.jboss.pnc.rest.restmodel.BuildRecordRest;
+import org.jboss.pnc.rest.restmodel.BuildStageExecutorRest;
 import org.jboss.logging.Logger;
 
 import javax.inject.Inject;
@@ -22,6 +24,9 @@ public class RunningBuildRecordEndpoint {
 
     private static final Logger logger = Logger.getLogger(MethodHandles.lookup().lookupClass());
 
+    static final String LOG_OFFSET_HEADER = "X-Log-Offset";
+    static final String LOG_NEXT_OFFSET_HEADER = "X-Log-Next-Offset";
+
     private BuildRecordProvider buildRecordProvider;
 
     public RunningBuildRecordEndpoint() {
@@ -38,6 +43,13 @@ public class RunningBuildRecordEndpoint {
         return buildRecordProvider.getAllRunning();
     }
 
+    @ApiOperation(value = "Gets queue depth and wait times of the build stage executors")
+    @GET
+    @Path("/executors")
+    public List<BuildStageExecutorRest> getStageExecutors() {
+        return buildRecordProvider.getStageExecutors();
+    }
+
     @ApiOperation(value = "Gets specific Build Collection")
     @GET
     @Path("/{id}")
@@ -46,11 +58,24 @@ public class RunningBuildRecordEndpoint {
         return buildRecordProvider.getSpecificRunning(id);
     }
 
-    @ApiOperation(value = "Gets specific Build Collection")
+    /**
+     * Returns the log from the offset, the response headers tell where the returned part starts (it can be later than
+     * requested when only the tail of the log is kept) and which offset to use for the next request.
+     */
+    @ApiOperation(value = "Gets logs for specific running Build Record")
     @GET
     @Path("/{id}/log")
+    @Produces(MediaType.TEXT_PLAIN)
     public Response getLogs(
-            @ApiParam(value = "BuildRecord id", required = true) @PathParam("id") Integer id) {
-        return Response.ok(buildRecordProvider.getLogsForRunningBuildId(id)).build();
+            @ApiParam(value = "BuildRecord id", required = true) @PathParam("id") Integer id,
+            @ApiParam(value = "Byte offset to continue from", required = false) @QueryParam("offset") Long offset) {
+        BuildLogBuffer.Chunk logChunk = buildRecordProvider.getLogsForRunningBuildId(id, offset == null ? 0L : offset);
+        if (logChunk == null) {
+            return Response.ok().build();
+        }
+        return Response.ok(logChunk.getData())
+                .header(LOG_OFFSET_HEADER, logChunk.getOffset())
+                .header(LOG_NEXT_OFFSET_HEADER, logChunk.getNextOffset())
+                .build();
     }
 }
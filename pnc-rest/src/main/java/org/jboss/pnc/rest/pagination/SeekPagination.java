@@ -0,0 +1,77 @@
+package org.jboss.pnc.rest.pagination;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of a keyset listing, the next page is requested with the after token.
+ */
+public class SeekPagination<T> implements Serializable {
+
+    private static final long serialVersionUID = 4419305372641096915L;
+    private final List<T> content = new ArrayList<T>();
+    private int pageElements;
+    private int pageSize;
+    private Long totalElements;
+    private Boolean ascending;
+    private String sortingField;
+    private String next;
+
+    /**
+     * @param totalElements null when not counted
+     * @param next token of the next page, null on the last page
+     */
+    public SeekPagination(List<T> content, int pageSize, Long totalElements, Boolean ascending, String sortingField,
+            String next) {
+
+        super();
+        this.content.addAll(content);
+        this.pageElements = content.size();
+        this.pageSize = pageSize;
+        this.totalElements = totalElements;
+        this.ascending = ascending;
+        this.sortingField = sortingField;
+        this.next = next;
+    }
+
+    public int getPageElements() {
+        return pageElements;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public Boolean getAscending() {
+        return ascending;
+    }
+
+    public String getSortingField() {
+        return sortingField;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean isNextPage() {
+        return next != null;
+    }
+
+    @Override
+    public String toString() {
+        return "SeekPagination [content=" + content + ", pageElements=" + pageElements + ", pageSize=" + pageSize
+                + ", totalElements=" + totalElements + ", ascending=" + ascending + ", sortingField=" + sortingField
+                + ", next=" + next + "]";
+    }
+
+}
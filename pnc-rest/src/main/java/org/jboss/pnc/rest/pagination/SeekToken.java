@@ -0,0 +1,111 @@
+package org.jboss.pnc.rest.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Opaque token of a keyset page, the sorting of the listing and the sorting value and the id of the last row of the
+ * previous page.
+ */
+public class SeekToken {
+
+    private static final String SEPARATOR = "|";
+
+    private final String field;
+    private final boolean ascending;
+    private final Object value;
+    private final Integer id;
+
+    public SeekToken(String field, boolean ascending, Object value, Integer id) {
+        if (value == null || id == null) {
+            throw new IllegalArgumentException("Cannot continue after a row without the value of " + field);
+        }
+        this.field = field;
+        this.ascending = ascending;
+        this.value = value;
+        this.id = id;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String encode() {
+        String token = field + SEPARATOR + (ascending ? "a" : "d") + SEPARATOR + id + SEPARATOR + encodeValue(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the token is not valid
+     */
+    public static SeekToken decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 5);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid after token " + token);
+        }
+        if (parts.length != 5 || !(parts[1].equals("a") || parts[1].equals("d"))) {
+            throw new IllegalArgumentException("Invalid after token " + token);
+        }
+        try {
+            return new SeekToken(parts[0], parts[1].equals("a"), decodeValue(parts[3], parts[4]),
+                    Integer.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid after token " + token);
+        }
+    }
+
+    private static String encodeValue(Object value) {
+        if (value instanceof Integer) {
+            return "i" + SEPARATOR + value;
+        } else if (value instanceof Long) {
+            return "l" + SEPARATOR + value;
+        } else if (value instanceof String) {
+            return "s" + SEPARATOR + value;
+        } else if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return "t" + SEPARATOR + timestamp.getTime() + "." + timestamp.getNanos();
+        } else if (value instanceof Date) {
+            return "d" + SEPARATOR + ((Date) value).getTime();
+        }
+        throw new IllegalArgumentException("Cannot continue after a value of " + value.getClass().getSimpleName());
+    }
+
+    private static Object decodeValue(String type, String value) {
+        switch (type) {
+            case "i":
+                return Integer.valueOf(value);
+            case "l":
+                return Long.valueOf(value);
+            case "s":
+                return value;
+            case "t":
+                int separator = value.indexOf('.');
+                if (separator < 0) {
+                    throw new NumberFormatException(value);
+                }
+                Timestamp timestamp = new Timestamp(Long.parseLong(value.substring(0, separator)));
+                timestamp.setNanos(Integer.parseInt(value.substring(separator + 1)));
+                return timestamp;
+            case "d":
+                return new Date(Long.parseLong(value));
+            default:
+                throw new IllegalArgumentException("Invalid value type " + type);
+        }
+    }
+}
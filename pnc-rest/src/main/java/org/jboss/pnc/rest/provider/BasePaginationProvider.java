@@ -1,11 +1,18 @@
 package org.jboss.pnc.rest.provider;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.jboss.pnc.datastore.repositories.KeysetRepository;
 import org.jboss.pnc.rest.pagination.Pagination;
+import org.jboss.pnc.rest.pagination.SeekPagination;
+import org.jboss.pnc.rest.pagination.SeekToken;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -78,4 +85,80 @@ public abstract class BasePaginationProvider<K, T> {
         return (pageIndex == null && pageSize == null && field == null && sorting == null);
     }
 
+    /**
+     * @param after token of the page, an empty one for the first page
+     */
+    public boolean seekPaginationRequired(String after) {
+        return after != null;
+    }
+
+    /**
+     * Fields the listing can be sorted by in the keyset mode, entities without the value of the field are not listed.
+     */
+    public Set<String> getSeekSortingFields() {
+        return new HashSet<>(Arrays.asList(KeysetRepository.ID_FIELD, getDefaultSortingField()));
+    }
+
+    /**
+     * JPQL expressions on the entity aliased as e selected with each row of a keyset page, they can use the parameters of
+     * the listing condition.
+     */
+    protected List<String> getSeekValues() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Maps a row of a keyset page with the values of {@link #getSeekValues()} into the REST object.
+     */
+    protected K toRestModel(KeysetRepository.Row<T> row) {
+        return toRestModel().apply(row.getEntity());
+    }
+
+    /**
+     * Gets a keyset page of the entities, the sorting of a non-empty after token takes precedence over the field and
+     * sorting.
+     *
+     * @param condition JPQL condition on the entity aliased as e, or null to list all the entities
+     * @param count whether to count all the entities of the listing
+     */
+    public SeekPagination<K> seek(KeysetRepository keysetRepository, Class<T> entityClass, String condition,
+            Map<String, Object> parameters, Integer pageSize, String after, String field, String sorting,
+            boolean count) {
+
+        pageSize = parsePageSize(pageSize);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive, was " + pageSize);
+        }
+        SeekToken afterToken = after == null || after.isEmpty() ? null : SeekToken.decode(after);
+
+        String sortingField;
+        boolean ascending;
+        if (afterToken != null) {
+            sortingField = afterToken.getField();
+            ascending = afterToken.isAscending();
+        } else {
+            sortingField = extractSortingFieldQueryParamValue(field);
+            ascending = extractSortingDirectionQueryParamValue(sorting).equals(Direction.ASC);
+        }
+        if (!getSeekSortingFields().contains(sortingField)) {
+            throw new IllegalArgumentException("Sorting by " + sortingField + " is not supported with the after token, "
+                    + "supported fields are " + getSeekSortingFields());
+        }
+
+        // one more row tells whether there is a next page
+        List<KeysetRepository.Row<T>> rows = keysetRepository.findAfter(entityClass, condition, parameters,
+                getSeekValues(), sortingField, ascending, afterToken == null ? null : afterToken.getValue(),
+                afterToken == null ? null : afterToken.getId(), pageSize + 1);
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            KeysetRepository.Row<T> last = rows.get(pageSize - 1);
+            next = new SeekToken(sortingField, ascending, last.getSortingValue(), last.getId()).encode();
+        }
+
+        List<K> content = rows.stream().map(this::toRestModel).collect(Collectors.toList());
+        Long totalElements = count ? keysetRepository.count(entityClass, condition, parameters, sortingField) : null;
+        return new SeekPagination<K>(content, pageSize, totalElements, ascending, sortingField, next);
+    }
+
 }
@@ -2,31 +2,105 @@ package org.jboss.pnc.rest.provider;
 
 
 import org.jboss.pnc.datastore.repositories.ArtifactRepository;
+import org.jboss.pnc.datastore.repositories.KeysetRepository;
+import org.jboss.pnc.model.Artifact;
+import org.jboss.pnc.model.ArtifactStatus;
 import org.jboss.pnc.rest.restmodel.ArtifactRest;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.jboss.pnc.rest.provider.StreamHelper.nullableStreamOf;
 
 @Stateless
-public class BuildArtifactProvider {
+public class BuildArtifactProvider extends BasePaginationProvider<ArtifactRest, Artifact> {
+
+    /**
+     * Built artifacts and dependencies of the build record
+     */
+    private static final String BUILD_RECORD_CONDITION =
+            "e.id in (select l.artifact.id from BuildRecord br join br.builtArtifacts l where br.id = :buildRecordId)"
+            + " or e.id in (select l.artifact.id from BuildRecord br join br.dependencies l where br.id = :buildRecordId)";
+
+    /**
+     * Status and deploy url of the artifact in the build record, read from the built artifact link and the dependency
+     * link of each row of a keyset page
+     */
+    private static final List<String> LINK_VALUES = Arrays.asList(
+            linkValue("builtArtifacts", "status"), linkValue("builtArtifacts", "deployUrl"),
+            linkValue("dependencies", "status"), linkValue("dependencies", "deployUrl"));
 
     private ArtifactRepository artifactRepository;
+    private KeysetRepository keysetRepository;
 
     public BuildArtifactProvider() {
     }
 
     @Inject
-    public BuildArtifactProvider(ArtifactRepository artifactRepository) {
+    public BuildArtifactProvider(ArtifactRepository artifactRepository, KeysetRepository keysetRepository) {
         this.artifactRepository = artifactRepository;
+        this.keysetRepository = keysetRepository;
+    }
+
+    // Needed to map the Entity into the proper REST object
+    @Override
+    public Function<? super Artifact, ? extends ArtifactRest> toRestModel() {
+        return artifact -> new ArtifactRest(artifact);
+    }
+
+    @Override
+    public String getDefaultSortingField() {
+        return Artifact.DEFAULT_SORTING_FIELD;
+    }
+
+    private static String linkValue(String links, String field) {
+        return "(select l." + field + " from BuildRecord br join br." + links + " l"
+                + " where br.id = :buildRecordId and l.artifact.id = e.id)";
     }
 
+    @Override
+    protected List<String> getSeekValues() {
+        return LINK_VALUES;
+    }
+
+    /**
+     * An artifact built by the build record has the values of the built artifact link, otherwise the values of the
+     * dependency link.
+     */
+    @Override
+    protected ArtifactRest toRestModel(KeysetRepository.Row<Artifact> row) {
+        Object[] values = row.getValues();
+        boolean built = values[0] != null || values[1] != null;
+        ArtifactRest artifactRest = new ArtifactRest(row.getEntity());
+        artifactRest.setStatus((ArtifactStatus) (built ? values[0] : values[2]));
+        artifactRest.setDeployUrl((String) (built ? values[1] : values[3]));
+        return artifactRest;
+    }
+
+    /**
+     * Stored artifacts are shared by the build records, their status and deploy url are given by the link to the build
+     * record.
+     */
     public List<ArtifactRest> getAll(Integer buildRecordId) {
-        return nullableStreamOf(artifactRepository.findByBuildRecord(buildRecordId))
-                .map(artifact -> new ArtifactRest(artifact))
-                .collect(Collectors.toList());
+        return Stream.concat(nullableStreamOf(artifactRepository.findBuiltArtifactsByBuildRecord(buildRecordId)),
+                nullableStreamOf(artifactRepository.findDependenciesByBuildRecord(buildRecordId)))
+                .map(ArtifactRest::new).collect(Collectors.toList());
+    }
+
+    public Object getAll(Integer buildRecordId, Integer pageSize, String field, String sorting, String after,
+            boolean count) {
+
+        if (seekPaginationRequired(after)) {
+            return seek(keysetRepository, Artifact.class, BUILD_RECORD_CONDITION,
+                    Collections.singletonMap("buildRecordId", buildRecordId), pageSize, after, field, sorting, count);
+        } else {
+            return getAll(buildRecordId);
+        }
     }
 }
@@ -2,7 +2,11 @@ package org.jboss.pnc.rest.provider;
 
 import static org.jboss.pnc.rest.provider.StreamHelper.nullableStreamOf;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -10,6 +14,7 @@ import javax.ejb.Stateless;
 import javax.inject.Inject;
 
 import org.jboss.pnc.datastore.repositories.BuildConfigurationRepository;
+import org.jboss.pnc.datastore.repositories.KeysetRepository;
 import org.jboss.pnc.datastore.repositories.ProjectRepository;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.Project;
@@ -23,12 +28,14 @@ public class BuildConfigurationProvider extends BasePaginationProvider<BuildConf
 
     private BuildConfigurationRepository buildConfigurationRepository;
     private ProjectRepository projectRepository;
+    private KeysetRepository keysetRepository;
 
     @Inject
     public BuildConfigurationProvider(BuildConfigurationRepository buildConfigurationRepository,
-            ProjectRepository projectRepository) {
+            ProjectRepository projectRepository, KeysetRepository keysetRepository) {
         this.buildConfigurationRepository = buildConfigurationRepository;
         this.projectRepository = projectRepository;
+        this.keysetRepository = keysetRepository;
     }
 
     // needed for EJB/CDI
@@ -46,6 +53,12 @@ public class BuildConfigurationProvider extends BasePaginationProvider<BuildConf
         return BuildConfiguration.DEFAULT_SORTING_FIELD;
     }
 
+    @Override
+    public Set<String> getSeekSortingFields() {
+        return new HashSet<>(Arrays.asList(KeysetRepository.ID_FIELD, BuildConfiguration.DEFAULT_SORTING_FIELD,
+                "creationTime"));
+    }
+
     public Object getAll(Integer pageIndex, Integer pageSize, String field, String sorting) {
 
         if (noPaginationRequired(pageIndex, pageSize, field, sorting)) {
@@ -61,6 +74,17 @@ public class BuildConfigurationProvider extends BasePaginationProvider<BuildConf
                 Collectors.toList());
     }
 
+    public Object getAll(Integer projectId, Integer pageSize, String field, String sorting, String after,
+            boolean count) {
+
+        if (seekPaginationRequired(after)) {
+            return seek(keysetRepository, BuildConfiguration.class, "e.project.id = :projectId",
+                    Collections.singletonMap("projectId", projectId), pageSize, after, field, sorting, count);
+        } else {
+            return getAll(projectId);
+        }
+    }
+
     public BuildConfigurationRest getSpecific(Integer projectId, Integer id) {
         BuildConfiguration projectConfiguration = buildConfigurationRepository.findByProjectIdAndConfigurationId(projectId, id);
         if (projectConfiguration != null) {
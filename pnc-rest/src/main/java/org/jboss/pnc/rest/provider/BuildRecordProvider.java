@@ -3,9 +3,15 @@ package org.jboss.pnc.rest.provider;
 import static org.jboss.pnc.rest.provider.StreamHelper.nullableStreamOf;
 
 import java.io.BufferedWriter;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -13,25 +19,39 @@ import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.ws.rs.core.StreamingOutput;
 
+import org.jboss.pnc.core.builder.BuildBatch;
 import org.jboss.pnc.core.builder.BuildCoordinator;
+import org.jboss.pnc.core.builder.BuildLogBuffer;
+import org.jboss.pnc.core.builder.BuildLogStore;
 import org.jboss.pnc.core.builder.BuildTask;
 import org.jboss.pnc.datastore.repositories.BuildRecordRepository;
+import org.jboss.pnc.datastore.repositories.KeysetRepository;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.rest.restmodel.BuildBatchRest;
+import org.jboss.pnc.rest.restmodel.BuildDurationStatisticsRest;
 import org.jboss.pnc.rest.restmodel.BuildRecordRest;
+import org.jboss.pnc.rest.restmodel.BuildStageExecutorRest;
 
 @Stateless
 public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest, BuildRecord> {
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     private BuildRecordRepository buildRecordRepository;
     private BuildCoordinator buildCoordinator;
+    private BuildLogStore buildLogStore;
+    private KeysetRepository keysetRepository;
 
     public BuildRecordProvider() {
     }
 
     @Inject
-    public BuildRecordProvider(BuildRecordRepository buildRecordRepository, BuildCoordinator buildCoordinator) {
+    public BuildRecordProvider(BuildRecordRepository buildRecordRepository, BuildCoordinator buildCoordinator,
+            BuildLogStore buildLogStore, KeysetRepository keysetRepository) {
         this.buildRecordRepository = buildRecordRepository;
         this.buildCoordinator = buildCoordinator;
+        this.buildLogStore = buildLogStore;
+        this.keysetRepository = keysetRepository;
     }
 
     // Needed to map the Entity into the proper REST object
@@ -45,9 +65,17 @@ public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest,
         return BuildRecord.DEFAULT_SORTING_FIELD;
     }
 
-    public Object getAllArchived(Integer pageIndex, Integer pageSize, String field, String sorting) {
+    @Override
+    public Set<String> getSeekSortingFields() {
+        return new HashSet<>(Arrays.asList(KeysetRepository.ID_FIELD, "endTime"));
+    }
+
+    public Object getAllArchived(Integer pageIndex, Integer pageSize, String field, String sorting, String after,
+            boolean count) {
 
-        if (noPaginationRequired(pageIndex, pageSize, field, sorting)) {
+        if (seekPaginationRequired(after)) {
+            return seek(keysetRepository, BuildRecord.class, null, null, pageSize, after, field, sorting, count);
+        } else if (noPaginationRequired(pageIndex, pageSize, field, sorting)) {
             return buildRecordRepository.findAll().stream().map(toRestModel()).collect(Collectors.toList());
         } else {
             return transform(buildRecordRepository.findAll(buildPageRequest(pageIndex, pageSize, field, sorting)));
@@ -55,7 +83,9 @@ public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest,
     }
 
     public List<BuildRecordRest> getAllRunning() {
-        return nullableStreamOf(buildCoordinator.getBuildTasks()).map(submittedBuild -> new BuildRecordRest(submittedBuild))
+        Map<BuildTask, Integer> queuePositions = buildCoordinator.getBuildQueue().getQueuePositions();
+        return nullableStreamOf(buildCoordinator.getBuildTasks())
+                .map(submittedBuild -> new BuildRecordRest(submittedBuild, queuePositions.get(submittedBuild)))
                 .collect(Collectors.toList());
     }
 
@@ -64,6 +94,18 @@ public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest,
                 buildRecord -> new BuildRecordRest(buildRecord)).collect(Collectors.toList());
     }
 
+    public Object getAllArchivedOfBuildConfiguration(Integer buildConfigurationId, Integer pageSize, String field,
+            String sorting, String after, boolean count) {
+
+        if (seekPaginationRequired(after)) {
+            return seek(keysetRepository, BuildRecord.class, "e.buildConfiguration.id = :buildConfigurationId",
+                    Collections.singletonMap("buildConfigurationId", buildConfigurationId), pageSize, after, field,
+                    sorting, count);
+        } else {
+            return getAllArchivedOfBuildConfiguration(buildConfigurationId);
+        }
+    }
+
     public BuildRecordRest getSpecific(Integer id) {
         BuildRecord buildRecord = buildRecordRepository.findOne(id);
         if (buildRecord != null) {
@@ -75,9 +117,23 @@ public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest,
     public StreamingOutput getLogsForBuildId(Integer id) {
         BuildRecord buildRecord = buildRecordRepository.findOne(id);
         if (buildRecord != null) {
+            if (buildRecord.getBuildLogReference() != null) {
+                return outputStream -> {
+                    try (InputStream buildLog = buildLogStore.open(buildRecord.getBuildLogReference())) {
+                        byte[] buffer = new byte[BUFFER_SIZE];
+                        int read;
+                        while ((read = buildLog.read(buffer)) != -1) {
+                            outputStream.write(buffer, 0, read);
+                        }
+                    }
+                    outputStream.flush();
+                };
+            }
             return outputStream -> {
                 Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
-                writer.write(buildRecord.getBuildLog());
+                if (buildRecord.getBuildLog() != null) {
+                    writer.write(buildRecord.getBuildLog());
+                }
                 writer.flush();
             };
         }
@@ -87,31 +143,43 @@ public class BuildRecordProvider extends BasePaginationProvider<BuildRecordRest,
     public BuildRecordRest getSpecificRunning(Integer id) {
         BuildTask buildTask = getSubmittedBuild(id);
         if (buildTask != null) {
-            return new BuildRecordRest(buildTask);
+            return new BuildRecordRest(buildTask, buildCoordinator.getBuildQueue().getQueuePositions().get(buildTask));
         }
         return null;
     }
 
     private BuildTask getSubmittedBuild(Integer id) {
-        List<BuildTask> buildTasks = buildCoordinator.getBuildTasks().stream()
-                .filter(submittedBuild -> id.equals(submittedBuild.getBuildConfiguration().getId()))
-                .collect(Collectors.toList());
-        if (!buildTasks.isEmpty()) {
-            return buildTasks.iterator().next();
+        return buildCoordinator.getBuildTask(id);
+    }
+
+    public BuildBatchRest getBuildBatch(Integer id) {
+        BuildBatch buildBatch = buildCoordinator.getBuildBatch(id);
+        if (buildBatch != null) {
+            return new BuildBatchRest(buildBatch);
         }
         return null;
     }
 
-    public StreamingOutput getLogsForRunningBuildId(Integer id) {
+    public BuildDurationStatisticsRest getDurationStatistics(Integer buildConfigurationId) {
+        return new BuildDurationStatisticsRest(buildCoordinator.getDurationStatistics().getStatistics(buildConfigurationId));
+    }
+
+    /**
+     * @return queue depth and wait times of the thread pools of the build stages
+     */
+    public List<BuildStageExecutorRest> getStageExecutors() {
+        return buildCoordinator.getStageExecutors().getExecutors().stream().map(BuildStageExecutorRest::new)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @param offset byte offset in the log to continue from
+     * @return part of the log retained for the running build or null if the build is not running
+     */
+    public BuildLogBuffer.Chunk getLogsForRunningBuildId(Integer id, long offset) {
         BuildTask buildTask = getSubmittedBuild(id);
         if (buildTask != null) {
-            return outputStream -> {
-                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream));
-                if (buildTask != null && buildTask.getBuildLog() != null) {
-                    writer.write(buildTask.getBuildLog());
-                }
-                writer.flush();
-            };
+            return buildTask.readBuildLog(offset);
         }
         return null;
     }
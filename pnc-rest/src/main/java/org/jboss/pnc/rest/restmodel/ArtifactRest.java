@@ -2,6 +2,7 @@ package org.jboss.pnc.rest.restmodel;
 
 import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.ArtifactStatus;
+import org.jboss.pnc.model.BuildRecordArtifact;
 import org.jboss.pnc.model.RepositoryType;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -33,8 +34,15 @@ public class ArtifactRest {
         this.repoType = artifact.getRepoType();
         this.checksum = artifact.getChecksum();
         this.filename = artifact.getFilename();
-        this.deployUrl = artifact.getDeployUrl();
-        this.status = artifact.getStatus();
+    }
+
+    /**
+     * @param link link of a build record to the artifact, with the status and the deploy url of the artifact in the build
+     */
+    public ArtifactRest(BuildRecordArtifact link) {
+        this(link.getArtifact());
+        this.deployUrl = link.getDeployUrl();
+        this.status = link.getStatus();
     }
 
     public Integer getId() {
@@ -0,0 +1,112 @@
+package org.jboss.pnc.rest.restmodel;
+
+import org.jboss.pnc.core.builder.BuildBatch;
+import org.jboss.pnc.core.builder.BuildTask;
+import org.jboss.pnc.spi.BuildStatus;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate progress of builds submitted together.
+ */
+@XmlRootElement(name = "BuildBatch")
+public class BuildBatchRest {
+
+    private Integer id;
+
+    private Integer productVersionId;
+
+    private Timestamp submitTime;
+
+    private List<Integer> buildConfigurationIds = new ArrayList<>();
+
+    /**
+     * Number of builds including the dependencies built for the batch.
+     */
+    private int buildCount;
+
+    /**
+     * Number of builds in each status.
+     */
+    private Map<String, Integer> progress = new HashMap<>();
+
+    private boolean completed;
+
+    public BuildBatchRest() {
+    }
+
+    public BuildBatchRest(BuildBatch buildBatch) {
+        this.id = buildBatch.getId();
+        this.productVersionId = buildBatch.getProductVersionId();
+        this.submitTime = new Timestamp(buildBatch.getSubmitTime());
+        for (BuildTask buildTask : buildBatch.getRequestedTasks()) {
+            buildConfigurationIds.add(buildTask.getId());
+        }
+        this.buildCount = buildBatch.getBuildTasks().size();
+        for (Map.Entry<BuildStatus, Integer> status : buildBatch.getProgress().entrySet()) {
+            progress.put(status.getKey().toString(), status.getValue());
+        }
+        this.completed = buildBatch.isCompleted();
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Integer getProductVersionId() {
+        return productVersionId;
+    }
+
+    public void setProductVersionId(Integer productVersionId) {
+        this.productVersionId = productVersionId;
+    }
+
+    public Timestamp getSubmitTime() {
+        return submitTime;
+    }
+
+    public void setSubmitTime(Timestamp submitTime) {
+        this.submitTime = submitTime;
+    }
+
+    public List<Integer> getBuildConfigurationIds() {
+        return buildConfigurationIds;
+    }
+
+    public void setBuildConfigurationIds(List<Integer> buildConfigurationIds) {
+        this.buildConfigurationIds = buildConfigurationIds;
+    }
+
+    public int getBuildCount() {
+        return buildCount;
+    }
+
+    public void setBuildCount(int buildCount) {
+        this.buildCount = buildCount;
+    }
+
+    public Map<String, Integer> getProgress() {
+        return progress;
+    }
+
+    public void setProgress(Map<String, Integer> progress) {
+        this.progress = progress;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+}
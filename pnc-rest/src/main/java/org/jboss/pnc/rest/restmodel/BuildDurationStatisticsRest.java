@@ -0,0 +1,89 @@
+package org.jboss.pnc.rest.restmodel;
+
+import org.jboss.pnc.core.statistics.DurationStatistics;
+import org.jboss.pnc.spi.BuildStatus;
+
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Durations of the successful builds of a Build Configuration in milliseconds.
+ */
+@XmlRootElement(name = "BuildDurationStatistics")
+public class BuildDurationStatisticsRest {
+
+    private Integer buildConfigurationId;
+
+    private long samples;
+
+    private long p50;
+
+    private long p95;
+
+    private long ewma;
+
+    private Map<String, Long> stages = new HashMap<>();
+
+    public BuildDurationStatisticsRest() {
+    }
+
+    public BuildDurationStatisticsRest(DurationStatistics statistics) {
+        this.buildConfigurationId = statistics.getBuildConfigurationId();
+        this.samples = statistics.getSamples();
+        this.p50 = statistics.getP50();
+        this.p95 = statistics.getP95();
+        this.ewma = statistics.getEwma();
+        for (Map.Entry<BuildStatus, Long> stage : statistics.getStages().entrySet()) {
+            stages.put(stage.getKey().toString(), stage.getValue());
+        }
+    }
+
+    public Integer getBuildConfigurationId() {
+        return buildConfigurationId;
+    }
+
+    public void setBuildConfigurationId(Integer buildConfigurationId) {
+        this.buildConfigurationId = buildConfigurationId;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP95() {
+        return p95;
+    }
+
+    public void setP95(long p95) {
+        this.p95 = p95;
+    }
+
+    public long getEwma() {
+        return ewma;
+    }
+
+    public void setEwma(long ewma) {
+        this.ewma = ewma;
+    }
+
+    public Map<String, Long> getStages() {
+        return stages;
+    }
+
+    public void setStages(Map<String, Long> stages) {
+        this.stages = stages;
+    }
+}
@@ -4,6 +4,7 @@ import org.jboss.pnc.core.builder.BuildTask;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.model.BuildRecord;
+import org.jboss.pnc.spi.BuildStatus;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import java.sql.Timestamp;
@@ -35,6 +36,18 @@ public class BuildRecordRest {
 
     private Integer systemImageId;
 
+    /**
+     * Status of a submitted build, null for the stored build records.
+     */
+    private BuildStatus taskStatus;
+
+    private String taskStatusDescription;
+
+    /**
+     * Order in which a queued build is going to start, null when the build is not queued.
+     */
+    private Integer queuePosition;
+
     public BuildRecordRest() {
     }
 
@@ -53,6 +66,10 @@ public class BuildRecordRest {
     }
 
     public BuildRecordRest(BuildTask buildTask) {
+        this(buildTask, null);
+    }
+
+    public BuildRecordRest(BuildTask buildTask, Integer queuePosition) {
         this.id = buildTask.getBuildConfiguration().getId();
         BuildConfiguration buildConfiguration = buildTask.getBuildConfiguration();
         this.buildScript = buildConfiguration.getBuildScript();
@@ -64,6 +81,9 @@ public class BuildRecordRest {
         this.sourceUrl = buildConfiguration.getScmUrl();
         this.patchesUrl = buildConfiguration.getPatchesUrl();
         this.status = BuildDriverStatus.BUILDING;
+        this.taskStatus = buildTask.getStatus();
+        this.taskStatusDescription = buildTask.getStatusDescription();
+        this.queuePosition = queuePosition;
     }
 
     public Integer getId() {
@@ -154,4 +174,28 @@ public class BuildRecordRest {
         this.systemImageId = systemImageId;
     }
 
+    public BuildStatus getTaskStatus() {
+        return taskStatus;
+    }
+
+    public void setTaskStatus(BuildStatus taskStatus) {
+        this.taskStatus = taskStatus;
+    }
+
+    public String getTaskStatusDescription() {
+        return taskStatusDescription;
+    }
+
+    public void setTaskStatusDescription(String taskStatusDescription) {
+        this.taskStatusDescription = taskStatusDescription;
+    }
+
+    public Integer getQueuePosition() {
+        return queuePosition;
+    }
+
+    public void setQueuePosition(Integer queuePosition) {
+        this.queuePosition = queuePosition;
+    }
+
 }
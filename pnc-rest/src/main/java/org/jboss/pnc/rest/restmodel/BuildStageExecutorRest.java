@@ -0,0 +1,117 @@
+package org.jboss.pnc.rest.restmodel;
+
+import org.jboss.pnc.core.builder.MonitoredThreadPoolExecutor;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Load of the thread pool of a build stage, wait times are in milliseconds.
+ */
+@XmlRootElement(name = "BuildStageExecutor")
+public class BuildStageExecutorRest {
+
+    private String name;
+
+    private int threads;
+
+    private int activeThreads;
+
+    private int queueDepth;
+
+    private int remainingQueueCapacity;
+
+    private long completedTasks;
+
+    private long rejectedTasks;
+
+    private long averageWaitTime;
+
+    private long maxWaitTime;
+
+    public BuildStageExecutorRest() {
+    }
+
+    public BuildStageExecutorRest(MonitoredThreadPoolExecutor executor) {
+        this.name = executor.getName();
+        this.threads = executor.getMaximumPoolSize();
+        this.activeThreads = executor.getActiveCount();
+        this.queueDepth = executor.getQueueDepth();
+        this.remainingQueueCapacity = executor.getRemainingQueueCapacity();
+        this.completedTasks = executor.getCompletedTaskCount();
+        this.rejectedTasks = executor.getRejectedTaskCount();
+        this.averageWaitTime = executor.getAverageWaitTimeMillis();
+        this.maxWaitTime = executor.getMaxWaitTimeMillis();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getActiveThreads() {
+        return activeThreads;
+    }
+
+    public void setActiveThreads(int activeThreads) {
+        this.activeThreads = activeThreads;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getRemainingQueueCapacity() {
+        return remainingQueueCapacity;
+    }
+
+    public void setRemainingQueueCapacity(int remainingQueueCapacity) {
+        this.remainingQueueCapacity = remainingQueueCapacity;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public void setCompletedTasks(long completedTasks) {
+        this.completedTasks = completedTasks;
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks;
+    }
+
+    public void setRejectedTasks(long rejectedTasks) {
+        this.rejectedTasks = rejectedTasks;
+    }
+
+    public long getAverageWaitTime() {
+        return averageWaitTime;
+    }
+
+    public void setAverageWaitTime(long averageWaitTime) {
+        this.averageWaitTime = averageWaitTime;
+    }
+
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(long maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+}
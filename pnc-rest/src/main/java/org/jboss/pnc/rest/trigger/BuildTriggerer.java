@@ -4,13 +4,15 @@ import com.google.common.base.Preconditions;
 import org.jboss.pnc.core.builder.BuildCoordinator;
 import org.jboss.pnc.core.exception.CoreException;
 import org.jboss.pnc.datastore.repositories.BuildConfigurationRepository;
-import org.jboss.pnc.model.BuildCollection;
 import org.jboss.pnc.model.BuildConfiguration;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 import org.jboss.pnc.spi.repositorymanager.RepositoryManagerException;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 @Stateless
 public class BuildTriggerer {
@@ -34,10 +36,34 @@ public class BuildTriggerer {
         final BuildConfiguration configuration = buildConfigurationRepository.findOne(configurationId);
         Preconditions.checkArgument(configuration != null, "Can't find configuration with given id=" + configurationId);
 
-        final BuildCollection buildCollection = new BuildCollection();
-        buildCollection.setProductVersion(configuration.getProductVersion());
-
         return buildCoordinator.build(configuration).getBuildConfiguration().getId();
     }
 
+    /**
+     * Builds the configurations and their dependencies as one batch.
+     *
+     * @return id of the build batch
+     */
+    public int triggerBuildBatch(final List<Integer> configurationIds) {
+        Preconditions.checkArgument(configurationIds != null && !configurationIds.isEmpty(), "No configuration ids given");
+        final Set<Integer> uniqueIds = new LinkedHashSet<>(configurationIds);
+        final List<BuildConfiguration> configurations = buildConfigurationRepository.findAll(uniqueIds);
+        if (configurations.size() != uniqueIds.size()) {
+            configurations.forEach(configuration -> uniqueIds.remove(configuration.getId()));
+            throw new IllegalArgumentException("Can't find configurations with given ids=" + uniqueIds);
+        }
+        return buildCoordinator.build(configurations, null).getId();
+    }
+
+    /**
+     * Builds all the configurations of the product version as one batch.
+     *
+     * @return id of the build batch
+     */
+    public int triggerProductVersionBuild(final Integer productVersionId) {
+        final List<BuildConfiguration> configurations = buildConfigurationRepository.findByProductVersionId(productVersionId);
+        Preconditions.checkArgument(!configurations.isEmpty(), "Can't find configurations of product version with given id=" + productVersionId);
+        return buildCoordinator.build(configurations, productVersionId).getId();
+    }
+
 }
@@ -0,0 +1,44 @@
+package org.jboss.pnc.rest.pagination;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+
+public class SeekTokenTest {
+
+    @Test
+    public void shouldDecodeEncodedToken() throws Exception {
+        //given
+        Timestamp endTime = Timestamp.valueOf("2015-03-02 10:15:30.123456");
+        SeekToken token = new SeekToken("endTime", false, endTime, 42);
+
+        //when
+        SeekToken decoded = SeekToken.decode(token.encode());
+
+        //then
+        Assert.assertEquals("endTime", decoded.getField());
+        Assert.assertFalse(decoded.isAscending());
+        Assert.assertEquals(endTime, decoded.getValue());
+        Assert.assertEquals(Integer.valueOf(42), decoded.getId());
+    }
+
+    @Test
+    public void shouldKeepSeparatorInStringValue() throws Exception {
+        //given
+        SeekToken token = new SeekToken("name", true, "jboss|pnc", 7);
+
+        //when
+        SeekToken decoded = SeekToken.decode(token.encode());
+
+        //then
+        Assert.assertEquals("jboss|pnc", decoded.getValue());
+        Assert.assertEquals(Integer.valueOf(7), decoded.getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidToken() throws Exception {
+        //when
+        SeekToken.decode("not a token");
+    }
+}
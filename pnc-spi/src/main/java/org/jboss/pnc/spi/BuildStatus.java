@@ -8,6 +8,15 @@ public enum BuildStatus {
 
     WAITING_FOR_DEPENDENCIES,
 
+    /**
+     * Ready to build, waiting for a free build slot.
+     */
+    ENQUEUED,
+    /**
+     * Ready to build, held back by the concurrent build quota of its product version or project.
+     */
+    WAITING_FOR_QUOTA,
+
     REPO_SETTING_UP,
 
     BUILD_ENV_SETTING_UP,
@@ -0,0 +1,23 @@
+package org.jboss.pnc.spi.builddriver;
+
+/**
+ * Receives notifications which a build system sends when a build completes, implemented by the build driver which
+ * configured the build system to send them.
+ */
+public interface BuildNotificationReceiver {
+
+    /**
+     * @param token token sent with the notification
+     * @return true if the token matches the configured shared secret, false also when no secret is configured
+     */
+    boolean isTokenValid(String token);
+
+    /**
+     * Completes the monitored build without waiting for the next poll.
+     *
+     * @param buildUrl absolute url of the build, tells apart the same job on more servers, null when not sent
+     * @param result result reported by the build system
+     * @return false if the build is not monitored (already completed or unknown)
+     */
+    boolean buildCompleted(String buildUrl, String jobName, int buildNumber, String result);
+}
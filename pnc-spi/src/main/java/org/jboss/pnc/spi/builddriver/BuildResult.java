@@ -3,13 +3,23 @@ package org.jboss.pnc.spi.builddriver;
 import org.jboss.pnc.model.BuildDriverStatus;
 import org.jboss.pnc.spi.builddriver.exception.BuildDriverException;
 
+import java.io.OutputStream;
+
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-18.
  */
 public interface BuildResult {
 
+    /**
+     * @return whole build log, use {@link #writeBuildLog(OutputStream)} for big logs
+     */
     public String getBuildLog() throws BuildDriverException;
 
+    /**
+     * Streams the build log in chunks, without keeping the whole log in memory.
+     */
+    public void writeBuildLog(OutputStream outputStream) throws BuildDriverException;
+
     public BuildDriverStatus getBuildDriverStatus() throws BuildDriverException;
 
 }
@@ -0,0 +1,84 @@
+package org.jboss.pnc.spi.builddriver;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Callbacks and hints of a monitored build. Only the completion and the error callbacks are required, the build log is
+ * read only when a log consumer is set.
+ *
+ * @param <T> result passed to the completion callback
+ */
+public class MonitorCallbacks<T> {
+
+    private final Consumer<T> onComplete;
+    private final Consumer<Exception> onError;
+    private Consumer<String> onLog;
+    private BooleanSupplier logWanted = () -> true;
+    private long expectedDuration;
+
+    public MonitorCallbacks(Consumer<T> onComplete, Consumer<Exception> onError) {
+        this.onComplete = onComplete;
+        this.onError = onError;
+    }
+
+    /**
+     * @param onLog receives chunks of the build log while the build is running
+     */
+    public MonitorCallbacks<T> onLog(Consumer<String> onLog) {
+        this.onLog = onLog;
+        return this;
+    }
+
+    /**
+     * @param logWanted the driver reads the build log only while it returns true, the part of the log written meanwhile
+     *                  is passed to the log consumer with the next read
+     */
+    public MonitorCallbacks<T> logWanted(BooleanSupplier logWanted) {
+        this.logWanted = logWanted;
+        return this;
+    }
+
+    /**
+     * @param expectedDuration expected build duration in milliseconds or 0 when unknown, the driver can use it to check
+     *                         the build less often before its expected end
+     */
+    public MonitorCallbacks<T> expectedDuration(long expectedDuration) {
+        this.expectedDuration = expectedDuration;
+        return this;
+    }
+
+    /**
+     * @return callbacks with the same log consumer and hints, completing with the converted result
+     */
+    public <R> MonitorCallbacks<R> withCompletion(Consumer<R> onComplete) {
+        return new MonitorCallbacks<R>(onComplete, onError).onLog(onLog).logWanted(logWanted)
+                .expectedDuration(expectedDuration);
+    }
+
+    public Consumer<T> getOnComplete() {
+        return onComplete;
+    }
+
+    public Consumer<Exception> getOnError() {
+        return onError;
+    }
+
+    /**
+     * @return log consumer or null if the log is not read
+     */
+    public Consumer<String> getOnLog() {
+        return onLog;
+    }
+
+    /**
+     * @return true if there is a log consumer and it wants the log now
+     */
+    public boolean isLogWanted() {
+        return onLog != null && logWanted.getAsBoolean();
+    }
+
+    public long getExpectedDuration() {
+        return expectedDuration;
+    }
+}
@@ -1,10 +1,18 @@
 package org.jboss.pnc.spi.builddriver;
 
-import java.util.function.Consumer;
-
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-12-23.
  */
 public interface RunningBuild {
-    void monitor(Consumer<CompletedBuild> onComplete, Consumer<Exception> onError);
+
+    /**
+     * Waits for the build to complete and calls either the completion or the error callback once.
+     */
+    void monitor(MonitorCallbacks<CompletedBuild> callbacks);
+
+    /**
+     * Stops monitoring the build, none of the monitor callbacks is called afterwards.
+     */
+    default void cancel() {
+    }
 }
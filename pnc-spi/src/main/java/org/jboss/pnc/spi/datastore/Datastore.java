@@ -1,10 +1,32 @@
 package org.jboss.pnc.spi.datastore;
 
+import org.jboss.pnc.model.Artifact;
 import org.jboss.pnc.model.BuildRecord;
 
+import java.util.List;
+
 /**
  * Created by <a href="mailto:matejonnet@gmail.com">Matej Lazar</a> on 2014-11-24.
  */
 public interface Datastore {
     void storeCompletedBuild(BuildRecord buildRecord) throws DatastoreException;
+
+    /**
+     * Stores the artifacts in batches, an artifact which is already stored (same checksum and identifier) is not stored
+     * again.
+     *
+     * @return the stored artifacts in the given order without duplicates, to be linked to build records
+     */
+    List<Artifact> storeArtifacts(List<Artifact> artifacts) throws DatastoreException;
+
+    /**
+     * @param buildContentId hash of the build inputs
+     * @return last successful build record with the given inputs or null if there is none
+     */
+    BuildRecord getLatestSuccessfulBuildRecord(String buildContentId) throws DatastoreException;
+
+    /**
+     * @return last successful and finished build records of the configuration, the newest first
+     */
+    List<BuildRecord> getLatestSuccessfulBuildRecords(Integer buildConfigurationId, int maxResults) throws DatastoreException;
 }
@@ -0,0 +1,220 @@
+package org.jboss.pnc.web.notifications;
+
+import org.jboss.pnc.core.builder.BuildCoordinator;
+import org.jboss.pnc.core.notifications.BuildStatusChangedEvent;
+import org.jboss.pnc.core.notifications.BuildStatusPublisher;
+import org.jboss.pnc.core.notifications.BuildStatusSubscription;
+
+import javax.inject.Inject;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Pushes build status transitions to the clients as server-sent events, instead of clients polling the running builds.
+ *
+ * Clients can subscribe only to some build configurations with ?configurationId=1&amp;configurationId=2.
+ * Servlet 3.0 has only blocking writes, so each stream has its own writer thread and a slow client blocks only its own
+ * stream. A slow client gets its events coalesced (see {@link BuildStatusSubscription}) and a "dropped" event when some
+ * were lost, so it knows it should re-read the running builds. The number of open streams is limited.
+ */
+@WebServlet(urlPatterns = "/events/build-status", asyncSupported = true)
+public class BuildStatusStreamServlet extends HttpServlet {
+
+    private static final Logger log = Logger.getLogger(BuildStatusStreamServlet.class.getName());
+
+    static final String CONFIGURATION_ID_PARAM = "configurationId";
+
+    private static final int SUBSCRIPTION_CAPACITY = 100;
+    private static final int MAX_STREAMS = 200;
+    private static final long HEARTBEAT_SECONDS = 30L;
+
+    @Inject
+    BuildCoordinator buildCoordinator;
+
+    private final Set<EventStream> streams = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger streamSequence = new AtomicInteger();
+
+    @Override
+    public void destroy() {
+        streams.forEach(EventStream::close);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        Predicate<BuildStatusChangedEvent> filter;
+        try {
+            filter = createFilter(request.getParameterValues(CONFIGURATION_ID_PARAM));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + CONFIGURATION_ID_PARAM + ".");
+            return;
+        }
+        if (streams.size() >= MAX_STREAMS) {
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Too many open build status streams.");
+            return;
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.flushBuffer();
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);
+        EventStream stream = new EventStream(asyncContext, buildCoordinator.getStatusPublisher());
+        asyncContext.addListener(stream);
+        streams.add(stream);
+        stream.start(filter);
+    }
+
+    static Predicate<BuildStatusChangedEvent> createFilter(String[] configurationIds) {
+        if (configurationIds == null || configurationIds.length == 0) {
+            return event -> true;
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (String id : configurationIds) {
+            ids.add(Integer.valueOf(id.trim()));
+        }
+        return event -> ids.contains(event.getBuildConfigurationId());
+    }
+
+    static String toJson(BuildStatusChangedEvent event) {
+        return "{\"buildConfigurationId\":" + event.getBuildConfigurationId()
+                + ",\"oldStatus\":\"" + event.getOldStatus() + "\""
+                + ",\"newStatus\":\"" + event.getNewStatus() + "\""
+                + ",\"timestamp\":" + event.getTimestamp() + "}";
+    }
+
+    /**
+     * Stream of one client, all writes are done by its writer thread.
+     */
+    private class EventStream implements AsyncListener, Runnable {
+
+        private final AsyncContext asyncContext;
+        private final BuildStatusPublisher publisher;
+        private final Semaphore pending = new Semaphore(0);
+        private volatile BuildStatusSubscription subscription;
+        private volatile boolean closed;
+
+        EventStream(AsyncContext asyncContext, BuildStatusPublisher publisher) {
+            this.asyncContext = asyncContext;
+            this.publisher = publisher;
+        }
+
+        void start(Predicate<BuildStatusChangedEvent> filter) {
+            subscription = publisher.subscribe(filter, SUBSCRIPTION_CAPACITY, pending::release);
+            Thread writer = new Thread(this, "build-status-stream-" + streamSequence.incrementAndGet());
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        /**
+         * Writes the pending events as they come and a keep-alive comment when there are none for a while.
+         */
+        @Override
+        public void run() {
+            try {
+                deliver(); //events published before the subscription was assigned
+                while (!closed) {
+                    if (pending.tryAcquire(HEARTBEAT_SECONDS, TimeUnit.SECONDS)) {
+                        pending.drainPermits();
+                        deliver();
+                    } else {
+                        heartbeat();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void deliver() {
+            if (closed) {
+                return;
+            }
+            List<BuildStatusChangedEvent> events = subscription.drain();
+            long dropped = subscription.drainDropped();
+            StringBuilder data = new StringBuilder();
+            if (dropped > 0) {
+                data.append("event: dropped\ndata: ").append(dropped).append("\n\n");
+            }
+            for (BuildStatusChangedEvent event : events) {
+                data.append("event: status\ndata: ").append(toJson(event)).append("\n\n");
+            }
+            write(data.toString());
+        }
+
+        private void heartbeat() {
+            write(": keep-alive\n\n");
+        }
+
+        private void write(String data) {
+            if (closed || data.isEmpty()) {
+                return;
+            }
+            try {
+                PrintWriter writer = asyncContext.getResponse().getWriter();
+                writer.write(data);
+                writer.flush();
+                if (writer.checkError()) {
+                    throw new IOException("Client disconnected.");
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.fine("Closing build status stream: " + e.getMessage());
+                close();
+            }
+        }
+
+        synchronized void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pending.release();
+            publisher.unsubscribe(subscription);
+            streams.remove(this);
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                log.finest("Build status stream already completed.");
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            close();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}